@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import dalvik.system.BaseDexClassLoader;
+import dalvik.system.DexPathList;
+import dalvik.system.PathClassLoader;
+import java.io.File;
+import java.lang.reflect.Field;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures class and resource lookups on class paths of several elements,
+ * with and without DexPathList's package index. Each element is a copy of
+ * the benchmark's own jar, so hits are found in the first element and
+ * misses visit every candidate.
+ */
+public class DexPathListBenchmark {
+
+    @Param({"1", "10", "50"}) int elements;
+    @Param({"false", "true"}) boolean usePackageIndex;
+
+    private File dir;
+    private DexPathList pathList;
+    private final List<Throwable> suppressed = new ArrayList<>();
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        System.setProperty("dalvik.system.DexPathList.usePackageIndex",
+                String.valueOf(usePackageIndex));
+        File jar = new File(System.getProperty("java.class.path").split(File.pathSeparator)[0]);
+        dir = Files.createTempDirectory("DexPathListBenchmark").toFile();
+        StringBuilder dexPath = new StringBuilder();
+        for (int i = 0; i < elements; i++) {
+            File copy = new File(dir, i + ".jar");
+            Files.copy(jar.toPath(), copy.toPath());
+            if (i > 0) {
+                dexPath.append(File.pathSeparator);
+            }
+            dexPath.append(copy.getPath());
+        }
+        BaseDexClassLoader loader = new PathClassLoader(dexPath.toString(), null);
+        Field field = BaseDexClassLoader.class.getDeclaredField("pathList");
+        field.setAccessible(true);
+        pathList = (DexPathList) field.get(loader);
+        // Build the indexes outside of the measurements.
+        pathList.findClass("benchmarks.Missing", suppressed);
+        pathList.findResource("benchmarks/missing.txt");
+    }
+
+    @AfterExperiment
+    protected void tearDown() {
+        for (File file : dir.listFiles()) {
+            file.delete();
+        }
+        dir.delete();
+    }
+
+    public void timeFindClassMiss(int reps) {
+        for (int i = 0; i < reps; i++) {
+            pathList.findClass("benchmarks.Missing", suppressed);
+            suppressed.clear();
+        }
+    }
+
+    public void timeFindClassOtherPackageMiss(int reps) {
+        for (int i = 0; i < reps; i++) {
+            pathList.findClass("com.example.Missing", suppressed);
+            suppressed.clear();
+        }
+    }
+
+    public void timeFindResourceMiss(int reps) {
+        for (int i = 0; i < reps; i++) {
+            pathList.findResource("benchmarks/missing.txt");
+        }
+    }
+
+    public void timeFindResourcesMiss(int reps) {
+        for (int i = 0; i < reps; i++) {
+            pathList.findResources("benchmarks/missing.txt");
+        }
+    }
+}
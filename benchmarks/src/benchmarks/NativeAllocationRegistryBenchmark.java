@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.lang.reflect.Field;
+import libcore.util.NativeAllocationRegistry;
+import sun.misc.Unsafe;
+
+/**
+ * Compares the cost of registering and freeing small malloc()ed allocations
+ * with default and batched NativeAllocationRegistrys.
+ */
+public class NativeAllocationRegistryBenchmark {
+
+    private static final long SIZE = 64;
+
+    @Param({"false", "true"}) boolean batched;
+
+    private Unsafe unsafe;
+    private NativeAllocationRegistry registry;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        Field field = Unsafe.class.getDeclaredField("theUnsafe");
+        field.setAccessible(true);
+        unsafe = (Unsafe) field.get(null);
+        ClassLoader classLoader = NativeAllocationRegistryBenchmark.class.getClassLoader();
+        long freeFunction = NativeAllocationRegistry.getMallocFreeFunction();
+        registry = batched
+                ? NativeAllocationRegistry.createBatched(classLoader, freeFunction, SIZE, true)
+                : NativeAllocationRegistry.createMalloced(classLoader, freeFunction, SIZE);
+    }
+
+    // How fast can allocations be registered and then freed by the runtime, once their
+    // referents are unreachable?
+    public void timeRegisterAndCollect(int reps) {
+        for (int i = 0; i < reps; i++) {
+            registry.registerNativeAllocation(new Object(), unsafe.allocateMemory(SIZE));
+        }
+        Runtime.getRuntime().gc();
+        System.runFinalization();
+    }
+
+    // How fast can allocations be registered and then freed explicitly?
+    public void timeRegisterAndFree(int reps) {
+        for (int i = 0; i < reps; i++) {
+            Object referent = new Object();
+            registry.registerNativeAllocation(referent, unsafe.allocateMemory(SIZE)).run();
+        }
+    }
+}
@@ -23,6 +23,8 @@ import java.io.ByteArrayOutputStream;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
 import java.util.Arrays;
 import java.util.List;
 import javax.xml.parsers.DocumentBuilder;
@@ -32,14 +34,19 @@ import javax.xml.parsers.SAXParserFactory;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
 import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
 import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
 import org.xml.sax.helpers.DefaultHandler;
 import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlSerializer;
 
 public class XmlParseBenchmark {
 
     @Param String xmlFile;
     ByteArrayInputStream inputStream;
+    ByteArrayInputStream binaryInputStream;
+    ByteBuffer directBuffer;
 
     static List<String> xmlFileValues = Arrays.asList(
             "/etc/apns-conf.xml",
@@ -51,6 +58,9 @@ public class XmlParseBenchmark {
     private DocumentBuilder documentBuilder;
     private Constructor<? extends XmlPullParser> kxmlConstructor;
     private Constructor<? extends XmlPullParser> expatConstructor;
+    private Constructor<? extends XmlPullParser> binaryConstructor;
+    private Constructor<? extends XMLReader> expatReaderConstructor;
+    private Method expatReaderParseBuffer;
 
     @SuppressWarnings("unchecked")
     @BeforeExperiment
@@ -69,6 +79,48 @@ public class XmlParseBenchmark {
                 .getConstructor();
         expatConstructor = (Constructor) Class.forName("org.apache.harmony.xml.ExpatPullParser")
                 .getConstructor();
+        binaryConstructor = (Constructor) Class.forName("com.android.org.kxml2.io.BinaryXmlParser")
+                .getConstructor();
+        Class<?> expatReaderClass = Class.forName("org.apache.harmony.xml.ExpatReader");
+        expatReaderConstructor = (Constructor) expatReaderClass.getConstructor();
+        expatReaderParseBuffer = expatReaderClass.getMethod("parse",
+                ByteBuffer.class, String.class, String.class, String.class);
+
+        directBuffer = ByteBuffer.allocateDirect(xmlBytes.length);
+        directBuffer.put(xmlBytes).flip();
+
+        byte[] binaryBytes = toBinaryXml(xmlBytes);
+        binaryInputStream = new ByteArrayInputStream(binaryBytes);
+        binaryInputStream.mark(binaryBytes.length);
+    }
+
+    /**
+     * Re-encodes {@code xmlBytes} as binary XML, so the binary parser reads
+     * the same document as the text parsers.
+     */
+    private byte[] toBinaryXml(byte[] xmlBytes) throws Exception {
+        XmlPullParser in = kxmlConstructor.newInstance();
+        in.setInput(new ByteArrayInputStream(xmlBytes), null);
+        XmlSerializer out = (XmlSerializer) Class.forName(
+                "com.android.org.kxml2.io.BinaryXmlSerializer").getConstructor().newInstance();
+        ByteArrayOutputStream bytesOut = new ByteArrayOutputStream();
+        out.setOutput(bytesOut, "UTF-8");
+        out.startDocument(null, null);
+        int type;
+        while ((type = in.next()) != XmlPullParser.END_DOCUMENT) {
+            if (type == XmlPullParser.START_TAG) {
+                out.startTag(null, in.getName());
+                for (int i = 0; i < in.getAttributeCount(); i++) {
+                    out.attribute(null, in.getAttributeName(i), in.getAttributeValue(i));
+                }
+            } else if (type == XmlPullParser.END_TAG) {
+                out.endTag(null, in.getName());
+            } else if (type == XmlPullParser.TEXT) {
+                out.text(in.getText());
+            }
+        }
+        out.endDocument();
+        return bytesOut.toByteArray();
     }
 
     private byte[] getXmlBytes() throws IOException {
@@ -94,6 +146,40 @@ public class XmlParseBenchmark {
         return elementCount;
     }
 
+    /**
+     * Like {@link #timeSax}, but with a new reader for each document, so that
+     * nothing is reused from one parse to the next.
+     */
+    public int timeSaxNewReader(int reps) throws Exception {
+        int elementCount = 0;
+        for (int i = 0; i < reps; i++) {
+            inputStream.reset();
+            ElementCounterSaxHandler elementCounterSaxHandler = new ElementCounterSaxHandler();
+            XMLReader reader = expatReaderConstructor.newInstance();
+            reader.setContentHandler(elementCounterSaxHandler);
+            reader.parse(new InputSource(inputStream));
+            elementCount += elementCounterSaxHandler.elementCount;
+        }
+        return elementCount;
+    }
+
+    /**
+     * Parses the document in place from a direct buffer, as when it is
+     * mapped from a file.
+     */
+    public int timeSaxDirectBuffer(int reps) throws Exception {
+        int elementCount = 0;
+        XMLReader reader = expatReaderConstructor.newInstance();
+        for (int i = 0; i < reps; i++) {
+            directBuffer.rewind();
+            ElementCounterSaxHandler elementCounterSaxHandler = new ElementCounterSaxHandler();
+            reader.setContentHandler(elementCounterSaxHandler);
+            expatReaderParseBuffer.invoke(reader, directBuffer, "UTF-8", null, null);
+            elementCount += elementCounterSaxHandler.elementCount;
+        }
+        return elementCount;
+    }
+
     private static class ElementCounterSaxHandler extends DefaultHandler {
         int elementCount = 0;
         @Override public void startElement(String uri, String localName,
@@ -124,15 +210,36 @@ public class XmlParseBenchmark {
     }
 
     public int timeExpat(int reps) throws Exception {
-        return testXmlPull(expatConstructor, reps);
+        return testXmlPull(expatConstructor, inputStream, reps);
     }
 
     public int timeKxml(int reps) throws Exception {
-        return testXmlPull(kxmlConstructor, reps);
+        return testXmlPull(kxmlConstructor, inputStream, reps);
+    }
+
+    /** Like {@link #timeKxml}, but with one parser for every document. */
+    public int timeKxmlReused(int reps) throws Exception {
+        int elementCount = 0;
+        XmlPullParser xmlPullParser = kxmlConstructor.newInstance();
+        for (int i = 0; i < reps; i++) {
+            inputStream.reset();
+            xmlPullParser.setInput(inputStream, "UTF-8");
+            int type;
+            while ((type = xmlPullParser.next()) != XmlPullParser.END_DOCUMENT) {
+                if (type == XmlPullParser.START_TAG) {
+                    elementCount++;
+                }
+            }
+        }
+        return elementCount;
+    }
+
+    public int timeBinary(int reps) throws Exception {
+        return testXmlPull(binaryConstructor, binaryInputStream, reps);
     }
 
-    private int testXmlPull(Constructor<? extends XmlPullParser> constructor, int reps)
-            throws Exception {
+    private int testXmlPull(Constructor<? extends XmlPullParser> constructor,
+            ByteArrayInputStream inputStream, int reps) throws Exception {
         int elementCount = 0;
         for (int i = 0; i < reps; i++) {
             inputStream.reset();
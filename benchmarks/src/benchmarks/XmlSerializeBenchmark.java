@@ -18,6 +18,7 @@ package benchmarks;
 
 import com.google.caliper.BeforeExperiment;
 import com.google.caliper.Param;
+import java.io.ByteArrayOutputStream;
 import java.io.CharArrayWriter;
 import java.lang.reflect.Constructor;
 import java.util.Random;
@@ -36,8 +37,21 @@ public class XmlSerializeBenchmark {
     double[] dataset;
     private Constructor<? extends XmlSerializer> kxmlConstructor;
     private Constructor<? extends XmlSerializer> fastConstructor;
+    private Constructor<? extends XmlSerializer> binaryConstructor;
 
-    private void serializeRandomXml(Constructor<? extends XmlSerializer> ctor, long seed)
+    private void serializeRandomXml(Constructor<? extends XmlSerializer> ctor, String namespace,
+            long seed) throws Exception {
+        XmlSerializer serializer = (XmlSerializer) ctor.newInstance();
+
+        if (ctor == binaryConstructor) {
+            serializer.setOutput(new ByteArrayOutputStream(), "UTF-8");
+        } else {
+            serializer.setOutput(new CharArrayWriter());
+        }
+        writeRandomXml(serializer, namespace, seed);
+    }
+
+    private void writeRandomXml(XmlSerializer serializer, String namespace, long seed)
             throws Exception {
         double contChance = dataset[0];
         double levelUpChance = dataset[1];
@@ -46,29 +60,25 @@ public class XmlSerializeBenchmark {
         double writeChance1 = dataset[4];
         double writeChance2 = dataset[5];
 
-        XmlSerializer serializer = (XmlSerializer) ctor.newInstance();
-
-        CharArrayWriter w = new CharArrayWriter();
-        serializer.setOutput(w);
         int level = 0;
         Random r = new Random(seed);
         char[] toWrite = {'a','b','c','d','s','z'};
         serializer.startDocument("UTF-8", true);
         while(r.nextDouble() < contChance) {
             while(level > 0 && r.nextDouble() < levelUpChance) {
-                serializer.endTag("aaaaaa", "bbbbbb");
+                serializer.endTag(namespace, "bbbbbb");
                 level--;
             }
             while(r.nextDouble() < levelDownChance) {
-                serializer.startTag("aaaaaa", "bbbbbb");
+                serializer.startTag(namespace, "bbbbbb");
                 level++;
             }
-            serializer.startTag("aaaaaa", "bbbbbb");
+            serializer.startTag(namespace, "bbbbbb");
             level++;
             while(r.nextDouble() < attributeChance) {
-                serializer.attribute("aaaaaa", "cccccc", "dddddd");
+                serializer.attribute(namespace, "cccccc", "dddddd");
             }
-            serializer.endTag("aaaaaa", "bbbbbb");
+            serializer.endTag(namespace, "bbbbbb");
             level--;
             while(r.nextDouble() < writeChance1)
                 serializer.text(toWrite, 0, 5);
@@ -85,6 +95,8 @@ public class XmlSerializeBenchmark {
                 .getConstructor();
         fastConstructor = (Constructor) Class.forName("com.android.internal.util.FastXmlSerializer")
                 .getConstructor();
+        binaryConstructor = (Constructor) Class.forName(
+                "com.android.org.kxml2.io.BinaryXmlSerializer").getConstructor();
         String[] splitted = datasetAsString.split(" ");
         dataset = new double[splitted.length];
         for (int i = 0; i < splitted.length; i++) {
@@ -92,18 +104,45 @@ public class XmlSerializeBenchmark {
         }
     }
 
-    private void internalTimeSerializer(Constructor<? extends XmlSerializer> ctor, int reps)
-            throws Exception {
+    private void internalTimeSerializer(Constructor<? extends XmlSerializer> ctor,
+            String namespace, int reps) throws Exception {
         for (int i = 0; i < reps; i++) {
-            serializeRandomXml(ctor, seed);
+            serializeRandomXml(ctor, namespace, seed);
         }
     }
 
     public void timeKxml(int reps) throws Exception {
-        internalTimeSerializer(kxmlConstructor, reps);
+        internalTimeSerializer(kxmlConstructor, "aaaaaa", reps);
+    }
+
+    /** Writes UTF-8 bytes with a new serializer for each document. */
+    public void timeKxmlStream(int reps) throws Exception {
+        for (int i = 0; i < reps; i++) {
+            XmlSerializer serializer = kxmlConstructor.newInstance();
+            serializer.setOutput(new ByteArrayOutputStream(), "UTF-8");
+            writeRandomXml(serializer, "aaaaaa", seed);
+        }
+    }
+
+    /** Writes UTF-8 bytes, reusing one serializer for every document. */
+    public void timeKxmlStreamReused(int reps) throws Exception {
+        XmlSerializer serializer = kxmlConstructor.newInstance();
+        for (int i = 0; i < reps; i++) {
+            serializer.setOutput(new ByteArrayOutputStream(), "UTF-8");
+            writeRandomXml(serializer, "aaaaaa", seed);
+        }
     }
 
     public void timeFast(int reps) throws Exception {
-        internalTimeSerializer(fastConstructor, reps);
+        internalTimeSerializer(fastConstructor, "aaaaaa", reps);
+    }
+
+    // Binary XML has no namespaces, so compare it against kxml without them.
+    public void timeKxmlNoNamespace(int reps) throws Exception {
+        internalTimeSerializer(kxmlConstructor, null, reps);
+    }
+
+    public void timeBinary(int reps) throws Exception {
+        internalTimeSerializer(binaryConstructor, null, reps);
     }
 }
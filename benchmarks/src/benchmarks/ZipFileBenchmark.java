@@ -32,10 +32,12 @@ public class ZipFileBenchmark {
 
     private File file;
     @Param({"128", "1024", "8192"}) int numEntries;
+    @Param({"false", "true"}) boolean useJavaIndex;
 
     @BeforeExperiment
     protected void setUp() throws Exception {
         System.setProperty("java.io.tmpdir", "/data/local/tmp");
+        System.setProperty("java.util.zip.ZipFile.useJavaIndex", String.valueOf(useJavaIndex));
         file = File.createTempFile(getClass().getName(), ".zip");
         file.deleteOnExit();
         writeEntries(new ZipOutputStream(new FileOutputStream(file)), numEntries, 0);
@@ -52,6 +54,40 @@ public class ZipFileBenchmark {
         }
     }
 
+    public int timeZipFileEntries(int reps) throws Exception {
+        int count = 0;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            for (int i = 0; i < reps; ++i) {
+                for (Enumeration<? extends ZipEntry> e = zipFile.entries();
+                        e.hasMoreElements(); ) {
+                    e.nextElement();
+                    count++;
+                }
+            }
+        }
+        return count;
+    }
+
+    public int timeZipFileGetEntry(int reps) throws Exception {
+        String[] names = new String[numEntries];
+        for (int i = 0; i < numEntries; ++i) {
+            names[i] = Integer.toHexString(i);
+        }
+        int found = 0;
+        try (ZipFile zipFile = new ZipFile(file)) {
+            for (int i = 0; i < reps; ++i) {
+                if (zipFile.getEntry(names[i % numEntries]) != null) {
+                    found++;
+                }
+                // A miss exercises the retry with a trailing slash.
+                if (zipFile.getEntry("missing") != null) {
+                    found++;
+                }
+            }
+        }
+        return found;
+    }
+
     /**
      * Compresses the given number of files, each of the given size, into a .zip archive.
      */
@@ -32,10 +32,12 @@ import java.util.zip.ZipOutputStream;
 public class ZipFileReadBenchmark {
     private File file;
     @Param({"1024", "16384", "65536"}) int readBufferSize;
+    @Param({"false", "true"}) boolean useJavaIndex;
 
     @BeforeExperiment
     protected void setUp() throws Exception {
         System.setProperty("java.io.tmpdir", "/data/local/tmp");
+        System.setProperty("java.util.zip.ZipFile.useJavaIndex", String.valueOf(useJavaIndex));
         file = File.createTempFile(getClass().getName(), ".zip");
         writeEntries(new ZipOutputStream(new FileOutputStream(file)), 2, 1024*1024);
         ZipFile zipFile = new ZipFile(file);
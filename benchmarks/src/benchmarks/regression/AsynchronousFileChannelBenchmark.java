@@ -0,0 +1,154 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.CompletionHandler;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures random 4KiB reads through AsynchronousFileChannel with a fixed number of reads
+ * outstanding, using io_uring or the thread pool. The time per rep is the inverse of the
+ * IOPS. timeRandomReadLatency also records when each read completes, and the latency
+ * percentiles of the experiment are printed when it ends.
+ */
+public class AsynchronousFileChannelBenchmark {
+    private static final int FILE_SIZE = 64 * 1024 * 1024;
+    private static final int BLOCK_SIZE = 4096;
+
+    @Param({"true", "false"}) private boolean useIoUring;
+    @Param({"1", "4", "16", "64", "256"}) private int queueDepth;
+    @Param({"true", "false"}) private boolean directBuffers;
+
+    private File file;
+    private AsynchronousFileChannel channel;
+    private ByteBuffer[] buffers;
+    private Future<Integer>[] pending;
+    private long[] startTimes;
+    private BlockingQueue<Integer> freeSlots;
+    private final long[] latencies = new long[1 << 16];
+    private final AtomicInteger latencyCount = new AtomicInteger();
+    private final Random random = new Random(0);
+
+    @SuppressWarnings("unchecked")
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        file = File.createTempFile("AsynchronousFileChannelBenchmark", null);
+        byte[] chunk = new byte[1024 * 1024];
+        random.nextBytes(chunk);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (int i = 0; i < FILE_SIZE / chunk.length; i++) {
+                out.write(chunk);
+            }
+        }
+        // The implementation is chosen when the channel is opened.
+        System.setProperty("sun.nio.ch.useIoUring", Boolean.toString(useIoUring));
+        channel = AsynchronousFileChannel.open(file.toPath(), StandardOpenOption.READ);
+        System.clearProperty("sun.nio.ch.useIoUring");
+
+        buffers = new ByteBuffer[queueDepth];
+        for (int i = 0; i < queueDepth; i++) {
+            buffers[i] = directBuffers
+                    ? ByteBuffer.allocateDirect(BLOCK_SIZE) : ByteBuffer.allocate(BLOCK_SIZE);
+        }
+        pending = new Future[queueDepth];
+        startTimes = new long[queueDepth];
+        freeSlots = new ArrayBlockingQueue<>(queueDepth);
+        for (int i = 0; i < queueDepth; i++) {
+            freeSlots.add(i);
+        }
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        channel.close();
+        file.delete();
+        int count = Math.min(latencyCount.get(), latencies.length);
+        if (count > 0) {
+            long[] sorted = Arrays.copyOf(latencies, count);
+            Arrays.sort(sorted);
+            System.out.println("useIoUring=" + useIoUring + " queueDepth=" + queueDepth
+                    + " directBuffers=" + directBuffers
+                    + " p50=" + sorted[count / 2] / 1000 + "us"
+                    + " p99=" + sorted[count * 99 / 100] / 1000 + "us");
+        }
+    }
+
+    public void timeRandomRead(int reps) throws Exception {
+        for (int rep = 0; rep < reps; rep++) {
+            // Wait for the oldest read before reusing its buffer.
+            int slot = rep % queueDepth;
+            if (pending[slot] != null) {
+                pending[slot].get();
+            }
+            ByteBuffer buffer = buffers[slot];
+            buffer.clear();
+            long position = (long) random.nextInt(FILE_SIZE / BLOCK_SIZE) * BLOCK_SIZE;
+            pending[slot] = channel.read(buffer, position);
+        }
+        for (int slot = 0; slot < queueDepth; slot++) {
+            if (pending[slot] != null) {
+                pending[slot].get();
+                pending[slot] = null;
+            }
+        }
+    }
+
+    public void timeRandomReadLatency(int reps) throws Exception {
+        for (int rep = 0; rep < reps; rep++) {
+            int slot = freeSlots.take();
+            ByteBuffer buffer = buffers[slot];
+            buffer.clear();
+            long position = (long) random.nextInt(FILE_SIZE / BLOCK_SIZE) * BLOCK_SIZE;
+            startTimes[slot] = System.nanoTime();
+            channel.read(buffer, position, slot, latencyHandler);
+        }
+        // Wait for the outstanding reads by taking back every slot.
+        Integer[] slots = new Integer[queueDepth];
+        for (int i = 0; i < queueDepth; i++) {
+            slots[i] = freeSlots.take();
+        }
+        freeSlots.addAll(Arrays.asList(slots));
+    }
+
+    // Runs when the read completes, so the latency doesn't include the time the slot waits to
+    // be reused. Keeps the most recent latencies.
+    private final CompletionHandler<Integer, Integer> latencyHandler =
+            new CompletionHandler<Integer, Integer>() {
+        @Override public void completed(Integer result, Integer slot) {
+            long nanos = System.nanoTime() - startTimes[slot];
+            latencies[latencyCount.getAndIncrement() & (latencies.length - 1)] = nanos;
+            freeSlots.add(slot);
+        }
+
+        @Override public void failed(Throwable exc, Integer slot) {
+            freeSlots.add(slot);
+        }
+    };
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+/**
+ * Measures sending and receiving datagrams over loopback. BATCH moves each burst of datagrams
+ * with single send and receive calls, which use sendmmsg and recvmmsg; SINGLE makes one call,
+ * and one system call, per datagram. Each rep is one datagram, so the time per rep is the
+ * inverse of the packet rate.
+ */
+public class DatagramBatchBenchmark {
+    enum Method { SINGLE, BATCH }
+
+    @Param({"64", "1024"}) private int payloadSize;
+    @Param({"8", "32"}) private int burstSize;
+    @Param private Method method;
+    @Param({"true", "false"}) private boolean direct;
+
+    private DatagramChannel sender;
+    private DatagramChannel receiver;
+    private ByteBuffer[] srcs;
+    private ByteBuffer[] dsts;
+    private SocketAddress[] targets;
+    private SocketAddress[] senders;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        InetAddress loopback = InetAddress.getLoopbackAddress();
+        receiver = DatagramChannel.open();
+        receiver.setOption(StandardSocketOptions.SO_RCVBUF, 4 * 1024 * 1024);
+        receiver.bind(new InetSocketAddress(loopback, 0));
+        sender = DatagramChannel.open();
+        sender.bind(new InetSocketAddress(loopback, 0));
+
+        srcs = new ByteBuffer[burstSize];
+        dsts = new ByteBuffer[burstSize];
+        for (int i = 0; i < burstSize; i++) {
+            srcs[i] = direct ? ByteBuffer.allocateDirect(payloadSize)
+                    : ByteBuffer.allocate(payloadSize);
+            dsts[i] = direct ? ByteBuffer.allocateDirect(payloadSize)
+                    : ByteBuffer.allocate(payloadSize);
+        }
+        targets = new SocketAddress[burstSize];
+        Arrays.fill(targets, receiver.getLocalAddress());
+        senders = new SocketAddress[burstSize];
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        sender.close();
+        receiver.close();
+    }
+
+    public int time(int reps) throws Exception {
+        int received = 0;
+        for (int i = 0; i < reps; i += burstSize) {
+            for (ByteBuffer src : srcs) {
+                src.clear();
+            }
+            for (ByteBuffer dst : dsts) {
+                dst.clear();
+            }
+            switch (method) {
+                case SINGLE:
+                    for (int j = 0; j < burstSize; j++) {
+                        sender.send(srcs[j], targets[j]);
+                    }
+                    for (int j = 0; j < burstSize; j++) {
+                        senders[j] = receiver.receive(dsts[j]);
+                    }
+                    received += burstSize;
+                    break;
+                case BATCH:
+                    for (int sent = 0; sent < burstSize; ) {
+                        sent += sender.send(srcs, sent, burstSize - sent, targets);
+                    }
+                    for (int n = 0; n < burstSize; ) {
+                        n += receiver.receive(dsts, n, burstSize - n, senders);
+                    }
+                    received += burstSize;
+                    break;
+            }
+        }
+        return received;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.stream.Stream;
+
+/**
+ * Measures enumerating a tree of {@code dirCount} directories holding {@code filesPerDir} files
+ * each, in the ways a cache cleaner might.
+ */
+public class DirectoryWalkBenchmark {
+    @Param({"1", "16"}) private int dirCount;
+    @Param({"100", "10000"}) private int filesPerDir;
+
+    private Path root;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        root = Files.createTempDirectory("DirectoryWalkBenchmark");
+        for (int i = 0; i < dirCount; i++) {
+            Path dir = Files.createDirectory(root.resolve("dir" + i));
+            for (int j = 0; j < filesPerDir; j++) {
+                Files.createFile(dir.resolve("file" + j));
+            }
+        }
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                    throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path dir, IOException e)
+                    throws IOException {
+                Files.delete(dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    public int timeNewDirectoryStream(int reps) throws IOException {
+        int count = 0;
+        for (int i = 0; i < reps; i++) {
+            try (DirectoryStream<Path> dirs = Files.newDirectoryStream(root)) {
+                for (Path dir : dirs) {
+                    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir)) {
+                        for (Path file : files) {
+                            count++;
+                        }
+                    }
+                }
+            }
+        }
+        return count;
+    }
+
+    // Takes the file types from the directory entries, so it stats only the root.
+    public long timeWalk(int reps) throws IOException {
+        long count = 0;
+        for (int i = 0; i < reps; i++) {
+            try (Stream<Path> paths = Files.walk(root)) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+
+    // Visits the same files as timeWalk, but the matcher is given their attributes, so every
+    // file is stat'ed. The difference from timeWalk is the cost of those stat calls.
+    public long timeFindAll(int reps) throws IOException {
+        long count = 0;
+        for (int i = 0; i < reps; i++) {
+            try (Stream<Path> paths = Files.find(root, Integer.MAX_VALUE, (path, attrs) -> true)) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+
+    public long timeFindRegularFiles(int reps) throws IOException {
+        long count = 0;
+        for (int i = 0; i < reps; i++) {
+            try (Stream<Path> paths = Files.find(root, Integer.MAX_VALUE,
+                    (path, attrs) -> attrs.isRegularFile())) {
+                count += paths.count();
+            }
+        }
+        return count;
+    }
+
+    public int timeWalkFileTree(int reps) throws IOException {
+        int[] count = new int[1];
+        for (int i = 0; i < reps; i++) {
+            Files.walkFileTree(root, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    count[0]++;
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        return count[0];
+    }
+
+    public int timeFileListFiles(int reps) {
+        int count = 0;
+        for (int i = 0; i < reps; i++) {
+            for (File dir : root.toFile().listFiles()) {
+                for (File file : dir.listFiles()) {
+                    if (file.isFile()) {
+                        count++;
+                    }
+                }
+            }
+        }
+        return count;
+    }
+}
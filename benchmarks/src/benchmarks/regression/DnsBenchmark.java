@@ -18,29 +18,53 @@ package benchmarks.regression;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
 
 public class DnsBenchmark {
+    private static final String[] HOSTS = new String[] {
+        "www.amazon.com",
+        "z-ecx.images-amazon.com",
+        "g-ecx.images-amazon.com",
+        "ecx.images-amazon.com",
+        "ad.doubleclick.com",
+        "bpx.a9.com",
+        "d3dtik4dz1nej0.cloudfront.net",
+        "uac.advertising.com",
+        "servedby.advertising.com",
+        "view.atdmt.com",
+        "rmd.atdmt.com",
+        "spe.atdmt.com",
+        "www.google.com",
+        "www.cnn.com",
+        "bad.host.mtv.corp.google.com",
+    };
+
+    private static final int THREADS = 8;
+
     public void timeDns(int reps) throws Exception {
-        String[] hosts = new String[] {
-            "www.amazon.com",
-            "z-ecx.images-amazon.com",
-            "g-ecx.images-amazon.com",
-            "ecx.images-amazon.com",
-            "ad.doubleclick.com",
-            "bpx.a9.com",
-            "d3dtik4dz1nej0.cloudfront.net",
-            "uac.advertising.com",
-            "servedby.advertising.com",
-            "view.atdmt.com",
-            "rmd.atdmt.com",
-            "spe.atdmt.com",
-            "www.google.com",
-            "www.cnn.com",
-            "bad.host.mtv.corp.google.com",
-        };
-        for (int i = 0; i < reps; ++i) {
+        lookUp(0, reps);
+    }
+
+    // The same lookups, spread over several threads that contend for the cache.
+    public void timeDnsMultithreaded(int reps) throws Exception {
+        CountDownLatch done = new CountDownLatch(THREADS);
+        Thread[] threads = new Thread[THREADS];
+        for (int t = 0; t < THREADS; t++) {
+            final int start = reps * t / THREADS;
+            final int end = reps * (t + 1) / THREADS;
+            threads[t] = new Thread(() -> {
+                lookUp(start, end);
+                done.countDown();
+            });
+            threads[t].start();
+        }
+        done.await();
+    }
+
+    private static void lookUp(int start, int end) {
+        for (int i = start; i < end; ++i) {
             try {
-                InetAddress.getByName(hosts[i % hosts.length]);
+                InetAddress.getByName(HOSTS[i % HOSTS.length]);
             } catch (UnknownHostException ex) {
             }
         }
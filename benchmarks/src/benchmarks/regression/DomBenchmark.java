@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import org.w3c.dom.Document;
+
+/**
+ * Compares building and searching large documents with the default DOM, with a compact DOM that
+ * shares names between nodes, and with a DOM that indexes its elements. Run with the allocation
+ * instrument to compare the memory each mode uses to build a document.
+ */
+public class DomBenchmark {
+    enum Mode { DEFAULT, COMPACT, INDEXED }
+
+    @Param({"1000", "100000"}) private int entryCount;
+    @Param private Mode mode;
+
+    private DocumentBuilder builder;
+    private byte[] xml;
+    private Document document;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://android.com/xml/features/compact-dom", mode == Mode.COMPACT);
+        factory.setFeature("http://android.com/xml/features/indexed-dom", mode == Mode.INDEXED);
+        builder = factory.newDocumentBuilder();
+
+        // Shaped like a configuration file: many small, similar elements.
+        StringBuilder sb = new StringBuilder("<config>\n");
+        for (int i = 0; i < entryCount; i++) {
+            sb.append("  <entry id=\"e").append(i).append("\" type=\"int\">")
+                    .append("<value>").append(i).append("</value></entry>\n");
+        }
+        sb.append("</config>\n");
+        xml = sb.toString().getBytes(StandardCharsets.UTF_8);
+        document = parse();
+    }
+
+    private Document parse() throws Exception {
+        return builder.parse(new ByteArrayInputStream(xml));
+    }
+
+    public void timeParse(int reps) throws Exception {
+        for (int i = 0; i < reps; ++i) {
+            parse();
+        }
+    }
+
+    public void timeGetElementById(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            document.getElementById("e" + (i % entryCount));
+        }
+    }
+
+    public void timeGetElementsByTagName(int reps) {
+        for (int i = 0; i < reps; ++i) {
+            document.getElementsByTagName("value").getLength();
+        }
+    }
+}
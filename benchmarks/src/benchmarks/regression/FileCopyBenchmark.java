@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+
+/**
+ * Measures copying one file to another. FILES_COPY, TRANSFER_TO and TRANSFER_FROM copy within
+ * the kernel where they can; USER_SPACE and MAPPED are the paths that Files.copy and
+ * FileChannel.transferFrom used before, and give the throughput to compare against.
+ */
+public class FileCopyBenchmark {
+    enum Method { FILES_COPY, TRANSFER_TO, TRANSFER_FROM, USER_SPACE, MAPPED }
+
+    @Param({"65536", "1048576", "16777216", "134217728"}) private int size;
+    @Param private Method method;
+
+    private File src;
+    private File dst;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        src = File.createTempFile("FileCopyBenchmark", null);
+        dst = File.createTempFile("FileCopyBenchmark", null);
+        byte[] chunk = new byte[Math.min(size, 1024 * 1024)];
+        new Random(0).nextBytes(chunk);
+        try (FileOutputStream out = new FileOutputStream(src)) {
+            for (int i = 0; i < size / chunk.length; i++) {
+                out.write(chunk);
+            }
+        }
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        src.delete();
+        dst.delete();
+    }
+
+    public long time(int reps) throws Exception {
+        long copied = 0;
+        for (int i = 0; i < reps; i++) {
+            switch (method) {
+                case FILES_COPY:
+                    Files.copy(src.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING);
+                    copied += size;
+                    break;
+                case TRANSFER_TO:
+                    try (FileChannel in = new FileInputStream(src).getChannel();
+                         FileChannel out = new FileOutputStream(dst).getChannel()) {
+                        for (long pos = 0; pos < size; ) {
+                            pos += in.transferTo(pos, size - pos, out);
+                        }
+                        copied += out.size();
+                    }
+                    break;
+                case TRANSFER_FROM:
+                    try (FileChannel in = new FileInputStream(src).getChannel();
+                         FileChannel out = new FileOutputStream(dst).getChannel()) {
+                        for (long pos = 0; pos < size; ) {
+                            pos += out.transferFrom(in, pos, size - pos);
+                        }
+                        copied += out.size();
+                    }
+                    break;
+                case USER_SPACE:
+                    try (FileInputStream in = new FileInputStream(src);
+                         FileOutputStream out = new FileOutputStream(dst)) {
+                        byte[] buffer = new byte[8192];
+                        int n;
+                        while ((n = in.read(buffer)) > 0) {
+                            out.write(buffer, 0, n);
+                            copied += n;
+                        }
+                    }
+                    break;
+                case MAPPED:
+                    try (FileChannel in = new RandomAccessFile(src, "r").getChannel();
+                         FileChannel out = new FileOutputStream(dst).getChannel()) {
+                        for (long pos = 0; pos < size; ) {
+                            long chunk = Math.min(size - pos, 8 * 1024 * 1024);
+                            MappedByteBuffer mapped = in.map(FileChannel.MapMode.READ_ONLY,
+                                    pos, chunk);
+                            pos += out.write(mapped, pos);
+                        }
+                        copied += out.size();
+                    }
+                    break;
+            }
+        }
+        return copied;
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Measures socket I/O with heap buffers from many short-lived threads, each of which writes a
+ * message to its own connected socket and reads it back from the peer. Every heap-buffer read and
+ * write goes through a temporary direct buffer, which a new thread used to have to allocate.
+ */
+public class HeapBufferSocketIoBenchmark {
+    @Param({"1", "8"}) private int threadCount;
+    @Param({"256", "16384"}) private int messageSize;
+
+    private SocketChannel[] clients;
+    private SocketChannel[] servers;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        clients = new SocketChannel[threadCount];
+        servers = new SocketChannel[threadCount];
+        try (ServerSocketChannel listener = ServerSocketChannel.open()) {
+            listener.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            for (int i = 0; i < threadCount; i++) {
+                clients[i] = SocketChannel.open(listener.getLocalAddress());
+                servers[i] = listener.accept();
+            }
+        }
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        for (int i = 0; i < threadCount; i++) {
+            clients[i].close();
+            servers[i].close();
+        }
+    }
+
+    public void time(int reps) throws Exception {
+        Thread[] threads = new Thread[threadCount];
+        for (int i = 0; i < reps; i++) {
+            for (int t = 0; t < threadCount; t++) {
+                SocketChannel client = clients[t];
+                SocketChannel server = servers[t];
+                threads[t] = new Thread(() -> roundTrip(client, server));
+                threads[t].start();
+            }
+            for (Thread thread : threads) {
+                thread.join();
+            }
+        }
+    }
+
+    private void roundTrip(SocketChannel client, SocketChannel server) {
+        try {
+            ByteBuffer src = ByteBuffer.allocate(messageSize);
+            ByteBuffer dst = ByteBuffer.allocate(messageSize);
+            while (src.hasRemaining()) {
+                client.write(src);
+                server.read(dst);
+            }
+            while (dst.hasRemaining()) {
+                server.read(dst);
+            }
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
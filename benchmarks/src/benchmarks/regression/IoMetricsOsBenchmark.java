@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import android.system.OsConstants;
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.FileDescriptor;
+import libcore.io.IoMetricsOs;
+import libcore.io.IoUtils;
+import libcore.io.Libcore;
+import libcore.io.Os;
+
+/**
+ * Measures the overhead of recording syscall metrics with {@link IoMetricsOs}, on syscalls that
+ * are cheap enough for the overhead to show: small preads served from the page cache, and fstat.
+ */
+public class IoMetricsOsBenchmark {
+    enum Metrics {
+        NONE(0), SAMPLED(64), EVERY_CALL(1);
+
+        final int samplingInterval;
+
+        Metrics(int samplingInterval) {
+            this.samplingInterval = samplingInterval;
+        }
+    }
+
+    @Param private Metrics metrics;
+
+    private File file;
+    private FileDescriptor fd;
+    private Os os;
+    private final byte[] buffer = new byte[64];
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        file = File.createTempFile("IoMetricsOsBenchmark", null);
+        fd = Libcore.os.open(file.getPath(), OsConstants.O_RDWR, 0);
+        Libcore.os.write(fd, new byte[4096], 0, 4096);
+        os = metrics == Metrics.NONE
+                ? Libcore.os : new IoMetricsOs(Libcore.os, metrics.samplingInterval);
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        IoUtils.closeQuietly(fd);
+        file.delete();
+    }
+
+    public int timePread(int reps) throws Exception {
+        int total = 0;
+        for (int i = 0; i < reps; i++) {
+            total += os.pread(fd, buffer, 0, buffer.length, (i & 63) * 64);
+        }
+        return total;
+    }
+
+    public long timeFstat(int reps) throws Exception {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            total += os.fstat(fd).st_size;
+        }
+        return total;
+    }
+}
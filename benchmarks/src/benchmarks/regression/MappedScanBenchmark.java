@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import android.system.OsConstants;
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Measures a scan over a memory-mapped file whose pages are not in the page cache. Before each
+ * scan the file's pages are dropped from the mapping and from the page cache. NONE then faults
+ * the pages in one at a time, SEQUENTIAL tells the kernel to read ahead aggressively first,
+ * LOAD calls {@link MappedByteBuffer#load()}, and FADVISE asks for the whole file to be read in
+ * through the channel before the scan.
+ */
+public class MappedScanBenchmark {
+    enum Hint { NONE, SEQUENTIAL, LOAD, FADVISE }
+
+    private static final int PAGE_SIZE = 4096;
+
+    @Param({"1048576", "16777216"}) private int size;
+    @Param private Hint hint;
+
+    private File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private MappedByteBuffer mapped;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        file = File.createTempFile("MappedScanBenchmark", null);
+        raf = new RandomAccessFile(file, "rw");
+        byte[] chunk = new byte[PAGE_SIZE];
+        for (int i = 0; i < size; i += chunk.length) {
+            chunk[0] = (byte) i;
+            raf.write(chunk);
+        }
+        channel = raf.getChannel();
+        // Only clean pages can be dropped from the page cache.
+        channel.force(true);
+        mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        raf.close();
+        file.delete();
+    }
+
+    public long time(int reps) throws Exception {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            mapped.advise(OsConstants.MADV_DONTNEED);
+            channel.advise(0, 0, OsConstants.POSIX_FADV_DONTNEED);
+            switch (hint) {
+                case NONE:
+                    mapped.advise(OsConstants.MADV_NORMAL);
+                    break;
+                case SEQUENTIAL:
+                    mapped.advise(OsConstants.MADV_SEQUENTIAL);
+                    break;
+                case LOAD:
+                    mapped.load();
+                    break;
+                case FADVISE:
+                    channel.advise(0, 0, OsConstants.POSIX_FADV_WILLNEED);
+                    break;
+            }
+            for (int offset = 0; offset < size; offset += PAGE_SIZE) {
+                total += mapped.get(offset);
+            }
+        }
+        return total;
+    }
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import libcore.io.MemoryArena;
+import libcore.io.MemorySegment;
+
+/**
+ * Compares scalar and bulk access to off-heap memory through a {@link MemorySegment} with the
+ * same access through a direct {@link ByteBuffer} in native byte order, and the cost of
+ * allocating small blocks from a {@link MemoryArena} with allocating small direct buffers.
+ */
+public class MemoryArenaBenchmark {
+    enum Access { SEGMENT, DIRECT_BYTE_BUFFER }
+
+    @Param({"4096", "1048576"}) private int byteCount;
+    @Param private Access access;
+
+    private MemoryArena arena;
+    private MemorySegment segment;
+    private ByteBuffer buffer;
+    private LongBuffer longBuffer;
+    private long[] longs;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        arena = new MemoryArena();
+        segment = arena.allocate(byteCount);
+        buffer = ByteBuffer.allocateDirect(byteCount).order(ByteOrder.nativeOrder());
+        longBuffer = buffer.asLongBuffer();
+        longs = new long[byteCount / Long.BYTES];
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        arena.close();
+    }
+
+    public long timeScalarReadWrite(int reps) {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            switch (access) {
+                case SEGMENT:
+                    for (int offset = 0; offset < byteCount; offset += Long.BYTES) {
+                        segment.putLong(offset, segment.getLong(offset) + i);
+                    }
+                    total += segment.getLong(0);
+                    break;
+                case DIRECT_BYTE_BUFFER:
+                    for (int offset = 0; offset < byteCount; offset += Long.BYTES) {
+                        buffer.putLong(offset, buffer.getLong(offset) + i);
+                    }
+                    total += buffer.getLong(0);
+                    break;
+            }
+        }
+        return total;
+    }
+
+    public long timeBulkCopy(int reps) {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            switch (access) {
+                case SEGMENT:
+                    segment.put(0, longs, 0, longs.length);
+                    segment.get(0, longs, 0, longs.length);
+                    break;
+                case DIRECT_BYTE_BUFFER:
+                    longBuffer.clear();
+                    longBuffer.put(longs);
+                    longBuffer.flip();
+                    longBuffer.get(longs);
+                    break;
+            }
+            total += longs[i % longs.length];
+        }
+        return total;
+    }
+
+    public long timeAllocateSmall(int reps) {
+        long total = 0;
+        switch (access) {
+            case SEGMENT:
+                try (MemoryArena small = new MemoryArena()) {
+                    for (int i = 0; i < reps; i++) {
+                        total += small.allocate(64).byteSize();
+                    }
+                }
+                break;
+            case DIRECT_BYTE_BUFFER:
+                for (int i = 0; i < reps; i++) {
+                    total += ByteBuffer.allocateDirect(64).capacity();
+                }
+                break;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import libcore.io.MemoryMappedFile;
+import libcore.io.MemoryMappedFileView;
+
+/**
+ * Compares reads from a table of fixed-width records through a {@link MemoryMappedFileView}
+ * with the same reads through a {@link MappedByteBuffer}. Each record is a sorted int key
+ * followed by a long value.
+ */
+public class MemoryMappedFileViewBenchmark {
+    enum Access { VIEW, MAPPED_BYTE_BUFFER }
+
+    private static final int RECORD_SIZE = 12;
+
+    @Param({"1024", "1048576"}) private int recordCount;
+    @Param private Access access;
+
+    private File file;
+    private MemoryMappedFile memoryMappedFile;
+    private MemoryMappedFileView view;
+    private MappedByteBuffer buffer;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        file = File.createTempFile("MemoryMappedFileViewBenchmark", null);
+        ByteBuffer records = ByteBuffer.allocate(recordCount * RECORD_SIZE);
+        for (int i = 0; i < recordCount; i++) {
+            records.putInt(2 * i).putLong(i);
+        }
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.write(records.array());
+            buffer = raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, records.capacity());
+        }
+        memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath());
+        view = memoryMappedFile.bigEndianView();
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        memoryMappedFile.close();
+        file.delete();
+    }
+
+    public long timeRandomGetLong(int reps) {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            // Visit the records in a fixed, scattered order.
+            int offset = (int) ((i * 7919L) % recordCount) * RECORD_SIZE + Integer.BYTES;
+            switch (access) {
+                case VIEW:
+                    total += view.getLong(offset);
+                    break;
+                case MAPPED_BYTE_BUFFER:
+                    total += buffer.getLong(offset);
+                    break;
+            }
+        }
+        return total;
+    }
+
+    public long timeBinarySearch(int reps) {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            int key = (int) ((i * 7919L) % (2 * recordCount));
+            switch (access) {
+                case VIEW:
+                    total += view.binarySearchInt(0, RECORD_SIZE, recordCount, 0, key);
+                    break;
+                case MAPPED_BYTE_BUFFER:
+                    total += binarySearch(buffer, key);
+                    break;
+            }
+        }
+        return total;
+    }
+
+    public long timeScanKeys(int reps) {
+        long total = 0;
+        int[] keys = new int[recordCount];
+        for (int i = 0; i < reps; i++) {
+            switch (access) {
+                case VIEW:
+                    view.getIntColumn(0, RECORD_SIZE, 0, keys, 0, recordCount);
+                    break;
+                case MAPPED_BYTE_BUFFER:
+                    for (int j = 0; j < recordCount; j++) {
+                        keys[j] = buffer.getInt(j * RECORD_SIZE);
+                    }
+                    break;
+            }
+            total += keys[recordCount - 1];
+        }
+        return total;
+    }
+
+    private int binarySearch(ByteBuffer records, int key) {
+        int low = 0;
+        int high = recordCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int midKey = records.getInt(mid * RECORD_SIZE);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+}
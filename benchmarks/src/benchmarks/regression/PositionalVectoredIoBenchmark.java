@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * Measures reading fixed-size records, each a header followed by a payload, from random offsets
+ * of a file. PREADV reads each record with a single positional scattering read. PREAD reads the
+ * header and the payload separately, and POSITION_READV moves the channel's position and then
+ * does a scattering read, which is what callers had to do before.
+ */
+public class PositionalVectoredIoBenchmark {
+    enum Method { PREADV, PREAD, POSITION_READV }
+
+    private static final int HEADER_SIZE = 16;
+    private static final int RECORD_COUNT = 1024;
+
+    @Param({"64", "4096", "65536"}) private int payloadSize;
+    @Param private Method method;
+    @Param({"true", "false"}) private boolean direct;
+
+    private File file;
+    private RandomAccessFile raf;
+    private FileChannel channel;
+    private ByteBuffer[] buffers;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        file = File.createTempFile("PositionalVectoredIoBenchmark", null);
+        raf = new RandomAccessFile(file, "rw");
+        raf.setLength((long) RECORD_COUNT * (HEADER_SIZE + payloadSize));
+        channel = raf.getChannel();
+        buffers = new ByteBuffer[] {
+            direct ? ByteBuffer.allocateDirect(HEADER_SIZE) : ByteBuffer.allocate(HEADER_SIZE),
+            direct ? ByteBuffer.allocateDirect(payloadSize) : ByteBuffer.allocate(payloadSize),
+        };
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        raf.close();
+        file.delete();
+    }
+
+    public long time(int reps) throws Exception {
+        long total = 0;
+        int recordSize = HEADER_SIZE + payloadSize;
+        for (int i = 0; i < reps; i++) {
+            // Visit the records in a fixed, scattered order.
+            long position = (long) ((i * 7919) % RECORD_COUNT) * recordSize;
+            buffers[0].clear();
+            buffers[1].clear();
+            switch (method) {
+                case PREADV:
+                    total += channel.read(buffers, position);
+                    break;
+                case PREAD:
+                    total += channel.read(buffers[0], position);
+                    total += channel.read(buffers[1], position + HEADER_SIZE);
+                    break;
+                case POSITION_READV:
+                    synchronized (channel) {
+                        channel.position(position);
+                        total += channel.read(buffers);
+                    }
+                    break;
+            }
+        }
+        return total;
+    }
+}
@@ -22,6 +22,10 @@ public class RealToStringBenchmark {
     private static final float MEDIUM = -123.45e8f;
     private static final float LARGE  = -123.45e36f;
 
+    private static final double DOUBLE_SMALL  = -123.45;
+    private static final double DOUBLE_MEDIUM = -123.456789e8;
+    private static final double DOUBLE_LARGE  = -1.2345678901234567e300;
+
     public void timeFloat_toString_NaN(int reps) {
         for (int rep = 0; rep < reps; ++rep) {
             Float.toString(Float.NaN);
@@ -88,6 +92,56 @@ public class RealToStringBenchmark {
         }
     }
 
+    public void timeDouble_toString_small(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            Double.toString(DOUBLE_SMALL);
+        }
+    }
+
+    public void timeDouble_toString_medium(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            Double.toString(DOUBLE_MEDIUM);
+        }
+    }
+
+    public void timeDouble_toString_large(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            Double.toString(DOUBLE_LARGE);
+        }
+    }
+
+    public void timeStringBuilder_double_small(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            new StringBuilder().append(DOUBLE_SMALL);
+        }
+    }
+
+    public void timeStringBuilder_double_medium(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            new StringBuilder().append(DOUBLE_MEDIUM);
+        }
+    }
+
+    public void timeStringBuilder_double_large(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            new StringBuilder().append(DOUBLE_LARGE);
+        }
+    }
+
+    public void timeStringBuilder_reused_double_large(int reps) {
+        StringBuilder sb = new StringBuilder();
+        for (int rep = 0; rep < reps; ++rep) {
+            sb.setLength(0);
+            sb.append(DOUBLE_LARGE);
+        }
+    }
+
+    public void timeStringBuilder_utf16_double_large(int reps) {
+        for (int rep = 0; rep < reps; ++rep) {
+            new StringBuilder("\u03c0=").append(DOUBLE_LARGE);
+        }
+    }
+
     public void timeFormatter_small(int reps) {
         for (int rep = 0; rep < reps; ++rep) {
             String.format("%f", SMALL);
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+
+/**
+ * Measures the cost of a select() that finds one ready channel among many
+ * idle ones, for the poll(2) and epoll(7) selectors.
+ */
+public class SelectorBenchmark {
+    enum Implementation {
+        POLL("sun.nio.ch.PollSelectorProvider"),
+        EPOLL("sun.nio.ch.EPollSelectorProvider");
+
+        final String className;
+
+        Implementation(String className) {
+            this.className = className;
+        }
+    }
+
+    @Param private Implementation implementation;
+    @Param({"10", "1000", "10000"}) private int channelCount;
+
+    private Selector selector;
+    private Pipe pipe;
+    private DatagramChannel[] idleChannels;
+    private final ByteBuffer buffer = ByteBuffer.allocateDirect(1);
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        SelectorProvider provider =
+                (SelectorProvider) Class.forName(implementation.className).newInstance();
+        selector = provider.openSelector();
+        pipe = provider.openPipe();
+        pipe.source().configureBlocking(false);
+        pipe.source().register(selector, SelectionKey.OP_READ);
+
+        // Idle channels never become readable; datagram channels cost one descriptor each.
+        idleChannels = new DatagramChannel[channelCount - 1];
+        for (int i = 0; i < idleChannels.length; i++) {
+            idleChannels[i] = provider.openDatagramChannel();
+            idleChannels[i].configureBlocking(false);
+            idleChannels[i].register(selector, SelectionKey.OP_READ);
+        }
+        selector.selectNow();
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        selector.close();
+        pipe.sink().close();
+        pipe.source().close();
+        for (DatagramChannel channel : idleChannels) {
+            channel.close();
+        }
+    }
+
+    public int timeSelectOneReady(int reps) throws Exception {
+        int selected = 0;
+        for (int i = 0; i < reps; i++) {
+            buffer.clear();
+            pipe.sink().write(buffer);
+            selected += selector.select();
+            selector.selectedKeys().clear();
+            buffer.clear();
+            pipe.source().read(buffer);
+        }
+        return selected;
+    }
+
+    public int timeSelectNowNoneReady(int reps) throws Exception {
+        int selected = 0;
+        for (int i = 0; i < reps; i++) {
+            selected += selector.selectNow();
+        }
+        return selected;
+    }
+}
@@ -92,6 +92,36 @@ public class SerializationBenchmark {
         out.close();
     }
 
+    // Many short streams, each written by a separate ObjectOutputStream, as in IPC and caches.
+    // Every stream has to resolve the classes of its objects again.
+    public void timeReadManySmallStreams(int reps) throws Exception {
+        byte[] bytes = bytes(new LittleBitOfEverything());
+        ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+        for (int rep = 0; rep < reps; ++rep) {
+            for (int i = 0; i < 16; ++i) {
+                ObjectInputStream in = new ObjectInputStream(bais);
+                in.readObject();
+                in.close();
+                bais.reset();
+            }
+        }
+    }
+
+    // As above, but with streams that are given the class loader to resolve classes with.
+    public void timeReadManySmallStreamsWithClassLoader(int reps) throws Exception {
+        byte[] bytes = bytes(new LittleBitOfEverything());
+        ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
+        ClassLoader loader = getClass().getClassLoader();
+        for (int rep = 0; rep < reps; ++rep) {
+            for (int i = 0; i < 16; ++i) {
+                ObjectInputStream in = new ObjectInputStream(bais, loader);
+                in.readObject();
+                in.close();
+                bais.reset();
+            }
+        }
+    }
+
     private void readSingleObject(int reps, Object object) throws Exception {
         byte[] bytes = bytes(object);
         ByteArrayInputStream bais = new ByteArrayInputStream(bytes);
@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package benchmarks.regression;
+
+import com.google.caliper.AfterExperiment;
+import com.google.caliper.BeforeExperiment;
+import com.google.caliper.Param;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+
+/**
+ * Compares the throughput of {@link InputStream#transferTo} between file and socket streams,
+ * which copies inside the kernel, with copying through a heap buffer.
+ */
+public class TransferToBenchmark {
+    enum Route { FILE_TO_FILE, FILE_TO_SOCKET, SOCKET_TO_FILE }
+    enum Copy { TRANSFER_TO, HEAP_BUFFER }
+
+    @Param({"65536", "16777216"}) private int byteCount;
+    @Param private Route route;
+    @Param private Copy copy;
+
+    private File source;
+    private File destination;
+    private ServerSocket server;
+    private Socket client;
+    private Thread peer;
+
+    @BeforeExperiment
+    protected void setUp() throws Exception {
+        source = File.createTempFile("TransferToBenchmark", "in");
+        destination = File.createTempFile("TransferToBenchmark", "out");
+        try (FileOutputStream out = new FileOutputStream(source)) {
+            out.write(new byte[byteCount]);
+        }
+        server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        switch (route) {
+            case FILE_TO_SOCKET:
+                // Discards everything sent over a single connection.
+                peer = new Thread(() -> {
+                    try (Socket socket = server.accept();
+                         InputStream in = socket.getInputStream()) {
+                        byte[] buffer = new byte[64 * 1024];
+                        while (in.read(buffer) != -1) {
+                        }
+                    } catch (IOException ignored) {
+                    }
+                });
+                peer.start();
+                client = new Socket(server.getInetAddress(), server.getLocalPort());
+                break;
+            case SOCKET_TO_FILE:
+                // Sends the whole file over each connection, then closes it.
+                peer = new Thread(() -> {
+                    try {
+                        while (true) {
+                            try (Socket socket = server.accept();
+                                 FileInputStream in = new FileInputStream(source)) {
+                                in.transferTo(socket.getOutputStream());
+                            }
+                        }
+                    } catch (IOException ignored) {
+                    }
+                });
+                peer.start();
+                break;
+            default:
+                break;
+        }
+    }
+
+    @AfterExperiment
+    protected void tearDown() throws Exception {
+        if (client != null) {
+            client.close();
+        }
+        server.close();
+        if (peer != null) {
+            peer.join();
+        }
+        source.delete();
+        destination.delete();
+    }
+
+    public long timeTransfer(int reps) throws Exception {
+        long total = 0;
+        for (int i = 0; i < reps; i++) {
+            switch (route) {
+                case FILE_TO_FILE:
+                    try (FileInputStream in = new FileInputStream(source);
+                         FileOutputStream out = new FileOutputStream(destination)) {
+                        total += copy(in, out);
+                    }
+                    break;
+                case FILE_TO_SOCKET:
+                    try (FileInputStream in = new FileInputStream(source)) {
+                        total += copy(in, client.getOutputStream());
+                    }
+                    break;
+                case SOCKET_TO_FILE:
+                    try (Socket socket = new Socket(server.getInetAddress(), server.getLocalPort());
+                         FileOutputStream out = new FileOutputStream(destination)) {
+                        total += copy(socket.getInputStream(), out);
+                    }
+                    break;
+            }
+        }
+        return total;
+    }
+
+    private long copy(InputStream in, OutputStream out) throws IOException {
+        if (copy == Copy.TRANSFER_TO) {
+            return in.transferTo(out);
+        }
+        long total = 0;
+        byte[] buffer = new byte[8192];
+        int count;
+        while ((count = in.read(buffer)) != -1) {
+            out.write(buffer, 0, count);
+            total += count;
+        }
+        return total;
+    }
+}
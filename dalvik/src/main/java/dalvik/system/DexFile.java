@@ -443,6 +443,14 @@ public final class DexFile {
 
     private static native void verifyInBackgroundNative(Object mCookie, ClassLoader classLoader);
 
+    /*
+     * Returns the binary names of the classes defined in the dex file, for DexPathList's
+     * package index.
+     */
+    /*package*/ String[] getClassNames() {
+        return getClassNameList(mCookie);
+    }
+
     /*
      * Returns true if the dex file is backed by a valid oat file.
      */
@@ -31,8 +31,11 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.jar.JarEntry;
 import libcore.io.ClassPathURLStreamHandler;
 import libcore.io.IoUtils;
 import libcore.io.Libcore;
@@ -58,6 +61,9 @@ public final class DexPathList {
     private static final String DEX_SUFFIX = ".dex";
     private static final String zipSeparator = "!/";
 
+    /** Lists with fewer elements than this are searched without a {@link PackageIndex}. */
+    private static final int MIN_INDEXED_ELEMENTS = 2;
+
     /** class definition context */
     @UnsupportedAppUsage
     private final ClassLoader definingContext;
@@ -89,6 +95,21 @@ public final class DexPathList {
     @UnsupportedAppUsage
     private IOException[] dexElementsSuppressedExceptions;
 
+    /**
+     * Whether lookups may go through the package indexes below. Building an index reads the
+     * class list of every dex file, or opens every zip file, so that up-front cost is only
+     * paid when -Ddalvik.system.DexPathList.usePackageIndex=true asks for it.
+     */
+    private final boolean usePackageIndex =
+            "true".equals(System.getProperty("dalvik.system.DexPathList.usePackageIndex"));
+
+    /**
+     * Indexes of {@code dexElements} for class and resource lookups. Each is built on
+     * first use, and rebuilt whenever {@code dexElements} is replaced.
+     */
+    private volatile PackageIndex classIndex;
+    private volatile PackageIndex resourceIndex;
+
     private List<File> getAllNativeLibraryDirectories() {
         List<File> allNativeLibraryDirectories = new ArrayList<>(nativeLibraryDirectories);
         allNativeLibraryDirectories.addAll(systemNativeLibraryDirectories);
@@ -528,10 +549,23 @@ public final class DexPathList {
      * found in any of the dex files
      */
     public Class<?> findClass(String name, List<Throwable> suppressed) {
-        for (Element element : dexElements) {
-            Class<?> clazz = element.findClass(name, definingContext, suppressed);
-            if (clazz != null) {
-                return clazz;
+        Element[] elements = dexElements;
+        // DexFile accepts '/' as well as '.' as a package separator, so such names are
+        // looked up everywhere.
+        PackageIndex index = (name.indexOf('/') < 0) ? getClassIndex(elements) : null;
+        if (index != null) {
+            for (int i : index.getCandidates(PackageIndex.packageOf(name))) {
+                Class<?> clazz = elements[i].findClass(name, definingContext, suppressed);
+                if (clazz != null) {
+                    return clazz;
+                }
+            }
+        } else {
+            for (Element element : elements) {
+                Class<?> clazz = element.findClass(name, definingContext, suppressed);
+                if (clazz != null) {
+                    return clazz;
+                }
             }
         }
 
@@ -550,7 +584,19 @@ public final class DexPathList {
      * resource is not found in any of the zip/jar files
      */
     public URL findResource(String name) {
-        for (Element element : dexElements) {
+        Element[] elements = dexElements;
+        PackageIndex index = getResourceIndex(elements);
+        if (index != null) {
+            for (int i : index.getCandidates(PackageIndex.directoryOf(name))) {
+                URL url = elements[i].findResource(name);
+                if (url != null) {
+                    return url;
+                }
+            }
+            return null;
+        }
+
+        for (Element element : elements) {
             URL url = element.findResource(name);
             if (url != null) {
                 return url;
@@ -568,16 +614,71 @@ public final class DexPathList {
     public Enumeration<URL> findResources(String name) {
         ArrayList<URL> result = new ArrayList<URL>();
 
-        for (Element element : dexElements) {
-            URL url = element.findResource(name);
-            if (url != null) {
-                result.add(url);
+        Element[] elements = dexElements;
+        PackageIndex index = getResourceIndex(elements);
+        if (index != null) {
+            for (int i : index.getCandidates(PackageIndex.directoryOf(name))) {
+                URL url = elements[i].findResource(name);
+                if (url != null) {
+                    result.add(url);
+                }
+            }
+        } else {
+            for (Element element : elements) {
+                URL url = element.findResource(name);
+                if (url != null) {
+                    result.add(url);
+                }
             }
         }
 
         return Collections.enumeration(result);
     }
 
+    /**
+     * Returns the class index for {@code elements}, building it if necessary, or
+     * {@code null} if lookups should visit every element.
+     */
+    private PackageIndex getClassIndex(Element[] elements) {
+        PackageIndex index = classIndex;
+        if (index != null && index.elements == elements) {
+            return index;
+        }
+        if (!usePackageIndex || elements.length < MIN_INDEXED_ELEMENTS) {
+            return null;
+        }
+        synchronized (this) {
+            index = classIndex;
+            if (index == null || index.elements != elements) {
+                index = PackageIndex.forClasses(elements);
+                classIndex = index;
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns the resource index for {@code elements}, building it if necessary, or
+     * {@code null} if lookups should visit every element.
+     */
+    private PackageIndex getResourceIndex(Element[] elements) {
+        PackageIndex index = resourceIndex;
+        if (index != null && index.elements == elements) {
+            return index;
+        }
+        if (!usePackageIndex || elements.length < MIN_INDEXED_ELEMENTS) {
+            return null;
+        }
+        synchronized (this) {
+            index = resourceIndex;
+            if (index == null || index.elements != elements) {
+                index = PackageIndex.forResources(elements);
+                resourceIndex = index;
+            }
+            return index;
+        }
+    }
+
     /**
      * Finds the named native code library on any of the library
      * directories pointed at by this instance. This will find the
@@ -800,6 +901,187 @@ public final class DexPathList {
         }
     }
 
+    /**
+     * Maps package names (for classes) or directory names (for resources) to the positions of
+     * the elements that may contain them, in search order. Elements whose contents cannot be
+     * listed, such as resource directories, are candidates for every name, so that an indexed
+     * lookup visits the same elements in the same order as a linear scan, minus those that
+     * cannot contain the name.
+     */
+    private static final class PackageIndex {
+        private static final int[] NO_CANDIDATES = new int[0];
+
+        /** The elements that were indexed; the index is stale once dexElements changes. */
+        final Element[] elements;
+
+        private final Map<String, int[]> candidates;
+
+        /** Elements that are candidates for names that do not appear in {@code candidates}. */
+        private final int[] unlisted;
+
+        private PackageIndex(Element[] elements, Map<String, int[]> candidates, int[] unlisted) {
+            this.elements = elements;
+            this.candidates = candidates;
+            this.unlisted = unlisted;
+        }
+
+        int[] getCandidates(String key) {
+            int[] result = candidates.get(key);
+            return (result != null) ? result : unlisted;
+        }
+
+        /** Returns the package of a binary class name, e.g. "a.b" for "a.b.C$D". */
+        static String packageOf(String className) {
+            int dot = className.lastIndexOf('.');
+            return (dot < 0) ? "" : className.substring(0, dot);
+        }
+
+        /**
+         * Returns the directory of a resource or zip entry name, e.g. "a/b" for "a/b/c.txt".
+         * A trailing '/' is ignored, because zip lookups match "a/b" to an entry "a/b/".
+         */
+        static String directoryOf(String name) {
+            int end = name.length();
+            if (end > 0 && name.charAt(end - 1) == '/') {
+                end--;
+            }
+            int slash = name.lastIndexOf('/', end - 1);
+            return (slash < 0) ? "" : name.substring(0, slash);
+        }
+
+        static PackageIndex forClasses(Element[] elements) {
+            Builder builder = new Builder(elements.length);
+            for (int i = 0; i < elements.length; i++) {
+                DexFile dexFile = elements[i].dexFile;
+                if (dexFile == null) {
+                    // Element.findClass() never finds anything.
+                    continue;
+                }
+                String[] classNames;
+                try {
+                    classNames = dexFile.getClassNames();
+                } catch (RuntimeException e) {
+                    // E.g. the dex file has been closed; let lookups find out.
+                    classNames = null;
+                }
+                if (classNames == null) {
+                    builder.addUnlisted(i);
+                    continue;
+                }
+                for (String className : classNames) {
+                    builder.add(packageOf(className), i);
+                }
+            }
+            return builder.build(elements);
+        }
+
+        static PackageIndex forResources(Element[] elements) {
+            Builder builder = new Builder(elements.length);
+            for (int i = 0; i < elements.length; i++) {
+                Element element = elements[i];
+                if (element.path == null) {
+                    // Element.findResource() never finds anything in a plain dex file.
+                    continue;
+                }
+                if (element.pathIsDirectory) {
+                    builder.addUnlisted(i);
+                    continue;
+                }
+                element.maybeInit();
+                ClassPathURLStreamHandler urlHandler = element.urlHandler;
+                if (urlHandler == null) {
+                    // The zip file could not be opened.
+                    continue;
+                }
+                try {
+                    Enumeration<JarEntry> entries = urlHandler.entries();
+                    while (entries.hasMoreElements()) {
+                        builder.add(directoryOf(entries.nextElement().getName()), i);
+                    }
+                } catch (RuntimeException e) {
+                    builder.addUnlisted(i);
+                }
+            }
+            return builder.build(elements);
+        }
+
+        private static final class Builder {
+            private final Map<String, IntList> lists = new HashMap<>();
+            private final IntList unlisted;
+
+            Builder(int elementCount) {
+                unlisted = new IntList(Math.min(elementCount, 4));
+            }
+
+            void add(String key, int element) {
+                IntList list = lists.get(key);
+                if (list == null) {
+                    list = new IntList(2);
+                    lists.put(key, list);
+                }
+                if (list.size == 0 || list.values[list.size - 1] != element) {
+                    list.add(element);
+                }
+            }
+
+            void addUnlisted(int element) {
+                unlisted.add(element);
+            }
+
+            PackageIndex build(Element[] elements) {
+                int[] unlistedArray = unlisted.toArray();
+                Map<String, int[]> candidates = new HashMap<>((int) (lists.size() / 0.75f) + 1);
+                for (Map.Entry<String, IntList> entry : lists.entrySet()) {
+                    candidates.put(entry.getKey(), entry.getValue().mergeWith(unlistedArray));
+                }
+                return new PackageIndex(elements, candidates,
+                        (unlistedArray.length > 0) ? unlistedArray : NO_CANDIDATES);
+            }
+        }
+
+        /** A growable list of element positions, in increasing order. */
+        private static final class IntList {
+            int[] values;
+            int size;
+
+            IntList(int capacity) {
+                values = new int[Math.max(capacity, 1)];
+            }
+
+            void add(int value) {
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, size * 2);
+                }
+                values[size++] = value;
+            }
+
+            int[] toArray() {
+                return Arrays.copyOf(values, size);
+            }
+
+            /** Returns the sorted union of this list and {@code others}, which is sorted. */
+            int[] mergeWith(int[] others) {
+                if (others.length == 0) {
+                    return toArray();
+                }
+                int[] result = new int[size + others.length];
+                int i = 0;
+                int j = 0;
+                int k = 0;
+                while (i < size && j < others.length) {
+                    result[k++] = (values[i] < others[j]) ? values[i++] : others[j++];
+                }
+                while (i < size) {
+                    result[k++] = values[i++];
+                }
+                while (j < others.length) {
+                    result[k++] = others[j++];
+                }
+                return result;
+            }
+        }
+    }
+
     /**
      * Element of the native library path
      */
@@ -0,0 +1,522 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.json;
+
+import java.util.AbstractCollection;
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * An insertion-ordered map that stores up to {@link #MAX_COMPACT_SIZE}
+ * mappings in a pair of parallel arrays, and moves them into the underlying
+ * {@link LinkedHashMap} once it grows beyond that. Most JSON objects have only
+ * a handful of names, for which a hash table and one linked node per mapping
+ * cost several times more memory than the mappings themselves, and a linear
+ * scan is as fast as hashing.
+ *
+ * <p>This extends {@code LinkedHashMap} only so that {@link JSONObject}'s
+ * storage field keeps its type. While compact, every public method is
+ * answered from the arrays; the less common ones move the mappings into the
+ * hash table first.
+ */
+@SuppressWarnings("unchecked")
+final class CompactLinkedHashMap<K, V> extends LinkedHashMap<K, V> {
+
+    /** The largest number of mappings stored without a hash table. */
+    static final int MAX_COMPACT_SIZE = 8;
+
+    private static final Object[] EMPTY = new Object[0];
+
+    /**
+     * Keys and values of the first {@code compactSize} mappings in insertion
+     * order, or null once the mappings have moved to the hash table.
+     */
+    private transient Object[] compactKeys = EMPTY;
+    private transient Object[] compactValues = EMPTY;
+    private transient int compactSize;
+
+    CompactLinkedHashMap() {
+    }
+
+    private boolean isCompact() {
+        return compactKeys != null;
+    }
+
+    private int indexOf(Object key) {
+        Object[] keys = compactKeys;
+        for (int i = 0; i < compactSize; i++) {
+            Object k = keys[i];
+            if (k == key || (key != null && key.equals(k))) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Moves all mappings into the hash table, preserving their order.
+     */
+    private void inflate() {
+        if (!isCompact()) {
+            return;
+        }
+        Object[] keys = compactKeys;
+        Object[] values = compactValues;
+        int size = compactSize;
+        compactKeys = null;
+        compactValues = null;
+        compactSize = 0;
+        for (int i = 0; i < size; i++) {
+            super.put((K) keys[i], (V) values[i]);
+        }
+    }
+
+    private V removeAt(int index) {
+        V result = (V) compactValues[index];
+        int moved = compactSize - index - 1;
+        System.arraycopy(compactKeys, index + 1, compactKeys, index, moved);
+        System.arraycopy(compactValues, index + 1, compactValues, index, moved);
+        compactSize--;
+        compactKeys[compactSize] = null;
+        compactValues[compactSize] = null;
+        return result;
+    }
+
+    @Override public int size() {
+        return isCompact() ? compactSize : super.size();
+    }
+
+    @Override public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override public V get(Object key) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            return index != -1 ? (V) compactValues[index] : null;
+        }
+        return super.get(key);
+    }
+
+    @Override public V getOrDefault(Object key, V defaultValue) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            return index != -1 ? (V) compactValues[index] : defaultValue;
+        }
+        return super.getOrDefault(key, defaultValue);
+    }
+
+    @Override public boolean containsKey(Object key) {
+        return isCompact() ? indexOf(key) != -1 : super.containsKey(key);
+    }
+
+    @Override public boolean containsValue(Object value) {
+        if (isCompact()) {
+            for (int i = 0; i < compactSize; i++) {
+                if (Objects.equals(value, compactValues[i])) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return super.containsValue(value);
+    }
+
+    @Override public V put(K key, V value) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            if (index != -1) {
+                V result = (V) compactValues[index];
+                compactValues[index] = value;
+                return result;
+            }
+            if (compactSize < MAX_COMPACT_SIZE) {
+                if (compactSize == compactKeys.length) {
+                    int newLength = compactSize == 0 ? 4 : MAX_COMPACT_SIZE;
+                    Object[] newKeys = new Object[newLength];
+                    Object[] newValues = new Object[newLength];
+                    System.arraycopy(compactKeys, 0, newKeys, 0, compactSize);
+                    System.arraycopy(compactValues, 0, newValues, 0, compactSize);
+                    compactKeys = newKeys;
+                    compactValues = newValues;
+                }
+                compactKeys[compactSize] = key;
+                compactValues[compactSize] = value;
+                compactSize++;
+                return null;
+            }
+            inflate();
+        }
+        return super.put(key, value);
+    }
+
+    @Override public void putAll(Map<? extends K, ? extends V> m) {
+        if (isCompact() && compactSize + m.size() <= MAX_COMPACT_SIZE) {
+            for (Map.Entry<? extends K, ? extends V> entry : m.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return;
+        }
+        inflate();
+        super.putAll(m);
+    }
+
+    @Override public V remove(Object key) {
+        if (isCompact()) {
+            int index = indexOf(key);
+            return index != -1 ? removeAt(index) : null;
+        }
+        return super.remove(key);
+    }
+
+    @Override public void clear() {
+        if (isCompact()) {
+            for (int i = 0; i < compactSize; i++) {
+                compactKeys[i] = null;
+                compactValues[i] = null;
+            }
+            compactSize = 0;
+            return;
+        }
+        super.clear();
+    }
+
+    @Override public void forEach(BiConsumer<? super K, ? super V> action) {
+        if (isCompact()) {
+            int size = compactSize;
+            for (int i = 0; i < size; i++) {
+                if (size != compactSize || !isCompact()) {
+                    throw new ConcurrentModificationException();
+                }
+                action.accept((K) compactKeys[i], (V) compactValues[i]);
+            }
+            return;
+        }
+        super.forEach(action);
+    }
+
+    @Override public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        if (isCompact()) {
+            for (int i = 0; i < compactSize; i++) {
+                compactValues[i] = function.apply((K) compactKeys[i], (V) compactValues[i]);
+            }
+            return;
+        }
+        super.replaceAll(function);
+    }
+
+    /*
+     * The remaining operations are rare enough on JSON objects that they
+     * simply move the mappings into the hash table.
+     */
+
+    @Override public V putIfAbsent(K key, V value) {
+        inflate();
+        return super.putIfAbsent(key, value);
+    }
+
+    @Override public boolean remove(Object key, Object value) {
+        inflate();
+        return super.remove(key, value);
+    }
+
+    @Override public boolean replace(K key, V oldValue, V newValue) {
+        inflate();
+        return super.replace(key, oldValue, newValue);
+    }
+
+    @Override public V replace(K key, V value) {
+        inflate();
+        return super.replace(key, value);
+    }
+
+    @Override public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        inflate();
+        return super.computeIfAbsent(key, mappingFunction);
+    }
+
+    @Override public V computeIfPresent(K key,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        inflate();
+        return super.computeIfPresent(key, remappingFunction);
+    }
+
+    @Override public V compute(K key,
+            BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        inflate();
+        return super.compute(key, remappingFunction);
+    }
+
+    @Override public V merge(K key, V value,
+            BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        inflate();
+        return super.merge(key, value, remappingFunction);
+    }
+
+    @Override public Map.Entry<K, V> eldest() {
+        inflate();
+        return super.eldest();
+    }
+
+    @Override public Object clone() {
+        inflate();
+        return super.clone();
+    }
+
+    /**
+     * Serializes as a plain {@code LinkedHashMap}, since the compact mappings
+     * aren't part of the superclass's serialized form.
+     */
+    private Object writeReplace() {
+        return new LinkedHashMap<K, V>(this);
+    }
+
+    /*
+     * The views below stay valid when the mappings move into the hash table;
+     * each operation checks which representation is current.
+     */
+
+    @Override public Set<K> keySet() {
+        return new AbstractSet<K>() {
+            @Override public Iterator<K> iterator() {
+                if (!isCompact()) {
+                    return CompactLinkedHashMap.super.keySet().iterator();
+                }
+                return new CompactIterator<K>() {
+                    @Override K element(int index) {
+                        return (K) compactKeys[index];
+                    }
+                };
+            }
+
+            @Override public int size() {
+                return CompactLinkedHashMap.this.size();
+            }
+
+            @Override public boolean contains(Object o) {
+                return containsKey(o);
+            }
+
+            @Override public boolean remove(Object o) {
+                if (containsKey(o)) {
+                    CompactLinkedHashMap.this.remove(o);
+                    return true;
+                }
+                return false;
+            }
+
+            @Override public void clear() {
+                CompactLinkedHashMap.this.clear();
+            }
+        };
+    }
+
+    @Override public Collection<V> values() {
+        return new AbstractCollection<V>() {
+            @Override public Iterator<V> iterator() {
+                if (!isCompact()) {
+                    return CompactLinkedHashMap.super.values().iterator();
+                }
+                return new CompactIterator<V>() {
+                    @Override V element(int index) {
+                        return (V) compactValues[index];
+                    }
+                };
+            }
+
+            @Override public int size() {
+                return CompactLinkedHashMap.this.size();
+            }
+
+            @Override public boolean contains(Object o) {
+                return containsValue(o);
+            }
+
+            @Override public void clear() {
+                CompactLinkedHashMap.this.clear();
+            }
+        };
+    }
+
+    @Override public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override public Iterator<Map.Entry<K, V>> iterator() {
+                if (!isCompact()) {
+                    return CompactLinkedHashMap.super.entrySet().iterator();
+                }
+                return new CompactIterator<Map.Entry<K, V>>() {
+                    @Override Map.Entry<K, V> element(int index) {
+                        return new CompactEntry(index);
+                    }
+                };
+            }
+
+            @Override public int size() {
+                return CompactLinkedHashMap.this.size();
+            }
+
+            @Override public boolean contains(Object o) {
+                if (!(o instanceof Map.Entry)) {
+                    return false;
+                }
+                Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                Object key = entry.getKey();
+                return containsKey(key) && Objects.equals(get(key), entry.getValue());
+            }
+
+            @Override public boolean remove(Object o) {
+                if (contains(o)) {
+                    CompactLinkedHashMap.this.remove(((Map.Entry<?, ?>) o).getKey());
+                    return true;
+                }
+                return false;
+            }
+
+            @Override public void clear() {
+                CompactLinkedHashMap.this.clear();
+            }
+        };
+    }
+
+    private abstract class CompactIterator<T> implements Iterator<T> {
+        private int next;
+        private int last = -1;
+        private int expectedSize = compactSize;
+
+        abstract T element(int index);
+
+        @Override public boolean hasNext() {
+            return next < expectedSize;
+        }
+
+        @Override public T next() {
+            if (!isCompact() || compactSize != expectedSize) {
+                throw new ConcurrentModificationException();
+            }
+            if (next >= expectedSize) {
+                throw new NoSuchElementException();
+            }
+            last = next++;
+            return element(last);
+        }
+
+        @Override public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            if (!isCompact() || compactSize != expectedSize) {
+                throw new ConcurrentModificationException();
+            }
+            removeAt(last);
+            next = last;
+            last = -1;
+            expectedSize--;
+        }
+    }
+
+    /**
+     * An entry that, like those of the hash table, reads and writes through
+     * to the map for as long as its key stays mapped, including after the
+     * mappings move into the hash table. Once the key is removed, the entry
+     * keeps the last value it saw, and setting it no longer affects the map.
+     */
+    private final class CompactEntry implements Map.Entry<K, V> {
+        private final K key;
+        private V value;
+
+        /** Where the key was last seen in {@code compactKeys}. */
+        private int index;
+
+        CompactEntry(int index) {
+            this.key = (K) compactKeys[index];
+            this.value = (V) compactValues[index];
+            this.index = index;
+        }
+
+        /**
+         * Returns whether the key is still mapped, updating {@code value} and
+         * {@code index} if it is.
+         */
+        private boolean refresh() {
+            if (isCompact()) {
+                if (index < 0 || index >= compactSize || compactKeys[index] != key) {
+                    index = indexOf(key);
+                    if (index == -1) {
+                        return false;
+                    }
+                }
+                value = (V) compactValues[index];
+                return true;
+            }
+            if (CompactLinkedHashMap.super.containsKey(key)) {
+                value = CompactLinkedHashMap.super.get(key);
+                return true;
+            }
+            return false;
+        }
+
+        @Override public K getKey() {
+            return key;
+        }
+
+        @Override public V getValue() {
+            refresh();
+            return value;
+        }
+
+        @Override public V setValue(V value) {
+            boolean mapped = refresh();
+            V result = this.value;
+            if (mapped) {
+                if (isCompact()) {
+                    compactValues[index] = value;
+                } else {
+                    CompactLinkedHashMap.super.put(key, value);
+                }
+            }
+            this.value = value;
+            return result;
+        }
+
+        @Override public boolean equals(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> e = (Map.Entry<?, ?>) o;
+            return Objects.equals(getKey(), e.getKey())
+                    && Objects.equals(getValue(), e.getValue());
+        }
+
+        @Override public int hashCode() {
+            return Objects.hashCode(getKey()) ^ Objects.hashCode(getValue());
+        }
+
+        @Override public String toString() {
+            return getKey() + "=" + getValue();
+        }
+    }
+}
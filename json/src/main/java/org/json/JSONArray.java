@@ -17,11 +17,13 @@
 package org.json;
 
 import android.compat.annotation.UnsupportedAppUsage;
+import java.io.Writer;
 import java.lang.reflect.Array;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
 import java.util.List;
+import libcore.util.NonNull;
 
 // Note: this class was written without inspecting the non-free org.json sourcecode.
 
@@ -110,6 +112,26 @@ public class JSONArray {
         this(new JSONTokener(json));
     }
 
+    /**
+     * Creates a new {@code JSONArray} with values from the next array in the
+     * reader. Unlike {@link #JSONArray(String)}, the encoded array need not be
+     * held in memory in its entirety.
+     *
+     * @param readFrom a reader whose nextValue() method will yield a
+     *     {@code JSONArray}.
+     * @throws JSONException if the parse fails or doesn't yield a
+     *     {@code JSONArray}.
+     * @hide
+     */
+    public JSONArray(@NonNull JSONReader readFrom) throws JSONException {
+        Object object = readFrom.nextValue();
+        if (object instanceof JSONArray) {
+            values = ((JSONArray) object).values;
+        } else {
+            throw JSON.typeMismatch(object, "JSONArray");
+        }
+    }
+
     /**
      * Creates a new {@code JSONArray} with values from the given primitive array.
      */
@@ -609,6 +631,19 @@ public class JSONArray {
         return stringer.toString();
     }
 
+    /**
+     * Encodes this array as a compact JSON string to {@code writer}, without
+     * building the whole string in memory. The writer is flushed but not
+     * closed.
+     *
+     * @hide
+     */
+    public void write(Writer writer) throws JSONException {
+        JSONStringer stringer = new JSONStringer(writer);
+        writeTo(stringer);
+        stringer.flush();
+    }
+
     @UnsupportedAppUsage
     void writeTo(JSONStringer stringer) throws JSONException {
         stringer.array();
@@ -21,6 +21,7 @@ import static android.annotation.SystemApi.Client.MODULE_LIBRARIES;
 import android.annotation.SystemApi;
 import android.compat.annotation.UnsupportedAppUsage;
 
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
@@ -123,7 +124,7 @@ public class JSONObject {
      * Creates a {@code JSONObject} with no name/value mappings.
      */
     public JSONObject() {
-        nameValuePairs = new LinkedHashMap<String, Object>();
+        nameValuePairs = new CompactLinkedHashMap<String, Object>();
     }
 
     /**
@@ -185,6 +186,26 @@ public class JSONObject {
         this(new JSONTokener(json));
     }
 
+    /**
+     * Creates a new {@code JSONObject} with name/value mappings from the next
+     * object in the reader. Unlike {@link #JSONObject(String)}, the encoded
+     * object need not be held in memory in its entirety.
+     *
+     * @param readFrom a reader whose nextValue() method will yield a
+     *     {@code JSONObject}.
+     * @throws JSONException if the parse fails or doesn't yield a
+     *     {@code JSONObject}.
+     * @hide
+     */
+    public JSONObject(@NonNull JSONReader readFrom) throws JSONException {
+        Object object = readFrom.nextValue();
+        if (object instanceof JSONObject) {
+            this.nameValuePairs = ((JSONObject) object).nameValuePairs;
+        } else {
+            throw JSON.typeMismatch(object, "JSONObject");
+        }
+    }
+
     /**
      * Creates a new {@code JSONObject} by copying mappings for the listed names
      * from the given object. Names that aren't present in {@code copyFrom} will
@@ -727,6 +748,19 @@ public class JSONObject {
         return stringer.toString();
     }
 
+    /**
+     * Encodes this object as a compact JSON string to {@code writer}, without
+     * building the whole string in memory. The writer is flushed but not
+     * closed.
+     *
+     * @hide
+     */
+    public void write(@NonNull Writer writer) throws JSONException {
+        JSONStringer stringer = new JSONStringer(writer);
+        writeTo(stringer);
+        stringer.flush();
+    }
+
     @UnsupportedAppUsage
     void writeTo(JSONStringer stringer) throws JSONException {
         stringer.object();
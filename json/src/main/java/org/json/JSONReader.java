@@ -0,0 +1,867 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.json;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import libcore.internal.StringPool;
+
+/**
+ * Reads a JSON (<a href="http://www.ietf.org/rfc/rfc4627.txt">RFC 4627</a>)
+ * encoded value from a {@link Reader} as a stream of tokens. Unlike {@link
+ * JSONTokener}, which requires the entire document as a String, this reader
+ * holds only a small buffer of input, so documents of any size can be
+ * processed in bounded memory. For example, to sum a field of each record in
+ * a large array without building the whole array: <pre>
+ * JSONReader reader = new JSONReader(new InputStreamReader(in, UTF_8));
+ * long total = 0;
+ * reader.beginArray();
+ * while (reader.hasNext()) {
+ *     reader.beginObject();
+ *     while (reader.hasNext()) {
+ *         if (reader.nextName().equals("bytes")) {
+ *             total += reader.nextLong();
+ *         } else {
+ *             reader.skipValue();
+ *         }
+ *     }
+ *     reader.endObject();
+ * }
+ * reader.endArray();</pre>
+ *
+ * <p>Use {@link #nextValue} to read the next value as a {@link JSONObject},
+ * {@link JSONArray} or primitive instead, which mixes well with streaming
+ * through a large outer array.
+ *
+ * <p>This reader is lenient in the same ways as {@link JSONTokener}: it
+ * accepts comments, unquoted and single-quoted strings, hexadecimal and octal
+ * integers, {@code ;} separators, {@code =} and {@code =>} name separators,
+ * and omitted array elements, which are read as {@link Token#NULL}.
+ *
+ * <p>Instances of this class are not thread safe.
+ *
+ * @hide
+ */
+public class JSONReader implements Closeable {
+
+    /**
+     * The kinds of token returned by {@link #peek}.
+     */
+    public enum Token {
+        BEGIN_ARRAY,
+        END_ARRAY,
+        BEGIN_OBJECT,
+        END_OBJECT,
+        NAME,
+        STRING,
+        NUMBER,
+        BOOLEAN,
+        NULL,
+        END_DOCUMENT,
+    }
+
+    /*
+     * Lexical scopes. Each describes what may follow the most recently
+     * peeked token in that scope.
+     */
+    private static final int EMPTY_DOCUMENT = 0;
+    private static final int NONEMPTY_DOCUMENT = 1;
+    private static final int EMPTY_ARRAY = 2;
+    /** An array whose most recent element was a value. */
+    private static final int NONEMPTY_ARRAY = 3;
+    /** An array whose most recent element was a separator. */
+    private static final int ARRAY_SEPARATOR = 4;
+    private static final int EMPTY_OBJECT = 5;
+    private static final int DANGLING_NAME = 6;
+    private static final int NONEMPTY_OBJECT = 7;
+
+    private final Reader in;
+
+    /**
+     * Input characters in {@code buffer[pos..limit)} have been read from
+     * {@link #in} but not consumed yet.
+     */
+    private final char[] buffer = new char[1024];
+    private int pos;
+    private int limit;
+
+    /** The number of characters discarded from the front of the buffer. */
+    private long bufferStart;
+
+    private int[] stack = new int[32];
+    private int stackSize;
+
+    /** The next token, or null if it hasn't been peeked yet. */
+    private Token peeked;
+
+    /**
+     * The quote character of the peeked name or string whose contents have
+     * not been read yet, or 0 if there is none.
+     */
+    private char peekedQuote;
+
+    /** The value of a peeked unquoted name or string. */
+    private String peekedString;
+
+    /** True if the peeked number is integral and held in peekedLong. */
+    private boolean peekedIsLong;
+    private long peekedLong;
+    private double peekedDouble;
+    private boolean peekedBoolean;
+
+    /** Scratch space for strings and literals that cross buffer boundaries. */
+    private final StringBuilder builder = new StringBuilder();
+
+    /** Recently read names, or null if names aren't pooled. */
+    private final StringPool namePool;
+
+    /**
+     * @param in the input. It should be buffered only if its {@code read}
+     *     calls are expensive; this reader reads in blocks.
+     */
+    public JSONReader(Reader in) {
+        this(in, false);
+    }
+
+    /**
+     * @param in the input. It should be buffered only if its {@code read}
+     *     calls are expensive; this reader reads in blocks.
+     * @param poolNames true to share a single String instance between equal
+     *     names that are read close together, as {@link
+     *     JSONTokener#JSONTokener(String, boolean)} does.
+     */
+    public JSONReader(Reader in, boolean poolNames) {
+        if (in == null) {
+            throw new NullPointerException("in == null");
+        }
+        this.in = in;
+        this.namePool = poolNames ? new StringPool() : null;
+        stack[stackSize++] = EMPTY_DOCUMENT;
+    }
+
+    /**
+     * Returns the type of the next token without consuming it.
+     *
+     * @throws JSONException if the input is malformed or cannot be read.
+     */
+    public Token peek() throws JSONException {
+        if (peeked == null) {
+            try {
+                peeked = doPeek();
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+        }
+        return peeked;
+    }
+
+    private Token doPeek() throws IOException, JSONException {
+        int c;
+        switch (stack[stackSize - 1]) {
+            case EMPTY_DOCUMENT:
+                // consume an optional byte order mark (BOM) if it exists
+                if ((pos < limit || fillBuffer(1)) && buffer[pos] == '\ufeff') {
+                    pos++;
+                }
+                stack[stackSize - 1] = NONEMPTY_DOCUMENT;
+                return readValue(nextNonWhitespace());
+
+            case NONEMPTY_DOCUMENT:
+                // Like JSONTokener, accept a sequence of top-level values.
+                c = nextNonWhitespace();
+                return c == -1 ? Token.END_DOCUMENT : readValue(c);
+
+            case EMPTY_ARRAY:
+                c = nextNonWhitespace();
+                if (c == ']') {
+                    return Token.END_ARRAY;
+                }
+                return readArrayElement(c);
+
+            case NONEMPTY_ARRAY:
+                switch (nextNonWhitespace()) {
+                    case ']':
+                        return Token.END_ARRAY;
+                    case ',':
+                    case ';':
+                        return readArrayElement(nextNonWhitespace());
+                    default:
+                        throw syntaxError("Unterminated array");
+                }
+
+            case ARRAY_SEPARATOR:
+                return readArrayElement(nextNonWhitespace());
+
+            case EMPTY_OBJECT:
+                c = nextNonWhitespace();
+                if (c == '}') {
+                    return Token.END_OBJECT;
+                }
+                return readName(c);
+
+            case DANGLING_NAME:
+                /*
+                 * Expect the name/value separator to be either a colon ':', an
+                 * equals sign '=', or an arrow "=>", as JSONTokener does.
+                 */
+                c = nextNonWhitespace();
+                if (c != ':' && c != '=') {
+                    throw syntaxError("Expected ':' after name");
+                }
+                if ((pos < limit || fillBuffer(1)) && buffer[pos] == '>') {
+                    pos++;
+                }
+                stack[stackSize - 1] = NONEMPTY_OBJECT;
+                return readValue(nextNonWhitespace());
+
+            case NONEMPTY_OBJECT:
+                switch (nextNonWhitespace()) {
+                    case '}':
+                        return Token.END_OBJECT;
+                    case ',':
+                    case ';':
+                        return readName(nextNonWhitespace());
+                    default:
+                        throw syntaxError("Unterminated object");
+                }
+
+            default:
+                throw new AssertionError();
+        }
+    }
+
+    /**
+     * Reads an array element starting with {@code c}. A separator or closing
+     * bracket where an element was expected yields an omitted element, which
+     * is null.
+     */
+    private Token readArrayElement(int c) throws IOException, JSONException {
+        switch (c) {
+            case -1:
+                throw syntaxError("Unterminated array");
+            case ']':
+                // "[1,]" has a trailing null element; the bracket comes next.
+                pos--;
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                return Token.NULL;
+            case ',':
+            case ';':
+                stack[stackSize - 1] = ARRAY_SEPARATOR;
+                return Token.NULL;
+            default:
+                stack[stackSize - 1] = NONEMPTY_ARRAY;
+                return readValue(c);
+        }
+    }
+
+    private Token readName(int c) throws IOException, JSONException {
+        stack[stackSize - 1] = DANGLING_NAME;
+        switch (c) {
+            case -1:
+                throw syntaxError("End of input");
+            case '\'':
+            case '"':
+                peekedQuote = (char) c;
+                return Token.NAME;
+            case '{':
+            case '[':
+                throw syntaxError("Names must be strings");
+            default:
+                pos--;
+                if (readLiteral() != Token.STRING) {
+                    Object name = JSONTokener.parseLiteral(builder.toString());
+                    throw syntaxError("Names must be strings, but " + name
+                            + " is of type " + name.getClass().getName());
+                }
+                return Token.NAME;
+        }
+    }
+
+    private Token readValue(int c) throws IOException, JSONException {
+        switch (c) {
+            case -1:
+                throw syntaxError("End of input");
+            case '{':
+                push(EMPTY_OBJECT);
+                return Token.BEGIN_OBJECT;
+            case '[':
+                push(EMPTY_ARRAY);
+                return Token.BEGIN_ARRAY;
+            case '\'':
+            case '"':
+                peekedQuote = (char) c;
+                return Token.STRING;
+            default:
+                pos--;
+                return readLiteral();
+        }
+    }
+
+    private void push(int scope) {
+        if (stackSize == stack.length) {
+            int[] newStack = new int[stackSize * 2];
+            System.arraycopy(stack, 0, newStack, 0, stackSize);
+            stack = newStack;
+        }
+        stack[stackSize++] = scope;
+    }
+
+    /**
+     * Reads a null, boolean, numeric or unquoted string literal. Plain decimal
+     * integers are decoded in place; everything else is classified by {@link
+     * JSONTokener#parseLiteral} so both parsers agree on lenient input.
+     */
+    private Token readLiteral() throws IOException, JSONException {
+        builder.setLength(0);
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos];
+            // The same delimiters as JSONTokener.nextToInternal.
+            if (c == '\r' || c == '\n' || JSONTokener.LITERAL_DELIMITERS.indexOf(c) != -1) {
+                break;
+            }
+            builder.append(c);
+            pos++;
+        }
+
+        if (builder.length() == 0) {
+            throw syntaxError("Expected literal value");
+        }
+        if (parseDecimal()) {
+            return Token.NUMBER;
+        }
+
+        Object value = JSONTokener.parseLiteral(builder.toString());
+        if (value == JSONObject.NULL) {
+            return Token.NULL;
+        } else if (value instanceof Boolean) {
+            peekedBoolean = (Boolean) value;
+            return Token.BOOLEAN;
+        } else if (value instanceof Double) {
+            peekedIsLong = false;
+            peekedDouble = (Double) value;
+            return Token.NUMBER;
+        } else if (value instanceof Number) {
+            peekedIsLong = true;
+            peekedLong = ((Number) value).longValue();
+            return Token.NUMBER;
+        } else {
+            peekedString = (String) value;
+            return Token.STRING;
+        }
+    }
+
+    /**
+     * Decodes the literal in {@code builder} into {@code peekedLong} if it is
+     * an optionally negative decimal integer of at most 18 digits without a
+     * leading zero. Such values always fit in a long.
+     */
+    private boolean parseDecimal() {
+        int length = builder.length();
+        int i = builder.charAt(0) == '-' ? 1 : 0;
+        int digits = length - i;
+        if (digits == 0 || digits > 18 || (digits > 1 && builder.charAt(i) == '0')) {
+            return false;
+        }
+        long value = 0;
+        for (; i < length; i++) {
+            int digit = builder.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return false;
+            }
+            value = value * 10 + digit;
+        }
+        peekedIsLong = true;
+        peekedLong = builder.charAt(0) == '-' ? -value : value;
+        return true;
+    }
+
+    /**
+     * Returns the next character that is not whitespace and does not belong
+     * to a comment, or -1 at the end of the input.
+     */
+    private int nextNonWhitespace() throws IOException, JSONException {
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos++];
+            switch (c) {
+                case '\t':
+                case ' ':
+                case '\n':
+                case '\r':
+                    continue;
+
+                case '/':
+                    if (pos == limit && !fillBuffer(1)) {
+                        return c;
+                    }
+                    switch (buffer[pos]) {
+                        case '*':
+                            // skip a /* c-style comment */
+                            pos++;
+                            if (!skipPastCommentEnd()) {
+                                throw syntaxError("Unterminated comment");
+                            }
+                            continue;
+
+                        case '/':
+                            // skip a // end-of-line comment
+                            pos++;
+                            skipToEndOfLine();
+                            continue;
+
+                        default:
+                            return c;
+                    }
+
+                case '#':
+                    // skip a # hash end-of-line comment, as JSONTokener does
+                    skipToEndOfLine();
+                    continue;
+
+                default:
+                    return c;
+            }
+        }
+        return -1;
+    }
+
+    private void skipToEndOfLine() throws IOException {
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos++];
+            if (c == '\r' || c == '\n') {
+                break;
+            }
+        }
+    }
+
+    private boolean skipPastCommentEnd() throws IOException {
+        while (pos + 2 <= limit || fillBuffer(2)) {
+            if (buffer[pos] == '*' && buffer[pos + 1] == '/') {
+                pos += 2;
+                return true;
+            }
+            pos++;
+        }
+        return false;
+    }
+
+    /**
+     * Moves the unconsumed input to the front of the buffer and reads until
+     * at least {@code minimum} characters are available. Returns false if the
+     * input is exhausted first.
+     */
+    private boolean fillBuffer(int minimum) throws IOException {
+        if (pos > 0) {
+            bufferStart += pos;
+            limit -= pos;
+            System.arraycopy(buffer, pos, buffer, 0, limit);
+            pos = 0;
+        }
+        int count;
+        while ((count = in.read(buffer, limit, buffer.length - limit)) != -1) {
+            limit += count;
+            if (limit >= minimum) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the contents of the peeked quoted name or string, unescaping
+     * any character escape sequences. This consumes the closing quote.
+     *
+     * @param pool the pool to take the result from, or null.
+     */
+    private String readString(char quote, StringPool pool)
+            throws IOException, JSONException {
+        /*
+         * For strings that are free of escape sequences and don't cross a
+         * buffer boundary, we can extract the result from the buffer directly.
+         */
+        builder.setLength(0);
+        while (true) {
+            int start = pos;
+            while (pos < limit) {
+                char c = buffer[pos++];
+                if (c == quote) {
+                    if (builder.length() == 0) {
+                        return pool != null
+                                ? pool.get(buffer, start, pos - start - 1)
+                                : new String(buffer, start, pos - start - 1);
+                    }
+                    builder.append(buffer, start, pos - start - 1);
+                    return pool != null
+                            ? pool.get(builder, 0, builder.length())
+                            : builder.toString();
+                } else if (c == '\\') {
+                    builder.append(buffer, start, pos - start - 1);
+                    builder.append(readEscapeCharacter());
+                    start = pos;
+                }
+            }
+            builder.append(buffer, start, pos - start);
+            if (!fillBuffer(1)) {
+                throw syntaxError("Unterminated string");
+            }
+        }
+    }
+
+    /**
+     * Advances past the peeked quoted name or string without decoding it.
+     */
+    private void skipString(char quote) throws IOException, JSONException {
+        while (pos < limit || fillBuffer(1)) {
+            char c = buffer[pos++];
+            if (c == quote) {
+                return;
+            } else if (c == '\\') {
+                readEscapeCharacter();
+            }
+        }
+        throw syntaxError("Unterminated string");
+    }
+
+    /**
+     * Unescapes the character identified by the character or characters that
+     * immediately follow a backslash, which should have already been read.
+     */
+    private char readEscapeCharacter() throws IOException, JSONException {
+        if (pos == limit && !fillBuffer(1)) {
+            throw syntaxError("Unterminated escape sequence");
+        }
+        char escaped = buffer[pos++];
+        switch (escaped) {
+            case 'u':
+                if (pos + 4 > limit && !fillBuffer(4)) {
+                    throw syntaxError("Unterminated escape sequence");
+                }
+                int result = 0;
+                for (int i = pos; i < pos + 4; i++) {
+                    int digit = JSONTokener.dehexchar(buffer[i]);
+                    if (digit == -1) {
+                        throw syntaxError("Invalid escape sequence: "
+                                + new String(buffer, pos, 4));
+                    }
+                    result = (result << 4) + digit;
+                }
+                pos += 4;
+                return (char) result;
+
+            case 't':
+                return '\t';
+
+            case 'b':
+                return '\b';
+
+            case 'n':
+                return '\n';
+
+            case 'r':
+                return '\r';
+
+            case 'f':
+                return '\f';
+
+            case '\'':
+            case '"':
+            case '\\':
+            default:
+                return escaped;
+        }
+    }
+
+    private void expect(Token expected) throws JSONException {
+        Token token = peek();
+        if (token != expected) {
+            throw syntaxError("Expected " + expected + " but was " + token);
+        }
+    }
+
+    /**
+     * Consumes the next token, which must begin an array.
+     */
+    public void beginArray() throws JSONException {
+        expect(Token.BEGIN_ARRAY);
+        peeked = null;
+    }
+
+    /**
+     * Consumes the next token, which must end the current array.
+     */
+    public void endArray() throws JSONException {
+        expect(Token.END_ARRAY);
+        peeked = null;
+        stackSize--;
+    }
+
+    /**
+     * Consumes the next token, which must begin an object.
+     */
+    public void beginObject() throws JSONException {
+        expect(Token.BEGIN_OBJECT);
+        peeked = null;
+    }
+
+    /**
+     * Consumes the next token, which must end the current object.
+     */
+    public void endObject() throws JSONException {
+        expect(Token.END_OBJECT);
+        peeked = null;
+        stackSize--;
+    }
+
+    /**
+     * Returns true if the current array or object has another element.
+     */
+    public boolean hasNext() throws JSONException {
+        Token token = peek();
+        return token != Token.END_ARRAY
+                && token != Token.END_OBJECT
+                && token != Token.END_DOCUMENT;
+    }
+
+    /**
+     * Returns the next token, which must be a property name, and consumes it.
+     */
+    public String nextName() throws JSONException {
+        expect(Token.NAME);
+        return consumeString(namePool);
+    }
+
+    /**
+     * Returns the next token, which must be a quoted or unquoted string, and
+     * consumes it.
+     */
+    public String nextString() throws JSONException {
+        expect(Token.STRING);
+        return consumeString(null);
+    }
+
+    private String consumeString(StringPool pool) throws JSONException {
+        String result;
+        if (peekedQuote != 0) {
+            try {
+                result = readString(peekedQuote, pool);
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+            peekedQuote = 0;
+        } else {
+            result = peekedString;
+            peekedString = null;
+        }
+        peeked = null;
+        return result;
+    }
+
+    /**
+     * Returns the next token, which must be a boolean literal, and consumes
+     * it.
+     */
+    public boolean nextBoolean() throws JSONException {
+        expect(Token.BOOLEAN);
+        peeked = null;
+        return peekedBoolean;
+    }
+
+    /**
+     * Consumes the next token, which must be a null literal or an omitted
+     * array element.
+     */
+    public void nextNull() throws JSONException {
+        expect(Token.NULL);
+        peeked = null;
+    }
+
+    /**
+     * Returns the next token, which must be a number, as a double and
+     * consumes it.
+     */
+    public double nextDouble() throws JSONException {
+        expect(Token.NUMBER);
+        peeked = null;
+        return peekedIsLong ? (double) peekedLong : peekedDouble;
+    }
+
+    /**
+     * Returns the next token, which must be a number that can be represented
+     * exactly as a long, and consumes it.
+     */
+    public long nextLong() throws JSONException {
+        expect(Token.NUMBER);
+        long result;
+        if (peekedIsLong) {
+            result = peekedLong;
+        } else {
+            result = (long) peekedDouble;
+            if (result != peekedDouble) {
+                throw syntaxError("Expected a long but was " + peekedDouble);
+            }
+        }
+        peeked = null;
+        return result;
+    }
+
+    /**
+     * Returns the next token, which must be a number that can be represented
+     * exactly as an int, and consumes it.
+     */
+    public int nextInt() throws JSONException {
+        expect(Token.NUMBER);
+        int result;
+        if (peekedIsLong) {
+            result = (int) peekedLong;
+            if (result != peekedLong) {
+                throw syntaxError("Expected an int but was " + peekedLong);
+            }
+        } else {
+            result = (int) peekedDouble;
+            if (result != peekedDouble) {
+                throw syntaxError("Expected an int but was " + peekedDouble);
+            }
+        }
+        peeked = null;
+        return result;
+    }
+
+    /**
+     * Skips the next value, including any nested arrays and objects, without
+     * decoding it. If the next token is a name, both the name and its value
+     * are skipped.
+     */
+    public void skipValue() throws JSONException {
+        if (peek() == Token.NAME) {
+            skipPeekedString();
+        }
+        int depth = 0;
+        do {
+            Token token = peek();
+            switch (token) {
+                case BEGIN_ARRAY:
+                case BEGIN_OBJECT:
+                    peeked = null;
+                    depth++;
+                    break;
+                case END_ARRAY:
+                case END_OBJECT:
+                    if (depth == 0) {
+                        throw syntaxError("Expected a value but was " + token);
+                    }
+                    peeked = null;
+                    stackSize--;
+                    depth--;
+                    break;
+                case END_DOCUMENT:
+                    throw syntaxError("End of input");
+                case NAME:
+                case STRING:
+                    skipPeekedString();
+                    break;
+                default:
+                    peeked = null;
+                    break;
+            }
+        } while (depth > 0);
+    }
+
+    private void skipPeekedString() throws JSONException {
+        if (peekedQuote != 0) {
+            try {
+                skipString(peekedQuote);
+            } catch (IOException e) {
+                throw new JSONException(e);
+            }
+            peekedQuote = 0;
+        }
+        peekedString = null;
+        peeked = null;
+    }
+
+    /**
+     * Returns the next value from the input.
+     *
+     * @return a {@link JSONObject}, {@link JSONArray}, String, Boolean,
+     *     Integer, Long, Double or {@link JSONObject#NULL}, exactly as
+     *     {@link JSONTokener#nextValue} would for the same input.
+     * @throws JSONException if the input is malformed.
+     */
+    public Object nextValue() throws JSONException {
+        switch (peek()) {
+            case BEGIN_OBJECT: {
+                JSONObject result = new JSONObject();
+                beginObject();
+                while (hasNext()) {
+                    String name = nextName();
+                    result.put(name, nextValue());
+                }
+                endObject();
+                return result;
+            }
+            case BEGIN_ARRAY: {
+                JSONArray result = new JSONArray();
+                beginArray();
+                while (hasNext()) {
+                    result.put(nextValue());
+                }
+                endArray();
+                return result;
+            }
+            case STRING:
+                return nextString();
+            case NUMBER:
+                if (!peekedIsLong) {
+                    return nextDouble();
+                }
+                long longValue = nextLong();
+                if (longValue <= Integer.MAX_VALUE && longValue >= Integer.MIN_VALUE) {
+                    return (int) longValue;
+                }
+                return longValue;
+            case BOOLEAN:
+                return nextBoolean();
+            case NULL:
+                nextNull();
+                return JSONObject.NULL;
+            default:
+                throw syntaxError("Expected a value but was " + peek());
+        }
+    }
+
+    /**
+     * Closes the underlying reader.
+     */
+    @Override public void close() throws IOException {
+        in.close();
+    }
+
+    /**
+     * Returns an exception containing the given message plus the current
+     * position.
+     */
+    public JSONException syntaxError(String message) {
+        return new JSONException(message + this);
+    }
+
+    /**
+     * Returns the current position in the input.
+     */
+    @Override public String toString() {
+        return " at character " + (bufferStart + pos);
+    }
+}
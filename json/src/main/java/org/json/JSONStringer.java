@@ -17,6 +17,8 @@
 package org.json;
 
 import android.compat.annotation.UnsupportedAppUsage;
+import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
@@ -65,6 +67,24 @@ public class JSONStringer {
     @UnsupportedAppUsage
     final StringBuilder out = new StringBuilder();
 
+    /**
+     * The number of buffered characters at which output is handed to {@link
+     * #writer}.
+     */
+    private static final int FLUSH_THRESHOLD = 8192;
+
+    /**
+     * The destination of incremental output, or null if all output is
+     * accumulated in {@link #out}.
+     */
+    private final Writer writer;
+
+    /** True once some output has been handed to {@link #writer}. */
+    private boolean flushed;
+
+    /** Reusable staging area for copying {@link #out} to {@link #writer}. */
+    private char[] writeBuffer;
+
     /**
      * Lexical scoping elements within this stringer, necessary to insert the
      * appropriate separator characters (ie. commas and colons) and to detect
@@ -125,6 +145,7 @@ public class JSONStringer {
 
     public JSONStringer() {
         indent = null;
+        writer = null;
     }
 
     @UnsupportedAppUsage
@@ -132,6 +153,23 @@ public class JSONStringer {
         char[] indentChars = new char[indentSpaces];
         Arrays.fill(indentChars, ' ');
         indent = new String(indentChars);
+        writer = null;
+    }
+
+    /**
+     * Creates a stringer that writes its output to {@code writer} as it is
+     * encoded, buffering only a few kilobytes at a time, rather than
+     * accumulating the whole document in memory. Call {@link #flush} once
+     * the top-level value is complete.
+     *
+     * @hide
+     */
+    public JSONStringer(Writer writer) {
+        if (writer == null) {
+            throw new NullPointerException("writer == null");
+        }
+        indent = null;
+        this.writer = writer;
     }
 
     /**
@@ -178,7 +216,7 @@ public class JSONStringer {
      */
     @UnsupportedAppUsage
     JSONStringer open(Scope empty, String openBracket) throws JSONException {
-        if (stack.isEmpty() && out.length() > 0) {
+        if (stack.isEmpty() && (out.length() > 0 || flushed)) {
             throw new JSONException("Nesting problem: multiple top-level roots");
         }
         beforeValue();
@@ -203,6 +241,7 @@ public class JSONStringer {
             newline();
         }
         out.append(closeBracket);
+        maybeFlush();
         return this;
     }
 
@@ -393,6 +432,7 @@ public class JSONStringer {
      */
     @UnsupportedAppUsage
     private void beforeKey() throws JSONException {
+        maybeFlush();
         Scope context = peek();
         if (context == Scope.NONEMPTY_OBJECT) { // first in object
             out.append(',');
@@ -414,6 +454,7 @@ public class JSONStringer {
             return;
         }
 
+        maybeFlush();
         Scope context = peek();
         if (context == Scope.EMPTY_ARRAY) { // first in array
             replaceTop(Scope.NONEMPTY_ARRAY);
@@ -429,6 +470,48 @@ public class JSONStringer {
         }
     }
 
+    /**
+     * Hands the buffered output to the writer once enough has accumulated.
+     */
+    private void maybeFlush() throws JSONException {
+        if (writer != null && out.length() >= FLUSH_THRESHOLD) {
+            writeBuffered();
+        }
+    }
+
+    private void writeBuffered() throws JSONException {
+        int length = out.length();
+        if (writeBuffer == null || writeBuffer.length < length) {
+            writeBuffer = new char[Math.max(length, FLUSH_THRESHOLD * 2)];
+        }
+        out.getChars(0, length, writeBuffer, 0);
+        try {
+            writer.write(writeBuffer, 0, length);
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+        out.setLength(0);
+        flushed = true;
+    }
+
+    /**
+     * Writes all buffered output to the writer and flushes it. This does
+     * nothing for stringers that don't have a writer.
+     *
+     * @hide
+     */
+    public void flush() throws JSONException {
+        if (writer == null) {
+            return;
+        }
+        writeBuffered();
+        try {
+            writer.flush();
+        } catch (IOException e) {
+            throw new JSONException(e);
+        }
+    }
+
     /**
      * Returns the encoded JSON string.
      *
@@ -437,9 +520,10 @@ public class JSONStringer {
      *
      * <p><strong>Warning:</strong> although it contradicts the general contract
      * of {@link Object#toString}, this method returns null if the stringer
-     * contains no data.
+     * contains no data. It also returns null if the stringer writes its output
+     * to a writer.
      */
     @Override public String toString() {
-        return out.length() == 0 ? null : out.toString();
+        return writer != null || out.length() == 0 ? null : out.toString();
     }
 }
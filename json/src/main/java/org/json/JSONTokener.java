@@ -17,6 +17,7 @@
 package org.json;
 
 import android.compat.annotation.UnsupportedAppUsage;
+import libcore.internal.StringPool;
 
 // Note: this class was written without inspecting the non-free org.json sourcecode.
 
@@ -74,17 +75,38 @@ public class JSONTokener {
     @UnsupportedAppUsage
     private int pos;
 
+    /**
+     * Recently read object names, or null if names aren't pooled. Documents
+     * holding many objects of the same shape repeat the same few names.
+     */
+    private final StringPool namePool;
+
     /**
      * @param in JSON encoded string. Null is not permitted and will yield a
      *     tokener that throws {@code NullPointerExceptions} when methods are
      *     called.
      */
     public JSONTokener(String in) {
+        this(in, false);
+    }
+
+    /**
+     * @param in JSON encoded string. Null is not permitted and will yield a
+     *     tokener that throws {@code NullPointerExceptions} when methods are
+     *     called.
+     * @param poolNames true to share a single String instance between equal
+     *     object names that are read close together. This saves memory when
+     *     parsing arrays of many similar objects, at the cost of a small
+     *     per-tokener pool.
+     * @hide
+     */
+    public JSONTokener(String in, boolean poolNames) {
         // consume an optional byte order mark (BOM) if it exists
         if (in != null && in.startsWith("\ufeff")) {
             in = in.substring(1);
         }
         this.in = in;
+        this.namePool = poolNames ? new StringPool() : null;
     }
 
     /**
@@ -239,6 +261,25 @@ public class JSONTokener {
         throw syntaxError("Unterminated string");
     }
 
+    /**
+     * Like {@link #nextString}, but returns a pooled instance for strings that
+     * are free of escape sequences.
+     */
+    private String nextPooledString(char quote) throws JSONException {
+        final int inLength = in.length();
+        for (int i = pos; i < inLength; i++) {
+            char c = in.charAt(i);
+            if (c == quote) {
+                String result = namePool.get(in, pos, i - pos);
+                pos = i + 1;
+                return result;
+            } else if (c == '\\') {
+                break;
+            }
+        }
+        return nextString(quote);
+    }
+
     /**
      * Unescapes the character identified by the character or characters that
      * immediately follow a backslash. The backslash '\' should have already
@@ -284,6 +325,13 @@ public class JSONTokener {
         }
     }
 
+    /**
+     * The characters that end an unquoted literal, in addition to '\r' and
+     * '\n'. Shared with {@link JSONReader} so both parsers split literals
+     * alike.
+     */
+    static final String LITERAL_DELIMITERS = "{}[]/\\:,=;# \t\f";
+
     /**
      * Reads a null, boolean, numeric or unquoted string literal value. Numeric
      * values will be returned as an Integer, Long, or Double, in that order of
@@ -291,11 +339,21 @@ public class JSONTokener {
      */
     @UnsupportedAppUsage
     private Object readLiteral() throws JSONException {
-        String literal = nextToInternal("{}[]/\\:,=;# \t\f");
+        String literal = nextToInternal(LITERAL_DELIMITERS);
 
         if (literal.length() == 0) {
             throw syntaxError("Expected literal value");
-        } else if ("null".equalsIgnoreCase(literal)) {
+        }
+        return parseLiteral(literal);
+    }
+
+    /**
+     * Returns the value of the non-empty unquoted literal {@code literal}:
+     * {@link JSONObject#NULL}, a Boolean, an Integer, Long or Double, or the
+     * literal itself if it is none of those.
+     */
+    static Object parseLiteral(String literal) {
+        if ("null".equalsIgnoreCase(literal)) {
             return JSONObject.NULL;
         } else if ("true".equalsIgnoreCase(literal)) {
             return Boolean.TRUE;
@@ -377,7 +435,16 @@ public class JSONTokener {
         final int inLength = in.length();
 
         while (true) {
-            Object name = nextValue();
+            Object name;
+            int c = nextCleanInternal();
+            if (namePool != null && (c == '"' || c == '\'')) {
+                name = nextPooledString((char) c);
+            } else {
+                if (c != -1) {
+                    pos--;
+                }
+                name = nextValue();
+            }
             if (!(name instanceof String)) {
                 if (name == null) {
                     throw syntaxError("Names cannot be null");
@@ -16,6 +16,7 @@
 
 package libcore.org.json;
 
+import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
@@ -25,6 +26,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Objects;
@@ -1049,4 +1051,129 @@ public class JSONObjectTest extends TestCase {
         } catch (JSONException expected) {
         }
     }
+
+    public void testInsertionOrderPreservedWhileGrowing() throws JSONException {
+        JSONObject object = new JSONObject();
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            String name = "k" + (19 - i);
+            object.put(name, i);
+            expected.add(name);
+            assertEquals(expected, toList(object.keys()));
+            assertEquals(i, object.getInt(name));
+            assertEquals(i + 1, object.length());
+        }
+        // Replacing a value keeps its position.
+        object.put("k19", "replaced");
+        assertEquals(expected, toList(object.keys()));
+        assertEquals("replaced", object.get("k19"));
+    }
+
+    public void testRemoveFromSmallObject() throws JSONException {
+        JSONObject object = new JSONObject("{\"a\":1,\"b\":2,\"c\":3}");
+        assertEquals(2, object.remove("b"));
+        assertNull(object.remove("b"));
+        assertFalse(object.has("b"));
+        assertEquals("{\"a\":1,\"c\":3}", object.toString());
+
+        Iterator<String> keys = object.keys();
+        assertEquals("a", keys.next());
+        keys.remove();
+        assertEquals("c", keys.next());
+        assertFalse(keys.hasNext());
+        assertEquals("{\"c\":3}", object.toString());
+
+        object.keySet().remove("c");
+        assertEquals(0, object.length());
+        assertNull(object.names());
+        object.put("d", 4);
+        assertEquals("{\"d\":4}", object.toString());
+    }
+
+    public void testKeySetViewSurvivesGrowth() throws JSONException {
+        JSONObject object = new JSONObject();
+        Set<String> keySet = object.keySet();
+        for (int i = 0; i < 20; i++) {
+            object.put("k" + i, i);
+        }
+        assertEquals(20, keySet.size());
+        assertTrue(keySet.contains("k15"));
+        assertTrue(keySet.remove("k15"));
+        assertFalse(object.has("k15"));
+        assertEquals(19, object.length());
+    }
+
+    public void testPooledNames() throws JSONException {
+        JSONArray array = new JSONArray(new JSONTokener(
+                "[{\"name\":1,'id':2},{\"name\":3,\"id\":4},{\"na\\u006de\":5}]", true));
+        JSONObject first = array.getJSONObject(0);
+        JSONObject second = array.getJSONObject(1);
+        String firstName = first.keys().next();
+        String secondName = second.keys().next();
+        assertEquals("name", firstName);
+        assertSame(firstName, secondName);
+        assertEquals(5, array.getJSONObject(2).getInt("name"));
+        assertEquals("[{\"name\":1,\"id\":2},{\"name\":3,\"id\":4},{\"name\":5}]",
+                array.toString());
+    }
+
+    public void testEntryAfterRemove() throws Exception {
+        JSONObject object = new JSONObject("{\"a\":1,\"b\":2,\"c\":3}");
+        Map<String, Object> map = nameValuePairs(object);
+        Iterator<Map.Entry<String, Object>> entries = map.entrySet().iterator();
+        Map.Entry<String, Object> a = entries.next();
+        Map.Entry<String, Object> b = entries.next();
+
+        object.remove("a");
+        // The entry for "b" follows its key to its new position.
+        assertEquals("b", b.getKey());
+        assertEquals(2, b.getValue());
+        assertEquals(2, b.setValue(20));
+        assertEquals(20, object.get("b"));
+
+        // The entry for "a" keeps its last value, and no longer affects the object.
+        assertEquals("a", a.getKey());
+        assertEquals(1, a.getValue());
+        assertEquals(1, a.setValue(10));
+        assertEquals(10, a.getValue());
+        assertFalse(object.has("a"));
+        assertEquals("{\"b\":20,\"c\":3}", object.toString());
+    }
+
+    public void testEntryAfterGrowth() throws Exception {
+        JSONObject object = new JSONObject("{\"a\":1,\"b\":2}");
+        Map<String, Object> map = nameValuePairs(object);
+        Iterator<Map.Entry<String, Object>> entries = map.entrySet().iterator();
+        entries.next();
+        Map.Entry<String, Object> b = entries.next();
+
+        for (int i = 0; i < 20; i++) {
+            object.put("k" + i, i);
+        }
+        assertEquals(2, b.getValue());
+        object.put("b", 3);
+        assertEquals(3, b.getValue());
+        assertEquals(3, b.setValue(4));
+        assertEquals(4, object.get("b"));
+
+        object.remove("b");
+        assertEquals(4, b.getValue());
+        b.setValue(5);
+        assertFalse(object.has("b"));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> nameValuePairs(JSONObject object) throws Exception {
+        Field field = JSONObject.class.getDeclaredField("nameValuePairs");
+        field.setAccessible(true);
+        return (Map<String, Object>) field.get(object);
+    }
+
+    private static List<String> toList(Iterator<String> iterator) {
+        List<String> result = new ArrayList<>();
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
 }
@@ -0,0 +1,267 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.org.json;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.Arrays;
+import junit.framework.TestCase;
+
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONReader;
+import org.json.JSONReader.Token;
+import org.json.JSONStringer;
+import org.json.JSONTokener;
+
+public class JSONReaderTest extends TestCase {
+
+    public void testTokens() throws JSONException {
+        JSONReader reader = new JSONReader(new StringReader(
+                "{\"a\": [1, -2.5, \"s\", true, null], \"b\": {}}"));
+        reader.beginObject();
+        assertEquals(Token.NAME, reader.peek());
+        assertEquals("a", reader.nextName());
+        reader.beginArray();
+        assertEquals(1, reader.nextInt());
+        assertEquals(-2.5, reader.nextDouble());
+        assertEquals("s", reader.nextString());
+        assertTrue(reader.nextBoolean());
+        reader.nextNull();
+        assertFalse(reader.hasNext());
+        reader.endArray();
+        assertEquals("b", reader.nextName());
+        reader.beginObject();
+        reader.endObject();
+        reader.endObject();
+        assertEquals(Token.END_DOCUMENT, reader.peek());
+    }
+
+    public void testNextLong() throws JSONException {
+        JSONReader reader = new JSONReader(new StringReader(
+                "[9223372036854775807, -9223372036854775808, 0x7f, 1e3, 1.5]"));
+        reader.beginArray();
+        assertEquals(Long.MAX_VALUE, reader.nextLong());
+        assertEquals(Long.MIN_VALUE, reader.nextLong());
+        assertEquals(127, reader.nextLong());
+        assertEquals(1000, reader.nextLong());
+        try {
+            reader.nextLong();
+            fail();
+        } catch (JSONException expected) {
+        }
+        assertEquals(1.5, reader.nextDouble());
+        reader.endArray();
+    }
+
+    public void testSkipValue() throws JSONException {
+        JSONReader reader = new JSONReader(new StringReader(
+                "{\"skip\": {\"x\": [1, [2, \"]\"], {\"y\": '}'}]}, \"keep\": 3}"));
+        reader.beginObject();
+        reader.skipValue();
+        assertEquals("keep", reader.nextName());
+        assertEquals(3, reader.nextInt());
+        reader.endObject();
+    }
+
+    public void testTypeMismatch() throws JSONException {
+        JSONReader reader = new JSONReader(new StringReader("[\"a\"]"));
+        try {
+            reader.beginObject();
+            fail();
+        } catch (JSONException expected) {
+        }
+        reader.beginArray();
+        try {
+            reader.nextInt();
+            fail();
+        } catch (JSONException expected) {
+        }
+    }
+
+    public void testMalformed() {
+        assertMalformed("");
+        assertMalformed("[1 2]");
+        assertMalformed("{\"a\" 1}");
+        assertMalformed("{1: 2}");
+        assertMalformed("{\"a\": 1,}");
+        assertMalformed("[\"unterminated");
+        assertMalformed("[1");
+        assertMalformed("/* unterminated");
+        assertMalformed("[\"\\u00\"]");
+    }
+
+    private void assertMalformed(String json) {
+        try {
+            new JSONReader(new StringReader(json)).nextValue();
+            fail(json);
+        } catch (JSONException expected) {
+        }
+    }
+
+    /**
+     * The reader must agree with JSONTokener on all the lenient input that
+     * the tokener accepts.
+     */
+    public void testMatchesTokener() throws JSONException {
+        for (String json : Arrays.asList(
+                "\ufeff{\"a\": 1}",
+                "{'a': \"b\\\"c\\u0041\\n\", \"d\": 'e'}",
+                "{a = 1; b => 2, \"c\": unquoted}",
+                "[1, , 2, ;]",
+                "[,]",
+                "[1,]",
+                "[]",
+                "{}",
+                "// comment\n[1 # another\n, /* block */ 2]",
+                "[0x1F, 017, 0, -0, 2147483648, -2147483649, 123abc, NULL, True]",
+                "[9223372036854775808, 1.0, -1.0e-10]",
+                "[\"\\t\\b\\r\\f\\/\\'\"]",
+                // Characters that end an unquoted literal.
+                "[a\t,b\r,c\n,d ,e/*x*/,f#x\n,g]",
+                "{a:b;c=d,e=>f}")) {
+            Object expected = new JSONTokener(json).nextValue();
+            Object actual = new JSONReader(new StringReader(json)).nextValue();
+            assertEquals(json, expected.toString(), actual.toString());
+            assertEquals(json, expected.getClass(), actual.getClass());
+        }
+    }
+
+    public void testValueTypesMatchTokener() throws JSONException {
+        String json = "[1, 2147483648, 1.5, \"s\", true, null, {}, []]";
+        JSONArray expected = new JSONArray(json);
+        JSONArray actual = new JSONArray(new JSONReader(new StringReader(json)));
+        assertEquals(expected.length(), actual.length());
+        for (int i = 0; i < expected.length(); i++) {
+            assertEquals(expected.get(i).getClass(), actual.get(i).getClass());
+        }
+    }
+
+    /**
+     * Exercise values and escapes that straddle the reader's internal buffer.
+     */
+    public void testLargeDocument() throws JSONException {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 5000; i++) {
+            longString.append((char) ('a' + i % 26));
+            if (i % 7 == 0) {
+                longString.append("\"\\\u00e9\n");
+            }
+        }
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < 2000; i++) {
+            JSONObject object = new JSONObject();
+            object.put("id", i);
+            object.put("value", i * 1.25);
+            object.put("name", "item" + i);
+            array.put(object);
+        }
+        array.put(longString.toString());
+
+        String json = array.toString();
+        JSONArray parsed = new JSONArray(new JSONReader(new TrickleReader(json)));
+        assertEquals(json, parsed.toString());
+        assertEquals(longString.toString(), parsed.getString(2000));
+    }
+
+    public void testPooledNames() throws JSONException {
+        JSONReader reader = new JSONReader(new StringReader(
+                "[{\"name\": \"name\"}, {\"name\": \"name\"}]"), true);
+        reader.beginArray();
+        reader.beginObject();
+        String firstName = reader.nextName();
+        String firstValue = reader.nextString();
+        reader.endObject();
+        reader.beginObject();
+        String secondName = reader.nextName();
+        String secondValue = reader.nextString();
+        reader.endObject();
+        reader.endArray();
+        assertSame(firstName, secondName);
+        assertNotSame(firstValue, secondValue);
+        assertEquals("name", secondValue);
+    }
+
+    public void testJSONObjectFromReader() throws JSONException {
+        JSONObject object = new JSONObject(new JSONReader(new StringReader("{\"a\": [1]}")));
+        assertEquals(1, object.getJSONArray("a").getInt(0));
+        try {
+            new JSONObject(new JSONReader(new StringReader("[1]")));
+            fail();
+        } catch (JSONException expected) {
+        }
+    }
+
+    public void testWrite() throws JSONException {
+        JSONObject object = new JSONObject();
+        JSONArray array = new JSONArray();
+        for (int i = 0; i < 5000; i++) {
+            array.put("value " + i);
+        }
+        object.put("values", array);
+
+        StringWriter writer = new StringWriter();
+        object.write(writer);
+        assertEquals(object.toString(), writer.toString());
+
+        writer = new StringWriter();
+        array.write(writer);
+        assertEquals(array.toString(), writer.toString());
+    }
+
+    public void testStringerWithWriter() throws JSONException {
+        StringWriter writer = new StringWriter();
+        JSONStringer stringer = new JSONStringer(writer);
+        stringer.object().key("a").value(1).endObject();
+        stringer.flush();
+        assertEquals("{\"a\":1}", writer.toString());
+        assertNull(stringer.toString());
+        try {
+            stringer.array();
+            fail();
+        } catch (JSONException expected) {
+        }
+    }
+
+    /**
+     * A reader that returns at most a few characters per read, so tokens are
+     * split across buffer refills.
+     */
+    private static class TrickleReader extends Reader {
+        private final String s;
+        private int pos;
+
+        TrickleReader(String s) {
+            this.s = s;
+        }
+
+        @Override public int read(char[] buffer, int offset, int count) {
+            if (pos == s.length()) {
+                return -1;
+            }
+            int n = Math.min(Math.min(count, 3 + pos % 5), s.length() - pos);
+            s.getChars(pos, pos + n, buffer, offset);
+            pos += n;
+            return n;
+        }
+
+        @Override public void close() {
+        }
+    }
+}
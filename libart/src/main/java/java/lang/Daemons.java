@@ -29,7 +29,9 @@ import java.lang.ref.ReferenceQueue;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 import libcore.util.EmptyArray;
+import libcore.util.NativeAllocationRegistry;
 
 import dalvik.system.VMRuntime;
 import dalvik.system.VMDebug;
@@ -41,6 +43,12 @@ import jdk.internal.ref.CleanerImpl;
  * will abort if any finalize() call takes more than the maximum finalize time
  * to complete.
  *
+ * <p>By default a single FinalizerDaemon runs finalizers and Java 9 Cleaners one at a
+ * time. Setting the system property {@code java.lang.Daemons.finalizerDaemons} to a
+ * value between 2 and 4 runs them on that many FinalizerDaemons instead, each of which
+ * removes references from the queue in batches and is watched separately by the
+ * FinalizerWatchdogDaemon.
+ *
  * @hide
  */
 public final class Daemons {
@@ -55,12 +63,16 @@ public final class Daemons {
     @UnsupportedAppUsage
     private static long MAX_FINALIZE_NANOS = 10L * 1000 * NANOS_PER_MILLI;
 
-    private static final Daemon[] DAEMONS = new Daemon[] {
-            HeapTaskDaemon.INSTANCE,
-            ReferenceQueueDaemon.INSTANCE,
-            FinalizerDaemon.INSTANCE,
-            FinalizerWatchdogDaemon.INSTANCE,
-    };
+    private static final String FINALIZER_DAEMONS_PROPERTY = "java.lang.Daemons.finalizerDaemons";
+    private static final int MAX_FINALIZER_DAEMONS = 4;
+    // The number of references each FinalizerDaemon removes from the queue at once, when there
+    // is more than one. Small, since the rest of a batch waits behind a slow finalizer.
+    private static final int FINALIZER_BATCH_SIZE = 16;
+
+    // FinalizerDaemon.INSTANCE, followed by any additional FinalizerDaemons.
+    private static final FinalizerDaemon[] FINALIZER_DAEMONS = createFinalizerDaemons();
+
+    private static final Daemon[] DAEMONS = createDaemons();
     private static final CountDownLatch POST_ZYGOTE_START_LATCH = new CountDownLatch(DAEMONS.length);
     private static final CountDownLatch PRE_ZYGOTE_START_LATCH = new CountDownLatch(DAEMONS.length);
 
@@ -87,6 +99,61 @@ public final class Daemons {
         }
     }
 
+    private static FinalizerDaemon[] createFinalizerDaemons() {
+        int count = Integer.getInteger(FINALIZER_DAEMONS_PROPERTY, 1);
+        count = Math.max(1, Math.min(count, MAX_FINALIZER_DAEMONS));
+        FinalizerDaemon[] daemons = new FinalizerDaemon[count];
+        daemons[0] = FinalizerDaemon.INSTANCE;
+        for (int i = 1; i < count; i++) {
+            daemons[i] = new FinalizerDaemon("FinalizerDaemon-" + i,
+                    FinalizerWatchdogDaemon.RQ_DAEMON << i);
+        }
+        return daemons;
+    }
+
+    private static Daemon[] createDaemons() {
+        Daemon[] daemons = new Daemon[FINALIZER_DAEMONS.length + 3];
+        int i = 0;
+        daemons[i++] = HeapTaskDaemon.INSTANCE;
+        daemons[i++] = ReferenceQueueDaemon.INSTANCE;
+        for (FinalizerDaemon daemon : FINALIZER_DAEMONS) {
+            daemons[i++] = daemon;
+        }
+        daemons[i++] = FinalizerWatchdogDaemon.INSTANCE;
+        return daemons;
+    }
+
+    private static boolean isFinalizingInParallel() {
+        return FINALIZER_DAEMONS.length > 1;
+    }
+
+    /**
+     * Returns the number of finalizers and Java 9 Cleaners waiting to be run.
+     */
+    public static long getFinalizerBacklog() {
+        return FinalizerReference.queue.queueLength();
+    }
+
+    /**
+     * Returns the number of finalizers and Java 9 Cleaners that have been run. Only counted
+     * when there is more than one FinalizerDaemon; otherwise returns 0.
+     */
+    public static long getFinalizedCount() {
+        long count = 0;
+        for (FinalizerDaemon daemon : FINALIZER_DAEMONS) {
+            count += daemon.finalizedCount.get();
+        }
+        return count;
+    }
+
+    /**
+     * Returns the longest time, in nanoseconds, taken by a single finalizer or Java 9 Cleaner.
+     * Only measured when there is more than one FinalizerDaemon; otherwise returns 0.
+     */
+    public static long getMaxFinalizerLatencyNanos() {
+        return FinalizerDaemon.maxLatencyNanos.get();
+    }
+
     private static void waitForDaemonStart() throws Exception {
         if (postZygoteFork) {
             POST_ZYGOTE_START_LATCH.await();
@@ -251,6 +318,8 @@ public final class Daemons {
                     continue;
                 }
                 ReferenceQueue.enqueuePending(list, progressCounter);
+                // Free what batched NativeAllocationRegistry cleaners deferred above.
+                NativeAllocationRegistry.freePendingAllocations();
                 FinalizerWatchdogDaemon.INSTANCE.resetTimeouts();
             }
         }
@@ -268,12 +337,37 @@ public final class Daemons {
         // Object (not reference!) being finalized. Accesses may race!
         @UnsupportedAppUsage
         private Object finalizingObject = null;
+        // The FinalizerWatchdogDaemon bit that identifies this daemon.
+        private final int watchBit;
+
+        // The remaining fields are only used when there is more than one FinalizerDaemon.
+        // Batches removed from the queue, and batches fully processed, by this daemon.
+        // See awaitEarlierBatches().
+        private final AtomicInteger takenBatches = new AtomicInteger(0);
+        private final AtomicInteger completedBatches = new AtomicInteger(0);
+        // Only written by this daemon.
+        private final AtomicLong finalizedCount = new AtomicLong(0);
+
+        private static final AtomicLong maxLatencyNanos = new AtomicLong(0);
+        // Number of daemons in awaitEarlierBatches(), which wait on BARRIER_LOCK.
+        private static final AtomicInteger barrierWaiters = new AtomicInteger(0);
+        private static final Object BARRIER_LOCK = new Object();
 
         FinalizerDaemon() {
-            super("FinalizerDaemon");
+            this("FinalizerDaemon", FinalizerWatchdogDaemon.FINALIZER_DAEMON);
+        }
+
+        FinalizerDaemon(String name, int watchBit) {
+            super(name);
+            this.watchBit = watchBit;
         }
 
         @Override public void runInternal() {
+            if (isFinalizingInParallel()) {
+                runInternalParallel();
+                return;
+            }
+
             // This loop may be performance critical, since we need to keep up with mutator
             // generation of finalizable objects.
             // We minimize the amount of work we do per finalizable object. For example, we avoid
@@ -288,8 +382,7 @@ public final class Daemons {
             // Local copy of progressCounter; saves a fence per increment on ARM.
             int localProgressCounter = progressCounter.get();
 
-            FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(
-                    FinalizerWatchdogDaemon.FINALIZER_DAEMON);
+            FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(watchBit);
             while (isRunning()) {
                 try {
                     // Use non-blocking poll to avoid FinalizerWatchdogDaemon communication
@@ -301,15 +394,13 @@ public final class Daemons {
                     } else {
                         finalizingObject = null;
                         // Slow path; block.
-                        FinalizerWatchdogDaemon.INSTANCE.monitoringNotNeeded(
-                                FinalizerWatchdogDaemon.FINALIZER_DAEMON);
+                        FinalizerWatchdogDaemon.INSTANCE.monitoringNotNeeded(watchBit);
                         // Increment after above call. If watchdog saw it active, it should see
                         // the counter update.
                         progressCounter.set(++localProgressCounter);
                         nextReference = queue.remove();
                         progressCounter.set(++localProgressCounter);
-                        FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(
-                                FinalizerWatchdogDaemon.FINALIZER_DAEMON);
+                        FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(watchBit);
                         processReference(nextReference);
                     }
                 } catch (InterruptedException ignored) {
@@ -318,6 +409,125 @@ public final class Daemons {
             }
         }
 
+        /**
+         * The loop above, for when several FinalizerDaemons share the queue. References are
+         * removed in batches, so that the daemons don't contend for the queue's lock on every
+         * reference. This costs a System.nanoTime() call per reference, to track latency.
+         */
+        private void runInternalParallel() {
+            final Reference<?>[] batch = new Reference<?>[FINALIZER_BATCH_SIZE];
+            int localProgressCounter = progressCounter.get();
+
+            FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(watchBit);
+            while (isRunning()) {
+                int count;
+                try {
+                    count = queue.poll(batch, takenBatches);
+                    if (count == 0) {
+                        finalizingObject = null;
+                        FinalizerWatchdogDaemon.INSTANCE.monitoringNotNeeded(watchBit);
+                        progressCounter.set(++localProgressCounter);
+                        count = queue.remove(batch, takenBatches);
+                        progressCounter.set(++localProgressCounter);
+                        FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(watchBit);
+                    }
+                } catch (InterruptedException ignored) {
+                    continue;
+                } catch (OutOfMemoryError ignored) {
+                    continue;
+                }
+                localProgressCounter = processBatch(batch, count, localProgressCounter);
+            }
+        }
+
+        private int processBatch(Reference<?>[] batch, int count, int localProgressCounter) {
+            int sentinelCount = 0;
+            long startNanos = System.nanoTime();
+            for (int i = 0; i < count; i++) {
+                Reference<?> ref = batch[i];
+                batch[i] = null;
+                if (ref instanceof FinalizerReference<?> finalizerReference
+                        && finalizerReference.isSentinel()) {
+                    // Finalized below, once everything removed before it has been.
+                    batch[sentinelCount++] = ref;
+                    continue;
+                }
+                progressCounter.lazySet(++localProgressCounter);
+                processReference(ref);
+                long endNanos = System.nanoTime();
+                recordFinalized(endNanos - startNanos);
+                startNanos = endNanos;
+            }
+
+            completedBatches.incrementAndGet();
+            // Pairs with the barrierWaiters increment in awaitEarlierBatches(): either it sees
+            // our completedBatches increment, or we see its waiter and notify it.
+            if (barrierWaiters.get() > 0) {
+                synchronized (BARRIER_LOCK) {
+                    BARRIER_LOCK.notifyAll();
+                }
+            }
+
+            if (sentinelCount > 0) {
+                localProgressCounter = awaitEarlierBatches(localProgressCounter);
+                for (int i = 0; i < sentinelCount; i++) {
+                    Reference<?> ref = batch[i];
+                    batch[i] = null;
+                    progressCounter.lazySet(++localProgressCounter);
+                    processReference(ref);
+                }
+            }
+            return localProgressCounter;
+        }
+
+        /**
+         * Waits until the other FinalizerDaemons have processed every batch they removed from
+         * the queue before this daemon's last batch, so that finalizing a sentinel still means
+         * that every reference enqueued before it has been processed. This daemon has finished
+         * its own batch before waiting, so daemons waiting here never wait for each other.
+         */
+        private int awaitEarlierBatches(int localProgressCounter) {
+            // Waiting isn't running a finalizer; the daemons we wait for are watched themselves.
+            FinalizerWatchdogDaemon.INSTANCE.monitoringNotNeeded(watchBit);
+            progressCounter.set(++localProgressCounter);
+            boolean interrupted = false;
+            barrierWaiters.incrementAndGet();
+            try {
+                for (FinalizerDaemon daemon : FINALIZER_DAEMONS) {
+                    if (daemon == this) {
+                        continue;
+                    }
+                    final int takenBatches = daemon.takenBatches.get();
+                    synchronized (BARRIER_LOCK) {
+                        while (daemon.completedBatches.get() - takenBatches < 0) {
+                            try {
+                                BARRIER_LOCK.wait();
+                            } catch (InterruptedException e) {
+                                // Daemon.stop may have interrupted us; finish the batch first.
+                                interrupted = true;
+                            }
+                        }
+                    }
+                }
+            } finally {
+                barrierWaiters.decrementAndGet();
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            progressCounter.set(++localProgressCounter);
+            FinalizerWatchdogDaemon.INSTANCE.monitoringNeeded(watchBit);
+            return localProgressCounter;
+        }
+
+        private void recordFinalized(long latencyNanos) {
+            finalizedCount.lazySet(finalizedCount.get() + 1);
+            long max = maxLatencyNanos.get();
+            while (latencyNanos > max && !maxLatencyNanos.compareAndSet(max, latencyNanos)) {
+                max = maxLatencyNanos.get();
+            }
+        }
+
         private void processReference(Object ref) {
             if (ref instanceof FinalizerReference finalizingReference) {
                 finalizingObject = finalizingReference.get();
@@ -359,15 +569,16 @@ public final class Daemons {
     }
 
     /**
-     * The watchdog exits the VM if either the FinalizerDaemon, or the ReferenceQueueDaemon
-     * gets stuck. We consider the finalizer to be stuck if it spends more than
+     * The watchdog exits the VM if either a FinalizerDaemon, or the ReferenceQueueDaemon
+     * gets stuck. We consider a finalizer to be stuck if it spends more than
      * MAX_FINALIZATION_MILLIS on one instance. We consider ReferenceQueueDaemon to be
      * potentially stuck if it spends more than MAX_FINALIZATION_MILLIS processing a single
      * Cleaner or transferring objects into a single queue, but only report if this happens
      * a few times in a row, to compensate for the fact that multiple Cleaners may be involved.
      */
     private static class FinalizerWatchdogDaemon extends Daemon {
-        // Single bit values to identify daemon to be watched.
+        // Single bit values to identify daemon to be watched. Additional FinalizerDaemons use
+        // the bits above RQ_DAEMON.
         static final int FINALIZER_DAEMON = 1;
         static final int RQ_DAEMON = 2;
 
@@ -390,6 +601,10 @@ public final class Daemons {
 
         private long finalizerTimeoutNs = 0;  // Lazily initialized.
 
+        // Per FINALIZER_DAEMONS entry. Only accessed by waitForProgress(). Lazily initialized.
+        private int[] finalizerStartCounts;
+        private boolean[] monitorFinalizers;
+
         // We tolerate this many timeouts during an enqueuePending call.
         // This number is > 1, since we may only report enqueuePending progress rarely.
         private static final int TOLERATED_REFERENCE_QUEUE_TIMEOUTS = 5;
@@ -506,11 +721,17 @@ public final class Daemons {
                 // Temporary app backward compatibility. Remove eventually.
                 MAX_FINALIZE_NANOS = finalizerTimeoutNs;
             }
+            if (finalizerStartCounts == null) {
+                finalizerStartCounts = new int[FINALIZER_DAEMONS.length];
+                monitorFinalizers = new boolean[FINALIZER_DAEMONS.length];
+            }
             // Read the counter before we read the "active" state the first time, and after
             // we read it the last time, to guarantee that if the state was ever inactive,
             // we'll see a changed counter.
-            int finalizerStartCount = FinalizerDaemon.INSTANCE.progressCounter.get();
-            boolean monitorFinalizer = isActive(FINALIZER_DAEMON);
+            for (int i = 0; i < FINALIZER_DAEMONS.length; i++) {
+                finalizerStartCounts[i] = FINALIZER_DAEMONS[i].progressCounter.get();
+                monitorFinalizers[i] = isActive(FINALIZER_DAEMONS[i].watchBit);
+            }
             int refQueueStartCount = ReferenceQueueDaemon.INSTANCE.progressCounter.get();
             boolean monitorRefQueue = isActive(RQ_DAEMON);
             // Avoid remembering object being finalized, so as not to keep it alive.
@@ -528,8 +749,7 @@ public final class Daemons {
                     // Don't report possibly spurious timeout if we are interrupted.
                     return null;
                 }
-                if (monitorFinalizer && isActive(FINALIZER_DAEMON)
-                    && FinalizerDaemon.INSTANCE.progressCounter.get() == finalizerStartCount) {
+                if (stuckFinalizerDaemon() != null) {
                     // Still working on same finalizer or Java 9 Cleaner.
                     continue;
                 }
@@ -547,21 +767,21 @@ public final class Daemons {
             }
             // Either a state change to inactive, or a task completion would have caused us to see a
             // counter change. Thus at least one of the daemons appears stuck.
-            if (monitorFinalizer && isActive(FINALIZER_DAEMON)
-                && FinalizerDaemon.INSTANCE.progressCounter.get() == finalizerStartCount) {
+            FinalizerDaemon stuckDaemon = stuckFinalizerDaemon();
+            if (stuckDaemon != null) {
                 // The finalizingObject field was set just before the counter increment, which
                 // preceded the doFinalize() or doClean() call.  Thus we are guaranteed to get the
                 // correct finalizing value below, unless doFinalize() just finished as we were
                 // timing out, in which case we may get null or a later one.
-                Object finalizing = FinalizerDaemon.INSTANCE.finalizingObject;
+                Object finalizing = stuckDaemon.finalizingObject;
                 System.logE("Was finalizing " + finalizingObjectAsString(finalizing)
                     + ", now finalizing "
-                    + finalizingObjectAsString(FinalizerDaemon.INSTANCE.finalizingObject));
+                    + finalizingObjectAsString(stuckDaemon.finalizingObject));
                 // Print both time of day and monotonic time differences:
                 System.logE("Total elapsed millis: "
                     + (System.currentTimeMillis() - startMillis));
                 System.logE("Total elapsed nanos: " + (System.nanoTime() - startNanos));
-                return finalizerTimeoutException(finalizing);
+                return finalizerTimeoutException(stuckDaemon, finalizing);
             }
             if (monitorRefQueue && isActive(RQ_DAEMON)
                 && ReferenceQueueDaemon.INSTANCE.progressCounter.get() == refQueueStartCount) {
@@ -580,7 +800,23 @@ public final class Daemons {
             return null;
         }
 
-        private static TimeoutException finalizerTimeoutException(Object object) {
+        /**
+         * Returns a FinalizerDaemon that was active throughout the current waitForProgress()
+         * call without making progress, or null if there is none.
+         */
+        private FinalizerDaemon stuckFinalizerDaemon() {
+            for (int i = 0; i < FINALIZER_DAEMONS.length; i++) {
+                FinalizerDaemon daemon = FINALIZER_DAEMONS[i];
+                if (monitorFinalizers[i] && isActive(daemon.watchBit)
+                        && daemon.progressCounter.get() == finalizerStartCounts[i]) {
+                    return daemon;
+                }
+            }
+            return null;
+        }
+
+        private static TimeoutException finalizerTimeoutException(FinalizerDaemon daemon,
+                Object object) {
             StringBuilder messageBuilder = new StringBuilder();
 
             if (object instanceof Cleaner.Cleanable) {
@@ -594,7 +830,7 @@ public final class Daemons {
                     .append(" seconds");
             TimeoutException syntheticException = new TimeoutException(messageBuilder.toString());
             // We use the stack from where finalize() was running to show where it was stuck.
-            syntheticException.setStackTrace(FinalizerDaemon.INSTANCE.getStackTrace());
+            syntheticException.setStackTrace(daemon.getStackTrace());
             return syntheticException;
         }
 
@@ -428,6 +428,11 @@ public final class OsConstants {
     @UnsupportedAppUsage
     @SystemApi(client = MODULE_LIBRARIES)
     public static final int _LINUX_CAPABILITY_VERSION_3 = placeholder();
+    /** @hide */ public static final int MADV_DONTNEED = placeholder();
+    /** @hide */ public static final int MADV_NORMAL = placeholder();
+    /** @hide */ public static final int MADV_RANDOM = placeholder();
+    /** @hide */ public static final int MADV_SEQUENTIAL = placeholder();
+    /** @hide */ public static final int MADV_WILLNEED = placeholder();
     public static final int MAP_FIXED = placeholder();
     public static final int MAP_ANONYMOUS = placeholder();
     /**
@@ -516,6 +521,12 @@ public final class OsConstants {
     public static final int POLLRDNORM = placeholder();
     public static final int POLLWRBAND = placeholder();
     public static final int POLLWRNORM = placeholder();
+    /** @hide */ public static final int POSIX_FADV_DONTNEED = placeholder();
+    /** @hide */ public static final int POSIX_FADV_NOREUSE = placeholder();
+    /** @hide */ public static final int POSIX_FADV_NORMAL = placeholder();
+    /** @hide */ public static final int POSIX_FADV_RANDOM = placeholder();
+    /** @hide */ public static final int POSIX_FADV_SEQUENTIAL = placeholder();
+    /** @hide */ public static final int POSIX_FADV_WILLNEED = placeholder();
     /**
      * Reads or changes the ambient capability set of the calling thread.
      * Has to be used as a first argument for {@link Os#prctl(int, long, long, long, long)}.
@@ -18,6 +18,7 @@ package java.lang.ref;
 
 import android.compat.annotation.UnsupportedAppUsage;
 import dalvik.annotation.optimization.FastNative;
+import libcore.util.NativeAllocationRegistry;
 
 /**
  * @hide
@@ -56,6 +57,15 @@ public final class FinalizerReference<T> extends Reference<T> {
         zombie = null;
     }
 
+    /**
+     * Returns true if this reference was enqueued by {@link #finalizeAllEnqueued}. A finalizer
+     * thread must not finalize it until every reference removed from {@link #queue} before it
+     * has been finalized.
+     */
+    public boolean isSentinel() {
+        return zombie instanceof Sentinel;
+    }
+
     @UnsupportedAppUsage
     public static void add(Object referent) {
         FinalizerReference<?> reference = new FinalizerReference<Object>(referent, queue);
@@ -100,6 +110,8 @@ public final class FinalizerReference<T> extends Reference<T> {
             sentinel = new Sentinel();
         } while (!enqueueSentinelReference(sentinel));
         sentinel.awaitFinalization(timeout);
+        // Cleaners that ran before the sentinel was enqueued may have deferred their frees.
+        NativeAllocationRegistry.freePendingAllocations();
     }
 
     private static boolean enqueueSentinelReference(Sentinel sentinel) {
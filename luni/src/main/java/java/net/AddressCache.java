@@ -17,11 +17,18 @@
 package java.net;
 
 import android.compat.annotation.UnsupportedAppUsage;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import libcore.util.BasicLruCache;
 
 /**
- * Implements caching for {@code InetAddress}. We use a unified cache for both positive and negative
- * cache entries.
+ * Implements caching for {@code InetAddress}. Positive and negative entries are kept in separate
+ * maps, so that lookups of names that do not resolve cannot evict addresses that are in use.
+ *
+ * <p>Lookups of cached names take no locks. Concurrent lookups of the same uncached name share a
+ * single resolution, and once an entry has expired, one thread refreshes it while the others
+ * keep using the expired entry for a little longer.
  *
  * TODO: benchmark and optimize InetAddress until we get to the point where we can just rely on
  * the C library level caching. The main thing caching at this level buys us is avoiding repeated
@@ -29,18 +36,66 @@ import libcore.util.BasicLruCache;
  */
 class AddressCache {
     /**
-     * When the cache contains more entries than this, we start dropping the oldest ones.
-     * This should be a power of two to avoid wasted space in our custom map.
+     * When either map contains more entries than this, we start dropping the ones that expire
+     * first.
      */
     private static final int MAX_ENTRIES = 16;
 
     // The TTL for the Java-level cache is short, just 2s.
     private static final long TTL_NANOS = 2 * 1000000000L;
 
-    // The actual cache.
+    // How long after its expiry an entry may still be returned while another thread refreshes it.
+    private static final long MAX_STALE_NANOS = TTL_NANOS;
+
+    private final long ttlNanos;
+    private final long maxStaleNanos;
+
+    private final Map<AddressCacheKey, AddressCacheEntry> positiveEntries =
+            new ConcurrentHashMap<>();
+    private final Map<AddressCacheKey, AddressCacheEntry> negativeEntries =
+            new ConcurrentHashMap<>();
+
+    // Resolutions in progress, each of which may be shared by several lookups.
+    private final Map<AddressCacheKey, PendingLookup> pendingLookups = new ConcurrentHashMap<>();
+
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong staleHitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+    private final AtomicLong coalescedCount = new AtomicLong();
+
+    /**
+     * The cache this class used to be built on, kept for apps that reach into it. Every entry
+     * put into the maps above is also put here, and evicting all entries from it also clears
+     * the maps. Lookups never read it.
+     */
     @UnsupportedAppUsage
-    private final BasicLruCache<AddressCacheKey, AddressCacheEntry> cache
-            = new BasicLruCache<AddressCacheKey, AddressCacheEntry>(MAX_ENTRIES);
+    private final BasicLruCache<AddressCacheKey, AddressCacheEntry> cache =
+            new BasicLruCache<AddressCacheKey, AddressCacheEntry>(2 * MAX_ENTRIES) {
+                @Override
+                protected void entryEvicted(AddressCacheKey key, AddressCacheEntry value) {
+                    // Entries that only fall off the end of the LRU queue are still in the maps.
+                    if (!mirroring) {
+                        positiveEntries.remove(key, value);
+                        negativeEntries.remove(key, value);
+                    }
+                }
+            };
+
+    // Whether put() is currently adding an entry to 'cache'. Guarded by 'cache'.
+    private boolean mirroring;
+
+    AddressCache() {
+        this(TTL_NANOS, MAX_STALE_NANOS);
+    }
+
+    /**
+     * Creates a cache whose entries expire 'ttlNanos' after they are added, and may still be
+     * returned for up to 'maxStaleNanos' after that while they are refreshed.
+     */
+    AddressCache(long ttlNanos, long maxStaleNanos) {
+        this.ttlNanos = ttlNanos;
+        this.maxStaleNanos = maxStaleNanos;
+    }
 
     static class AddressCacheKey {
         @UnsupportedAppUsage
@@ -88,8 +143,56 @@ class AddressCache {
 
         @UnsupportedAppUsage
         AddressCacheEntry(Object value) {
+            this(value, System.nanoTime() + TTL_NANOS);
+        }
+
+        AddressCacheEntry(Object value, long expiryNanos) {
             this.value = value;
-            this.expiryNanos = System.nanoTime() + TTL_NANOS;
+            this.expiryNanos = expiryNanos;
+        }
+    }
+
+    /**
+     * Resolves hostnames that are not in the cache.
+     */
+    interface Resolver {
+        /**
+         * Returns the addresses of 'hostname' on network 'netId'.
+         *
+         * @throws UnknownHostException if 'hostname' has no addresses. The exception's detail
+         *         message is cached as a negative entry.
+         */
+        InetAddress[] resolve(String hostname, int netId) throws UnknownHostException;
+    }
+
+    /**
+     * A resolution in progress. Lookups of the same name wait for its value, which is null if
+     * the resolution failed with an unexpected exception.
+     */
+    private static final class PendingLookup {
+        private Object value;
+        private boolean done;
+
+        synchronized void complete(Object value) {
+            this.value = value;
+            done = true;
+            notifyAll();
+        }
+
+        synchronized Object await() {
+            // Like getaddrinfo itself, waiting for it cannot be interrupted.
+            boolean interrupted = false;
+            while (!done) {
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+            return value;
         }
     }
 
@@ -98,6 +201,8 @@ class AddressCache {
      */
     public void clear() {
         cache.evictAll();
+        positiveEntries.clear();
+        negativeEntries.clear();
     }
 
     /**
@@ -106,22 +211,96 @@ class AddressCache {
      * UnknownHostException detail message if 'hostname' is known not to exist.
      */
     public Object get(String hostname, int netId) {
-        AddressCacheEntry entry = cache.get(new AddressCacheKey(hostname, netId));
+        AddressCacheEntry entry = getEntry(new AddressCacheKey(hostname, netId));
         // Do we have a valid cache entry?
         if (entry != null && entry.expiryNanos >= System.nanoTime()) {
             return entry.value;
         }
         // Either we didn't find anything, or it had expired.
-        // No need to remove expired entries: the caller will provide a replacement shortly.
         return null;
     }
 
+    /**
+     * Returns the addresses of 'hostname' on network 'netId', from the cache if possible, and
+     * otherwise from 'resolver'. Only one thread at a time calls 'resolver' for a given
+     * 'hostname' and 'netId'; the others either wait for its result, or if there is an expired
+     * entry that is not too old, return that instead.
+     *
+     * @throws UnknownHostException if 'hostname' is known not to exist.
+     */
+    public InetAddress[] lookup(String hostname, int netId, Resolver resolver)
+            throws UnknownHostException {
+        AddressCacheKey key = new AddressCacheKey(hostname, netId);
+        AddressCacheEntry entry = getEntry(key);
+        long now = System.nanoTime();
+        if (entry != null && entry.expiryNanos >= now) {
+            hitCount.incrementAndGet();
+            return toAddresses(entry.value);
+        }
+        boolean isStale = entry != null && now - entry.expiryNanos <= maxStaleNanos;
+
+        PendingLookup lookup = new PendingLookup();
+        PendingLookup existing = pendingLookups.putIfAbsent(key, lookup);
+        if (existing != null) {
+            if (isStale) {
+                staleHitCount.incrementAndGet();
+                return toAddresses(entry.value);
+            }
+            Object value = existing.await();
+            if (value != null) {
+                coalescedCount.incrementAndGet();
+                return toAddresses(value);
+            }
+            // The other resolution failed unexpectedly. Try again, without coalescing.
+            missCount.incrementAndGet();
+            return resolve(key, resolver);
+        }
+
+        missCount.incrementAndGet();
+        Object value = null;
+        try {
+            InetAddress[] addresses = resolver.resolve(hostname, netId);
+            value = addresses;
+            return addresses;
+        } catch (UnknownHostException e) {
+            value = e.getMessage();
+            throw e;
+        } finally {
+            if (value != null) {
+                put(key, value);
+            }
+            pendingLookups.remove(key, lookup);
+            lookup.complete(value);
+        }
+    }
+
+    private InetAddress[] resolve(AddressCacheKey key, Resolver resolver)
+            throws UnknownHostException {
+        try {
+            InetAddress[] addresses = resolver.resolve(key.mHostname, key.mNetId);
+            put(key, addresses);
+            return addresses;
+        } catch (UnknownHostException e) {
+            put(key, e.getMessage());
+            throw e;
+        }
+    }
+
+    private static InetAddress[] toAddresses(Object value) throws UnknownHostException {
+        if (value instanceof InetAddress[]) {
+            // A cached positive result.
+            return (InetAddress[]) value;
+        }
+        // A cached negative result.
+        throw new UnknownHostException((String) value);
+    }
+
     /**
      * Associates the given 'addresses' with 'hostname'. The association will expire after a
      * certain length of time.
      */
     public void put(String hostname, int netId, InetAddress[] addresses) {
-        cache.put(new AddressCacheKey(hostname, netId), new AddressCacheEntry(addresses));
+        put(new AddressCacheKey(hostname, netId), addresses);
     }
 
     /**
@@ -129,6 +308,80 @@ class AddressCache {
      * negative cache entry.)
      */
     public void putUnknownHost(String hostname, int netId, String detailMessage) {
-        cache.put(new AddressCacheKey(hostname, netId), new AddressCacheEntry(detailMessage));
+        put(new AddressCacheKey(hostname, netId), detailMessage);
+    }
+
+    private void put(AddressCacheKey key, Object value) {
+        Map<AddressCacheKey, AddressCacheEntry> entries;
+        if (value instanceof InetAddress[]) {
+            entries = positiveEntries;
+            negativeEntries.remove(key);
+        } else {
+            entries = negativeEntries;
+            positiveEntries.remove(key);
+        }
+        AddressCacheEntry entry = new AddressCacheEntry(value, System.nanoTime() + ttlNanos);
+        entries.put(key, entry);
+        if (entries.size() > MAX_ENTRIES) {
+            trim(entries);
+        }
+        synchronized (cache) {
+            mirroring = true;
+            try {
+                cache.put(key, entry);
+            } finally {
+                mirroring = false;
+            }
+        }
+    }
+
+    private AddressCacheEntry getEntry(AddressCacheKey key) {
+        AddressCacheEntry positive = positiveEntries.get(key);
+        AddressCacheEntry negative = negativeEntries.get(key);
+        if (positive == null) {
+            return negative;
+        }
+        // Both can be present only while put() is replacing one with the other.
+        return (negative == null || positive.expiryNanos - negative.expiryNanos >= 0)
+                ? positive : negative;
+    }
+
+    // Drops the entries that expire first until at most MAX_ENTRIES remain.
+    private static void trim(Map<AddressCacheKey, AddressCacheEntry> entries) {
+        synchronized (entries) {
+            while (entries.size() > MAX_ENTRIES) {
+                Map.Entry<AddressCacheKey, AddressCacheEntry> oldest = null;
+                for (Map.Entry<AddressCacheKey, AddressCacheEntry> e : entries.entrySet()) {
+                    if (oldest == null
+                            || e.getValue().expiryNanos - oldest.getValue().expiryNanos < 0) {
+                        oldest = e;
+                    }
+                }
+                if (oldest == null) {
+                    return;
+                }
+                entries.remove(oldest.getKey(), oldest.getValue());
+            }
+        }
+    }
+
+    /** Returns the number of lookups that found an unexpired entry. */
+    long getHitCount() {
+        return hitCount.get();
+    }
+
+    /** Returns the number of lookups that returned an expired entry while it was refreshed. */
+    long getStaleHitCount() {
+        return staleHitCount.get();
+    }
+
+    /** Returns the number of lookups that called the resolver. */
+    long getMissCount() {
+        return missCount.get();
+    }
+
+    /** Returns the number of lookups that waited for another lookup's resolution. */
+    long getCoalescedCount() {
+        return coalescedCount.get();
     }
 }
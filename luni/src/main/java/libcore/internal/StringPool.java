@@ -66,4 +66,39 @@ public final class StringPool {
         pool[index] = result;
         return result;
     }
+
+    private static boolean contentEquals(String s, CharSequence chars, int start, int length) {
+        if (s.length() != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (chars.charAt(start + i) != s.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a string equal to {@code chars.subSequence(start, start + length).toString()}.
+     */
+    public String get(CharSequence chars, int start, int length) {
+        int hashCode = 0;
+        for (int i = start; i < start + length; i++) {
+            hashCode = (hashCode * 31) + chars.charAt(i);
+        }
+
+        hashCode ^= (hashCode >>> 20) ^ (hashCode >>> 12);
+        hashCode ^= (hashCode >>> 7) ^ (hashCode >>> 4);
+        int index = hashCode & (pool.length - 1);
+
+        String pooled = pool[index];
+        if (pooled != null && contentEquals(pooled, chars, start, length)) {
+            return pooled;
+        }
+
+        String result = chars.subSequence(start, start + length).toString();
+        pool[index] = result;
+        return result;
+    }
 }
@@ -169,6 +169,12 @@ public class BlockGuardOs extends ForwardingOs {
         super.connect(fd, address);
     }
 
+    @Override public long copy_file_range(FileDescriptor fdIn, Int64Ref offIn, FileDescriptor fdOut, Int64Ref offOut, long len, int flags) throws ErrnoException, InterruptedIOException {
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        BlockGuard.getThreadPolicy().onReadFromDisk();
+        return super.copy_file_range(fdIn, offIn, fdOut, offOut, len, flags);
+    }
+
     @UnsupportedAppUsage
     @Override public void fchmod(FileDescriptor fd, int mode) throws ErrnoException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
@@ -222,6 +228,12 @@ public class BlockGuardOs extends ForwardingOs {
         return super.android_getaddrinfo(node, hints, netId);
     }
 
+    @Override public void ioctlFiclone(FileDescriptor destFd, FileDescriptor srcFd) throws ErrnoException {
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        BlockGuard.getThreadPolicy().onReadFromDisk();
+        super.ioctlFiclone(destFd, srcFd);
+    }
+
     @UnsupportedAppUsage
     @Override public void lchown(String path, int uid, int gid) throws ErrnoException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
@@ -301,6 +313,11 @@ public class BlockGuardOs extends ForwardingOs {
         return super.pread(fd, bytes, byteOffset, byteCount, offset);
     }
 
+    @Override public int preadv(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException {
+        BlockGuard.getThreadPolicy().onReadFromDisk();
+        return super.preadv(fd, buffers, offsets, byteCounts, offset);
+    }
+
     @UnsupportedAppUsage
     @Override public int pwrite(FileDescriptor fd, ByteBuffer buffer, long offset) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onWriteToDisk();
@@ -313,6 +330,11 @@ public class BlockGuardOs extends ForwardingOs {
         return super.pwrite(fd, bytes, byteOffset, byteCount, offset);
     }
 
+    @Override public int pwritev(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException {
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        return super.pwritev(fd, buffers, offsets, byteCounts, offset);
+    }
+
     @UnsupportedAppUsage
     @Override public int read(FileDescriptor fd, ByteBuffer buffer) throws ErrnoException, InterruptedIOException {
         BlockGuard.getThreadPolicy().onReadFromDisk();
@@ -325,6 +347,11 @@ public class BlockGuardOs extends ForwardingOs {
         return super.read(fd, bytes, byteOffset, byteCount);
     }
 
+    @Override public void readahead(FileDescriptor fd, long offset, long count) throws ErrnoException {
+        BlockGuard.getThreadPolicy().onReadFromDisk();
+        super.readahead(fd, offset, count);
+    }
+
     @UnsupportedAppUsage
     @Override public String readlink(String path) throws ErrnoException {
       BlockGuard.getThreadPolicy().onReadFromDisk();
@@ -355,6 +382,11 @@ public class BlockGuardOs extends ForwardingOs {
         return super.recvfrom(fd, bytes, byteOffset, byteCount, flags, srcAddress);
     }
 
+    @Override public int recvmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, int[] receivedCounts, InetSocketAddress[] srcAddresses, int flags) throws ErrnoException, SocketException {
+        BlockGuard.getThreadPolicy().onNetwork();
+        return super.recvmmsg(fd, buffers, offsets, byteCounts, receivedCounts, srcAddresses, flags);
+    }
+
     @Override public int recvmsg(FileDescriptor fd, StructMsghdr msg, int flags) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
         return super.recvmsg(fd, msg, flags);
@@ -380,6 +412,11 @@ public class BlockGuardOs extends ForwardingOs {
         return super.sendfile(outFd, inFd, offset, byteCount);
     }
 
+    @Override public int sendmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, InetSocketAddress[] dstAddresses, int flags) throws ErrnoException, SocketException {
+        BlockGuard.getThreadPolicy().onNetwork();
+        return super.sendmmsg(fd, buffers, offsets, byteCounts, dstAddresses, flags);
+    }
+
     @Override public int sendmsg(FileDescriptor fd, StructMsghdr msg, int flags) throws ErrnoException, SocketException {
         BlockGuard.getThreadPolicy().onNetwork();
         return super.sendmsg(fd, msg, flags);
@@ -26,6 +26,8 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.net.URLConnection;
 import java.net.URLStreamHandler;
+import java.util.Enumeration;
+import java.util.jar.JarEntry;
 import java.util.jar.JarFile;
 import java.util.zip.ZipEntry;
 import sun.net.www.ParseUtil;
@@ -89,6 +91,15 @@ public class ClassPathURLStreamHandler extends Handler {
     return new ClassPathURLConnection(url);
   }
 
+  /**
+   * Returns the entries of the jar file.
+   *
+   * @hide
+   */
+  public Enumeration<JarEntry> entries() {
+    return jarFile.entries();
+  }
+
   /** Used from tests to indicate this stream handler is finished with. */
   public void close() throws IOException {
     jarFile.close();
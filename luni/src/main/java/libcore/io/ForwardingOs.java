@@ -205,6 +205,11 @@ public class ForwardingOs implements Os {
      */
     public void connect(FileDescriptor fd, SocketAddress address) throws ErrnoException, SocketException { os.connect(fd, address); }
 
+    /**
+     * @hide
+     */
+    public long copy_file_range(FileDescriptor fdIn, Int64Ref offIn, FileDescriptor fdOut, Int64Ref offOut, long len, int flags) throws ErrnoException, InterruptedIOException { return os.copy_file_range(fdIn, offIn, fdOut, offOut, len, flags); }
+
     /**
      * @hide
      */
@@ -411,6 +416,11 @@ public class ForwardingOs implements Os {
      */
     public InetAddress inet_pton(int family, String address) { return os.inet_pton(family, address); }
 
+    /**
+     * @hide
+     */
+    public void ioctlFiclone(FileDescriptor destFd, FileDescriptor srcFd) throws ErrnoException { os.ioctlFiclone(destFd, srcFd); }
+
     /**
      * @hide
      */
@@ -474,6 +484,11 @@ public class ForwardingOs implements Os {
     @UnsupportedAppUsage
     public StructStat lstat(String path) throws ErrnoException { return os.lstat(path); }
 
+    /**
+     * @hide
+     */
+    public void madvise(long address, long byteCount, int advice) throws ErrnoException { os.madvise(address, byteCount, advice); }
+
     /**
      * @hide
      */
@@ -572,6 +587,11 @@ public class ForwardingOs implements Os {
      */
     public int poll(StructPollfd[] fds, int timeoutMs) throws ErrnoException { return os.poll(fds, timeoutMs); }
 
+    /**
+     * @hide
+     */
+    public void posix_fadvise(FileDescriptor fd, long offset, long length, int advice) throws ErrnoException { os.posix_fadvise(fd, offset, length, advice); }
+
     /**
      * @hide
      */
@@ -592,6 +612,11 @@ public class ForwardingOs implements Os {
      */
     public int pread(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException { return os.pread(fd, bytes, byteOffset, byteCount, offset); }
 
+    /**
+     * @hide
+     */
+    public int preadv(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException { return os.preadv(fd, buffers, offsets, byteCounts, offset); }
+
     /**
      * @hide
      */
@@ -602,6 +627,11 @@ public class ForwardingOs implements Os {
      */
     public int pwrite(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException { return os.pwrite(fd, bytes, byteOffset, byteCount, offset); }
 
+    /**
+     * @hide
+     */
+    public int pwritev(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException { return os.pwritev(fd, buffers, offsets, byteCounts, offset); }
+
     /**
      * @hide
      */
@@ -612,6 +642,11 @@ public class ForwardingOs implements Os {
      */
     public int read(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount) throws ErrnoException, InterruptedIOException { return os.read(fd, bytes, byteOffset, byteCount); }
 
+    /**
+     * @hide
+     */
+    public void readahead(FileDescriptor fd, long offset, long count) throws ErrnoException { os.readahead(fd, offset, count); }
+
     /**
      * @hide
      */
@@ -638,6 +673,11 @@ public class ForwardingOs implements Os {
      */
     public int recvfrom(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException { return os.recvfrom(fd, bytes, byteOffset, byteCount, flags, srcAddress); }
 
+    /**
+     * @hide
+     */
+    public int recvmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, int[] receivedCounts, InetSocketAddress[] srcAddresses, int flags) throws ErrnoException, SocketException { return os.recvmmsg(fd, buffers, offsets, byteCounts, receivedCounts, srcAddresses, flags); }
+
     /**
      * @hide
      */
@@ -702,6 +742,11 @@ public class ForwardingOs implements Os {
      */
     public long sendfile(FileDescriptor outFd, FileDescriptor inFd, Int64Ref offset, long byteCount) throws ErrnoException { return os.sendfile(outFd, inFd, offset, byteCount); }
 
+    /**
+     * @hide
+     */
+    public int sendmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, InetSocketAddress[] dstAddresses, int flags) throws ErrnoException, SocketException { return os.sendmmsg(fd, buffers, offsets, byteCounts, dstAddresses, flags); }
+
     /**
      * @hide
      */
@@ -652,6 +652,145 @@ public final class IoBridge {
         }
     }
 
+    // The most that transfer() asks the kernel to copy at once; also the default pipe capacity.
+    private static final int TRANSFER_CHUNK_SIZE = 64 * 1024;
+
+    /**
+     * Copies bytes from {@code in} to {@code out} until the end of input, without copying them
+     * to or from user space: with sendfile(2) if {@code in} is a regular file, and otherwise with
+     * splice(2), through a pipe unless {@code in} already is one. Both file descriptors must be
+     * in blocking mode.
+     *
+     * <p>If the kernel cannot copy between the two file descriptors, for example because
+     * {@code out} was opened with {@link android.system.OsConstants#O_APPEND}, this stops early
+     * without losing any data, and the caller should copy the rest of the input itself.
+     *
+     * @return the number of bytes copied
+     * @throws IOException if underlying system call returned error
+     *
+     * @hide
+     */
+    public static long transfer(@NonNull FileDescriptor in, @NonNull FileDescriptor out)
+            throws IOException {
+        try {
+            int mode = Libcore.os.fstat(in).st_mode;
+            if (S_ISREG(mode)) {
+                return sendfileFully(in, out);
+            } else if (S_ISFIFO(mode)) {
+                return spliceFully(in, out);
+            } else if (S_ISSOCK(mode)) {
+                FileDescriptor[] pipe = Libcore.os.pipe2(O_CLOEXEC);
+                try {
+                    return spliceFully(in, pipe, out);
+                } finally {
+                    IoUtils.closeQuietly(pipe[0]);
+                    IoUtils.closeQuietly(pipe[1]);
+                }
+            }
+            return 0;
+        } catch (ErrnoException errnoException) {
+            throw errnoException.rethrowAsIOException();
+        }
+    }
+
+    private static long sendfileFully(FileDescriptor in, FileDescriptor out)
+            throws ErrnoException {
+        long total = 0;
+        while (true) {
+            long byteCount;
+            try {
+                // A null offset reads from, and advances, the file position of 'in'.
+                byteCount = Libcore.os.sendfile(out, in, null, TRANSFER_CHUNK_SIZE);
+            } catch (ErrnoException errnoException) {
+                if (isTransferUnsupported(errnoException.errno)) {
+                    return total;
+                }
+                throw errnoException;
+            }
+            if (byteCount == 0) {
+                return total;
+            }
+            total += byteCount;
+        }
+    }
+
+    private static long spliceFully(FileDescriptor in, FileDescriptor out)
+            throws ErrnoException {
+        long total = 0;
+        while (true) {
+            long byteCount;
+            try {
+                byteCount = Libcore.os.splice(in, null, out, null, TRANSFER_CHUNK_SIZE,
+                        SPLICE_F_MOVE | SPLICE_F_MORE);
+            } catch (ErrnoException errnoException) {
+                if (isTransferUnsupported(errnoException.errno)) {
+                    return total;
+                }
+                throw errnoException;
+            }
+            if (byteCount == 0) {
+                return total;
+            }
+            total += byteCount;
+        }
+    }
+
+    // splice(2) needs one end of each call to be a pipe, so this splices 'in' into 'pipe' and
+    // 'pipe' into 'out'.
+    private static long spliceFully(FileDescriptor in, FileDescriptor[] pipe, FileDescriptor out)
+            throws ErrnoException, IOException {
+        long total = 0;
+        while (true) {
+            long pending;
+            try {
+                pending = Libcore.os.splice(in, null, pipe[1], null, TRANSFER_CHUNK_SIZE,
+                        SPLICE_F_MOVE | SPLICE_F_MORE);
+            } catch (ErrnoException errnoException) {
+                if (isTransferUnsupported(errnoException.errno)) {
+                    return total;
+                }
+                throw errnoException;
+            }
+            if (pending == 0) {
+                return total;
+            }
+            while (pending > 0) {
+                long byteCount;
+                try {
+                    byteCount = Libcore.os.splice(pipe[0], null, out, null, pending,
+                            SPLICE_F_MOVE | SPLICE_F_MORE);
+                } catch (ErrnoException errnoException) {
+                    if (isTransferUnsupported(errnoException.errno)) {
+                        // The bytes already taken from 'in' must not be lost.
+                        return total + drain(pipe[0], pending, out);
+                    }
+                    throw errnoException;
+                }
+                pending -= byteCount;
+                total += byteCount;
+            }
+        }
+    }
+
+    // Copies 'byteCount' bytes that are known to be in 'pipe' to 'out' the ordinary way.
+    private static long drain(FileDescriptor pipe, long byteCount, FileDescriptor out)
+            throws IOException {
+        byte[] buffer = new byte[(int) Math.min(byteCount, 8192)];
+        long remaining = byteCount;
+        while (remaining > 0) {
+            int readCount = read(pipe, buffer, 0, (int) Math.min(remaining, buffer.length));
+            write(out, buffer, 0, readCount);
+            remaining -= readCount;
+        }
+        return byteCount;
+    }
+
+    private static boolean isTransferUnsupported(int errno) {
+        // EAGAIN is included so that a non-blocking file descriptor gets the caller's usual
+        // handling rather than a busy loop here.
+        return errno == EINVAL || errno == ENOSYS || errno == EOPNOTSUPP || errno == EAGAIN;
+    }
+
     /**
      * Wrapper around {@link Os#sendto(FileDescriptor, byte[], int, int, int, InetAddress, int)}
      * that allows sending data over both TCP and UDP socket; handles
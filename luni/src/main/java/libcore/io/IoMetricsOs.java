@@ -0,0 +1,837 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import android.system.ErrnoException;
+import android.system.Int64Ref;
+import android.system.StructPollfd;
+import android.system.StructStat;
+
+import java.io.FileDescriptor;
+import java.io.InterruptedIOException;
+import java.lang.ref.WeakReference;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.SocketException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An {@link Os} that records metrics for the I/O syscalls made through it: for each
+ * {@link Syscall}, the number of calls, the number of bytes transferred, the number of failures
+ * by errno, and a histogram of latencies. {@link #install} makes one the default {@code Os}, and
+ * {@link #uninstall} restores the {@code Os} it wrapped.
+ *
+ * <p>Each thread records into counters of its own, without locks or atomic read-modify-write
+ * operations, and {@link #snapshot} adds them up. Calls, bytes and errors are counted for every
+ * call, but to keep the overhead low, the latency of only one call in every
+ * {@code samplingInterval} on each thread is measured.
+ *
+ * @hide
+ */
+public final class IoMetricsOs extends ForwardingOs {
+
+    /** The syscalls, or families of syscalls, for which metrics are recorded. */
+    public enum Syscall {
+        ACCEPT, CLOSE, CONNECT, COPY_FILE_RANGE, FDATASYNC, FSTAT, FSYNC, LSTAT, OPEN, POLL, PREAD,
+        PREADV, PWRITE, PWRITEV, READ, READV, RECVFROM, RECVMMSG, SENDFILE, SENDMMSG, SENDTO, STAT,
+        WRITE, WRITEV
+    }
+
+    private static final Syscall[] SYSCALLS = Syscall.values();
+
+    // Latencies are bucketed as in HdrHistogram: values below SUB_BUCKET_COUNT nanoseconds each
+    // have a bucket of their own, and each larger power of two is split into SUB_BUCKET_COUNT
+    // equal buckets, so that the largest value in a bucket is less than 25% above the smallest.
+    private static final int SUB_BUCKET_BITS = 2;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    // Latencies of 2^36 nanoseconds (about 69 seconds) or more all go in the last bucket.
+    private static final long MAX_LATENCY_NANOS = (1L << 36) - 1;
+
+    static final int BUCKET_COUNT = bucketIndex(MAX_LATENCY_NANOS) + 1;
+
+    // The layout of a thread's counters for one syscall.
+    private static final int CALLS = 0;
+    private static final int BYTES = 1;
+    private static final int ERRORS = 2;
+    private static final int SAMPLES = 3;
+    private static final int SAMPLED_NANOS = 4;
+    private static final int FIRST_BUCKET = 5;
+    private static final int COUNTER_COUNT = FIRST_BUCKET + BUCKET_COUNT;
+
+    // Failures are counted by errno for errnos below this; larger errnos share the last slot.
+    // Failures that are not ErrnoExceptions are counted as errno 0.
+    private static final int ERRNO_LIMIT = 256;
+
+    // Returned by Recorder.begin for calls whose latency is not measured.
+    private static final long NOT_SAMPLED = Long.MIN_VALUE;
+
+    private final int samplingInterval;
+
+    // Failures are rare enough for these to be shared by all threads.
+    private final AtomicLongArray errnoCounts = new AtomicLongArray(SYSCALLS.length * ERRNO_LIMIT);
+
+    // The recorders of all threads that have made calls and were still alive at the last
+    // snapshot, and the sum of the counters of those that were not. Both guarded by 'recorders'.
+    private final List<Recorder> recorders = new ArrayList<>();
+    private final long[][] retired = new long[SYSCALLS.length][COUNTER_COUNT];
+
+    private final ThreadLocal<Recorder> recorder = new ThreadLocal<Recorder>() {
+        @Override protected Recorder initialValue() {
+            Recorder r = new Recorder();
+            synchronized (recorders) {
+                recorders.add(r);
+            }
+            return r;
+        }
+    };
+
+    /**
+     * Creates an {@code IoMetricsOs} that forwards to {@code os}, and measures the latency of
+     * one call in every {@code samplingInterval} on each thread.
+     */
+    public IoMetricsOs(Os os, int samplingInterval) {
+        super(os);
+        if (samplingInterval < 1) {
+            throw new IllegalArgumentException("samplingInterval < 1: " + samplingInterval);
+        }
+        this.samplingInterval = samplingInterval;
+    }
+
+    /**
+     * Wraps the current default {@link Os} in a new {@code IoMetricsOs}, makes that the default,
+     * and returns it.
+     */
+    public static IoMetricsOs install(int samplingInterval) {
+        while (true) {
+            Os current = Os.getDefault();
+            IoMetricsOs metrics = new IoMetricsOs(current, samplingInterval);
+            if (Os.compareAndSetDefault(current, metrics)) {
+                return metrics;
+            }
+        }
+    }
+
+    /**
+     * Makes the {@link Os} this one wraps the default again, if this one is still the default.
+     *
+     * @return whether this was the default {@code Os}
+     */
+    public boolean uninstall() {
+        return Os.compareAndSetDefault(this, delegate());
+    }
+
+    /**
+     * Returns the metrics recorded so far. Calls that are in progress on other threads may or
+     * may not be included.
+     */
+    public Snapshot snapshot() {
+        long[][] totals = new long[SYSCALLS.length][COUNTER_COUNT];
+        synchronized (recorders) {
+            for (Iterator<Recorder> it = recorders.iterator(); it.hasNext(); ) {
+                Recorder r = it.next();
+                Thread thread = r.thread.get();
+                if (thread == null || !thread.isAlive()) {
+                    // The thread will not record anything else, so fold its counters into
+                    // 'retired' rather than keep its recorder forever.
+                    r.addTo(retired);
+                    it.remove();
+                } else {
+                    r.addTo(totals);
+                }
+            }
+            for (int s = 0; s < totals.length; s++) {
+                for (int i = 0; i < COUNTER_COUNT; i++) {
+                    totals[s][i] += retired[s][i];
+                }
+            }
+        }
+        SyscallStats[] stats = new SyscallStats[SYSCALLS.length];
+        for (int s = 0; s < stats.length; s++) {
+            long[] errnos = new long[ERRNO_LIMIT];
+            for (int errno = 0; errno < ERRNO_LIMIT; errno++) {
+                errnos[errno] = errnoCounts.get(s * ERRNO_LIMIT + errno);
+            }
+            stats[s] = new SyscallStats(SYSCALLS[s], totals[s], errnos);
+        }
+        return new Snapshot(stats);
+    }
+
+    /**
+     * The metrics recorded by an {@link IoMetricsOs} up to a point in time.
+     */
+    public static final class Snapshot {
+        private final SyscallStats[] stats;
+
+        private Snapshot(SyscallStats[] stats) {
+            this.stats = stats;
+        }
+
+        public SyscallStats get(Syscall syscall) {
+            return stats[syscall.ordinal()];
+        }
+
+        /** Returns one line for each syscall that has been called. */
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder();
+            for (SyscallStats s : stats) {
+                if (s.getCallCount() != 0) {
+                    sb.append(s).append('\n');
+                }
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * The metrics for one {@link Syscall} in a {@link Snapshot}.
+     */
+    public static final class SyscallStats {
+        private final Syscall syscall;
+        private final long[] counters;
+        private final long[] errnoCounts;
+
+        private SyscallStats(Syscall syscall, long[] counters, long[] errnoCounts) {
+            this.syscall = syscall;
+            this.counters = counters;
+            this.errnoCounts = errnoCounts;
+        }
+
+        public Syscall getSyscall() {
+            return syscall;
+        }
+
+        public long getCallCount() {
+            return counters[CALLS];
+        }
+
+        /** Returns the number of bytes read or written by the calls that succeeded. */
+        public long getByteCount() {
+            return counters[BYTES];
+        }
+
+        public long getErrorCount() {
+            return counters[ERRORS];
+        }
+
+        /**
+         * Returns the number of calls that failed with {@code errno}. Failures that were not
+         * reported with an errno are counted as errno 0, and errnos of 255 or more share a count.
+         */
+        public long getErrorCount(int errno) {
+            if (errno < 0) {
+                throw new IllegalArgumentException("errno < 0: " + errno);
+            }
+            return errnoCounts[Math.min(errno, ERRNO_LIMIT - 1)];
+        }
+
+        /** Returns the number of calls whose latency was measured. */
+        public long getSampleCount() {
+            return counters[SAMPLES];
+        }
+
+        /** Returns the mean latency of the calls whose latency was measured, or 0 if none was. */
+        public long getMeanLatencyNanos() {
+            long samples = counters[SAMPLES];
+            return samples == 0 ? 0 : counters[SAMPLED_NANOS] / samples;
+        }
+
+        /**
+         * Returns an upper bound, accurate to within 25%, on the latency below which
+         * {@code percentile} percent of the measured latencies fall, or 0 if none was measured.
+         */
+        public long getLatencyPercentileNanos(double percentile) {
+            if (!(percentile >= 0 && percentile <= 100)) {
+                throw new IllegalArgumentException("Invalid percentile: " + percentile);
+            }
+            long samples = counters[SAMPLES];
+            if (samples == 0) {
+                return 0;
+            }
+            long rank = Math.max(1, (long) Math.ceil(samples * percentile / 100));
+            long seen = 0;
+            for (int b = 0; b < BUCKET_COUNT; b++) {
+                seen += counters[FIRST_BUCKET + b];
+                if (seen >= rank) {
+                    return bucketMaxNanos(b);
+                }
+            }
+            // Only possible if a recorder was read part way through an update.
+            return bucketMaxNanos(BUCKET_COUNT - 1);
+        }
+
+        @Override public String toString() {
+            return syscall + ": calls=" + getCallCount() + " bytes=" + getByteCount()
+                    + " errors=" + getErrorCount() + " samples=" + getSampleCount()
+                    + " mean=" + getMeanLatencyNanos() + "ns"
+                    + " p50=" + getLatencyPercentileNanos(50) + "ns"
+                    + " p99=" + getLatencyPercentileNanos(99) + "ns";
+        }
+    }
+
+    /**
+     * The counters of one thread. Only that thread writes them, so each update is a plain read
+     * followed by an ordered write, which {@link #snapshot} can read from any thread.
+     */
+    private final class Recorder {
+        final WeakReference<Thread> thread = new WeakReference<>(Thread.currentThread());
+
+        // Allocated the first time the thread makes each kind of call.
+        final AtomicReferenceArray<AtomicLongArray> counters =
+                new AtomicReferenceArray<>(SYSCALLS.length);
+
+        // Only used by the owning thread.
+        int callsUntilSample;
+
+        /** Returns the start time of a call to measure, or NOT_SAMPLED. */
+        long begin() {
+            if (--callsUntilSample > 0) {
+                return NOT_SAMPLED;
+            }
+            callsUntilSample = samplingInterval;
+            return System.nanoTime();
+        }
+
+        void end(Syscall syscall, long start, long byteCount) {
+            AtomicLongArray c = countersFor(syscall);
+            add(c, CALLS, 1);
+            if (byteCount > 0) {
+                add(c, BYTES, byteCount);
+            }
+            if (start != NOT_SAMPLED) {
+                addLatency(c, System.nanoTime() - start);
+            }
+        }
+
+        void failed(Syscall syscall, long start, Throwable t) {
+            AtomicLongArray c = countersFor(syscall);
+            add(c, CALLS, 1);
+            add(c, ERRORS, 1);
+            if (start != NOT_SAMPLED) {
+                addLatency(c, System.nanoTime() - start);
+            }
+            int errno = (t instanceof ErrnoException) ? ((ErrnoException) t).errno : 0;
+            errnoCounts.incrementAndGet(
+                    syscall.ordinal() * ERRNO_LIMIT + Math.min(errno, ERRNO_LIMIT - 1));
+        }
+
+        private AtomicLongArray countersFor(Syscall syscall) {
+            AtomicLongArray c = counters.get(syscall.ordinal());
+            if (c == null) {
+                c = new AtomicLongArray(COUNTER_COUNT);
+                counters.set(syscall.ordinal(), c);
+            }
+            return c;
+        }
+
+        void addTo(long[][] totals) {
+            for (int s = 0; s < totals.length; s++) {
+                AtomicLongArray c = counters.get(s);
+                if (c != null) {
+                    for (int i = 0; i < COUNTER_COUNT; i++) {
+                        totals[s][i] += c.get(i);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void addLatency(AtomicLongArray c, long nanos) {
+        add(c, SAMPLES, 1);
+        add(c, SAMPLED_NANOS, nanos);
+        add(c, FIRST_BUCKET + bucketIndex(nanos), 1);
+    }
+
+    private static void add(AtomicLongArray c, int i, long delta) {
+        c.lazySet(i, c.get(i) + delta);
+    }
+
+    /** Returns the sum of the first {@code count} of {@code counts}, the bytes of a batch call. */
+    private static long sum(int[] counts, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += counts[i];
+        }
+        return sum;
+    }
+
+    /** Returns the index of the histogram bucket for a latency of {@code nanos}. */
+    static int bucketIndex(long nanos) {
+        if (nanos < SUB_BUCKET_COUNT) {
+            return (int) Math.max(nanos, 0);
+        }
+        nanos = Math.min(nanos, MAX_LATENCY_NANOS);
+        int shift = 63 - Long.numberOfLeadingZeros(nanos) - SUB_BUCKET_BITS;
+        int subBucket = (int) (nanos >>> shift) & (SUB_BUCKET_COUNT - 1);
+        return SUB_BUCKET_COUNT * (shift + 1) + subBucket;
+    }
+
+    /** Returns the largest latency that goes in bucket {@code index}. */
+    static long bucketMaxNanos(int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_COUNT - 1;
+        int subBucket = index % SUB_BUCKET_COUNT;
+        return ((long) (SUB_BUCKET_COUNT + subBucket + 1) << shift) - 1;
+    }
+
+    @Override public FileDescriptor accept(FileDescriptor fd, SocketAddress peerAddress) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        FileDescriptor result;
+        try {
+            result = super.accept(fd, peerAddress);
+        } catch (Throwable t) {
+            r.failed(Syscall.ACCEPT, start, t);
+            throw t;
+        }
+        r.end(Syscall.ACCEPT, start, 0);
+        return result;
+    }
+
+    @Override public void close(FileDescriptor fd) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        try {
+            super.close(fd);
+        } catch (Throwable t) {
+            r.failed(Syscall.CLOSE, start, t);
+            throw t;
+        }
+        r.end(Syscall.CLOSE, start, 0);
+    }
+
+    @Override public void connect(FileDescriptor fd, InetAddress address, int port) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        try {
+            super.connect(fd, address, port);
+        } catch (Throwable t) {
+            r.failed(Syscall.CONNECT, start, t);
+            throw t;
+        }
+        r.end(Syscall.CONNECT, start, 0);
+    }
+
+    @Override public void connect(FileDescriptor fd, SocketAddress address) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        try {
+            super.connect(fd, address);
+        } catch (Throwable t) {
+            r.failed(Syscall.CONNECT, start, t);
+            throw t;
+        }
+        r.end(Syscall.CONNECT, start, 0);
+    }
+
+    @Override public long copy_file_range(FileDescriptor fdIn, Int64Ref offIn, FileDescriptor fdOut, Int64Ref offOut, long len, int flags) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        long result;
+        try {
+            result = super.copy_file_range(fdIn, offIn, fdOut, offOut, len, flags);
+        } catch (Throwable t) {
+            r.failed(Syscall.COPY_FILE_RANGE, start, t);
+            throw t;
+        }
+        r.end(Syscall.COPY_FILE_RANGE, start, result);
+        return result;
+    }
+
+    @Override public void fdatasync(FileDescriptor fd) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        try {
+            super.fdatasync(fd);
+        } catch (Throwable t) {
+            r.failed(Syscall.FDATASYNC, start, t);
+            throw t;
+        }
+        r.end(Syscall.FDATASYNC, start, 0);
+    }
+
+    @Override public StructStat fstat(FileDescriptor fd) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        StructStat result;
+        try {
+            result = super.fstat(fd);
+        } catch (Throwable t) {
+            r.failed(Syscall.FSTAT, start, t);
+            throw t;
+        }
+        r.end(Syscall.FSTAT, start, 0);
+        return result;
+    }
+
+    @Override public void fsync(FileDescriptor fd) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        try {
+            super.fsync(fd);
+        } catch (Throwable t) {
+            r.failed(Syscall.FSYNC, start, t);
+            throw t;
+        }
+        r.end(Syscall.FSYNC, start, 0);
+    }
+
+    @Override public StructStat lstat(String path) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        StructStat result;
+        try {
+            result = super.lstat(path);
+        } catch (Throwable t) {
+            r.failed(Syscall.LSTAT, start, t);
+            throw t;
+        }
+        r.end(Syscall.LSTAT, start, 0);
+        return result;
+    }
+
+    @Override public FileDescriptor open(String path, int flags, int mode) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        FileDescriptor result;
+        try {
+            result = super.open(path, flags, mode);
+        } catch (Throwable t) {
+            r.failed(Syscall.OPEN, start, t);
+            throw t;
+        }
+        r.end(Syscall.OPEN, start, 0);
+        return result;
+    }
+
+    @Override public int poll(StructPollfd[] fds, int timeoutMs) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.poll(fds, timeoutMs);
+        } catch (Throwable t) {
+            r.failed(Syscall.POLL, start, t);
+            throw t;
+        }
+        r.end(Syscall.POLL, start, 0);
+        return result;
+    }
+
+    @Override public int pread(FileDescriptor fd, ByteBuffer buffer, long offset) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.pread(fd, buffer, offset);
+        } catch (Throwable t) {
+            r.failed(Syscall.PREAD, start, t);
+            throw t;
+        }
+        r.end(Syscall.PREAD, start, result);
+        return result;
+    }
+
+    @Override public int pread(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.pread(fd, bytes, byteOffset, byteCount, offset);
+        } catch (Throwable t) {
+            r.failed(Syscall.PREAD, start, t);
+            throw t;
+        }
+        r.end(Syscall.PREAD, start, result);
+        return result;
+    }
+
+    @Override public int preadv(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.preadv(fd, buffers, offsets, byteCounts, offset);
+        } catch (Throwable t) {
+            r.failed(Syscall.PREADV, start, t);
+            throw t;
+        }
+        r.end(Syscall.PREADV, start, result);
+        return result;
+    }
+
+    @Override public int pwrite(FileDescriptor fd, ByteBuffer buffer, long offset) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.pwrite(fd, buffer, offset);
+        } catch (Throwable t) {
+            r.failed(Syscall.PWRITE, start, t);
+            throw t;
+        }
+        r.end(Syscall.PWRITE, start, result);
+        return result;
+    }
+
+    @Override public int pwrite(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.pwrite(fd, bytes, byteOffset, byteCount, offset);
+        } catch (Throwable t) {
+            r.failed(Syscall.PWRITE, start, t);
+            throw t;
+        }
+        r.end(Syscall.PWRITE, start, result);
+        return result;
+    }
+
+    @Override public int pwritev(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.pwritev(fd, buffers, offsets, byteCounts, offset);
+        } catch (Throwable t) {
+            r.failed(Syscall.PWRITEV, start, t);
+            throw t;
+        }
+        r.end(Syscall.PWRITEV, start, result);
+        return result;
+    }
+
+    @Override public int read(FileDescriptor fd, ByteBuffer buffer) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.read(fd, buffer);
+        } catch (Throwable t) {
+            r.failed(Syscall.READ, start, t);
+            throw t;
+        }
+        r.end(Syscall.READ, start, result);
+        return result;
+    }
+
+    @Override public int read(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.read(fd, bytes, byteOffset, byteCount);
+        } catch (Throwable t) {
+            r.failed(Syscall.READ, start, t);
+            throw t;
+        }
+        r.end(Syscall.READ, start, result);
+        return result;
+    }
+
+    @Override public int readv(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.readv(fd, buffers, offsets, byteCounts);
+        } catch (Throwable t) {
+            r.failed(Syscall.READV, start, t);
+            throw t;
+        }
+        r.end(Syscall.READV, start, result);
+        return result;
+    }
+
+    @Override public int recvfrom(FileDescriptor fd, ByteBuffer buffer, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.recvfrom(fd, buffer, flags, srcAddress);
+        } catch (Throwable t) {
+            r.failed(Syscall.RECVFROM, start, t);
+            throw t;
+        }
+        r.end(Syscall.RECVFROM, start, result);
+        return result;
+    }
+
+    @Override public int recvfrom(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.recvfrom(fd, bytes, byteOffset, byteCount, flags, srcAddress);
+        } catch (Throwable t) {
+            r.failed(Syscall.RECVFROM, start, t);
+            throw t;
+        }
+        r.end(Syscall.RECVFROM, start, result);
+        return result;
+    }
+
+    @Override public int recvmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, int[] receivedCounts, InetSocketAddress[] srcAddresses, int flags) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.recvmmsg(fd, buffers, offsets, byteCounts, receivedCounts, srcAddresses, flags);
+        } catch (Throwable t) {
+            r.failed(Syscall.RECVMMSG, start, t);
+            throw t;
+        }
+        r.end(Syscall.RECVMMSG, start, sum(receivedCounts, result));
+        return result;
+    }
+
+    @Override public long sendfile(FileDescriptor outFd, FileDescriptor inFd, Int64Ref offset, long byteCount) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        long result;
+        try {
+            result = super.sendfile(outFd, inFd, offset, byteCount);
+        } catch (Throwable t) {
+            r.failed(Syscall.SENDFILE, start, t);
+            throw t;
+        }
+        r.end(Syscall.SENDFILE, start, result);
+        return result;
+    }
+
+    @Override public int sendmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, InetSocketAddress[] dstAddresses, int flags) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.sendmmsg(fd, buffers, offsets, byteCounts, dstAddresses, flags);
+        } catch (Throwable t) {
+            r.failed(Syscall.SENDMMSG, start, t);
+            throw t;
+        }
+        // Each datagram that is sent is sent whole.
+        r.end(Syscall.SENDMMSG, start, sum(byteCounts, result));
+        return result;
+    }
+
+    @Override public int sendto(FileDescriptor fd, ByteBuffer buffer, int flags, InetAddress inetAddress, int port) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.sendto(fd, buffer, flags, inetAddress, port);
+        } catch (Throwable t) {
+            r.failed(Syscall.SENDTO, start, t);
+            throw t;
+        }
+        r.end(Syscall.SENDTO, start, result);
+        return result;
+    }
+
+    @Override public int sendto(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetAddress inetAddress, int port) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.sendto(fd, bytes, byteOffset, byteCount, flags, inetAddress, port);
+        } catch (Throwable t) {
+            r.failed(Syscall.SENDTO, start, t);
+            throw t;
+        }
+        r.end(Syscall.SENDTO, start, result);
+        return result;
+    }
+
+    @Override public int sendto(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, SocketAddress address) throws ErrnoException, SocketException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.sendto(fd, bytes, byteOffset, byteCount, flags, address);
+        } catch (Throwable t) {
+            r.failed(Syscall.SENDTO, start, t);
+            throw t;
+        }
+        r.end(Syscall.SENDTO, start, result);
+        return result;
+    }
+
+    @Override public StructStat stat(String path) throws ErrnoException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        StructStat result;
+        try {
+            result = super.stat(path);
+        } catch (Throwable t) {
+            r.failed(Syscall.STAT, start, t);
+            throw t;
+        }
+        r.end(Syscall.STAT, start, 0);
+        return result;
+    }
+
+    @Override public int write(FileDescriptor fd, ByteBuffer buffer) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.write(fd, buffer);
+        } catch (Throwable t) {
+            r.failed(Syscall.WRITE, start, t);
+            throw t;
+        }
+        r.end(Syscall.WRITE, start, result);
+        return result;
+    }
+
+    @Override public int write(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.write(fd, bytes, byteOffset, byteCount);
+        } catch (Throwable t) {
+            r.failed(Syscall.WRITE, start, t);
+            throw t;
+        }
+        r.end(Syscall.WRITE, start, result);
+        return result;
+    }
+
+    @Override public int writev(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts) throws ErrnoException, InterruptedIOException {
+        Recorder r = recorder.get();
+        long start = r.begin();
+        int result;
+        try {
+            result = super.writev(fd, buffers, offsets, byteCounts);
+        } catch (Throwable t) {
+            r.failed(Syscall.WRITEV, start, t);
+            throw t;
+        }
+        r.end(Syscall.WRITEV, start, result);
+        return result;
+    }
+}
@@ -235,6 +235,38 @@ public final class Memory {
     @SystemApi(client = MODULE_LIBRARIES)
     public static native void memmove(@NonNull Object dstObject, int dstOffset, @NonNull Object srcObject, int srcOffset, long byteCount);
 
+    /**
+     * Copies {@code byteCount} bytes from {@code srcAddress} to {@code dstAddress}. The two
+     * regions may overlap.
+     *
+     * @hide
+     */
+    public static native void copyMemory(long srcAddress, long dstAddress, long byteCount);
+
+    /**
+     * Sets {@code byteCount} bytes at {@code address} to {@code value}.
+     *
+     * @hide
+     */
+    public static native void setMemory(long address, long byteCount, byte value);
+
+    /**
+     * Returns a native pointer describing the mapping of {@code byteCount} bytes at
+     * {@code address}, to be registered with a {@link libcore.util.NativeAllocationRegistry}
+     * whose free function is {@link #getUnmapFunction}.
+     *
+     * @hide
+     */
+    public static native long newMapping(long address, long byteCount);
+
+    /**
+     * Returns the address of a native function of type {@code void f(void* mapping)} that
+     * unmaps a mapping returned by {@link #newMapping}, and frees its description.
+     *
+     * @hide
+     */
+    public static native long getUnmapFunction();
+
     /**
      * @hide
      */
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import android.system.ErrnoException;
+
+import java.io.FileDescriptor;
+import java.util.ArrayList;
+import java.util.List;
+
+import libcore.util.NativeAllocationRegistry;
+
+import static android.system.OsConstants.MAP_ANONYMOUS;
+import static android.system.OsConstants.MAP_PRIVATE;
+import static android.system.OsConstants.MAP_SHARED;
+import static android.system.OsConstants.PROT_READ;
+import static android.system.OsConstants.PROT_WRITE;
+import static android.system.OsConstants._SC_PAGESIZE;
+
+/**
+ * Owns off-heap memory: {@link #allocate} returns zero-filled {@link MemorySegment}s of any
+ * {@code long} size, and {@link #map} maps regions of files. {@link #close} frees all of it at
+ * once, after which any use of the arena's segments throws {@link IllegalStateException}. Memory
+ * that is not freed explicitly is freed once the arena and all its segments are unreachable.
+ *
+ * <p>Small allocations are carved out of larger anonymous mappings, so they are cheap, but their
+ * memory is only returned to the system when the arena is closed.
+ *
+ * <p>This class is not thread safe. An arena and its segments are meant to be used by one thread
+ * at a time, which is what lets the checks for whether the arena is open be hoisted out of loops.
+ *
+ * @hide
+ */
+public final class MemoryArena implements AutoCloseable {
+    // The size of the anonymous mappings that small allocations are carved out of.
+    private static final long CHUNK_SIZE = 256 * 1024;
+
+    // Allocations larger than this get mappings of their own.
+    private static final long MAX_CHUNKED_ALLOCATION = CHUNK_SIZE / 4;
+
+    private static final long PAGE_SIZE = Libcore.os.sysconf(_SC_PAGESIZE);
+
+    // Registers the mappings that small allocations are carved out of. Other mappings get
+    // registries of their own, so that the runtime is told their real size.
+    private static final NativeAllocationRegistry CHUNK_REGISTRY = newRegistry(CHUNK_SIZE);
+
+    // Frees each of the mappings this arena owns.
+    private final List<Runnable> unmappers = new ArrayList<>();
+
+    // The unused part of the current chunk.
+    private long next;
+    private long limit;
+
+    // Deliberately not volatile; see the class documentation.
+    boolean closed;
+
+    /**
+     * Returns a new zero-filled segment of {@code byteCount} bytes, aligned to 8 bytes.
+     *
+     * @throws OutOfMemoryError if the memory cannot be allocated
+     */
+    public MemorySegment allocate(long byteCount) {
+        return allocate(byteCount, Long.BYTES);
+    }
+
+    /**
+     * Returns a new zero-filled segment of {@code byteCount} bytes, whose address is a multiple
+     * of {@code alignment}. The alignment must be a power of two no larger than the page size.
+     *
+     * @throws OutOfMemoryError if the memory cannot be allocated
+     */
+    public MemorySegment allocate(long byteCount, long alignment) {
+        checkOpen();
+        if (byteCount < 0) {
+            throw new IllegalArgumentException("byteCount < 0: " + byteCount);
+        }
+        if (alignment <= 0 || (alignment & (alignment - 1)) != 0 || alignment > PAGE_SIZE) {
+            throw new IllegalArgumentException("Invalid alignment: " + alignment);
+        }
+        if (byteCount > MAX_CHUNKED_ALLOCATION) {
+            long mappingSize = roundUpToPage(byteCount);
+            return new MemorySegment(this, mapAnonymous(mappingSize), byteCount, false);
+        }
+        long address = (next + alignment - 1) & -alignment;
+        if (next == 0 || byteCount > limit - address) {
+            next = mapAnonymous(CHUNK_SIZE);
+            limit = next + CHUNK_SIZE;
+            address = next;
+        }
+        next = address + byteCount;
+        return new MemorySegment(this, address, byteCount, false);
+    }
+
+    /**
+     * Maps {@code byteCount} bytes of the file open as {@code fd}, starting at {@code offset},
+     * using mmap(2) with {@code MAP_SHARED}. If {@code writable} is true, {@code fd} must be open
+     * for writing, and writes to the returned segment go to the file. Otherwise the segment is
+     * read-only.
+     */
+    public MemorySegment map(FileDescriptor fd, long offset, long byteCount, boolean writable)
+            throws ErrnoException {
+        checkOpen();
+        if (offset < 0 || byteCount <= 0) {
+            throw new IllegalArgumentException(
+                    "Invalid mapping: offset=" + offset + ", byteCount=" + byteCount);
+        }
+        // mmap(2) needs a page-aligned offset, so map from the start of the page and skip ahead.
+        long skip = offset % PAGE_SIZE;
+        int prot = writable ? (PROT_READ | PROT_WRITE) : PROT_READ;
+        long mappingSize = byteCount + skip;
+        long address = Libcore.os.mmap(0, mappingSize, prot, MAP_SHARED, fd, offset - skip);
+        register(address, mappingSize);
+        return new MemorySegment(this, address + skip, byteCount, !writable);
+    }
+
+    /**
+     * Frees all the memory owned by this arena. This is a no-op if the arena is already closed.
+     * Calling this method invalidates all segments of this arena; it is an error to use them
+     * after calling {@code close}.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        next = 0;
+        limit = 0;
+        for (Runnable unmapper : unmappers) {
+            unmapper.run();
+        }
+        unmappers.clear();
+    }
+
+    public boolean isClosed() {
+        return closed;
+    }
+
+    /** Throws {@link IllegalStateException} if the arena is closed. */
+    void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("MemoryArena is closed");
+        }
+    }
+
+    private long mapAnonymous(long byteCount) {
+        long address;
+        try {
+            address = Libcore.os.mmap(0, byteCount, PROT_READ | PROT_WRITE,
+                    MAP_PRIVATE | MAP_ANONYMOUS, new FileDescriptor(), 0);
+        } catch (ErrnoException e) {
+            OutOfMemoryError error =
+                    new OutOfMemoryError("Failed to allocate " + byteCount + " bytes");
+            error.initCause(e);
+            throw error;
+        }
+        register(address, byteCount);
+        return address;
+    }
+
+    // Arranges for the mapping to be unmapped when this arena is closed or becomes unreachable.
+    private void register(long address, long byteCount) {
+        NativeAllocationRegistry registry =
+                (byteCount == CHUNK_SIZE) ? CHUNK_REGISTRY : newRegistry(byteCount);
+        long mapping = Memory.newMapping(address, byteCount);
+        unmappers.add(registry.registerNativeAllocation(this, mapping));
+    }
+
+    private static NativeAllocationRegistry newRegistry(long byteCount) {
+        return NativeAllocationRegistry.createNonmalloced(MemoryArena.class.getClassLoader(),
+                Memory.getUnmapFunction(), byteCount);
+    }
+
+    private static long roundUpToPage(long byteCount) {
+        return (byteCount + PAGE_SIZE - 1) & -PAGE_SIZE;
+    }
+}
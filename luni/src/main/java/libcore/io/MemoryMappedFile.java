@@ -25,25 +25,27 @@ import java.nio.ByteOrder;
 import static android.system.OsConstants.MAP_SHARED;
 import static android.system.OsConstants.O_RDONLY;
 import static android.system.OsConstants.PROT_READ;
+import static android.system.OsConstants._SC_PAGESIZE;
 
 /**
  * A memory-mapped file. Use {@link #mmapRO} to map a file, {@link #close} to unmap a file,
  * and either {@link #bigEndianIterator} or {@link #littleEndianIterator} to get a seekable
- * {@link BufferIterator} over the mapped data. This class is not thread safe.
+ * {@link BufferIterator} over the mapped data. Files of 2 GiB or more can only be read through
+ * the random-access views returned by {@link #bigEndianView} and {@link #littleEndianView}.
+ * This class is not thread safe.
  */
 public final class MemoryMappedFile implements AutoCloseable {
     private boolean closed;
     private final long address;
-    private final int size;
+    private final long size;
 
     /** Public for layoutlib only. */
     public MemoryMappedFile(long address, long size) {
         this.address = address;
-        // For simplicity when bounds checking, only sizes up to Integer.MAX_VALUE are supported.
-        if (size < 0 || size > Integer.MAX_VALUE) {
+        if (size < 0) {
             throw new IllegalArgumentException("Unsupported file size=" + size);
         }
-        this.size = (int) size;
+        this.size = size;
     }
 
     /**
@@ -82,19 +84,65 @@ public final class MemoryMappedFile implements AutoCloseable {
 
     /**
      * Returns a new iterator that treats the mapped data as big-endian.
+     *
+     * @throws IllegalStateException if the mapped region is larger than {@code Integer.MAX_VALUE}
+     *         bytes
      */
     @UnsupportedAppUsage
     public BufferIterator bigEndianIterator() {
         return new NioBufferIterator(
-                this, address, size, ByteOrder.nativeOrder() != ByteOrder.BIG_ENDIAN);
+                this, address, size(), ByteOrder.nativeOrder() != ByteOrder.BIG_ENDIAN);
     }
 
     /**
      * Returns a new iterator that treats the mapped data as little-endian.
+     *
+     * @throws IllegalStateException if the mapped region is larger than {@code Integer.MAX_VALUE}
+     *         bytes
      */
     public BufferIterator littleEndianIterator() {
         return new NioBufferIterator(
-                this, this.address, this.size, ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN);
+                this, this.address, size(), ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Returns a new random-access view that treats the mapped data as big-endian.
+     */
+    public MemoryMappedFileView bigEndianView() {
+        return new MemoryMappedFileView(
+                this, address, size, ByteOrder.nativeOrder() != ByteOrder.BIG_ENDIAN);
+    }
+
+    /**
+     * Returns a new random-access view that treats the mapped data as little-endian.
+     */
+    public MemoryMappedFileView littleEndianView() {
+        return new MemoryMappedFileView(
+                this, address, size, ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * Tells the kernel how the mapped data is going to be accessed, using madvise(2) with one of
+     * the {@code MADV_} constants: for example {@code MADV_SEQUENTIAL} before a scan, or
+     * {@code MADV_WILLNEED} to start reading the data in before it is needed.
+     */
+    public void advise(int advice) throws ErrnoException {
+        advise(0, size, advice);
+    }
+
+    /**
+     * Like {@link #advise(int)}, but only for the {@code byteCount} bytes at {@code offset},
+     * widened to whole pages.
+     */
+    public void advise(long offset, long byteCount, int advice) throws ErrnoException {
+        checkNotClosed();
+        if (offset < 0 || byteCount < 0 || offset > size - byteCount) {
+            throw new IndexOutOfBoundsException(
+                    "offset=" + offset + " byteCount=" + byteCount + " size=" + size);
+        }
+        long start = address + offset;
+        long alignedStart = start - (start % Libcore.os.sysconf(_SC_PAGESIZE));
+        Libcore.os.madvise(alignedStart, start + byteCount - alignedStart, advice);
     }
 
     /** Throws {@link IllegalStateException} if the file is closed. */
@@ -106,8 +154,22 @@ public final class MemoryMappedFile implements AutoCloseable {
 
     /**
      * Returns the size in bytes of the memory-mapped region.
+     *
+     * @throws IllegalStateException if the size is larger than {@code Integer.MAX_VALUE}; use
+     *         {@link #longSize} instead
      */
     public int size() {
+        checkNotClosed();
+        if (size > Integer.MAX_VALUE) {
+            throw new IllegalStateException("MemoryMappedFile is too large: size=" + size);
+        }
+        return (int) size;
+    }
+
+    /**
+     * Returns the size in bytes of the memory-mapped region.
+     */
+    public long longSize() {
         checkNotClosed();
         return size;
     }
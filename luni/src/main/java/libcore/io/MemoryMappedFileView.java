@@ -0,0 +1,274 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import libcore.util.ArrayUtils;
+
+/**
+ * Random access by {@code long} offset to big- or little-endian data on the native heap, which
+ * unlike {@link BufferIterator} works for mapped regions of 2 GiB or more.
+ * See {@link MemoryMappedFile#bigEndianView} and {@link MemoryMappedFile#littleEndianView}.
+ *
+ * <p>Every method checks its whole range once before reading, so the bulk reads, the column
+ * reads and the binary searches over fixed-width records are cheaper than the equivalent
+ * sequence of single-value reads.
+ *
+ * @hide
+ */
+public final class MemoryMappedFileView {
+
+    private final MemoryMappedFile file;
+    private final long address;
+    private final long length;
+    private final boolean swap;
+
+    MemoryMappedFileView(MemoryMappedFile file, long address, long length, boolean swap) {
+        file.checkNotClosed();
+
+        this.file = file;
+        this.address = address;
+
+        if (length < 0) {
+            throw new IllegalArgumentException("length < 0");
+        }
+        final long MAX_VALID_ADDRESS = -1;
+        if (Long.compareUnsigned(address, MAX_VALID_ADDRESS - length) > 0) {
+            throw new IllegalArgumentException(
+                    "length " + length + " would overflow 64-bit address space");
+        }
+        this.length = length;
+
+        this.swap = swap;
+    }
+
+    /**
+     * Returns the size in bytes of the viewed region.
+     */
+    public long size() {
+        return length;
+    }
+
+    public byte getByte(long offset) {
+        file.checkNotClosed();
+        checkReadBounds(offset, length, 1);
+        return Memory.peekByte(address + offset);
+    }
+
+    public short getShort(long offset) {
+        file.checkNotClosed();
+        checkReadBounds(offset, length, Short.BYTES);
+        return Memory.peekShort(address + offset, swap);
+    }
+
+    public int getInt(long offset) {
+        file.checkNotClosed();
+        checkReadBounds(offset, length, Integer.BYTES);
+        return Memory.peekInt(address + offset, swap);
+    }
+
+    public long getLong(long offset) {
+        file.checkNotClosed();
+        checkReadBounds(offset, length, Long.BYTES);
+        return Memory.peekLong(address + offset, swap);
+    }
+
+    public float getFloat(long offset) {
+        return Float.intBitsToFloat(getInt(offset));
+    }
+
+    public double getDouble(long offset) {
+        return Double.longBitsToDouble(getLong(offset));
+    }
+
+    /**
+     * Reads {@code byteCount} bytes starting at {@code offset} into {@code dst}.
+     */
+    public void getByteArray(long offset, byte[] dst, int dstOffset, int byteCount) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, byteCount);
+        file.checkNotClosed();
+        checkReadBounds(offset, length, byteCount);
+        Memory.peekByteArray(address + offset, dst, dstOffset, byteCount);
+    }
+
+    /**
+     * Reads {@code shortCount} consecutive shorts starting at {@code offset} into {@code dst}.
+     */
+    public void getShortArray(long offset, short[] dst, int dstOffset, int shortCount) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, shortCount);
+        file.checkNotClosed();
+        checkReadBounds(offset, length, (long) Short.BYTES * shortCount);
+        Memory.peekShortArray(address + offset, dst, dstOffset, shortCount, swap);
+    }
+
+    /**
+     * Reads {@code intCount} consecutive ints starting at {@code offset} into {@code dst}.
+     */
+    public void getIntArray(long offset, int[] dst, int dstOffset, int intCount) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, intCount);
+        file.checkNotClosed();
+        checkReadBounds(offset, length, (long) Integer.BYTES * intCount);
+        Memory.peekIntArray(address + offset, dst, dstOffset, intCount, swap);
+    }
+
+    /**
+     * Reads {@code longCount} consecutive longs starting at {@code offset} into {@code dst}.
+     */
+    public void getLongArray(long offset, long[] dst, int dstOffset, int longCount) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, longCount);
+        file.checkNotClosed();
+        checkReadBounds(offset, length, (long) Long.BYTES * longCount);
+        Memory.peekLongArray(address + offset, dst, dstOffset, longCount, swap);
+    }
+
+    /**
+     * Reads {@code floatCount} consecutive floats starting at {@code offset} into {@code dst}.
+     */
+    public void getFloatArray(long offset, float[] dst, int dstOffset, int floatCount) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, floatCount);
+        file.checkNotClosed();
+        checkReadBounds(offset, length, (long) Float.BYTES * floatCount);
+        Memory.peekFloatArray(address + offset, dst, dstOffset, floatCount, swap);
+    }
+
+    /**
+     * Reads {@code doubleCount} consecutive doubles starting at {@code offset} into {@code dst}.
+     */
+    public void getDoubleArray(long offset, double[] dst, int dstOffset, int doubleCount) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, doubleCount);
+        file.checkNotClosed();
+        checkReadBounds(offset, length, (long) Double.BYTES * doubleCount);
+        Memory.peekDoubleArray(address + offset, dst, dstOffset, doubleCount, swap);
+    }
+
+    /**
+     * Reads the int at {@code fieldOffset} in each of {@code count} consecutive records of
+     * {@code recordSize} bytes, the first of which starts at {@code offset}, into {@code dst}.
+     */
+    public void getIntColumn(long offset, int recordSize, int fieldOffset,
+            int[] dst, int dstOffset, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, count);
+        file.checkNotClosed();
+        checkRecordBounds(offset, recordSize, count, fieldOffset, Integer.BYTES);
+        long fieldAddress = address + offset + fieldOffset;
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = Memory.peekInt(fieldAddress, swap);
+            fieldAddress += recordSize;
+        }
+    }
+
+    /**
+     * Reads the long at {@code fieldOffset} in each of {@code count} consecutive records of
+     * {@code recordSize} bytes, the first of which starts at {@code offset}, into {@code dst}.
+     */
+    public void getLongColumn(long offset, int recordSize, int fieldOffset,
+            long[] dst, int dstOffset, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstOffset, count);
+        file.checkNotClosed();
+        checkRecordBounds(offset, recordSize, count, fieldOffset, Long.BYTES);
+        long fieldAddress = address + offset + fieldOffset;
+        for (int i = 0; i < count; i++) {
+            dst[dstOffset + i] = Memory.peekLong(fieldAddress, swap);
+            fieldAddress += recordSize;
+        }
+    }
+
+    /**
+     * Searches {@code recordCount} consecutive records of {@code recordSize} bytes, the first of
+     * which starts at {@code offset}, for one whose int at {@code keyOffset} equals {@code key}.
+     * The records must be sorted by that int, in ascending signed order.
+     *
+     * @return the index of a matching record if there is one, and otherwise
+     *         {@code (-(insertion point) - 1)}, as for {@link java.util.Arrays#binarySearch}
+     */
+    public long binarySearchInt(long offset, int recordSize, long recordCount, int keyOffset,
+            int key) {
+        file.checkNotClosed();
+        checkRecordBounds(offset, recordSize, recordCount, keyOffset, Integer.BYTES);
+        long keyAddress = address + offset + keyOffset;
+        long low = 0;
+        long high = recordCount - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            int midKey = Memory.peekInt(keyAddress + mid * recordSize, swap);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Like {@link #binarySearchInt}, but for records sorted by the long at {@code keyOffset}.
+     */
+    public long binarySearchLong(long offset, int recordSize, long recordCount, int keyOffset,
+            long key) {
+        file.checkNotClosed();
+        checkRecordBounds(offset, recordSize, recordCount, keyOffset, Long.BYTES);
+        long keyAddress = address + offset + keyOffset;
+        long low = 0;
+        long high = recordCount - 1;
+        while (low <= high) {
+            long mid = (low + high) >>> 1;
+            long midKey = Memory.peekLong(keyAddress + mid * recordSize, swap);
+            if (midKey < key) {
+                low = mid + 1;
+            } else if (midKey > key) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -(low + 1);
+    }
+
+    private static void checkReadBounds(long offset, long length, long byteCount) {
+        if (offset < 0 || byteCount < 0) {
+            throw new IndexOutOfBoundsException(
+                    "Invalid read args: offset=" + offset + ", byteCount=" + byteCount);
+        }
+        // offset and length are both non-negative, so this cannot overflow.
+        if (byteCount > length - offset) {
+            throw new IndexOutOfBoundsException(
+                    "Read outside range: offset=" + offset + ", byteCount=" + byteCount
+                            + ", length=" + length);
+        }
+    }
+
+    private void checkRecordBounds(long offset, int recordSize, long recordCount,
+            int fieldOffset, int fieldSize) {
+        if (recordSize <= 0 || recordCount < 0 || fieldOffset < 0
+                || fieldOffset > recordSize - fieldSize) {
+            throw new IllegalArgumentException("Invalid record args: recordSize=" + recordSize
+                    + ", recordCount=" + recordCount + ", fieldOffset=" + fieldOffset);
+        }
+        checkReadBounds(offset, length, 0);
+        if (recordCount == 0) {
+            return;
+        }
+        // The last record only has to extend as far as the end of the field.
+        long lastRecordLimit = length - offset - fieldOffset - fieldSize;
+        if (lastRecordLimit < 0 || recordCount - 1 > lastRecordLimit / recordSize) {
+            throw new IndexOutOfBoundsException(
+                    "Read outside range: offset=" + offset + ", recordSize=" + recordSize
+                            + ", recordCount=" + recordCount + ", length=" + length);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.io;
+
+import java.nio.ReadOnlyBufferException;
+
+import libcore.util.ArrayUtils;
+
+/**
+ * A contiguous region of off-heap memory owned by a {@link MemoryArena}, accessed by
+ * {@code long} offset in native byte order. Every access is checked against the bounds of the
+ * segment and against the arena being closed. Segments that map files read-only throw
+ * {@link ReadOnlyBufferException} from every method that writes.
+ *
+ * @hide
+ */
+public final class MemorySegment {
+
+    private final MemoryArena arena;
+    private final long address;
+    private final long byteSize;
+    private final boolean readOnly;
+
+    MemorySegment(MemoryArena arena, long address, long byteSize, boolean readOnly) {
+        this.arena = arena;
+        this.address = address;
+        this.byteSize = byteSize;
+        this.readOnly = readOnly;
+    }
+
+    /**
+     * Returns the address of the start of this segment. The address is only valid until the
+     * arena is closed.
+     */
+    public long address() {
+        arena.checkOpen();
+        return address;
+    }
+
+    public long byteSize() {
+        return byteSize;
+    }
+
+    public boolean isReadOnly() {
+        return readOnly;
+    }
+
+    /**
+     * Returns a segment for the {@code byteCount} bytes of this segment starting at
+     * {@code offset}, owned by the same arena. The slice is read-only if this segment is.
+     */
+    public MemorySegment asSlice(long offset, long byteCount) {
+        checkBounds(offset, byteCount);
+        return new MemorySegment(arena, address + offset, byteCount, readOnly);
+    }
+
+    public byte getByte(long offset) {
+        checkBounds(offset, 1);
+        return Memory.peekByte(address + offset);
+    }
+
+    public void putByte(long offset, byte value) {
+        checkWritableBounds(offset, 1);
+        Memory.pokeByte(address + offset, value);
+    }
+
+    public short getShort(long offset) {
+        checkBounds(offset, Short.BYTES);
+        return Memory.peekShort(address + offset, false);
+    }
+
+    public void putShort(long offset, short value) {
+        checkWritableBounds(offset, Short.BYTES);
+        Memory.pokeShort(address + offset, value, false);
+    }
+
+    public int getInt(long offset) {
+        checkBounds(offset, Integer.BYTES);
+        return Memory.peekInt(address + offset, false);
+    }
+
+    public void putInt(long offset, int value) {
+        checkWritableBounds(offset, Integer.BYTES);
+        Memory.pokeInt(address + offset, value, false);
+    }
+
+    public long getLong(long offset) {
+        checkBounds(offset, Long.BYTES);
+        return Memory.peekLong(address + offset, false);
+    }
+
+    public void putLong(long offset, long value) {
+        checkWritableBounds(offset, Long.BYTES);
+        Memory.pokeLong(address + offset, value, false);
+    }
+
+    public float getFloat(long offset) {
+        return Float.intBitsToFloat(getInt(offset));
+    }
+
+    public void putFloat(long offset, float value) {
+        putInt(offset, Float.floatToRawIntBits(value));
+    }
+
+    public double getDouble(long offset) {
+        return Double.longBitsToDouble(getLong(offset));
+    }
+
+    public void putDouble(long offset, double value) {
+        putLong(offset, Double.doubleToRawLongBits(value));
+    }
+
+    /**
+     * Copies {@code count} bytes starting at {@code offset} to {@code dst}.
+     */
+    public void get(long offset, byte[] dst, int dstIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstIndex, count);
+        checkBounds(offset, count);
+        Memory.peekByteArray(address + offset, dst, dstIndex, count);
+    }
+
+    /**
+     * Copies {@code count} bytes from {@code src} to this segment, starting at {@code offset}.
+     */
+    public void put(long offset, byte[] src, int srcIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(src.length, srcIndex, count);
+        checkWritableBounds(offset, count);
+        Memory.pokeByteArray(address + offset, src, srcIndex, count);
+    }
+
+    public void get(long offset, short[] dst, int dstIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstIndex, count);
+        checkBounds(offset, (long) Short.BYTES * count);
+        Memory.peekShortArray(address + offset, dst, dstIndex, count, false);
+    }
+
+    public void put(long offset, short[] src, int srcIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(src.length, srcIndex, count);
+        checkWritableBounds(offset, (long) Short.BYTES * count);
+        Memory.pokeShortArray(address + offset, src, srcIndex, count, false);
+    }
+
+    public void get(long offset, int[] dst, int dstIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstIndex, count);
+        checkBounds(offset, (long) Integer.BYTES * count);
+        Memory.peekIntArray(address + offset, dst, dstIndex, count, false);
+    }
+
+    public void put(long offset, int[] src, int srcIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(src.length, srcIndex, count);
+        checkWritableBounds(offset, (long) Integer.BYTES * count);
+        Memory.pokeIntArray(address + offset, src, srcIndex, count, false);
+    }
+
+    public void get(long offset, long[] dst, int dstIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstIndex, count);
+        checkBounds(offset, (long) Long.BYTES * count);
+        Memory.peekLongArray(address + offset, dst, dstIndex, count, false);
+    }
+
+    public void put(long offset, long[] src, int srcIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(src.length, srcIndex, count);
+        checkWritableBounds(offset, (long) Long.BYTES * count);
+        Memory.pokeLongArray(address + offset, src, srcIndex, count, false);
+    }
+
+    public void get(long offset, float[] dst, int dstIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstIndex, count);
+        checkBounds(offset, (long) Float.BYTES * count);
+        Memory.peekFloatArray(address + offset, dst, dstIndex, count, false);
+    }
+
+    public void put(long offset, float[] src, int srcIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(src.length, srcIndex, count);
+        checkWritableBounds(offset, (long) Float.BYTES * count);
+        Memory.pokeFloatArray(address + offset, src, srcIndex, count, false);
+    }
+
+    public void get(long offset, double[] dst, int dstIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(dst.length, dstIndex, count);
+        checkBounds(offset, (long) Double.BYTES * count);
+        Memory.peekDoubleArray(address + offset, dst, dstIndex, count, false);
+    }
+
+    public void put(long offset, double[] src, int srcIndex, int count) {
+        ArrayUtils.throwsIfOutOfBounds(src.length, srcIndex, count);
+        checkWritableBounds(offset, (long) Double.BYTES * count);
+        Memory.pokeDoubleArray(address + offset, src, srcIndex, count, false);
+    }
+
+    /**
+     * Sets every byte of this segment to {@code value}.
+     */
+    public void fill(byte value) {
+        arena.checkOpen();
+        checkWritable();
+        Memory.setMemory(address, byteSize, value);
+    }
+
+    /**
+     * Copies {@code byteCount} bytes from {@code src}, starting at {@code srcOffset}, to
+     * {@code dst}, starting at {@code dstOffset}. The two segments may overlap, and may belong
+     * to different arenas.
+     */
+    public static void copy(MemorySegment src, long srcOffset, MemorySegment dst, long dstOffset,
+            long byteCount) {
+        src.checkBounds(srcOffset, byteCount);
+        dst.checkWritableBounds(dstOffset, byteCount);
+        Memory.copyMemory(src.address + srcOffset, dst.address + dstOffset, byteCount);
+    }
+
+    private void checkBounds(long offset, long byteCount) {
+        arena.checkOpen();
+        // byteSize is non-negative, so 'byteSize - offset' cannot overflow for offset >= 0.
+        if (offset < 0 || byteCount < 0 || byteCount > byteSize - offset) {
+            throw new IndexOutOfBoundsException("Access outside segment: offset=" + offset
+                    + ", byteCount=" + byteCount + ", byteSize=" + byteSize);
+        }
+    }
+
+    private void checkWritableBounds(long offset, long byteCount) {
+        checkBounds(offset, byteCount);
+        checkWritable();
+    }
+
+    private void checkWritable() {
+        if (readOnly) {
+            throw new ReadOnlyBufferException();
+        }
+    }
+}
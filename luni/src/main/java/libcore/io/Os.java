@@ -145,6 +145,11 @@ public interface Os {
      */
     public void connect(FileDescriptor fd, SocketAddress address) throws ErrnoException, SocketException;
 
+    /**
+     * @hide
+     */
+    public long copy_file_range(FileDescriptor fdIn, Int64Ref offIn, FileDescriptor fdOut, Int64Ref offOut, long len, int flags) throws ErrnoException, InterruptedIOException;
+
     /**
      * @hide
      */
@@ -352,6 +357,14 @@ public interface Os {
      */
     public InetAddress inet_pton(int family, String address);
 
+    /**
+     * Clones all of {@code srcFd} into {@code destFd} by sharing extents, on file systems that
+     * support reflinks. See {@code ioctl_ficlone(2)}.
+     *
+     * @hide
+     */
+    public void ioctlFiclone(FileDescriptor destFd, FileDescriptor srcFd) throws ErrnoException;
+
     /**
      * @hide
      */
@@ -412,6 +425,14 @@ public interface Os {
      */
     public StructStat lstat(String path) throws ErrnoException;
 
+    /**
+     * Tells the kernel how the given range of memory is going to be accessed, with one of the
+     * {@code MADV_} constants. See {@code madvise(2)}.
+     *
+     * @hide
+     */
+    public void madvise(long address, long byteCount, int advice) throws ErrnoException;
+
     /**
      * @hide
      */
@@ -476,6 +497,15 @@ public interface Os {
      */
     public int poll(StructPollfd[] fds, int timeoutMs) throws ErrnoException;
 
+    /**
+     * Tells the kernel how the given range of a file is going to be accessed, with one of the
+     * {@code POSIX_FADV_} constants. A {@code length} of 0 means up to the end of the file. See
+     * {@code posix_fadvise(2)}.
+     *
+     * @hide
+     */
+    public void posix_fadvise(FileDescriptor fd, long offset, long length, int advice) throws ErrnoException;
+
     /**
      * @hide
      */
@@ -496,6 +526,14 @@ public interface Os {
      */
     public int pread(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException;
 
+    /**
+     * Like {@link #readv}, but reads from {@code offset} in the file rather than from the file
+     * offset, which it does not change. See {@code preadv(2)}.
+     *
+     * @hide
+     */
+    public int preadv(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException;
+
     /**
      * @hide
      */
@@ -506,6 +544,14 @@ public interface Os {
      */
     public int pwrite(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, long offset) throws ErrnoException, InterruptedIOException;
 
+    /**
+     * Like {@link #writev}, but writes at {@code offset} in the file rather than at the file
+     * offset, which it does not change. See {@code pwritev(2)}.
+     *
+     * @hide
+     */
+    public int pwritev(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, long offset) throws ErrnoException, InterruptedIOException;
+
     /**
      * @hide
      */
@@ -517,6 +563,14 @@ public interface Os {
     @UnsupportedAppUsage
     public int read(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount) throws ErrnoException, InterruptedIOException;
 
+    /**
+     * Reads the given range of a file into the page cache, blocking until it has been read. See
+     * {@code readahead(2)}.
+     *
+     * @hide
+     */
+    public void readahead(FileDescriptor fd, long offset, long count) throws ErrnoException;
+
     /**
      * @hide
      */
@@ -542,6 +596,23 @@ public interface Os {
      */
     public int recvfrom(FileDescriptor fd, byte[] bytes, int byteOffset, int byteCount, int flags, InetSocketAddress srcAddress) throws ErrnoException, SocketException;
 
+    /**
+     * Receives up to {@code buffers.length} datagrams with a single call, the i-th into
+     * {@code byteCounts[i]} bytes of {@code buffers[i]} starting at {@code offsets[i]}. Each
+     * buffer is a {@code byte[]} or a direct {@code ByteBuffer}, as for {@link #readv}. The length
+     * of each datagram received is stored in {@code receivedCounts}, and if
+     * {@code srcAddresses} is non-null, its non-null elements are filled in with the senders'
+     * addresses, as for {@link #recvfrom}. Returns the number of datagrams received. See
+     * {@code recvmmsg(2)}.
+     *
+     * @throws IllegalArgumentException if {@code offsets}, {@code byteCounts},
+     *         {@code receivedCounts} or a non-null {@code srcAddresses} is shorter than
+     *         {@code buffers}. Nothing is received in that case.
+     *
+     * @hide
+     */
+    public int recvmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, int[] receivedCounts, InetSocketAddress[] srcAddresses, int flags) throws ErrnoException, SocketException;
+
     /**
      * @hide
      */
@@ -563,6 +634,19 @@ public interface Os {
      */
     public void rename(String oldPath, String newPath) throws ErrnoException;
 
+    /**
+     * Sends {@code buffers.length} datagrams with a single call, the i-th made of
+     * {@code byteCounts[i]} bytes of {@code buffers[i]} starting at {@code offsets[i]}, to
+     * {@code dstAddresses[i]}. {@code dstAddresses} may be null for a connected socket. Returns
+     * the number of datagrams sent, which is less than {@code buffers.length} if the socket's
+     * send buffer filled up. See {@code sendmmsg(2)}.
+     *
+     * @throws IllegalArgumentException if {@code offsets}, {@code byteCounts} or a non-null
+     *         {@code dstAddresses} is shorter than {@code buffers}.
+     * @hide
+     */
+    public int sendmmsg(FileDescriptor fd, Object[] buffers, int[] offsets, int[] byteCounts, InetSocketAddress[] dstAddresses, int flags) throws ErrnoException, SocketException;
+
     /**
      * @hide
      */
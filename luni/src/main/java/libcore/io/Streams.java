@@ -23,6 +23,7 @@ import android.compat.annotation.UnsupportedAppUsage;
 
 import java.io.ByteArrayOutputStream;
 import java.io.EOFException;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
@@ -262,6 +263,10 @@ public final class Streams {
     @UnsupportedAppUsage
     @SystemApi(client = MODULE_LIBRARIES)
     public static int copy(@NonNull InputStream in, @NonNull OutputStream out) throws IOException {
+        if (in instanceof FileInputStream) {
+            // Copies inside the kernel if 'out' writes to a file descriptor.
+            return (int) in.transferTo(out);
+        }
         int total = 0;
         byte[] buffer = new byte[8192];
         int c;
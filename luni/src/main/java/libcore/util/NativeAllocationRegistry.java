@@ -68,6 +68,22 @@ public class NativeAllocationRegistry {
     // We use an even value close to 100 that is unlikely to be explicitly provided.
     private static final long DEFAULT_SIZE = 98;
 
+    // Number of unreachable allocations a batched registry frees with a single native call.
+    private static final int FREE_BATCH_SIZE = 64;
+
+    // Only for registries returned by createBatched(): native pointers whose referents have
+    // become unreachable, waiting to be passed to applyFreeFunctions(). Null otherwise.
+    // @GuardedBy("pendingFrees")
+    private final long[] pendingFrees;
+    private int pendingFreeCount;
+
+    // Batched registries with pending frees, linked through nextPending.
+    // @GuardedBy("PENDING_LOCK")
+    private static NativeAllocationRegistry firstPending;
+    private NativeAllocationRegistry nextPending;
+    private boolean isPending;
+    private static final Object PENDING_LOCK = new Object();
+
     /**
      * Return a {@link NativeAllocationRegistry} for native memory that is mostly
      * allocated by means other than the system memory allocator. For example,
@@ -149,6 +165,44 @@ public class NativeAllocationRegistry {
         return new NativeAllocationRegistry(classLoader, freeFunction, DEFAULT_SIZE, true);
     }
 
+    /**
+     * Return a {@link NativeAllocationRegistry} that frees native allocations
+     * whose referents have become unreachable in batches, rather than one at a
+     * time. Otherwise it behaves like the registries returned by
+     * {@link #createMalloced(ClassLoader, long, long)} and
+     * {@link #createNonmalloced}.
+     * <p>
+     * Such a registry collects up to a few dozen pointers before passing them
+     * to {@code freeFunction} in a single native call, and it tracks each
+     * allocation with one object instead of three. The pointers are freed at
+     * the latest once the reference queue daemon has finished processing the
+     * references cleared by a garbage collection, or by
+     * {@link System#runFinalization}. Explicitly running the {@link Runnable}
+     * returned by {@link #registerNativeAllocation} still frees the allocation
+     * immediately.
+     * <p>
+     * This suits kinds of native allocation that are small, numerous and
+     * short-lived. Heap analysis tools do not attribute allocations registered
+     * this way to their Java objects.
+     *
+     * @param classLoader  ClassLoader that was used to load the native
+     *                     library {@code freeFunction} belongs to.
+     * @param freeFunction address of a native function of type
+     *                     {@code void f(void* nativePtr)} used to free this
+     *                     kind of native allocation
+     * @param size         estimated size in bytes of this kind of native
+     *                     allocation
+     * @param mallocAllocation the native object is primarily allocated via malloc.
+     * @return allocated {@link NativeAllocationRegistry}
+     *
+     * @hide
+     */
+    public static NativeAllocationRegistry createBatched(@NonNull ClassLoader classLoader,
+            long freeFunction, long size, boolean mallocAllocation) {
+        return new NativeAllocationRegistry(classLoader, freeFunction, size, mallocAllocation,
+                true);
+    }
+
     /**
      * Constructs a NativeAllocationRegistry for a particular kind of native
      * allocation.
@@ -179,12 +233,18 @@ public class NativeAllocationRegistry {
      */
     private NativeAllocationRegistry(ClassLoader classLoader, long freeFunction, long size,
             boolean mallocAllocation) {
+        this(classLoader, freeFunction, size, mallocAllocation, false);
+    }
+
+    private NativeAllocationRegistry(ClassLoader classLoader, long freeFunction, long size,
+            boolean mallocAllocation, boolean batched) {
         if (size < 0) {
             throw new IllegalArgumentException("Invalid native allocation size: " + size);
         }
         this.classLoader = classLoader;
         this.freeFunction = freeFunction;
         this.size = mallocAllocation ? (size | IS_MALLOCED) : (size & ~IS_MALLOCED);
+        this.pendingFrees = batched ? new long[FREE_BATCH_SIZE] : null;
     }
 
     /**
@@ -263,6 +323,9 @@ public class NativeAllocationRegistry {
         if (nativePtr == 0) {
             throw new IllegalArgumentException("nativePtr is null");
         }
+        if (pendingFrees != null) {
+            return registerBatchedAllocation(referent, nativePtr);
+        }
 
         CleanerThunk thunk;
         CleanerRunner result;
@@ -282,6 +345,109 @@ public class NativeAllocationRegistry {
         return result;
     }
 
+    private Runnable registerBatchedAllocation(Object referent, long nativePtr) {
+        BatchedCleaner cleaner;
+        try {
+            cleaner = new BatchedCleaner(referent);
+            registerNativeAllocation(this.size);
+        } catch (VirtualMachineError vme /* probably OutOfMemoryError */) {
+            applyFreeFunction(freeFunction, nativePtr);
+            throw vme;
+        }
+        cleaner.nativePtr = nativePtr;
+        Reference.reachabilityFence(referent);
+        return cleaner;
+    }
+
+    // Adds nativePtr to the pending frees, freeing the whole batch once it is full.
+    private void freeLater(long nativePtr) {
+        synchronized (pendingFrees) {
+            pendingFrees[pendingFreeCount++] = nativePtr;
+            if (pendingFreeCount == FREE_BATCH_SIZE) {
+                freePendingLocked();
+            } else if (pendingFreeCount == 1) {
+                synchronized (PENDING_LOCK) {
+                    if (!isPending) {
+                        isPending = true;
+                        nextPending = firstPending;
+                        firstPending = this;
+                    }
+                }
+            }
+        }
+    }
+
+    // @GuardedBy("pendingFrees")
+    private void freePendingLocked() {
+        int count = pendingFreeCount;
+        if (count == 0) {
+            return;
+        }
+        pendingFreeCount = 0;
+        applyFreeFunctions(freeFunction, pendingFrees, count);
+        registerNativeFree(size, count);
+    }
+
+    /**
+     * Frees all native allocations that registries returned by
+     * {@link #createBatched} are still holding on to, although their
+     * referents have become unreachable.
+     *
+     * @hide
+     */
+    public static void freePendingAllocations() {
+        while (true) {
+            NativeAllocationRegistry registry;
+            synchronized (PENDING_LOCK) {
+                registry = firstPending;
+                if (registry == null) {
+                    return;
+                }
+                firstPending = registry.nextPending;
+                registry.nextPending = null;
+                registry.isPending = false;
+            }
+            synchronized (registry.pendingFrees) {
+                registry.freePendingLocked();
+            }
+        }
+    }
+
+    // Both the Cleaner and the Runnable returned for an allocation registered with a batched
+    // registry.
+    private final class BatchedCleaner extends Cleaner implements Runnable {
+        private long nativePtr;
+        // Set when run() is called explicitly, so that the allocation is freed right away.
+        private volatile boolean freeNow;
+
+        BatchedCleaner(Object referent) {
+            super(referent);
+        }
+
+        @Override protected void cleanUp() {
+            if (nativePtr == 0) {
+                return;
+            }
+            if (freeNow) {
+                applyFreeFunction(freeFunction, nativePtr);
+                registerNativeFree(size);
+            } else {
+                freeLater(nativePtr);
+            }
+        }
+
+        public void run() {
+            freeNow = true;
+            clean();
+        }
+
+        // Only for error reporting.
+        @Override public String toString() {
+            return super.toString() + "(freeFunction = 0x" + Long.toHexString(freeFunction)
+                + ", nativePtr = 0x" + Long.toHexString(nativePtr) + ", size = " + size + ")";
+        }
+    }
+
     private class CleanerThunk implements Runnable {
         private long nativePtr;
 
@@ -337,8 +503,15 @@ public class NativeAllocationRegistry {
 
     // Inform the garbage collector of deallocation, if appropriate.
     private static void registerNativeFree(long size) {
+        registerNativeFree(size, 1);
+    }
+
+    // Inform the garbage collector of the deallocation of count allocations that were each
+    // registered with registerNativeAllocation(size). The malloced bit must be tested before
+    // multiplying, since size * count may clear it.
+    private static void registerNativeFree(long size, int count) {
         if ((size & IS_MALLOCED) == 0) {
-            VMRuntime.getRuntime().registerNativeFree(size);
+            VMRuntime.getRuntime().registerNativeFree(size * count);
         }
     }
 
@@ -356,5 +529,18 @@ public class NativeAllocationRegistry {
      */
     @SystemApi(client = MODULE_LIBRARIES)
     public static native void applyFreeFunction(long freeFunction, long nativePtr);
+
+    // Calls freeFunction(nativePtrs[i]) for each of the first count pointers.
+    private static native void applyFreeFunctions(long freeFunction, long[] nativePtrs,
+            int count);
+
+    /**
+     * Returns the address of the system allocator's {@code free()}, for use as
+     * the {@code freeFunction} of memory allocated with {@code malloc()}, such as
+     * by {@link sun.misc.Unsafe#allocateMemory}.
+     *
+     * @hide
+     */
+    public static native long getMallocFreeFunction();
 }
 
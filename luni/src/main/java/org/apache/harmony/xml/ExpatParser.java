@@ -34,13 +34,15 @@ import java.io.Reader;
 import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
+import java.nio.ByteBuffer;
 import libcore.io.IoUtils;
 
 import dalvik.annotation.optimization.ReachabilitySensitive;
 
 /**
- * Adapts SAX API to the Expat native XML parser. Not intended for reuse
- * across documents.
+ * Adapts SAX API to the Expat native XML parser. A parser can be {@link
+ * #reset} to parse another document, keeping its native parser, buffers and
+ * interned names.
  *
  * @see org.apache.harmony.xml.ExpatReader
  */
@@ -48,6 +50,9 @@ class ExpatParser {
 
     private static final int BUFFER_SIZE = 8096; // in bytes
 
+    /** Bytes handed to Expat at a time from a ByteBuffer. */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
     /** Pointer to XML_Parser instance. */
     // A few native methods taking the pointer value are static; @ReachabilitySensitive is
     // necessary to ensure the Java object is kept reachable sufficiently long in these cases.
@@ -63,10 +68,14 @@ class ExpatParser {
     @UnsupportedAppUsage
     private final ExpatReader xmlReader;
 
-    private final String publicId;
-    private final String systemId;
+    private String publicId;
+    private String systemId;
+
+    private String encoding;
 
-    private final String encoding;
+    /** Buffers for reading streams, kept for the next document. */
+    private byte[] byteBuffer;
+    private char[] charBuffer;
 
     @UnsupportedAppUsage
     private final ExpatAttributes attributes = new CurrentAttributes();
@@ -127,6 +136,23 @@ class ExpatParser {
      */
     private native long initialize(String encoding, boolean namespacesEnabled);
 
+    /**
+     * Prepares this parser to parse another document with the given encoding.
+     * Namespace processing stays as it was when this parser was constructed.
+     * Must not be called while a document is being parsed.
+     */
+    /*package*/ void reset(String encoding, String publicId, String systemId) {
+        this.publicId = publicId;
+        this.systemId = systemId;
+        this.encoding = encoding == null ? DEFAULT_ENCODING : encoding;
+        this.inStartElement = false;
+        this.attributeCount = -1;
+        this.attributePointer = 0;
+        resetParser(this.pointer, this.encoding);
+    }
+
+    private static native void resetParser(long pointer, String encoding);
+
     /**
      * Called at the start of an element.
      *
@@ -478,6 +504,9 @@ class ExpatParser {
     private native void appendBytes(long pointer, byte[] xml, int offset,
             int length) throws SAXException, ExpatException;
 
+    private native void appendDirect(long pointer, ByteBuffer xml, int offset,
+            int length) throws SAXException, ExpatException;
+
     /**
      * Parses an XML document from the given input stream.
      */
@@ -499,11 +528,24 @@ class ExpatParser {
         endDocument();
     }
 
+    /**
+     * Parses an XML document from the remaining bytes of the given buffer.
+     */
+    /*package*/ void parseDocument(ByteBuffer in) throws SAXException {
+        startDocument();
+        parseFragment(in);
+        finish();
+        endDocument();
+    }
+
     /**
      * Parses XML from the given Reader.
      */
     private void parseFragment(Reader in) throws IOException, SAXException {
-        char[] buffer = new char[BUFFER_SIZE / 2];
+        if (charBuffer == null) {
+            charBuffer = new char[BUFFER_SIZE / 2];
+        }
+        char[] buffer = charBuffer;
         int length;
         while ((length = in.read(buffer)) != -1) {
             try {
@@ -519,7 +561,10 @@ class ExpatParser {
      */
     private void parseFragment(InputStream in)
             throws IOException, SAXException {
-        byte[] buffer = new byte[BUFFER_SIZE];
+        if (byteBuffer == null) {
+            byteBuffer = new byte[BUFFER_SIZE];
+        }
+        byte[] buffer = byteBuffer;
         int length;
         while ((length = in.read(buffer)) != -1) {
             try {
@@ -530,6 +575,37 @@ class ExpatParser {
         }
     }
 
+    /**
+     * Parses XML from the remaining bytes of the given buffer, leaving its
+     * position at its limit. Direct buffers, such as mapped files, are read by
+     * Expat in place rather than copied into the Java heap first.
+     */
+    private void parseFragment(ByteBuffer in) throws SAXException {
+        while (in.hasRemaining()) {
+            int position = in.position();
+            int length = Math.min(in.remaining(), CHUNK_SIZE);
+            try {
+                if (in.isDirect()) {
+                    appendDirect(this.pointer, in, position, length);
+                } else if (in.hasArray()) {
+                    appendBytes(this.pointer, in.array(),
+                            in.arrayOffset() + position, length);
+                } else {
+                    // A read-only heap buffer, whose array we can't use.
+                    if (byteBuffer == null) {
+                        byteBuffer = new byte[BUFFER_SIZE];
+                    }
+                    length = Math.min(length, byteBuffer.length);
+                    in.duplicate().get(byteBuffer, 0, length);
+                    appendBytes(this.pointer, byteBuffer, 0, length);
+                }
+            } catch (ExpatException e) {
+                throw new ParseException(e.getMessage(), this.locator);
+            }
+            in.position(position + length);
+        }
+    }
+
     private void startDocument() throws SAXException {
         ContentHandler contentHandler = xmlReader.contentHandler;
         if (contentHandler != null) {
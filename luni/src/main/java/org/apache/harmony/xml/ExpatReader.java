@@ -32,11 +32,16 @@ import android.compat.annotation.UnsupportedAppUsage;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.Reader;
+import java.nio.ByteBuffer;
 import libcore.io.IoUtils;
 
 /**
  * SAX wrapper around Expat. Interns strings. Does not support validation.
  * Does not support {@link DTDHandler}.
+ *
+ * <p>Each parse after the first reuses the native parser of the previous one,
+ * along with its buffers and the names it has interned, which makes parsing
+ * many small documents with the same reader cheaper.
  */
 public class ExpatReader implements XMLReader {
     /*
@@ -53,6 +58,13 @@ public class ExpatReader implements XMLReader {
     private boolean processNamespaces = true;
     private boolean processNamespacePrefixes = false;
 
+    /**
+     * The parser left by the last parse, or null. Its namespace processing
+     * can't be changed, so it is only reused if that setting still matches.
+     */
+    private ExpatParser parser;
+    private boolean parserProcessesNamespaces;
+
     private static final String LEXICAL_HANDLER_PROPERTY
             = "http://xml.org/sax/properties/lexical-handler";
 
@@ -255,18 +267,7 @@ public class ExpatReader implements XMLReader {
     }
 
     public void parse(InputSource input) throws IOException, SAXException {
-        if (processNamespacePrefixes && processNamespaces) {
-            /*
-             * Expat has XML_SetReturnNSTriplet, but that still doesn't
-             * include xmlns attributes like this feature requires. We may
-             * have to implement namespace processing ourselves if we want
-             * this (not too difficult). We obviously "support" namespace
-             * prefixes if namespaces are disabled.
-             */
-            throw new SAXNotSupportedException("The 'namespace-prefix' " +
-                    "feature is not supported while the 'namespaces' " +
-                    "feature is enabled.");
-        }
+        checkFeatures();
 
         // Try the character stream.
         Reader reader = input.getCharacterStream();
@@ -305,23 +306,86 @@ public class ExpatReader implements XMLReader {
         }
     }
 
+    /**
+     * Parses the remaining bytes of the given buffer as an XML document,
+     * leaving the buffer's position at its limit. Direct buffers, such as
+     * those returned by {@link java.nio.channels.FileChannel#map}, are parsed
+     * in place without being copied into the Java heap first.
+     *
+     * @param xml the document
+     * @param encoding the document's encoding, or null for UTF-8
+     * @param publicId the public ID reported to handlers, or null
+     * @param systemId the system ID reported to handlers, or null
+     */
+    public void parse(ByteBuffer xml, String encoding, String publicId,
+            String systemId) throws SAXException {
+        checkFeatures();
+        boolean namespaces = processNamespaces;
+        ExpatParser parser = obtainParser(encoding, namespaces, publicId, systemId);
+        try {
+            parser.parseDocument(xml);
+        } finally {
+            recycleParser(parser, namespaces);
+        }
+    }
+
+    private void checkFeatures() throws SAXNotSupportedException {
+        if (processNamespacePrefixes && processNamespaces) {
+            /*
+             * Expat has XML_SetReturnNSTriplet, but that still doesn't
+             * include xmlns attributes like this feature requires. We may
+             * have to implement namespace processing ourselves if we want
+             * this (not too difficult). We obviously "support" namespace
+             * prefixes if namespaces are disabled.
+             */
+            throw new SAXNotSupportedException("The 'namespace-prefix' " +
+                    "feature is not supported while the 'namespaces' " +
+                    "feature is enabled.");
+        }
+    }
+
     private void parse(Reader in, String publicId, String systemId)
             throws IOException, SAXException {
-        ExpatParser parser = new ExpatParser(
-                ExpatParser.CHARACTER_ENCODING,
-                this,
-                processNamespaces,
-                publicId,
-                systemId
-        );
-        parser.parseDocument(in);
+        boolean namespaces = processNamespaces;
+        ExpatParser parser = obtainParser(ExpatParser.CHARACTER_ENCODING,
+                namespaces, publicId, systemId);
+        try {
+            parser.parseDocument(in);
+        } finally {
+            recycleParser(parser, namespaces);
+        }
     }
 
     private void parse(InputStream in, String charsetName, String publicId, String systemId)
             throws IOException, SAXException {
-        ExpatParser parser =
-            new ExpatParser(charsetName, this, processNamespaces, publicId, systemId);
-        parser.parseDocument(in);
+        boolean namespaces = processNamespaces;
+        ExpatParser parser = obtainParser(charsetName, namespaces, publicId, systemId);
+        try {
+            parser.parseDocument(in);
+        } finally {
+            recycleParser(parser, namespaces);
+        }
+    }
+
+    /**
+     * Returns the parser left by the last parse, reset for a new document, or
+     * a new parser if there is none or its namespace processing differs. A
+     * handler that starts a nested parse gets a parser of its own.
+     */
+    private ExpatParser obtainParser(String encoding, boolean namespaces,
+            String publicId, String systemId) {
+        ExpatParser parser = this.parser;
+        this.parser = null;
+        if (parser != null && parserProcessesNamespaces == namespaces) {
+            parser.reset(encoding, publicId, systemId);
+            return parser;
+        }
+        return new ExpatParser(encoding, this, namespaces, publicId, systemId);
+    }
+
+    private void recycleParser(ExpatParser parser, boolean namespaces) {
+        this.parser = parser;
+        this.parserProcessesNamespaces = namespaces;
     }
 
     public void parse(String systemId) throws IOException, SAXException {
@@ -104,11 +104,14 @@ public final class AttrImpl extends NodeImpl implements Attr {
 
     @Override
     public void setPrefix(String prefix) {
-        this.prefix = validatePrefix(prefix, namespaceAware, namespaceURI);
+        this.prefix = document.internName(
+                validatePrefix(prefix, namespaceAware, namespaceURI));
+        ownerChanged();
     }
 
     public void setValue(String value) throws DOMException {
         this.value = value;
+        ownerChanged();
     }
 
     public TypeInfo getSchemaTypeInfo() {
@@ -116,6 +119,16 @@ public final class AttrImpl extends NodeImpl implements Attr {
         return NULL_TYPE_INFO;
     }
 
+    /**
+     * Drops the document's element index if this attribute's owner could be
+     * found by a different name or ID after a change to this attribute.
+     */
+    private void ownerChanged() {
+        if (ownerElement != null) {
+            document.invalidateElementIndex();
+        }
+    }
+
     public boolean isId() {
         return isId;
     }
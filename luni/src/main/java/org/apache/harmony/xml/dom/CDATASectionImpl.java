@@ -69,7 +69,7 @@ public final class CDATASectionImpl extends TextImpl implements CDATASection {
      * serialized.
      */
     public boolean needsSplitting() {
-        return buffer.indexOf("]]>") != -1;
+        return getData().contains("]]>");
     }
 
     /**
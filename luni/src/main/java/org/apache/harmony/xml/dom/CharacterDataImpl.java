@@ -16,6 +16,7 @@
 
 package org.apache.harmony.xml.dom;
 
+import java.util.Objects;
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.DOMException;
 
@@ -32,7 +33,12 @@ import org.w3c.dom.DOMException;
 public abstract class CharacterDataImpl extends LeafNodeImpl implements
         CharacterData {
 
-    protected StringBuffer buffer;
+    /**
+     * This node's data. Nodes keep the string they were created with until
+     * their data is first modified, so that text which is only ever read, such
+     * as most parsed text, is neither copied nor given spare capacity.
+     */
+    CharSequence data;
 
     CharacterDataImpl(DocumentImpl document, String data) {
         super(document);
@@ -40,26 +46,26 @@ public abstract class CharacterDataImpl extends LeafNodeImpl implements
     }
 
     public void appendData(String arg) throws DOMException {
-        buffer.append(arg);
+        buffer().append(arg);
     }
 
     public void deleteData(int offset, int count) throws DOMException {
-        buffer.delete(offset, offset + count);
+        buffer().delete(offset, offset + count);
     }
 
     public String getData() throws DOMException {
-        return buffer.toString();
+        return data.toString();
     }
 
     /**
      * Appends this node's text content to the given builder.
      */
     public void appendDataTo(StringBuilder stringBuilder) {
-        stringBuilder.append(buffer);
+        stringBuilder.append(data);
     }
 
     public int getLength() {
-        return buffer.length();
+        return data.length();
     }
 
     @Override
@@ -69,7 +75,7 @@ public abstract class CharacterDataImpl extends LeafNodeImpl implements
 
     public void insertData(int offset, String arg) throws DOMException {
         try {
-            buffer.insert(offset, arg);
+            buffer().insert(offset, arg);
         } catch (ArrayIndexOutOfBoundsException ex) {
             throw new DOMException(DOMException.INDEX_SIZE_ERR, null);
         }
@@ -78,22 +84,32 @@ public abstract class CharacterDataImpl extends LeafNodeImpl implements
     public void replaceData(int offset, int count, String arg)
             throws DOMException {
         try {
-            buffer.replace(offset, offset + count, arg);
+            buffer().replace(offset, offset + count, arg);
         } catch (ArrayIndexOutOfBoundsException ex) {
             throw new DOMException(DOMException.INDEX_SIZE_ERR, null);
         }
     }
 
     public void setData(String data) throws DOMException {
-        buffer = new StringBuffer(data);
+        this.data = Objects.requireNonNull(data);
     }
 
     public String substringData(int offset, int count) throws DOMException {
         try {
-            return buffer.substring(offset, offset + count);
+            return data.subSequence(offset, offset + count).toString();
         } catch (ArrayIndexOutOfBoundsException ex) {
             throw new DOMException(DOMException.INDEX_SIZE_ERR, null);
         }
     }
 
+    /**
+     * Returns this node's data as a mutable buffer, copying it into one first
+     * if it is still held as a string.
+     */
+    final StringBuffer buffer() {
+        if (!(data instanceof StringBuffer)) {
+            data = new StringBuffer(data);
+        }
+        return (StringBuffer) data;
+    }
 }
@@ -50,6 +50,6 @@ public final class CommentImpl extends CharacterDataImpl implements Comment {
      * "--". Such nodes may not be serialized.
      */
     public boolean containsDashDash() {
-        return buffer.indexOf("--") != -1;
+        return getData().contains("--");
     }
 }
@@ -396,7 +396,7 @@ public final class DOMConfigurationImpl implements DOMConfiguration {
                             report(DOMError.SEVERITY_ERROR, "wf-invalid-character");
                         }
                     }
-                    checkTextValidity(cdata.buffer);
+                    checkTextValidity(cdata.data);
                     break;
                 }
                 node = cdata.replaceWithText();
@@ -406,7 +406,7 @@ public final class DOMConfigurationImpl implements DOMConfiguration {
                 TextImpl text = (TextImpl) node;
                 text = text.minimize();
                 if (text != null) {
-                    checkTextValidity(text.buffer);
+                    checkTextValidity(text.data);
                 }
                 break;
 
@@ -419,7 +419,7 @@ public final class DOMConfigurationImpl implements DOMConfiguration {
                 if (comment.containsDashDash()) {
                     report(DOMError.SEVERITY_ERROR, "wf-invalid-character");
                 }
-                checkTextValidity(comment.buffer);
+                checkTextValidity(comment.data);
                 break;
 
             case Node.PROCESSING_INSTRUCTION_NODE:
@@ -16,9 +16,12 @@
 
 package org.apache.harmony.xml.dom;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.WeakHashMap;
 import org.w3c.dom.CharacterData;
 import org.w3c.dom.Comment;
@@ -72,6 +75,21 @@ public final class DocumentImpl extends InnerNodeImpl implements Document {
      */
     private WeakHashMap<NodeImpl, Map<String, UserData>> nodeToUserData;
 
+    /**
+     * The canonical instance of each name used by this document's elements
+     * and attributes, or null if names are not shared. See {@link #setCompact}.
+     */
+    private HashMap<String, String> names;
+
+    /** Whether elements are looked up in an index. See {@link #setIndexed}. */
+    private boolean indexed;
+
+    /**
+     * The index of this document's elements, or null if it hasn't been built
+     * since the document last changed.
+     */
+    private ElementIndex elementIndex;
+
     public DocumentImpl(DOMImplementationImpl impl, String namespaceURI,
             String qualifiedName, DocumentType doctype, String inputEncoding) {
         super(null);
@@ -380,23 +398,179 @@ public final class DocumentImpl extends InnerNodeImpl implements Document {
     }
 
     public Element getElementById(String elementId) {
+        // Every element without an "id" attribute matches the empty string.
+        if (indexed && elementId != null && !elementId.isEmpty()) {
+            return getElementIndex().byId.get(elementId);
+        }
+
         ElementImpl root = (ElementImpl) getDocumentElement();
 
         return (root == null ? null : root.getElementById(elementId));
     }
 
     public NodeList getElementsByTagName(String name) {
+        if (indexed) {
+            ElementIndex index = getElementIndex();
+            List<NodeImpl> elements = "*".equals(name) ? index.all : index.byTagName.get(name);
+            return elements != null ? new NodeListImpl(elements) : new NodeListImpl();
+        }
+
         NodeListImpl result = new NodeListImpl();
         getElementsByTagName(result, name);
         return result;
     }
 
     public NodeList getElementsByTagNameNS(String namespaceURI, String localName) {
+        if (indexed) {
+            ElementIndex index = getElementIndex();
+            List<NodeImpl> elements = "*".equals(localName)
+                    ? index.all
+                    : index.byLocalName.get(localName);
+            if (elements == null) {
+                return new NodeListImpl();
+            }
+            if ("*".equals(namespaceURI)) {
+                return new NodeListImpl(elements);
+            }
+            NodeListImpl result = new NodeListImpl();
+            for (NodeImpl element : elements) {
+                if (Objects.equals(namespaceURI, element.getNamespaceURI())) {
+                    result.add(element);
+                }
+            }
+            return result;
+        }
+
         NodeListImpl result = new NodeListImpl();
         getElementsByTagNameNS(result, namespaceURI, localName);
         return result;
     }
 
+    /**
+     * Sets whether this document shares a single instance of each element and
+     * attribute name, prefix and namespace URI between its nodes. This saves
+     * memory in large documents, where the same few names are used by many
+     * nodes. Only nodes named after this call are affected.
+     */
+    public void setCompact(boolean compact) {
+        if (!compact) {
+            names = null;
+        } else if (names == null) {
+            names = new HashMap<String, String>();
+        }
+    }
+
+    public boolean isCompact() {
+        return names != null;
+    }
+
+    /**
+     * Returns this document's instance of {@code name} if this document is
+     * compact, or {@code name} itself otherwise. Null is returned as is.
+     */
+    String internName(String name) {
+        if (names == null || name == null) {
+            return name;
+        }
+        String result = names.putIfAbsent(name, name);
+        return result != null ? result : name;
+    }
+
+    /**
+     * Sets whether {@link #getElementById} and the {@code getElementsByTagName}
+     * methods of this document look elements up in an index, rather than
+     * walking the document on every call.
+     *
+     * <p>The index is built by the first lookup after the document changes,
+     * and dropped by the next change to the document's elements or their
+     * attributes. Documents that are mostly read, such as parsed configuration
+     * files, therefore walk their elements only once. The node lists returned
+     * by indexed lookups may share storage with the index, and like all node
+     * lists returned by this implementation do not reflect later changes.
+     */
+    public void setIndexed(boolean indexed) {
+        this.indexed = indexed;
+        if (!indexed) {
+            elementIndex = null;
+        }
+    }
+
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    /**
+     * Drops the element index after a change that could affect which elements
+     * it finds. Callers need not check whether this document is indexed.
+     */
+    void invalidateElementIndex() {
+        elementIndex = null;
+    }
+
+    private ElementIndex getElementIndex() {
+        ElementIndex index = elementIndex;
+        if (index == null) {
+            index = new ElementIndex();
+            index.addChildren(this);
+            elementIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * This document's elements, in document order, by the keys used to look
+     * them up. The lists are never modified once the index is built.
+     */
+    private static final class ElementIndex {
+        final List<NodeImpl> all = new ArrayList<NodeImpl>();
+        final Map<String, List<NodeImpl>> byTagName = new HashMap<String, List<NodeImpl>>();
+        final Map<String, List<NodeImpl>> byLocalName = new HashMap<String, List<NodeImpl>>();
+        final Map<String, ElementImpl> byId = new HashMap<String, ElementImpl>();
+
+        void addChildren(InnerNodeImpl node) {
+            for (LeafNodeImpl child : node.children) {
+                if (child.getNodeType() == Node.ELEMENT_NODE) {
+                    add((ElementImpl) child);
+                }
+            }
+        }
+
+        /**
+         * Adds {@code element} and its descendants. This matches the search
+         * done by {@link ElementImpl#getElementById}, in which the first
+         * element in document order wins.
+         */
+        private void add(ElementImpl element) {
+            all.add(element);
+            add(byTagName, element.getNodeName(), element);
+            add(byLocalName, element.getLocalName(), element);
+
+            NamedNodeMap attributes = element.getAttributes();
+            for (int i = 0; i < attributes.getLength(); i++) {
+                AttrImpl attr = (AttrImpl) attributes.item(i);
+                if (attr.isId()) {
+                    byId.putIfAbsent(attr.getValue(), element);
+                }
+            }
+            AttrImpl id = element.getAttributeNode("id");
+            if (id != null) {
+                byId.putIfAbsent(id.getValue(), element);
+            }
+
+            addChildren(element);
+        }
+
+        private static void add(Map<String, List<NodeImpl>> map, String key,
+                ElementImpl element) {
+            List<NodeImpl> elements = map.get(key);
+            if (elements == null) {
+                elements = new ArrayList<NodeImpl>();
+                map.put(key, elements);
+            }
+            elements.add(element);
+        }
+    }
+
     public DOMImplementation getImplementation() {
         return domImplementation;
     }
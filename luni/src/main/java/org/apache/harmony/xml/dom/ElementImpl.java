@@ -27,6 +27,7 @@ import org.w3c.dom.TypeInfo;
 import android.compat.annotation.UnsupportedAppUsage;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
@@ -48,7 +49,8 @@ public class ElementImpl extends InnerNodeImpl implements Element {
     @UnsupportedAppUsage
     String localName;
 
-    private List<AttrImpl> attributes = new ArrayList<AttrImpl>();
+    // Elements without attributes share an immutable empty list.
+    private List<AttrImpl> attributes = Collections.emptyList();
 
     ElementImpl(DocumentImpl document, String namespaceURI, String qualifiedName) {
         super(document);
@@ -130,8 +132,8 @@ public class ElementImpl extends InnerNodeImpl implements Element {
 
     /**
      * This implementation walks the entire document looking for an element
-     * with the given ID attribute. We should consider adding an index to speed
-     * navigation of large documents.
+     * with the given ID attribute. Large documents that are searched often
+     * should use an index instead; see {@link DocumentImpl#setIndexed}.
      */
     Element getElementById(String name) {
         for (Attr attr : attributes) {
@@ -221,6 +223,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
         int i = indexOfAttribute(name);
 
         if (i != -1) {
+            document.invalidateElementIndex();
             attributes.remove(i);
         }
     }
@@ -230,6 +233,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
         int i = indexOfAttributeNS(namespaceURI, localName);
 
         if (i != -1) {
+            document.invalidateElementIndex();
             attributes.remove(i);
         }
     }
@@ -241,6 +245,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
             throw new DOMException(DOMException.NOT_FOUND_ERR, null);
         }
 
+        document.invalidateElementIndex();
         attributes.remove(oldAttrImpl);
         oldAttrImpl.ownerElement = null;
 
@@ -281,6 +286,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
             throw new DOMException(DOMException.INUSE_ATTRIBUTE_ERR, null);
         }
 
+        document.invalidateElementIndex();
         AttrImpl oldAttrImpl = null;
 
         int i = indexOfAttribute(newAttr.getName());
@@ -289,8 +295,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
             attributes.remove(i);
         }
 
-        attributes.add(newAttrImpl);
-        newAttrImpl.ownerElement = this;
+        addAttribute(newAttrImpl);
 
         return oldAttrImpl;
     }
@@ -306,6 +311,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
             throw new DOMException(DOMException.INUSE_ATTRIBUTE_ERR, null);
         }
 
+        document.invalidateElementIndex();
         AttrImpl oldAttrImpl = null;
 
         int i = indexOfAttributeNS(newAttr.getNamespaceURI(), newAttr.getLocalName());
@@ -314,15 +320,24 @@ public class ElementImpl extends InnerNodeImpl implements Element {
             attributes.remove(i);
         }
 
-        attributes.add(newAttrImpl);
-        newAttrImpl.ownerElement = this;
+        addAttribute(newAttrImpl);
 
         return oldAttrImpl;
     }
 
+    private void addAttribute(AttrImpl attr) {
+        if (attributes.isEmpty()) {
+            attributes = new ArrayList<AttrImpl>(2);
+        }
+        attributes.add(attr);
+        attr.ownerElement = this;
+    }
+
     @Override
     public void setPrefix(String prefix) {
-        this.prefix = validatePrefix(prefix, namespaceAware, namespaceURI);
+        this.prefix = document.internName(
+                validatePrefix(prefix, namespaceAware, namespaceURI));
+        document.invalidateElementIndex();
     }
 
     public class ElementAttrNamedNodeMapImpl implements NamedNodeMap {
@@ -358,6 +373,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
                 throw new DOMException(DOMException.NOT_FOUND_ERR, null);
             }
 
+            document.invalidateElementIndex();
             return ElementImpl.this.attributes.remove(i);
         }
 
@@ -369,6 +385,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
                 throw new DOMException(DOMException.NOT_FOUND_ERR, null);
             }
 
+            document.invalidateElementIndex();
             return ElementImpl.this.attributes.remove(i);
         }
 
@@ -401,6 +418,7 @@ public class ElementImpl extends InnerNodeImpl implements Element {
                     "No such attribute: " + name);
         }
         attr.isId = isId;
+        document.invalidateElementIndex();
     }
 
     public void setIdAttributeNS(String namespaceURI, String localName,
@@ -411,9 +429,11 @@ public class ElementImpl extends InnerNodeImpl implements Element {
                     "No such attribute: " + namespaceURI +  " " + localName);
         }
         attr.isId = isId;
+        document.invalidateElementIndex();
     }
 
     public void setIdAttributeNode(Attr idAttr, boolean isId) throws DOMException {
         ((AttrImpl) idAttr).isId = isId;
+        document.invalidateElementIndex();
     }
 }
@@ -17,6 +17,7 @@
 package org.apache.harmony.xml.dom;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 import org.w3c.dom.DOMException;
@@ -41,8 +42,9 @@ import org.w3c.dom.NodeList;
  */
 public abstract class InnerNodeImpl extends LeafNodeImpl {
 
-    // Maintained by LeafNodeImpl and ElementImpl.
-    List<LeafNodeImpl> children = new ArrayList<LeafNodeImpl>();
+    // Maintained by LeafNodeImpl and ElementImpl. Empty nodes share an
+    // immutable list; a node's own list is allocated when it gains a child.
+    List<LeafNodeImpl> children = Collections.emptyList();
 
     protected InnerNodeImpl(DocumentImpl document) {
         super(document);
@@ -121,12 +123,20 @@ public abstract class InnerNodeImpl extends LeafNodeImpl {
             throw new DOMException(DOMException.HIERARCHY_REQUEST_ERR, null);
         }
 
+        if (document != null) {
+            document.invalidateElementIndex();
+        }
+
         if (toInsert.parent != null) {
             int oldIndex = toInsert.index;
             toInsert.parent.children.remove(oldIndex);
             toInsert.parent.refreshIndices(oldIndex);
         }
 
+        if (children.isEmpty()) {
+            // Most elements have a single child, often just their text.
+            children = new ArrayList<LeafNodeImpl>(2);
+        }
         children.add(index, toInsert);
         toInsert.parent = this;
         refreshIndices(index);
@@ -181,6 +191,10 @@ public abstract class InnerNodeImpl extends LeafNodeImpl {
             throw new DOMException(DOMException.HIERARCHY_REQUEST_ERR, null);
         }
 
+        if (document != null) {
+            document.invalidateElementIndex();
+        }
+
         int index = oldChildImpl.index;
         children.remove(index);
         oldChildImpl.parent = null;
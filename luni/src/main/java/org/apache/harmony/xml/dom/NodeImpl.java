@@ -241,6 +241,14 @@ public abstract class NodeImpl implements Node {
             throw new DOMException(DOMException.INVALID_CHARACTER_ERR, qualifiedName);
         }
 
+        DocumentImpl document = node.document;
+        if (document != null) {
+            namespaceURI = document.internName(namespaceURI);
+            prefix = document.internName(prefix);
+            qualifiedName = document.internName(qualifiedName);
+            document.invalidateElementIndex();
+        }
+
         switch (node.getNodeType()) {
         case ATTRIBUTE_NODE:
             if ("xmlns".equals(qualifiedName)
@@ -286,6 +294,12 @@ public abstract class NodeImpl implements Node {
             throw new DOMException(DOMException.INVALID_CHARACTER_ERR, name);
         }
 
+        DocumentImpl document = node.document;
+        if (document != null) {
+            name = document.internName(name);
+            document.invalidateElementIndex();
+        }
+
         switch (node.getNodeType()) {
         case ATTRIBUTE_NODE:
             AttrImpl attr = (AttrImpl) node;
@@ -165,7 +165,7 @@ public class TextImpl extends CharacterDataImpl implements Text {
         }
 
         TextImpl previousText = (TextImpl) previous;
-        previousText.buffer.append(buffer);
+        previousText.buffer().append(data);
         parent.removeChild(this);
         return previousText;
     }
@@ -34,6 +34,23 @@ public class DocumentBuilderFactoryImpl extends DocumentBuilderFactory {
     private static final String VALIDATION =
             "http://xml.org/sax/features/validation";
 
+    /**
+     * Feature that makes parsed documents share a single instance of each
+     * element and attribute name between their nodes.
+     */
+    public static final String COMPACT_DOM =
+            "http://android.com/xml/features/compact-dom";
+
+    /**
+     * Feature that makes parsed documents look elements up by ID and by tag
+     * name in an index, rather than walking the document on every lookup.
+     */
+    public static final String INDEXED_DOM =
+            "http://android.com/xml/features/indexed-dom";
+
+    private boolean compactDom;
+    private boolean indexedDom;
+
     @Override
     public Object getAttribute(String name) throws IllegalArgumentException {
         throw new IllegalArgumentException(name);
@@ -49,6 +66,10 @@ public class DocumentBuilderFactoryImpl extends DocumentBuilderFactory {
             return isNamespaceAware();
         } else if (VALIDATION.equals(name)) {
             return isValidating();
+        } else if (COMPACT_DOM.equals(name)) {
+            return compactDom;
+        } else if (INDEXED_DOM.equals(name)) {
+            return indexedDom;
         } else {
             throw new ParserConfigurationException(name);
         }
@@ -74,6 +95,8 @@ public class DocumentBuilderFactoryImpl extends DocumentBuilderFactory {
         builder.setIgnoreComments(isIgnoringComments());
         builder.setIgnoreElementContentWhitespace(isIgnoringElementContentWhitespace());
         builder.setNamespaceAware(isNamespaceAware());
+        builder.setCompact(compactDom);
+        builder.setIndexed(indexedDom);
 
         // TODO What about expandEntityReferences?
 
@@ -97,6 +120,10 @@ public class DocumentBuilderFactoryImpl extends DocumentBuilderFactory {
             setNamespaceAware(value);
         } else if (VALIDATION.equals(name)) {
             setValidating(value);
+        } else if (COMPACT_DOM.equals(name)) {
+            compactDom = value;
+        } else if (INDEXED_DOM.equals(name)) {
+            indexedDom = value;
         } else {
             throw new ParserConfigurationException(name);
         }
@@ -56,6 +56,8 @@ class DocumentBuilderImpl extends DocumentBuilder {
     private boolean ignoreComments;
     private boolean ignoreElementContentWhitespace;
     private boolean namespaceAware;
+    private boolean compact;
+    private boolean indexed;
     // adding a new field? don't forget to update reset().
 
     @Override public void reset() {
@@ -65,6 +67,8 @@ class DocumentBuilderImpl extends DocumentBuilder {
         ignoreComments = false;
         ignoreElementContentWhitespace = false;
         namespaceAware = false;
+        compact = false;
+        indexed = false;
     }
 
     @Override
@@ -84,7 +88,10 @@ class DocumentBuilderImpl extends DocumentBuilder {
 
     @Override
     public Document newDocument() {
-        return dom.createDocument(null, null, null);
+        DocumentImpl document = (DocumentImpl) dom.createDocument(null, null, null);
+        document.setCompact(compact);
+        document.setIndexed(indexed);
+        return document;
     }
 
     @Override
@@ -101,6 +108,8 @@ class DocumentBuilderImpl extends DocumentBuilder {
         DocumentImpl document = new DocumentImpl(
                 dom, namespaceURI, qualifiedName, doctype, inputEncoding);
         document.setDocumentURI(systemId);
+        document.setCompact(compact);
+        document.setIndexed(indexed);
 
         KXmlParser parser = new KXmlParser();
         try {
@@ -389,6 +398,22 @@ class DocumentBuilderImpl extends DocumentBuilder {
         namespaceAware = value;
     }
 
+    /**
+     * Controls whether documents built by this DocumentBuilder share names
+     * between their nodes.
+     */
+    public void setCompact(boolean value) {
+        compact = value;
+    }
+
+    /**
+     * Controls whether documents built by this DocumentBuilder index their
+     * elements by ID and tag name.
+     */
+    public void setIndexed(boolean value) {
+        indexed = value;
+    }
+
     /**
      * Returns the replacement text or null if {@code entity} isn't predefined.
      */
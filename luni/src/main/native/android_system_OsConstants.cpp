@@ -361,6 +361,11 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
 #if defined(_LINUX_CAPABILITY_VERSION_3)
     initConstant(env, c, "_LINUX_CAPABILITY_VERSION_3", _LINUX_CAPABILITY_VERSION_3);
 #endif
+    initConstant(env, c, "MADV_DONTNEED", MADV_DONTNEED);
+    initConstant(env, c, "MADV_NORMAL", MADV_NORMAL);
+    initConstant(env, c, "MADV_RANDOM", MADV_RANDOM);
+    initConstant(env, c, "MADV_SEQUENTIAL", MADV_SEQUENTIAL);
+    initConstant(env, c, "MADV_WILLNEED", MADV_WILLNEED);
     initConstant(env, c, "MAP_FIXED", MAP_FIXED);
     initConstant(env, c, "MAP_ANONYMOUS", MAP_ANONYMOUS);
     initConstant(env, c, "MAP_POPULATE", MAP_POPULATE);
@@ -432,6 +437,12 @@ static void OsConstants_initConstants(JNIEnv* env, jclass c) {
     initConstant(env, c, "POLLRDNORM", POLLRDNORM);
     initConstant(env, c, "POLLWRBAND", POLLWRBAND);
     initConstant(env, c, "POLLWRNORM", POLLWRNORM);
+    initConstant(env, c, "POSIX_FADV_DONTNEED", POSIX_FADV_DONTNEED);
+    initConstant(env, c, "POSIX_FADV_NOREUSE", POSIX_FADV_NOREUSE);
+    initConstant(env, c, "POSIX_FADV_NORMAL", POSIX_FADV_NORMAL);
+    initConstant(env, c, "POSIX_FADV_RANDOM", POSIX_FADV_RANDOM);
+    initConstant(env, c, "POSIX_FADV_SEQUENTIAL", POSIX_FADV_SEQUENTIAL);
+    initConstant(env, c, "POSIX_FADV_WILLNEED", POSIX_FADV_WILLNEED);
 #if defined(PR_CAP_AMBIENT)
     initConstant(env, c, "PR_CAP_AMBIENT", PR_CAP_AMBIENT);
 #endif
@@ -20,6 +20,7 @@
 #include <errno.h>
 #include <fcntl.h>
 #include <ifaddrs.h>
+#include <linux/fs.h>
 #include <linux/rtnetlink.h>
 #include <net/if.h>
 #include <netdb.h>
@@ -1260,6 +1261,50 @@ static void Linux_connectSocketAddress(
     (void) NET_FAILURE_RETRY(env, int, connect, javaFd, sa, sa_len);
 }
 
+static jlong Linux_copy_file_range(JNIEnv* env, jobject, jobject javaFdIn, jobject javaOffIn, jobject javaFdOut, jobject javaOffOut, jlong len, jint flags) {
+    int fdIn = jniGetFDFromFileDescriptor(env, javaFdIn);
+    int fdOut = jniGetFDFromFileDescriptor(env, javaFdOut);
+    int copyErrno;
+
+    loff_t offIn = (javaOffIn == NULL ? 0 : env->GetLongField(javaOffIn, int64RefValueFid));
+    loff_t offOut = (javaOffOut == NULL ? 0 : env->GetLongField(javaOffOut, int64RefValueFid));
+    jlong ret = -1;
+    do {
+        bool wasSignaled = false;
+        {
+            AsynchronousCloseMonitor monitorIn(fdIn);
+            AsynchronousCloseMonitor monitorOut(fdOut);
+            // Use the raw system call: the libc wrapper is not available at every API level.
+            ret = syscall(__NR_copy_file_range, fdIn, (javaOffIn == NULL ? NULL : &offIn),
+                    fdOut, (javaOffOut == NULL ? NULL : &offOut),
+                    static_cast<size_t>(len), static_cast<unsigned int>(flags));
+            copyErrno = errno;
+            wasSignaled = monitorIn.wasSignaled() || monitorOut.wasSignaled();
+        }
+        if (wasSignaled) {
+            jniThrowException(env, "java/io/InterruptedIOException", "copy_file_range interrupted");
+            ret = -1;
+            break;
+        }
+        if (ret == -1 && copyErrno != EINTR) {
+            throwErrnoException(env, "copy_file_range");
+            break;
+        }
+    } while (ret == -1);
+    if (ret == -1) {
+        /* If the syscall failed, re-set errno: throwing an exception might have modified it. */
+        errno = copyErrno;
+    } else {
+        if (javaOffIn != NULL) {
+            env->SetLongField(javaOffIn, int64RefValueFid, offIn);
+        }
+        if (javaOffOut != NULL) {
+            env->SetLongField(javaOffOut, int64RefValueFid, offOut);
+        }
+    }
+    return ret;
+}
+
 static jobject Linux_dup(JNIEnv* env, jobject, jobject javaOldFd) {
     int oldFd = jniGetFDFromFileDescriptor(env, javaOldFd);
     int newFd = throwIfMinusOne(env, "dup", TEMP_FAILURE_RETRY(dup(oldFd)));
@@ -1786,6 +1831,12 @@ static jobject Linux_inet_pton(JNIEnv* env, jobject, jint family, jstring javaNa
     return sockaddrToInetAddress(env, ss, NULL);
 }
 
+static void Linux_ioctlFiclone(JNIEnv* env, jobject, jobject javaDestFd, jobject javaSrcFd) {
+    int destFd = jniGetFDFromFileDescriptor(env, javaDestFd);
+    int srcFd = jniGetFDFromFileDescriptor(env, javaSrcFd);
+    throwIfMinusOne(env, "ioctl", TEMP_FAILURE_RETRY(ioctl(destFd, FICLONE, srcFd)));
+}
+
 static jint Linux_ioctlFlags(JNIEnv* env, jobject, jobject javaFd, jstring javaInterfaceName) {
      struct ifreq req;
      if (!fillIfreq(env, javaInterfaceName, req)) {
@@ -1905,6 +1956,11 @@ static jobject Linux_lstat(JNIEnv* env, jobject, jstring javaPath) {
     return doStat(env, javaPath, true);
 }
 
+static void Linux_madvise(JNIEnv* env, jobject, jlong address, jlong byteCount, jint advice) {
+    void* ptr = reinterpret_cast<void*>(static_cast<uintptr_t>(address));
+    throwIfMinusOne(env, "madvise", TEMP_FAILURE_RETRY(madvise(ptr, byteCount, advice)));
+}
+
 static jobject Linux_memfd_create(JNIEnv* env, jobject, jstring javaName, jint flags) {
 #if defined(__BIONIC__)
     ScopedUtfChars name(env, javaName);
@@ -2088,6 +2144,16 @@ static jint Linux_poll(JNIEnv* env, jobject, jobjectArray javaStructs, jint time
     return rc;
 }
 
+static void Linux_posix_fadvise(JNIEnv* env, jobject, jobject javaFd, jlong offset, jlong length, jint advice) {
+    int fd = jniGetFDFromFileDescriptor(env, javaFd);
+    // Like posix_fallocate, this returns an error number rather than setting errno.
+    while ((errno = posix_fadvise64(fd, offset, length, advice)) == EINTR) {
+    }
+    if (errno != 0) {
+        throwErrnoException(env, "posix_fadvise");
+    }
+}
+
 static void Linux_posix_fallocate(JNIEnv* env, jobject, jobject javaFd __unused,
                                   jlong offset __unused, jlong length __unused) {
     int fd = jniGetFDFromFileDescriptor(env, javaFd);
@@ -2116,6 +2182,14 @@ static jint Linux_preadBytes(JNIEnv* env, jobject, jobject javaFd, jobject javaB
     return IO_FAILURE_RETRY(env, ssize_t, pread64, javaFd, bytes.get() + byteOffset, byteCount, offset);
 }
 
+static jint Linux_preadv(JNIEnv* env, jobject, jobject javaFd, jobjectArray buffers, jintArray offsets, jintArray byteCounts, jlong offset) {
+    IoVec<ScopedBytesRW> ioVec(env, env->GetArrayLength(buffers));
+    if (!ioVec.init(buffers, offsets, byteCounts)) {
+        return -1;
+    }
+    return IO_FAILURE_RETRY(env, ssize_t, preadv64, javaFd, ioVec.get(), ioVec.size(), offset);
+}
+
 static jint Linux_pwriteBytes(JNIEnv* env, jobject, jobject javaFd, jobject javaBytes, jint byteOffset, jint byteCount, jlong offset) {
     ScopedBytesRO bytes(env, javaBytes);
     if (bytes.get() == NULL) {
@@ -2124,6 +2198,14 @@ static jint Linux_pwriteBytes(JNIEnv* env, jobject, jobject javaFd, jobject java
     return IO_FAILURE_RETRY(env, ssize_t, pwrite64, javaFd, bytes.get() + byteOffset, byteCount, offset);
 }
 
+static jint Linux_pwritev(JNIEnv* env, jobject, jobject javaFd, jobjectArray buffers, jintArray offsets, jintArray byteCounts, jlong offset) {
+    IoVec<ScopedBytesRO> ioVec(env, env->GetArrayLength(buffers));
+    if (!ioVec.init(buffers, offsets, byteCounts)) {
+        return -1;
+    }
+    return IO_FAILURE_RETRY(env, ssize_t, pwritev64, javaFd, ioVec.get(), ioVec.size(), offset);
+}
+
 static jint Linux_readBytes(JNIEnv* env, jobject, jobject javaFd, jobject javaBytes, jint byteOffset, jint byteCount) {
     ScopedBytesRW bytes(env, javaBytes);
     if (bytes.get() == NULL) {
@@ -2132,6 +2214,11 @@ static jint Linux_readBytes(JNIEnv* env, jobject, jobject javaFd, jobject javaBy
     return IO_FAILURE_RETRY(env, ssize_t, read, javaFd, bytes.get() + byteOffset, byteCount);
 }
 
+static void Linux_readahead(JNIEnv* env, jobject, jobject javaFd, jlong offset, jlong count) {
+    int fd = jniGetFDFromFileDescriptor(env, javaFd);
+    throwIfMinusOne(env, "readahead", TEMP_FAILURE_RETRY(readahead(fd, offset, count)));
+}
+
 static jstring Linux_readlink(JNIEnv* env, jobject, jstring javaPath) {
     ScopedUtfChars path(env, javaPath);
     if (path.c_str() == NULL) {
@@ -2191,6 +2278,74 @@ static jint Linux_recvfromBytes(JNIEnv* env, jobject, jobject javaFd, jobject ja
     return recvCount;
 }
 
+// Throws IllegalArgumentException and returns false if the non-null javaArray has fewer than
+// count elements.
+static bool checkMmsgArrayLength(JNIEnv* env, jarray javaArray, const char* name, size_t count) {
+    if (javaArray == NULL) {
+        return true;
+    }
+    jsize length = env->GetArrayLength(javaArray);
+    if (static_cast<size_t>(length) < count) {
+        jniThrowExceptionFmt(env, "java/lang/IllegalArgumentException",
+                "%s.length=%d < buffers.length=%zu", name, length, count);
+        return false;
+    }
+    return true;
+}
+
+static jint Linux_recvmmsg(JNIEnv* env, jobject, jobject javaFd, jobjectArray buffers, jintArray offsets, jintArray byteCounts, jintArray javaReceivedCounts, jobjectArray javaInetSocketAddresses, jint flags) {
+    size_t count = env->GetArrayLength(buffers);
+    // Check the arrays first: datagrams can't be put back once they have been received.
+    if (javaReceivedCounts == NULL) {
+        jniThrowNullPointerException(env, "receivedCounts == null");
+        return -1;
+    }
+    if (!checkMmsgArrayLength(env, offsets, "offsets", count) ||
+            !checkMmsgArrayLength(env, byteCounts, "byteCounts", count) ||
+            !checkMmsgArrayLength(env, javaReceivedCounts, "receivedCounts", count) ||
+            !checkMmsgArrayLength(env, javaInetSocketAddresses, "srcAddresses", count)) {
+        return -1;
+    }
+    IoVec<ScopedBytesRW> ioVec(env, count);
+    if (!ioVec.init(buffers, offsets, byteCounts)) {
+        return -1;
+    }
+    // One message per buffer, each with room for its sender's address if the caller wants it.
+    std::vector<mmsghdr> msgs(count);
+    std::vector<sockaddr_storage> addresses(javaInetSocketAddresses != NULL ? count : 0);
+    for (size_t i = 0; i < count; ++i) {
+        msgs[i].msg_hdr.msg_iov = ioVec.get() + i;
+        msgs[i].msg_hdr.msg_iovlen = 1;
+        if (javaInetSocketAddresses != NULL) {
+            msgs[i].msg_hdr.msg_name = &addresses[i];
+            msgs[i].msg_hdr.msg_namelen = sizeof(sockaddr_storage);
+        }
+    }
+    int rc = NET_FAILURE_RETRY(env, int, recvmmsg, javaFd, msgs.data(), count, flags, NULL);
+    if (rc == -1) {
+        return -1;
+    }
+    ScopedIntArrayRW receivedCounts(env, javaReceivedCounts);
+    if (receivedCounts.get() == NULL) {
+        return -1;
+    }
+    for (int i = 0; i < rc; ++i) {
+        receivedCounts[i] = msgs[i].msg_len;
+        if (javaInetSocketAddresses == NULL) {
+            continue;
+        }
+        // As in recvfrom, only fill in the address if there is one (http://b/33483694).
+        if (addresses[i].ss_family == AF_INET || addresses[i].ss_family == AF_INET6) {
+            ScopedLocalRef<jobject> javaInetSocketAddress(env,
+                    env->GetObjectArrayElement(javaInetSocketAddresses, i));
+            if (!fillInetSocketAddress(env, javaInetSocketAddress.get(), addresses[i])) {
+                return -1;
+            }
+        }
+    }
+    return rc;
+}
+
 static jint Linux_recvmsg(JNIEnv* env, jobject, jobject javaFd, jobject structMsghdr, jint flags) {
     ssize_t rc = -1;
     ScopedMsghdr scopedMsghdrValue;
@@ -2303,6 +2458,72 @@ static jlong Linux_sendfile(JNIEnv* env, jobject, jobject javaOutFd, jobject jav
     return result;
 }
 
+// Converts the i-th InetSocketAddress of 'javaInetSocketAddresses' to a sockaddr for sendmmsg.
+// 'verbatim' selects IPv4 sockaddrs for IPv4 addresses, for sockets that are not dual-stack.
+static bool inetSocketAddressesToSockaddrs(JNIEnv* env, jobjectArray javaInetSocketAddresses,
+        std::vector<mmsghdr>& msgs, std::vector<sockaddr_storage>& addresses, bool verbatim) {
+    for (size_t i = 0; i < msgs.size(); ++i) {
+        ScopedLocalRef<jobject> javaInetSocketAddress(env,
+                env->GetObjectArrayElement(javaInetSocketAddresses, i));
+        if (javaInetSocketAddress.get() == NULL) {
+            jniThrowNullPointerException(env, "dstAddresses[i] == null");
+            return false;
+        }
+        jobject javaInetAddress;
+        jint port;
+        javaInetSocketAddressToInetAddressAndPort(env, javaInetSocketAddress.get(),
+                javaInetAddress, port);
+        socklen_t sa_len;
+        bool ok = verbatim
+                ? inetAddressToSockaddrVerbatim(env, javaInetAddress, port, addresses[i], sa_len)
+                : inetAddressToSockaddr(env, javaInetAddress, port, addresses[i], sa_len);
+        env->DeleteLocalRef(javaInetAddress);
+        if (!ok) {
+            return false;
+        }
+        msgs[i].msg_hdr.msg_name = &addresses[i];
+        msgs[i].msg_hdr.msg_namelen = sa_len;
+    }
+    return true;
+}
+
+static jint Linux_sendmmsg(JNIEnv* env, jobject, jobject javaFd, jobjectArray buffers, jintArray offsets, jintArray byteCounts, jobjectArray javaInetSocketAddresses, jint flags) {
+    size_t count = env->GetArrayLength(buffers);
+    if (!checkMmsgArrayLength(env, offsets, "offsets", count) ||
+            !checkMmsgArrayLength(env, byteCounts, "byteCounts", count) ||
+            !checkMmsgArrayLength(env, javaInetSocketAddresses, "dstAddresses", count)) {
+        return -1;
+    }
+    IoVec<ScopedBytesRO> ioVec(env, count);
+    if (!ioVec.init(buffers, offsets, byteCounts)) {
+        return -1;
+    }
+    std::vector<mmsghdr> msgs(count);
+    std::vector<sockaddr_storage> addresses(javaInetSocketAddresses != NULL ? count : 0);
+    for (size_t i = 0; i < count; ++i) {
+        msgs[i].msg_hdr.msg_iov = ioVec.get() + i;
+        msgs[i].msg_hdr.msg_iovlen = 1;
+    }
+    if (javaInetSocketAddresses == NULL) {
+        // A connected socket.
+        return NET_FAILURE_RETRY(env, int, sendmmsg, javaFd, msgs.data(), count, flags);
+    }
+    if (!inetSocketAddressesToSockaddrs(env, javaInetSocketAddresses, msgs, addresses, false)) {
+        return -1;
+    }
+    int rc = NET_FAILURE_RETRY(env, int, sendmmsg, javaFd, msgs.data(), count, flags);
+    if (rc == -1 && errno == EAFNOSUPPORT && count > 0 &&
+            isIPv4MappedAddress(reinterpret_cast<sockaddr*>(&addresses[0]))) {
+        // As NET_IPV4_FALLBACK does for sendto, retry an IPv4 socket with IPv4 sockaddrs.
+        env->ExceptionClear();
+        if (!inetSocketAddressesToSockaddrs(env, javaInetSocketAddresses, msgs, addresses, true)) {
+            return -1;
+        }
+        rc = NET_FAILURE_RETRY(env, int, sendmmsg, javaFd, msgs.data(), count, flags);
+    }
+    return rc;
+}
+
 static jint Linux_sendmsg(JNIEnv* env, jobject, jobject javaFd, jobject structMsghdr, jint flags) {
 
     ssize_t rc = -1;
@@ -2782,6 +3003,7 @@ static const JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Linux, close, "(Ljava/io/FileDescriptor;)V"),
     NATIVE_METHOD(Linux, connect, "(Ljava/io/FileDescriptor;Ljava/net/InetAddress;I)V"),
     NATIVE_METHOD_OVERLOAD(Linux, connect, "(Ljava/io/FileDescriptor;Ljava/net/SocketAddress;)V", SocketAddress),
+    NATIVE_METHOD(Linux, copy_file_range, "(Ljava/io/FileDescriptor;Landroid/system/Int64Ref;Ljava/io/FileDescriptor;Landroid/system/Int64Ref;JI)J"),
     NATIVE_METHOD(Linux, dup, "(Ljava/io/FileDescriptor;)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Linux, dup2, "(Ljava/io/FileDescriptor;I)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Linux, environ, "()[Ljava/lang/String;"),
@@ -2823,6 +3045,7 @@ static const JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Linux, if_indextoname, "(I)Ljava/lang/String;"),
     NATIVE_METHOD(Linux, if_nametoindex, "(Ljava/lang/String;)I"),
     NATIVE_METHOD(Linux, inet_pton, "(ILjava/lang/String;)Ljava/net/InetAddress;"),
+    NATIVE_METHOD(Linux, ioctlFiclone, "(Ljava/io/FileDescriptor;Ljava/io/FileDescriptor;)V"),
     NATIVE_METHOD(Linux, ioctlFlags, "(Ljava/io/FileDescriptor;Ljava/lang/String;)I"),
     NATIVE_METHOD(Linux, ioctlInetAddress, "(Ljava/io/FileDescriptor;ILjava/lang/String;)Ljava/net/InetAddress;"),
     NATIVE_METHOD(Linux, ioctlInt, "(Ljava/io/FileDescriptor;I)I"),
@@ -2835,6 +3058,7 @@ static const JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Linux, listxattr, "(Ljava/lang/String;)[Ljava/lang/String;"),
     NATIVE_METHOD(Linux, lseek, "(Ljava/io/FileDescriptor;JI)J"),
     NATIVE_METHOD(Linux, lstat, "(Ljava/lang/String;)Landroid/system/StructStat;"),
+    NATIVE_METHOD(Linux, madvise, "(JJI)V"),
     NATIVE_METHOD(Linux, memfd_create, "(Ljava/lang/String;I)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Linux, mincore, "(JJ[B)V"),
     NATIVE_METHOD(Linux, mkdir, "(Ljava/lang/String;I)V"),
@@ -2847,20 +3071,26 @@ static const JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Linux, open, "(Ljava/lang/String;II)Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Linux, pipe2, "(I)[Ljava/io/FileDescriptor;"),
     NATIVE_METHOD(Linux, poll, "([Landroid/system/StructPollfd;I)I"),
+    NATIVE_METHOD(Linux, posix_fadvise, "(Ljava/io/FileDescriptor;JJI)V"),
     NATIVE_METHOD(Linux, posix_fallocate, "(Ljava/io/FileDescriptor;JJ)V"),
     NATIVE_METHOD(Linux, prctl, "(IJJJJ)I"),
     NATIVE_METHOD(Linux, preadBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIJ)I"),
+    NATIVE_METHOD(Linux, preadv, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[IJ)I"),
     NATIVE_METHOD(Linux, pwriteBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIJ)I"),
+    NATIVE_METHOD(Linux, pwritev, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[IJ)I"),
     NATIVE_METHOD(Linux, readBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;II)I"),
+    NATIVE_METHOD(Linux, readahead, "(Ljava/io/FileDescriptor;JJ)V"),
     NATIVE_METHOD(Linux, readlink, "(Ljava/lang/String;)Ljava/lang/String;"),
     NATIVE_METHOD(Linux, realpath, "(Ljava/lang/String;)Ljava/lang/String;"),
     NATIVE_METHOD(Linux, readv, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[I)I"),
     NATIVE_METHOD(Linux, recvfromBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIILjava/net/InetSocketAddress;)I"),
+    NATIVE_METHOD(Linux, recvmmsg, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[I[I[Ljava/net/InetSocketAddress;I)I"),
     NATIVE_METHOD(Linux, recvmsg, "(Ljava/io/FileDescriptor;Landroid/system/StructMsghdr;I)I"),
     NATIVE_METHOD(Linux, remove, "(Ljava/lang/String;)V"),
     NATIVE_METHOD(Linux, removexattr, "(Ljava/lang/String;Ljava/lang/String;)V"),
     NATIVE_METHOD(Linux, rename, "(Ljava/lang/String;Ljava/lang/String;)V"),
     NATIVE_METHOD(Linux, sendfile, "(Ljava/io/FileDescriptor;Ljava/io/FileDescriptor;Landroid/system/Int64Ref;J)J"),
+    NATIVE_METHOD(Linux, sendmmsg, "(Ljava/io/FileDescriptor;[Ljava/lang/Object;[I[I[Ljava/net/InetSocketAddress;I)I"),
     NATIVE_METHOD(Linux, sendmsg, "(Ljava/io/FileDescriptor;Landroid/system/StructMsghdr;I)I"),
     NATIVE_METHOD(Linux, sendtoBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIILjava/net/InetAddress;I)I"),
     NATIVE_METHOD_OVERLOAD(Linux, sendtoBytes, "(Ljava/io/FileDescriptor;Ljava/lang/Object;IIILjava/net/SocketAddress;)I", SocketAddress),
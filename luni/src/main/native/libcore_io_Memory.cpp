@@ -101,6 +101,36 @@ static void Memory_memmove(JNIEnv* env, jclass, jobject dstObject, jint dstOffse
     memmove(dstBytes.get() + dstOffset, srcBytes.get() + srcOffset, length);
 }
 
+static void Memory_copyMemory(JNIEnv*, jclass, jlong srcAddress, jlong dstAddress, jlong byteCount) {
+    memmove(cast<void*>(dstAddress), cast<const void*>(srcAddress), byteCount);
+}
+
+static void Memory_setMemory(JNIEnv*, jclass, jlong address, jlong byteCount, jbyte value) {
+    memset(cast<void*>(address), value, byteCount);
+}
+
+// A mapping to be unmapped by a NativeAllocationRegistry, which passes a single pointer to the
+// free function.
+struct Mapping {
+    void* address;
+    size_t byteCount;
+};
+
+static void unmapMapping(void* p) {
+    Mapping* mapping = reinterpret_cast<Mapping*>(p);
+    munmap(mapping->address, mapping->byteCount);
+    delete mapping;
+}
+
+static jlong Memory_newMapping(JNIEnv*, jclass, jlong address, jlong byteCount) {
+    Mapping* mapping = new Mapping { cast<void*>(address), static_cast<size_t>(byteCount) };
+    return static_cast<jlong>(reinterpret_cast<uintptr_t>(mapping));
+}
+
+static jlong Memory_getUnmapFunction(JNIEnv*, jclass) {
+    return static_cast<jlong>(reinterpret_cast<uintptr_t>(&unmapMapping));
+}
+
 static jbyte Memory_peekByte(JNIEnv*, jclass, jlong srcAddress) {
     return *cast<const jbyte*>(srcAddress);
 }
@@ -239,7 +269,10 @@ static void Memory_unsafeBulkPut(JNIEnv* env, jclass, jbyteArray dstArray, jint
 
 // The remaining Memory methods are contained in art/runtime/native/libcore_io_Memory.cc
 static const JNINativeMethod gMethods[] = {
+    NATIVE_METHOD(Memory, copyMemory, "(JJJ)V"),
+    NATIVE_METHOD(Memory, getUnmapFunction, "()J"),
     NATIVE_METHOD(Memory, memmove, "(Ljava/lang/Object;ILjava/lang/Object;IJ)V"),
+    NATIVE_METHOD(Memory, newMapping, "(JJ)J"),
     FAST_NATIVE_METHOD(Memory, peekByte, "(J)B"),
     FAST_NATIVE_METHOD(Memory, peekIntNative, "(J)I"),
     FAST_NATIVE_METHOD(Memory, peekLongNative, "(J)J"),
@@ -255,6 +288,7 @@ static const JNINativeMethod gMethods[] = {
     NATIVE_METHOD(Memory, pokeLongArray, "(J[JIIZ)V"),
     FAST_NATIVE_METHOD(Memory, pokeShortNative, "(JS)V"),
     NATIVE_METHOD(Memory, pokeShortArray, "(J[SIIZ)V"),
+    NATIVE_METHOD(Memory, setMemory, "(JJB)V"),
     NATIVE_METHOD(Memory, unsafeBulkGet, "(Ljava/lang/Object;II[BIIZ)V"),
     NATIVE_METHOD(Memory, unsafeBulkPut, "([BIILjava/lang/Object;IIZ)V"),
 };
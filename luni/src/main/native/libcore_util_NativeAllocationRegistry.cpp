@@ -17,6 +17,10 @@
 #include <nativehelper/JNIHelp.h>
 #include <nativehelper/jni_macros.h>
 
+#include <stdlib.h>
+
+#include <algorithm>
+
 typedef void (*FreeFunction)(void*);
 
 static void NativeAllocationRegistry_applyFreeFunction(JNIEnv*,
@@ -29,8 +33,34 @@ static void NativeAllocationRegistry_applyFreeFunction(JNIEnv*,
     nativeFreeFunction(nativePtr);
 }
 
+static void NativeAllocationRegistry_applyFreeFunctions(JNIEnv* env,
+                                                        jclass,
+                                                        jlong freeFunction,
+                                                        jlongArray ptrs,
+                                                        jint count) {
+    FreeFunction nativeFreeFunction
+        = reinterpret_cast<FreeFunction>(static_cast<uintptr_t>(freeFunction));
+    jlong buffer[64];
+    for (jint offset = 0; offset < count; offset += NELEM(buffer)) {
+        jint n = std::min<jint>(count - offset, NELEM(buffer));
+        env->GetLongArrayRegion(ptrs, offset, n, buffer);
+        if (env->ExceptionCheck()) {
+            return;
+        }
+        for (jint i = 0; i < n; ++i) {
+            nativeFreeFunction(reinterpret_cast<void*>(static_cast<uintptr_t>(buffer[i])));
+        }
+    }
+}
+
+static jlong NativeAllocationRegistry_getMallocFreeFunction(JNIEnv*, jclass) {
+    return static_cast<jlong>(reinterpret_cast<uintptr_t>(&free));
+}
+
 static const JNINativeMethod gMethods[] = {
     NATIVE_METHOD(NativeAllocationRegistry, applyFreeFunction, "(JJ)V"),
+    NATIVE_METHOD(NativeAllocationRegistry, applyFreeFunctions, "(J[JI)V"),
+    NATIVE_METHOD(NativeAllocationRegistry, getMallocFreeFunction, "()J"),
 };
 
 void register_libcore_util_NativeAllocationRegistry(JNIEnv* env) {
@@ -39,6 +39,13 @@
 
 #define BUCKET_COUNT 128
 
+/**
+ * The number of interned strings above which a parser that is reset for
+ * another document drops its cache, so that a long-lived parser that sees
+ * many distinct names doesn't hold on to them all.
+ */
+#define MAX_INTERNED_STRINGS 4096
+
 /**
  * Wrapper around an interned string.
  */
@@ -94,6 +101,10 @@ public:
         return (size == 0) ? NULL : array[--size];
     }
 
+    void clear() {
+        size = 0;
+    }
+
 private:
     enum { DEFAULT_CAPACITY = 10 };
 
@@ -107,7 +118,7 @@ private:
  */
 struct ParsingContext {
     explicit ParsingContext(jobject object)
-        : env(NULL), object(object), buffer(NULL), bufferSize(-1) {
+        : env(NULL), object(object), buffer(NULL), bufferSize(-1), internedStringCount(0) {
         for (int i = 0; i < BUCKET_COUNT; i++) {
             internedStrings[i] = NULL;
         }
@@ -116,8 +127,11 @@ struct ParsingContext {
     // Warning: 'env' must be valid on entry.
     ~ParsingContext() {
         freeBuffer();
+        freeInternedStrings();
+    }
 
-        // Free interned string cache.
+    // Warning: 'env' must be valid on entry.
+    void freeInternedStrings() {
         for (int i = 0; i < BUCKET_COUNT; i++) {
             if (internedStrings[i]) {
                 InternedString** bucket = internedStrings[i];
@@ -132,8 +146,10 @@ struct ParsingContext {
 
                 // Free the buckets.
                 delete[] internedStrings[i];
+                internedStrings[i] = NULL;
             }
         }
+        internedStringCount = 0;
     }
 
     jcharArray ensureCapacity(int length) {
@@ -196,6 +212,9 @@ public:
 
     /** Cache of interned strings. */
     InternedString** internedStrings[BUCKET_COUNT];
+
+    /** Number of strings in the cache. */
+    int internedStringCount;
 };
 
 static ParsingContext* toParsingContext(void* data) {
@@ -398,6 +417,7 @@ static jstring internString(JNIEnv* env, ParsingContext* parsingContext, const c
         }
 
         buckets[bucketIndex] = bucket;
+        parsingContext->internedStringCount++;
 
         return internedString->interned;
     } else {
@@ -414,6 +434,7 @@ static jstring internString(JNIEnv* env, ParsingContext* parsingContext, const c
         }
 
         buckets[bucketIndex] = bucket;
+        parsingContext->internedStringCount++;
 
         return internedString->interned;
     }
@@ -967,6 +988,27 @@ static void notationDecl(void* data, const char* name, const char* /*base*/, con
     env->CallVoidMethod(javaParser, notationDeclMethod, javaName.get(), javaPublicId.get(), javaSystemId.get());
 }
 
+/**
+ * Installs our handlers and parsing context on a new or reset Expat parser.
+ */
+static void setHandlers(XML_Parser parser, ParsingContext* context) {
+    if (context->processNamespaces) {
+        XML_SetNamespaceDeclHandler(parser, startNamespace, endNamespace);
+        XML_SetReturnNSTriplet(parser, 1);
+    }
+
+    XML_SetCdataSectionHandler(parser, startCdata, endCdata);
+    XML_SetCharacterDataHandler(parser, text);
+    XML_SetCommentHandler(parser, comment);
+    XML_SetDoctypeDeclHandler(parser, startDtd, endDtd);
+    XML_SetElementHandler(parser, startElement, endElement);
+    XML_SetExternalEntityRefHandler(parser, handleExternalEntity);
+    XML_SetNotationDeclHandler(parser, notationDecl);
+    XML_SetProcessingInstructionHandler(parser, processingInstruction);
+    XML_SetUnparsedEntityDeclHandler(parser, unparsedEntityDecl);
+    XML_SetUserData(parser, context);
+}
+
 /**
  * Creates a new Expat parser. Called from the Java ExpatParser constructor.
  *
@@ -1000,21 +1042,7 @@ static jlong ExpatParser_initialize(JNIEnv* env, jobject object, jstring javaEnc
     }
 
     if (parser != NULL) {
-        if (processNamespaces) {
-            XML_SetNamespaceDeclHandler(parser, startNamespace, endNamespace);
-            XML_SetReturnNSTriplet(parser, 1);
-        }
-
-        XML_SetCdataSectionHandler(parser, startCdata, endCdata);
-        XML_SetCharacterDataHandler(parser, text);
-        XML_SetCommentHandler(parser, comment);
-        XML_SetDoctypeDeclHandler(parser, startDtd, endDtd);
-        XML_SetElementHandler(parser, startElement, endElement);
-        XML_SetExternalEntityRefHandler(parser, handleExternalEntity);
-        XML_SetNotationDeclHandler(parser, notationDecl);
-        XML_SetProcessingInstructionHandler(parser, processingInstruction);
-        XML_SetUnparsedEntityDeclHandler(parser, unparsedEntityDecl);
-        XML_SetUserData(parser, context.release());
+        setHandlers(parser, context.release());
     } else {
         jniThrowOutOfMemoryError(env, NULL);
         return 0;
@@ -1043,14 +1071,48 @@ static void append(JNIEnv* env, jobject object, jlong pointer,
     context->env = NULL;
 }
 
+/**
+ * Copies the bytes straight into Expat's input buffer and parses them. Expat
+ * copies all input into that buffer anyway, so this saves making a temporary
+ * copy of the array first.
+ */
 static void ExpatParser_appendBytes(JNIEnv* env, jobject object, jlong pointer,
         jbyteArray xml, jint byteOffset, jint byteCount) {
-    ScopedByteArrayRO byteArray(env, xml);
-    if (byteArray.get() == NULL) {
+    if (byteCount == 0) {
+        return;
+    }
+
+    XML_Parser parser = toXMLParser(pointer);
+    void* buffer = XML_GetBuffer(parser, byteCount);
+    if (buffer == NULL) {
+        jniThrowExpatException(env, XML_GetErrorCode(parser));
+        return;
+    }
+    env->GetByteArrayRegion(xml, byteOffset, byteCount, reinterpret_cast<jbyte*>(buffer));
+    if (env->ExceptionCheck()) {
         return;
     }
 
-    const char* bytes = reinterpret_cast<const char*>(byteArray.get());
+    ParsingContext* context = toParsingContext(parser);
+    context->env = env;
+    context->object = object;
+    if (!XML_ParseBuffer(parser, byteCount, XML_FALSE) && !env->ExceptionCheck()) {
+        jniThrowExpatException(env, XML_GetErrorCode(parser));
+    }
+    context->object = NULL;
+    context->env = NULL;
+}
+
+/**
+ * Parses bytes from a direct buffer, such as a mapped file, in place.
+ */
+static void ExpatParser_appendDirect(JNIEnv* env, jobject object, jlong pointer,
+        jobject xml, jint byteOffset, jint byteCount) {
+    const char* bytes = reinterpret_cast<const char*>(env->GetDirectBufferAddress(xml));
+    if (bytes == NULL) {
+        jniThrowException(env, "java/lang/IllegalArgumentException", "Not a direct buffer");
+        return;
+    }
     append(env, object, pointer, bytes, byteOffset, byteCount, XML_FALSE);
 }
 
@@ -1077,6 +1139,38 @@ static void ExpatParser_appendString(JNIEnv* env, jobject object, jlong pointer,
     append(env, object, pointer, bytes, 0, byteCount, isFinal);
 }
 
+/**
+ * Resets the parser so that it can parse another document, keeping its
+ * parsing context with its text buffer and interned strings.
+ */
+static void ExpatParser_resetParser(JNIEnv* env, jclass, jlong pointer, jstring javaEncoding) {
+    ScopedUtfChars encoding(env, javaEncoding);
+    if (encoding.c_str() == NULL) {
+        return;
+    }
+
+    XML_Parser parser = toXMLParser(pointer);
+    ParsingContext* context = toParsingContext(parser);
+
+    // Resetting clears the handlers and user data, and keeps namespace processing as it was.
+    if (!XML_ParserReset(parser, encoding.c_str())) {
+        jniThrowException(env, "java/lang/IllegalStateException", "Cannot reset parser");
+        return;
+    }
+
+    // Elements left open by a failed parse.
+    context->stringStack.clear();
+    context->attributes = NULL;
+    context->attributeCount = -1;
+    if (context->internedStringCount > MAX_INTERNED_STRINGS) {
+        context->env = env;
+        context->freeInternedStrings();
+        context->env = NULL;
+    }
+
+    setHandlers(parser, context);
+}
+
 /**
  * Releases parser only.
  */
@@ -1370,6 +1464,7 @@ static const JNINativeMethod parserMethods[] = {
     NATIVE_METHOD(ExpatParser, appendString, "(JLjava/lang/String;Z)V"),
     NATIVE_METHOD(ExpatParser, appendBytes, "(J[BII)V"),
     NATIVE_METHOD(ExpatParser, appendChars, "(J[CII)V"),
+    NATIVE_METHOD(ExpatParser, appendDirect, "(JLjava/nio/ByteBuffer;II)V"),
     NATIVE_METHOD(ExpatParser, cloneAttributes, "(JI)J"),
     NATIVE_METHOD(ExpatParser, column, "(J)I"),
     NATIVE_METHOD(ExpatParser, createEntityParser, "(JLjava/lang/String;)J"),
@@ -1377,6 +1472,7 @@ static const JNINativeMethod parserMethods[] = {
     NATIVE_METHOD(ExpatParser, line, "(J)I"),
     NATIVE_METHOD(ExpatParser, release, "(J)V"),
     NATIVE_METHOD(ExpatParser, releaseParser, "(J)V"),
+    NATIVE_METHOD(ExpatParser, resetParser, "(JLjava/lang/String;)V"),
     NATIVE_METHOD(ExpatParser, staticInitialize, "(Ljava/lang/String;)V"),
 };
 
@@ -27,6 +27,7 @@ import java.util.Map;
 import libcore.io.Streams;
 import junit.framework.TestCase;
 
+import dalvik.system.BaseDexClassLoader;
 import dalvik.system.DexClassLoader;
 
 /**
@@ -79,6 +80,25 @@ public class DexClassLoaderTest extends TestCase {
             ClassLoader.getSystemClassLoader());
     }
 
+    /**
+     * Like {@link #createLoader}, but the loader looks classes and resources
+     * up through package indexes.
+     */
+    private ClassLoader createIndexedLoader(File... files) {
+        String property = "dalvik.system.DexPathList.usePackageIndex";
+        String oldValue = System.getProperty(property);
+        System.setProperty(property, "true");
+        try {
+            return createLoader(files);
+        } finally {
+            if (oldValue == null) {
+                System.clearProperty(property);
+            } else {
+                System.setProperty(property, oldValue);
+            }
+        }
+    }
+
     /**
      * Helper to construct a new DexClassLoader instance to test, using the
      * given files as the class path, and call a named no-argument static
@@ -244,6 +264,57 @@ public class DexClassLoaderTest extends TestCase {
         createLoaderAndCallMethod("test.TestMethods", "test_diff_getInstanceVariable", jar1, jar2);
     }
 
+    public void test_twoJar_diff_getResources() throws Exception {
+        checkTwoJarResources(createLoader(jar1, jar2));
+    }
+
+    public void test_twoJar_diff_getResources_packageIndex() throws Exception {
+        checkTwoJarResources(createIndexedLoader(jar1, jar2));
+    }
+
+    private static void checkTwoJarResources(ClassLoader cl) throws Exception {
+        assertNotNull(cl.getResource("test2/Resource2.txt"));
+        // Zip lookups also match directory entries, with or without the trailing '/'.
+        assertNotNull(cl.getResource("test2/"));
+        assertNotNull(cl.getResource("test2"));
+        assertEquals(1, Collections.list(cl.getResources("test/Resource1.txt")).size());
+        assertNull(cl.getResource("test2/Missing.txt"));
+        assertNull(cl.getResource("missing/Resource2.txt"));
+    }
+
+    public void test_twoJar_diff_loadClass_packageIndex() throws Exception {
+        ClassLoader cl = createIndexedLoader(jar1, jar2);
+        assertNotNull(cl.loadClass("test.Test1"));
+        assertNotNull(cl.loadClass("test2.Target2"));
+        try {
+            cl.loadClass("test2.Missing");
+            fail();
+        } catch (ClassNotFoundException expected) {
+        }
+    }
+
+    public void test_twoJar_addDexPath() throws Exception {
+        checkAddDexPath((BaseDexClassLoader) createLoader(dex1, jar1));
+    }
+
+    public void test_twoJar_addDexPath_packageIndex() throws Exception {
+        checkAddDexPath((BaseDexClassLoader) createIndexedLoader(dex1, jar1));
+    }
+
+    private void checkAddDexPath(BaseDexClassLoader cl) throws Exception {
+        try {
+            cl.loadClass("test2.Target2");
+            fail();
+        } catch (ClassNotFoundException expected) {
+        }
+        assertNull(cl.getResource("test2/Resource2.txt"));
+
+        // Adding a path replaces the elements that lookups were indexed by.
+        cl.addDexPath(jar2.getAbsolutePath());
+        assertNotNull(cl.loadClass("test2.Target2"));
+        assertNotNull(cl.getResource("test2/Resource2.txt"));
+    }
+
     // TWO_DEX
 
     public void test_twoDex_init() throws Exception {
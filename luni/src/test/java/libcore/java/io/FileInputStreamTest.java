@@ -30,14 +30,21 @@ import libcore.testing.io.TestIoUtils;
 import org.junit.Rule;
 import org.junit.rules.TestRule;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.file.Files;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 
 public final class FileInputStreamTest extends TestCaseWithRules {
     @Rule
@@ -97,6 +104,146 @@ public final class FileInputStreamTest extends TestCaseWithRules {
         }
     }
 
+    public void testTransferTo_fileToFile() throws Exception {
+        byte[] data = randomBytes(300 * 1024);
+        File in = writeTempFile(data);
+        File out = File.createTempFile("FileInputStreamTest", "out");
+        try (FileInputStream fis = new FileInputStream(in);
+             FileOutputStream fos = new FileOutputStream(out)) {
+            assertEquals(100, fis.read(new byte[100]));
+            assertEquals(data.length - 100, fis.transferTo(fos));
+            assertEquals(-1, fis.read());
+        }
+        assertTrue(Arrays.equals(Arrays.copyOfRange(data, 100, data.length),
+                Files.readAllBytes(out.toPath())));
+        in.delete();
+        out.delete();
+    }
+
+    public void testTransferTo_appendingFile() throws Exception {
+        // The kernel may refuse to copy to a file in append mode, in which case transferTo()
+        // must fall back to copying through the heap.
+        byte[] data = randomBytes(100 * 1024);
+        File in = writeTempFile(data);
+        File out = writeTempFile(new byte[] { 1, 2, 3 });
+        try (FileInputStream fis = new FileInputStream(in);
+             FileOutputStream fos = new FileOutputStream(out, true)) {
+            assertEquals(data.length, fis.transferTo(fos));
+        }
+        byte[] expected = new byte[3 + data.length];
+        expected[0] = 1;
+        expected[1] = 2;
+        expected[2] = 3;
+        System.arraycopy(data, 0, expected, 3, data.length);
+        assertTrue(Arrays.equals(expected, Files.readAllBytes(out.toPath())));
+        in.delete();
+        out.delete();
+    }
+
+    public void testTransferTo_pipeToFile() throws Exception {
+        FileDescriptor[] pipe = Libcore.os.pipe2(0);
+        DataFeeder feeder = new DataFeeder(pipe[1]);
+        File out = File.createTempFile("FileInputStreamTest", "out");
+        try {
+            feeder.start();
+            try (FileInputStream fis = new FileInputStream(pipe[0]);
+                 FileOutputStream fos = new FileOutputStream(out)) {
+                assertEquals(TOTAL_SIZE, fis.transferTo(fos));
+            }
+            feeder.join(1000);
+            assertFalse(feeder.isAlive());
+            byte[] bytes = Files.readAllBytes(out.toPath());
+            assertEquals(TOTAL_SIZE, bytes.length);
+            for (int i = 0; i < bytes.length; ++i) {
+                assertEquals((byte) i, bytes[i]);
+            }
+        } finally {
+            IoUtils.closeQuietly(pipe[0]);
+            out.delete();
+        }
+    }
+
+    public void testTransferTo_fileToSocketToFile() throws Exception {
+        byte[] data = randomBytes(1024 * 1024 + 17);
+        File in = writeTempFile(data);
+        File out = File.createTempFile("FileInputStreamTest", "out");
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress())) {
+            Thread sender = new Thread(() -> {
+                try (Socket socket = new Socket(server.getInetAddress(), server.getLocalPort());
+                     FileInputStream fis = new FileInputStream(in)) {
+                    assertEquals(data.length, fis.transferTo(socket.getOutputStream()));
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            sender.start();
+            try (Socket socket = server.accept();
+                 FileOutputStream fos = new FileOutputStream(out)) {
+                assertEquals(data.length, socket.getInputStream().transferTo(fos));
+            }
+            sender.join(10000);
+            assertFalse(sender.isAlive());
+        }
+        assertTrue(Arrays.equals(data, Files.readAllBytes(out.toPath())));
+        in.delete();
+        out.delete();
+    }
+
+    public void testTransferTo_fileToSocket_socketStillCloses() throws Exception {
+        // transferTo() holds on to the socket's file descriptor while it copies, and must let
+        // go of it afterwards so that closing the socket really closes it.
+        byte[] data = randomBytes(64 * 1024);
+        File in = writeTempFile(data);
+        try (ServerSocket server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+             Socket client = new Socket(server.getInetAddress(), server.getLocalPort());
+             Socket accepted = server.accept()) {
+            try (FileInputStream fis = new FileInputStream(in)) {
+                assertEquals(data.length, fis.transferTo(client.getOutputStream()));
+            }
+            client.close();
+
+            accepted.setSoTimeout(10000);
+            ByteArrayOutputStream received = new ByteArrayOutputStream();
+            assertEquals(data.length, accepted.getInputStream().transferTo(received));
+            assertTrue(Arrays.equals(data, received.toByteArray()));
+        }
+        in.delete();
+    }
+
+    public void testTransferTo_subclassOverridingRead() throws Exception {
+        byte[] data = randomBytes(10 * 1024);
+        File in = writeTempFile(data);
+        File out = File.createTempFile("FileInputStreamTest", "out");
+        int[] readCount = new int[1];
+        try (FileInputStream fis = new FileInputStream(in) {
+                 @Override public int read(byte[] b, int off, int len) throws IOException {
+                     readCount[0]++;
+                     return super.read(b, off, len);
+                 }
+             };
+             FileOutputStream fos = new FileOutputStream(out)) {
+            assertEquals(data.length, fis.transferTo(fos));
+        }
+        assertTrue(readCount[0] > 1);
+        assertTrue(Arrays.equals(data, Files.readAllBytes(out.toPath())));
+        in.delete();
+        out.delete();
+    }
+
+    private static byte[] randomBytes(int byteCount) {
+        byte[] bytes = new byte[byteCount];
+        new Random(byteCount).nextBytes(bytes);
+        return bytes;
+    }
+
+    private static File writeTempFile(byte[] bytes) throws IOException {
+        File file = File.createTempFile("FileInputStreamTest", "in");
+        try (FileOutputStream fos = new FileOutputStream(file)) {
+            fos.write(bytes);
+        }
+        return file;
+    }
+
     public void testDirectories() throws Exception {
         try {
             new FileInputStream(".");
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import junit.framework.TestCase;
+
+public final class ObjectInputStreamTest extends TestCase {
+    public static class Point implements Serializable {
+        private static final long serialVersionUID = 1L;
+        int x;
+        int y;
+
+        Point(int x, int y) {
+            this.x = x;
+            this.y = y;
+        }
+    }
+
+    /** Delegates to its parent, counting the classes it is asked to load. */
+    private static class CountingClassLoader extends ClassLoader {
+        final List<String> requests = new ArrayList<>();
+
+        CountingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve)
+                throws ClassNotFoundException {
+            requests.add(name);
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    /** Writes two Points with a reset in between, so that the class descriptor is sent twice. */
+    private static byte[] twoPointsWithReset() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(new Point(1, 2));
+            out.reset();
+            out.writeObject(new Point(3, 4));
+        }
+        return bytes.toByteArray();
+    }
+
+    public void testExplicitLoader() throws Exception {
+        CountingClassLoader loader = new CountingClassLoader(getClass().getClassLoader());
+        ObjectInputStream in =
+                new ObjectInputStream(new ByteArrayInputStream(twoPointsWithReset()), loader);
+        Point a = (Point) in.readObject();
+        Point b = (Point) in.readObject();
+        assertEquals(1, a.x);
+        assertEquals(2, a.y);
+        assertEquals(3, b.x);
+        assertEquals(4, b.y);
+        // The second descriptor was resolved from the stream's cache.
+        assertEquals(1, count(loader.requests, Point.class.getName()));
+    }
+
+    public void testExplicitLoader_eachStreamAsksLoader() throws Exception {
+        // The process-wide cache must not be used for arbitrary class loaders, which may
+        // return different classes each time.
+        CountingClassLoader loader = new CountingClassLoader(getClass().getClassLoader());
+        byte[] bytes = twoPointsWithReset();
+        for (int i = 0; i < 3; i++) {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes), loader);
+            in.readObject();
+            in.readObject();
+        }
+        assertEquals(3, count(loader.requests, Point.class.getName()));
+    }
+
+    public void testExplicitLoader_classNotFound() throws Exception {
+        ClassLoader loader = new ClassLoader(null) {
+            @Override
+            protected Class<?> loadClass(String name, boolean resolve)
+                    throws ClassNotFoundException {
+                if (name.equals(Point.class.getName())) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        ObjectInputStream in =
+                new ObjectInputStream(new ByteArrayInputStream(twoPointsWithReset()), loader);
+        try {
+            in.readObject();
+            fail();
+        } catch (ClassNotFoundException expected) {
+        }
+    }
+
+    public void testExplicitLoader_null() throws Exception {
+        try {
+            new ObjectInputStream(new ByteArrayInputStream(twoPointsWithReset()), null);
+            fail();
+        } catch (NullPointerException expected) {
+        }
+    }
+
+    public void testManySmallStreams() throws Exception {
+        byte[] bytes = twoPointsWithReset();
+        for (int i = 0; i < 100; i++) {
+            ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes));
+            assertSame(Point.class, in.readObject().getClass());
+            assertSame(Point.class, in.readObject().getClass());
+        }
+    }
+
+    private static int count(List<String> list, String value) {
+        int count = 0;
+        for (String s : list) {
+            if (s.equals(value)) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
@@ -168,4 +168,29 @@ public class DoubleTest extends TestCase {
     public void testBYTES() {
         assertEquals(8, Double.BYTES);
     }
+
+    public void testToStringIsShortest() {
+        assertEquals("2.0E23", Double.toString(2e23));
+        assertEquals("1.0E23", Double.toString(1e23));
+        assertEquals("4.9E-324", Double.toString(Double.MIN_VALUE));
+        // The shortest decimal, 1.0E-323, is not the closest one with 2 digits.
+        assertEquals("9.9E-324", Double.toString(2 * Double.MIN_VALUE));
+        assertEquals("1.7976931348623157E308", Double.toString(Double.MAX_VALUE));
+        assertEquals("2.2250738585072014E-308", Double.toString(Double.MIN_NORMAL));
+        assertEquals("9999999.0", Double.toString(9999999.0));
+        assertEquals("1.0E7", Double.toString(1.0e7));
+        assertEquals("0.001", Double.toString(0.001));
+        assertEquals("1.0E-4", Double.toString(1.0e-4));
+        assertEquals("-0.0", Double.toString(-0.0));
+    }
+
+    public void testToStringRoundTrips() {
+        java.util.Random random = new java.util.Random(0);
+        for (int i = 0; i < 10000; i++) {
+            double d = Double.longBitsToDouble(random.nextLong());
+            if (!Double.isNaN(d)) {
+                assertEquals(d, Double.parseDouble(Double.toString(d)));
+            }
+        }
+    }
 }
@@ -163,4 +163,14 @@ public class FloatTest extends junit.framework.TestCase {
     public void testBYTES() {
         assertEquals(4, Float.BYTES);
     }
+
+    public void testToStringIsShortest() {
+        assertEquals("1.4E-45", Float.toString(Float.MIN_VALUE));
+        assertEquals("2.0E-44", Float.toString(2.0e-44f));
+        assertEquals("1.1754944E-38", Float.toString(Float.MIN_NORMAL));
+        assertEquals("3.4028235E38", Float.toString(Float.MAX_VALUE));
+        assertEquals("1.0E10", Float.toString(1.0e10f));
+        assertEquals("0.3", Float.toString(0.3f));
+        assertEquals("-0.0", Float.toString(-0.0f));
+    }
 }
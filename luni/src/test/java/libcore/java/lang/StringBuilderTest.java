@@ -189,4 +189,17 @@ public class StringBuilderTest extends junit.framework.TestCase {
         sb1.append("a");
         assertEquals(0, new StringBuilder("a").compareTo(sb1));
     }
+
+    public void testAppendFloatingPoint() {
+        StringBuilder sb = new StringBuilder("x=");
+        sb.append(-1.2345678901234567e300).append(' ').append(1.1754944E-38f)
+                .append(' ').append(Double.NaN).append(' ').append(Float.NEGATIVE_INFINITY);
+        assertEquals("x=-1.2345678901234567E300 1.1754944E-38 NaN -Infinity", sb.toString());
+
+        // The same, once the builder holds UTF-16.
+        sb = new StringBuilder("\u03c0=");
+        sb.append(-1.2345678901234567e300).append(' ').append(1.1754944E-38f)
+                .append(' ').append(-0.0);
+        assertEquals("\u03c0=-1.2345678901234567E300 1.1754944E-38 -0.0", sb.toString());
+    }
 }
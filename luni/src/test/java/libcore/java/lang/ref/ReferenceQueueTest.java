@@ -16,11 +16,13 @@
 
 package libcore.java.lang.ref;
 
+import java.lang.ref.Reference;
 import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import junit.framework.TestCase;
 import sun.misc.Cleaner;
@@ -114,6 +116,43 @@ public final class ReferenceQueueTest extends TestCase {
         checkDuration(enqueueDelayMsec, durationMillis);
     }
 
+    public void testPollBatch() throws Exception {
+        ReferenceQueue<Object> referenceQueue = new ReferenceQueue<Object>();
+        AtomicInteger batchCounter = new AtomicInteger();
+        Reference<?>[] batch = new Reference<?>[3];
+        assertEquals(0, referenceQueue.poll(batch, batchCounter));
+        assertEquals(0, batchCounter.get());
+
+        WeakReference<?>[] references = new WeakReference<?>[5];
+        for (int i = 0; i < references.length; i++) {
+            references[i] = new WeakReference<Object>(new Object(), referenceQueue);
+            references[i].enqueue();
+        }
+        assertEquals(5, referenceQueue.queueLength());
+
+        assertEquals(3, referenceQueue.poll(batch, batchCounter));
+        assertEquals(1, batchCounter.get());
+        assertSame(references[0], batch[0]);
+        assertSame(references[1], batch[1]);
+        assertSame(references[2], batch[2]);
+        assertEquals(2, referenceQueue.queueLength());
+
+        assertEquals(2, referenceQueue.remove(batch, batchCounter));
+        assertEquals(2, batchCounter.get());
+        assertSame(references[3], batch[0]);
+        assertSame(references[4], batch[1]);
+        assertEquals(0, referenceQueue.queueLength());
+        assertNull(referenceQueue.poll());
+    }
+
+    public void testRemoveBatchWithDelayedResult() throws Exception {
+        ReferenceQueue<Object> referenceQueue = new ReferenceQueue<Object>();
+        enqueueLater(referenceQueue, 500L);
+        Reference<?>[] batch = new Reference<?>[4];
+        assertEquals(1, referenceQueue.remove(batch, new AtomicInteger()));
+        assertNotNull(batch[0]);
+    }
+
     public void testCleanersCleaned() {
         Object object = new Object();
         final CountDownLatch cdl = new CountDownLatch(1);
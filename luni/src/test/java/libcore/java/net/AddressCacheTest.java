@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.net;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import libcore.util.BasicLruCache;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests java.net.AddressCache, which is package-private, through reflection.
+ */
+@RunWith(JUnit4.class)
+public class AddressCacheTest {
+    private static final int NET_ID = 0;
+
+    private static final InetAddress[] ADDRESSES_1 = addresses(1);
+    private static final InetAddress[] ADDRESSES_2 = addresses(2);
+
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    /** Resolves names that are not in the cache. */
+    private interface Resolver {
+        InetAddress[] resolve(String hostname) throws UnknownHostException;
+    }
+
+    /** A resolver that fails the test if it is called. */
+    private static final Resolver UNUSED = hostname -> {
+        throw new AssertionError("Unexpected resolution of " + hostname);
+    };
+
+    @Test
+    public void test_lookup_cachesAddresses() throws Exception {
+        TestCache cache = new TestCache();
+        assertSame(ADDRESSES_1, cache.lookup("a", hostname -> ADDRESSES_1));
+        assertSame(ADDRESSES_1, cache.lookup("a", UNUSED));
+        assertSame(ADDRESSES_1, cache.get("a"));
+        assertEquals(1, cache.counter("getHitCount"));
+        assertEquals(1, cache.counter("getMissCount"));
+    }
+
+    @Test
+    public void test_lookup_cachesUnknownHost() throws Exception {
+        TestCache cache = new TestCache();
+        UnknownHostException first = null;
+        try {
+            cache.lookup("a", hostname -> {
+                throw new UnknownHostException("no such host");
+            });
+            fail();
+        } catch (UnknownHostException expected) {
+            first = expected;
+        }
+        try {
+            cache.lookup("a", UNUSED);
+            fail();
+        } catch (UnknownHostException expected) {
+            // Each lookup throws its own exception, with the cached detail message.
+            assertNotSame(first, expected);
+            assertEquals("no such host", expected.getMessage());
+        }
+        assertEquals("no such host", cache.get("a"));
+    }
+
+    @Test
+    public void test_lookup_unknownHostsDoNotEvictAddresses() throws Exception {
+        TestCache cache = new TestCache();
+        cache.lookup("a", hostname -> ADDRESSES_1);
+        for (int i = 0; i < 100; i++) {
+            try {
+                cache.lookup("unknown" + i, hostname -> {
+                    throw new UnknownHostException(hostname);
+                });
+                fail();
+            } catch (UnknownHostException expected) {
+            }
+        }
+        // This also checks that "a" falling off the end of the legacy cache field, which mirrors
+        // both kinds of entries, does not remove it.
+        assertSame(ADDRESSES_1, cache.lookup("a", UNUSED));
+        // Only the most recent negative entries are kept.
+        assertNull(cache.get("unknown0"));
+        assertEquals("unknown99", cache.get("unknown99"));
+    }
+
+    @Test
+    public void test_lookup_coalescesConcurrentMisses() throws Exception {
+        TestCache cache = new TestCache();
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger resolutions = new AtomicInteger();
+        Resolver blocking = hostname -> {
+            resolutions.incrementAndGet();
+            resolving.countDown();
+            await(release);
+            return ADDRESSES_1;
+        };
+
+        Future<InetAddress[]> first = executor.submit(() -> cache.lookup("a", blocking));
+        assertTrue(resolving.await(10, TimeUnit.SECONDS));
+        Future<InetAddress[]> second = executor.submit(() -> cache.lookup("a", blocking));
+        // Give the second lookup time to start waiting for the first, although it is also
+        // correct for it to find the entry the first one adds.
+        Thread.sleep(100);
+        release.countDown();
+
+        assertSame(ADDRESSES_1, first.get(10, TimeUnit.SECONDS));
+        assertSame(ADDRESSES_1, second.get(10, TimeUnit.SECONDS));
+        assertEquals(1, resolutions.get());
+    }
+
+    @Test
+    public void test_lookup_coalescedUnknownHost() throws Exception {
+        TestCache cache = new TestCache();
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Resolver blocking = hostname -> {
+            resolving.countDown();
+            await(release);
+            throw new UnknownHostException("no such host");
+        };
+
+        Future<InetAddress[]> first = executor.submit(() -> cache.lookup("a", blocking));
+        assertTrue(resolving.await(10, TimeUnit.SECONDS));
+        Future<InetAddress[]> second = executor.submit(() -> cache.lookup("a", UNUSED));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertUnknownHost("no such host", first);
+        assertUnknownHost("no such host", second);
+    }
+
+    @Test
+    public void test_lookup_returnsStaleEntryWhileRefreshing() throws Exception {
+        // Entries expire as soon as they are added, but stay usable while refreshed.
+        TestCache cache = new TestCache(1, TimeUnit.HOURS.toNanos(1));
+        cache.lookup("a", hostname -> ADDRESSES_1);
+        assertNull(cache.get("a"));
+
+        CountDownLatch resolving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<InetAddress[]> refresh = executor.submit(() -> cache.lookup("a", hostname -> {
+            resolving.countDown();
+            await(release);
+            return ADDRESSES_2;
+        }));
+        assertTrue(resolving.await(10, TimeUnit.SECONDS));
+
+        // The refresh is still running, so this gets the expired entry without resolving.
+        assertSame(ADDRESSES_1, cache.lookup("a", UNUSED));
+        assertEquals(1, cache.counter("getStaleHitCount"));
+
+        release.countDown();
+        assertSame(ADDRESSES_2, refresh.get(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void test_lookup_resolvesEntryTooStaleToReturn() throws Exception {
+        // Entries expire as soon as they are added, and may not be returned after that.
+        TestCache cache = new TestCache(1, 0);
+        cache.lookup("a", hostname -> ADDRESSES_1);
+        assertSame(ADDRESSES_2, cache.lookup("a", hostname -> ADDRESSES_2));
+        assertEquals(0, cache.counter("getStaleHitCount"));
+        assertEquals(2, cache.counter("getMissCount"));
+    }
+
+    @Test
+    public void test_clear() throws Exception {
+        TestCache cache = new TestCache();
+        cache.lookup("a", hostname -> ADDRESSES_1);
+        cache.clear();
+        assertNull(cache.get("a"));
+        assertSame(ADDRESSES_2, cache.lookup("a", hostname -> ADDRESSES_2));
+    }
+
+    @Test
+    public void test_legacyCacheField_evictAllClearsCache() throws Exception {
+        TestCache cache = new TestCache();
+        cache.lookup("a", hostname -> ADDRESSES_1);
+        try {
+            cache.lookup("b", hostname -> {
+                throw new UnknownHostException("no such host");
+            });
+            fail();
+        } catch (UnknownHostException expected) {
+        }
+
+        // Apps have used this field to flush the DNS cache.
+        BasicLruCache<?, ?> legacyCache = cache.legacyCache();
+        assertEquals(2, legacyCache.snapshot().size());
+        legacyCache.evictAll();
+
+        assertNull(cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    private static void assertUnknownHost(String message, Future<InetAddress[]> future)
+            throws Exception {
+        try {
+            future.get(10, TimeUnit.SECONDS);
+            fail();
+        } catch (java.util.concurrent.ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof UnknownHostException);
+            assertEquals(message, expected.getCause().getMessage());
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(10, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    private static InetAddress[] addresses(int lastByte) {
+        try {
+            return new InetAddress[] {
+                InetAddress.getByAddress(new byte[] { 10, 0, 0, (byte) lastByte })
+            };
+        } catch (UnknownHostException e) {
+            throw new AssertionError(e);
+        }
+    }
+
+    /** A java.net.AddressCache, used through reflection. */
+    private static final class TestCache {
+        private static final Class<?> CACHE_CLASS;
+        private static final Class<?> RESOLVER_CLASS;
+
+        static {
+            try {
+                CACHE_CLASS = Class.forName("java.net.AddressCache");
+                RESOLVER_CLASS = Class.forName("java.net.AddressCache$Resolver");
+            } catch (ClassNotFoundException e) {
+                throw new AssertionError(e);
+            }
+        }
+
+        private final Object cache;
+
+        TestCache() throws Exception {
+            this(TimeUnit.HOURS.toNanos(1), 0);
+        }
+
+        TestCache(long ttlNanos, long maxStaleNanos) throws Exception {
+            Constructor<?> constructor =
+                    CACHE_CLASS.getDeclaredConstructor(long.class, long.class);
+            constructor.setAccessible(true);
+            cache = constructor.newInstance(ttlNanos, maxStaleNanos);
+        }
+
+        InetAddress[] lookup(String hostname, Resolver resolver) throws Exception {
+            Object proxy = Proxy.newProxyInstance(CACHE_CLASS.getClassLoader(),
+                    new Class<?>[] { RESOLVER_CLASS },
+                    (p, method, args) -> {
+                        try {
+                            return resolver.resolve((String) args[0]);
+                        } finally {
+                            assertEquals(NET_ID, args[1]);
+                        }
+                    });
+            return (InetAddress[]) invoke("lookup",
+                    new Class<?>[] { String.class, int.class, RESOLVER_CLASS },
+                    hostname, NET_ID, proxy);
+        }
+
+        Object get(String hostname) throws Exception {
+            return invoke("get", new Class<?>[] { String.class, int.class }, hostname, NET_ID);
+        }
+
+        void clear() throws Exception {
+            invoke("clear", new Class<?>[0]);
+        }
+
+        long counter(String name) throws Exception {
+            return (Long) invoke(name, new Class<?>[0]);
+        }
+
+        BasicLruCache<?, ?> legacyCache() throws Exception {
+            Field field = CACHE_CLASS.getDeclaredField("cache");
+            field.setAccessible(true);
+            return (BasicLruCache<?, ?>) field.get(cache);
+        }
+
+        private Object invoke(String name, Class<?>[] parameterTypes, Object... args)
+                throws Exception {
+            Method method = CACHE_CLASS.getDeclaredMethod(name, parameterTypes);
+            method.setAccessible(true);
+            try {
+                return method.invoke(cache, args);
+            } catch (InvocationTargetException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw (Error) cause;
+            }
+        }
+    }
+}
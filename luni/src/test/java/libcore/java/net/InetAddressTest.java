@@ -502,6 +502,22 @@ public class InetAddressTest {
         assertEquals("ip6-localhost", getHostStringWithoutReverseDns(inetAddress));
     }
 
+    @Test
+    public void test_getAllByName_usesDnsCache() throws Exception {
+        InetAddress.clearDnsCache();
+        long[] before = InetAddress.getDnsCacheCounters();
+
+        InetAddress[] first = InetAddress.getAllByName("localhost");
+        InetAddress[] second = InetAddress.getAllByName("localhost");
+        assertEquals(Arrays.asList(first), Arrays.asList(second));
+
+        long[] after = InetAddress.getDnsCacheCounters();
+        // Hits, stale hits, misses and coalesced lookups, in that order.
+        assertEquals(4, after.length);
+        assertTrue(after[0] - before[0] >= 1);
+        assertTrue(after[2] - before[2] >= 1);
+    }
+
     @Test
     public void test_getByAddress_loopbackIpv4() throws Exception {
         InetAddress inetAddress = InetAddress.getByAddress(LOOPBACK4_BYTES);
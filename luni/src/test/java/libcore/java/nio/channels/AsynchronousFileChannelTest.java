@@ -16,14 +16,18 @@
 
 package libcore.java.nio.channels;
 
+import org.junit.Assume;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.junit.runners.JUnit4;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.FileReader;
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.AsynchronousFileChannel;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.CompletionHandler;
@@ -37,9 +41,15 @@ import java.nio.file.NoSuchFileException;
 import java.nio.file.OpenOption;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
@@ -48,6 +58,8 @@ import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReference;
 
+import sun.nio.ch.IoUringAsynchronousFileChannelImpl;
+
 import static org.junit.Assert.*;
 
 @RunWith(JUnit4.class)
@@ -766,4 +778,222 @@ public class AsynchronousFileChannelTest {
         otherAfc.close();
     }
 
+    @Test
+    public void testRead_manyOutstanding() throws Throwable {
+        byte[] contents = new byte[256 * 1024];
+        new Random(0).nextBytes(contents);
+        File temp = createTemporaryFile(contents);
+        AsynchronousFileChannel afc = AsynchronousFileChannel.open(temp.toPath(),
+                StandardOpenOption.READ);
+
+        // More reads than io_uring has queue entries, into heap and direct buffers.
+        Random random = new Random(1);
+        List<ByteBuffer> buffers = new ArrayList<>();
+        List<Integer> positions = new ArrayList<>();
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ByteBuffer buf = (i % 2 == 0)
+                    ? ByteBuffer.allocate(512) : ByteBuffer.allocateDirect(512);
+            int position = random.nextInt(contents.length - 512);
+            buffers.add(buf);
+            positions.add(position);
+            futures.add(afc.read(buf, position));
+        }
+        for (int i = 0; i < futures.size(); i++) {
+            assertEquals(512, (int) futures.get(i).get());
+            ByteBuffer buf = buffers.get(i);
+            assertEquals(512, buf.position());
+            for (int j = 0; j < 512; j++) {
+                assertEquals(contents[positions.get(i) + j], buf.get(j));
+            }
+        }
+        afc.close();
+    }
+
+    @Test
+    public void testIoUring_readWrite() throws Throwable {
+        byte[] contents = new byte[] { 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h' };
+        File temp = createTemporaryFile(contents);
+        IoUringAsynchronousFileChannelImpl afc = openIoUring(temp.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        // Heap buffers go through a temporary direct buffer.
+        ByteBuffer buf = ByteBuffer.allocate(4);
+        assertEquals(4, (int) afc.read(buf, 2).get());
+        assertEquals(4, buf.position());
+        assertEquals("cdef", new String(buf.array(), "US-ASCII"));
+
+        ByteBuffer direct = ByteBuffer.allocateDirect(4);
+        assertEquals(2, (int) afc.read(direct, 6).get());
+        assertEquals('g', direct.get(0));
+        assertEquals('h', direct.get(1));
+        direct.clear();
+        assertEquals(-1, (int) afc.read(direct, 8).get());
+
+        assertEquals(2, (int) afc.write(ByteBuffer.wrap(new byte[] { 'X', 'Y' }), 1).get());
+        RecordingHandler handler = new RecordingHandler();
+        direct.clear();
+        direct.put(new byte[] { 'Z', 'Z' }).flip();
+        afc.write(direct, 8, "attachment", handler);
+        assertTrue(handler.awaitCompletion());
+        assertEquals(2, handler.result);
+        assertEquals("attachment", handler.attachment);
+
+        buf = ByteBuffer.allocate(10);
+        assertEquals(10, (int) afc.read(buf, 0).get());
+        assertEquals("aXYdefghZZ", new String(buf.array(), "US-ASCII"));
+        assertEquals(10, afc.size());
+        afc.close();
+    }
+
+    @Test
+    public void testIoUring_cancel() throws Throwable {
+        byte[] contents = new byte[256 * 1024];
+        new Random(0).nextBytes(contents);
+        File temp = createTemporaryFile(contents);
+        IoUringAsynchronousFileChannelImpl afc = openIoUring(temp.toPath(),
+                StandardOpenOption.READ);
+
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(afc.read(ByteBuffer.allocateDirect(512), (i % 512) * 512));
+        }
+        for (Future<Integer> future : futures) {
+            if (future.cancel(false)) {
+                assertTrue(future.isCancelled());
+                try {
+                    future.get();
+                    fail();
+                } catch (CancellationException expected) {
+                }
+            } else {
+                assertEquals(512, (int) future.get());
+            }
+        }
+
+        // Cancelling doesn't affect the channel.
+        ByteBuffer buf = ByteBuffer.allocate(512);
+        assertEquals(512, (int) afc.read(buf, 1024).get());
+        for (int i = 0; i < 512; i++) {
+            assertEquals(contents[1024 + i], buf.get(i));
+        }
+
+        // A forceful cancel closes the channel, unless the read has completed already.
+        Future<Integer> future = afc.read(ByteBuffer.allocate(512), 0);
+        if (future.cancel(true)) {
+            assertFalse(afc.isOpen());
+        }
+        afc.close();
+    }
+
+    @Test
+    public void testIoUring_closeWithOperationsInFlight() throws Throwable {
+        File temp = createTemporaryFile(256 * 1024);
+        IoUringAsynchronousFileChannelImpl afc = openIoUring(temp.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        byte[] data = new byte[512];
+        Arrays.fill(data, (byte) 1);
+        List<Future<Integer>> futures = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            ByteBuffer buf = (i % 2 == 0)
+                    ? ByteBuffer.wrap(data) : ByteBuffer.allocateDirect(512);
+            futures.add((i % 2 == 0) ? afc.write(buf, (i % 512) * 512) : afc.read(buf, 0));
+        }
+        afc.close();
+        assertFalse(afc.isOpen());
+
+        // The next file opened is likely to get the same descriptor. Operations that were
+        // still queued must not reach it.
+        File other = File.createTempFile("AFCTest_other", "");
+        try (FileOutputStream fos = new FileOutputStream(other)) {
+            for (Future<Integer> future : futures) {
+                try {
+                    assertEquals(512, (int) future.get(10, TimeUnit.SECONDS));
+                } catch (ExecutionException expected) {
+                    assertTrue(expected.getCause() instanceof AsynchronousCloseException);
+                }
+            }
+            assertEquals(0, other.length());
+        } finally {
+            other.delete();
+        }
+
+        try {
+            afc.read(ByteBuffer.allocate(1), 0).get();
+            fail();
+        } catch (ExecutionException expected) {
+            assertTrue(expected.getCause() instanceof ClosedChannelException);
+        }
+    }
+
+    @Test
+    public void testRead_registeredBuffers() throws Throwable {
+        byte[] contents = new byte[] { 'a', 'b', 'c', 'd', 'e', 'f', 'g', 'h' };
+        File temp = createTemporaryFile(contents);
+        IoUringAsynchronousFileChannelImpl afc = openIoUring(temp.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+
+        ByteBuffer registered = ByteBuffer.allocateDirect(16);
+        afc.registerBuffers(registered);
+
+        // A slice of the registered buffer is read into and written from in place.
+        registered.position(4).limit(8);
+        ByteBuffer slice = registered.slice();
+        assertEquals(4, (int) afc.read(slice, 2).get());
+        assertEquals('c', registered.get(4));
+        assertEquals('f', registered.get(7));
+
+        slice.flip();
+        assertEquals(4, (int) afc.write(slice, 4).get());
+        ByteBuffer buf = ByteBuffer.allocate(8);
+        assertEquals(8, (int) afc.read(buf, 0).get());
+        assertEquals("abcdcdef", new String(buf.array(), "US-ASCII"));
+
+        // A buffer that is not registered still works.
+        buf = ByteBuffer.allocateDirect(2);
+        assertEquals(2, (int) afc.read(buf, 6).get());
+        assertEquals('e', buf.get(0));
+
+        afc.registerBuffers();
+        afc.close();
+    }
+
+    /**
+     * Opens {@code path} with the io_uring implementation, which is only used when enabled with
+     * sun.nio.ch.useIoUring. Skips the test if the kernel doesn't support it, or if a seccomp
+     * filter might kill the process for probing.
+     */
+    private static IoUringAsynchronousFileChannelImpl openIoUring(Path path,
+            OpenOption... options) throws IOException {
+        Assume.assumeFalse("Seccomp filter may not allow io_uring", hasSeccompFilter());
+        String old = System.setProperty("sun.nio.ch.useIoUring", "true");
+        AsynchronousFileChannel afc;
+        try {
+            afc = AsynchronousFileChannel.open(path, options);
+        } finally {
+            if (old == null) {
+                System.clearProperty("sun.nio.ch.useIoUring");
+            } else {
+                System.setProperty("sun.nio.ch.useIoUring", old);
+            }
+        }
+        if (!(afc instanceof IoUringAsynchronousFileChannelImpl)) {
+            afc.close();
+            Assume.assumeTrue("io_uring is not supported", false);
+        }
+        return (IoUringAsynchronousFileChannelImpl) afc;
+    }
+
+    private static boolean hasSeccompFilter() throws IOException {
+        try (BufferedReader reader = new BufferedReader(new FileReader("/proc/self/status"))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("Seccomp:")) {
+                    return !line.substring("Seccomp:".length()).trim().equals("0");
+                }
+            }
+        }
+        return false;
+    }
 }
@@ -34,12 +34,14 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.NetworkInterface;
 import java.net.ProtocolFamily;
+import java.net.SocketAddress;
 import java.net.StandardProtocolFamily;
 import java.net.StandardSocketOptions;
 import java.nio.ByteBuffer;
 import java.nio.channels.AlreadyBoundException;
 import java.nio.channels.ClosedChannelException;
 import java.nio.channels.DatagramChannel;
+import java.nio.channels.NotYetConnectedException;
 import java.nio.channels.UnsupportedAddressTypeException;
 import java.nio.channels.spi.SelectorProvider;
 import java.util.Enumeration;
@@ -90,6 +92,115 @@ public class DatagramChannelTest {
         }
     }
 
+    @Test
+    public void test_receive_sendBatch() throws Exception {
+        try (DatagramChannel receiver = DatagramChannel.open();
+             DatagramChannel sender = DatagramChannel.open()) {
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            sender.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            SocketAddress target = receiver.getLocalAddress();
+            // Check that both direct and non-direct buffers work.
+            ByteBuffer[] srcs = {
+                    ByteBuffer.wrap("one".getBytes("US-ASCII")),
+                    ByteBuffer.allocateDirect(3),
+                    ByteBuffer.wrap("three".getBytes("US-ASCII")),
+            };
+            srcs[1].put("two".getBytes("US-ASCII")).flip();
+            assertEquals(3, sender.send(srcs, new SocketAddress[] { target, target, target }));
+            for (ByteBuffer src : srcs) {
+                assertFalse(src.hasRemaining());
+            }
+
+            // The last datagram is truncated to fit its buffer.
+            ByteBuffer[] dsts = {
+                    ByteBuffer.allocate(1), ByteBuffer.allocateDirect(8), ByteBuffer.allocate(8),
+                    ByteBuffer.allocate(3), ByteBuffer.allocate(8),
+            };
+            SocketAddress[] senders = new SocketAddress[dsts.length + 1];
+            int received = 0;
+            while (received < 3) {
+                received += receiver.receive(dsts, 1 + received, 3 - received, senders);
+            }
+            assertEquals(0, dsts[0].position());
+            assertEquals("one", asString(dsts[1]));
+            assertEquals("two", asString(dsts[2]));
+            assertEquals("thr", asString(dsts[3]));
+            assertEquals(0, dsts[4].position());
+            assertNull(senders[0]);
+            assertEquals(sender.getLocalAddress(), senders[1]);
+            assertEquals(sender.getLocalAddress(), senders[2]);
+            assertEquals(sender.getLocalAddress(), senders[3]);
+            assertNull(senders[4]);
+
+            // Nothing more is available.
+            receiver.configureBlocking(false);
+            assertEquals(0, receiver.receive(dsts, null));
+        }
+    }
+
+    @Test
+    public void test_sendBatch_connected() throws Exception {
+        try (DatagramChannel receiver = DatagramChannel.open();
+             DatagramChannel sender = DatagramChannel.open()) {
+            receiver.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0));
+            ByteBuffer[] srcs = {
+                    ByteBuffer.wrap("a".getBytes("US-ASCII")),
+                    ByteBuffer.wrap("b".getBytes("US-ASCII")),
+            };
+            try {
+                sender.send(srcs, null);
+                fail();
+            } catch (NotYetConnectedException expected) {
+            }
+            sender.connect(receiver.getLocalAddress());
+            try {
+                sender.send(srcs, new SocketAddress[] {
+                        receiver.getLocalAddress(), sender.getLocalAddress() });
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+            assertEquals(2, sender.send(srcs, null));
+
+            ByteBuffer[] dsts = { ByteBuffer.allocate(1), ByteBuffer.allocate(1) };
+            int received = 0;
+            while (received < 2) {
+                received += receiver.receive(dsts, received, 2 - received, null);
+            }
+            assertEquals("a", asString(dsts[0]));
+            assertEquals("b", asString(dsts[1]));
+        }
+    }
+
+    @Test
+    public void test_receiveBatch_invalidArguments() throws Exception {
+        try (DatagramChannel dc = DatagramChannel.open()) {
+            dc.bind(null);
+            ByteBuffer[] dsts = { ByteBuffer.allocate(1) };
+            try {
+                dc.receive(dsts, 1, 1, null);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                dc.receive(dsts, new SocketAddress[0]);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                dc.receive(new ByteBuffer[] { ByteBuffer.allocate(1).asReadOnlyBuffer() }, null);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    private static String asString(ByteBuffer buffer) throws Exception {
+        buffer.flip();
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return new String(bytes, "US-ASCII");
+    }
+
     @Test
     public void testInitialState() throws Exception {
         try (DatagramChannel dc = DatagramChannel.open()) {
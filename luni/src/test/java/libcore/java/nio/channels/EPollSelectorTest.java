@@ -0,0 +1,172 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package libcore.java.nio.channels;
+
+import android.system.Os;
+import java.io.FileDescriptor;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.Pipe;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.concurrent.atomic.AtomicBoolean;
+import junit.framework.TestCase;
+import sun.nio.ch.EPollSelectorProvider;
+
+public class EPollSelectorTest extends TestCase {
+    private final SelectorProvider provider = new EPollSelectorProvider();
+
+    public void testReadiness() throws Exception {
+        Selector selector = provider.openSelector();
+        Pipe pipe = provider.openPipe();
+        try {
+            pipe.source().configureBlocking(false);
+            SelectionKey key = pipe.source().register(selector, SelectionKey.OP_READ);
+            assertEquals(0, selector.selectNow());
+
+            pipe.sink().write(ByteBuffer.wrap(new byte[] { 1 }));
+            assertEquals(1, selector.select(1000));
+            assertTrue(selector.selectedKeys().contains(key));
+            assertEquals(SelectionKey.OP_READ, key.readyOps());
+
+            // Dropping read interest must take effect at the next select.
+            selector.selectedKeys().clear();
+            key.interestOps(0);
+            assertEquals(0, selector.selectNow());
+        } finally {
+            selector.close();
+            pipe.sink().close();
+            pipe.source().close();
+        }
+    }
+
+    public void testWakeup() throws Exception {
+        Selector selector = provider.openSelector();
+        try {
+            selector.wakeup();
+            selector.wakeup();
+            assertEquals(0, selector.select());
+            // The wakeup must be consumed by the previous select.
+            assertEquals(0, selector.select(100));
+        } finally {
+            selector.close();
+        }
+    }
+
+    public void testClosedSelector() throws Exception {
+        Selector selector = provider.openSelector();
+        selector.close();
+        selector.wakeup();
+        try {
+            selector.selectNow();
+            fail();
+        } catch (ClosedSelectorException expected) {
+        }
+    }
+
+    public void testLeakingDescriptors() throws Exception {
+        for (int i = 0; i < 2000; i++) {
+            Selector selector = provider.openSelector();
+            selector.close();
+        }
+    }
+
+    public void testCloseRegisteredChannel() throws Exception {
+        Selector selector = provider.openSelector();
+        ServerSocketChannel ssc = provider.openServerSocketChannel();
+        SocketChannel server = null;
+        FileDescriptor dup = null;
+        try {
+            ssc.bind(null);
+            SocketChannel sc = provider.openSocketChannel();
+            sc.connect(ssc.getLocalAddress());
+            sc.configureBlocking(false);
+            sc.register(selector, SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+            assertEquals(1, selector.select(100));
+            assertEquals(0, selector.select(100));
+
+            server = ssc.accept();
+            server.write(ByteBuffer.allocate(8192));
+            server.shutdownInput();
+            server.shutdownOutput();
+
+            // Keep the file alive beyond the channel so that the kernel can't clean up the
+            // epoll registration on our behalf; the selector must delete it itself.
+            dup = Os.dup(sc.socket().getFileDescriptor$());
+            sc.close();
+            assertFalse(sc.isOpen());
+
+            long start = System.currentTimeMillis();
+            for (int i = 0; i < 10; ++i) {
+                assertEquals(0, selector.select(500));
+            }
+            long end = System.currentTimeMillis();
+            assertTrue("Time taken: " + (end - start), (end - start) > 2000);
+            assertTrue(selector.keys().isEmpty());
+        } finally {
+            selector.close();
+            ssc.close();
+            if (server != null) {
+                server.close();
+            }
+            if (dup != null) {
+                Os.close(dup);
+            }
+        }
+    }
+
+    public void testCloseRegisteredChannel_wakesBlockedSelector() throws Exception {
+        Selector selector = provider.openSelector();
+        ServerSocketChannel ssc = provider.openServerSocketChannel();
+        SocketChannel server = null;
+        AtomicBoolean stop = new AtomicBoolean();
+        Thread selectThread = new Thread(() -> {
+            try {
+                while (!stop.get()) {
+                    selector.select();
+                }
+            } catch (Exception ignored) {
+            }
+        });
+        try {
+            ssc.bind(null);
+            SocketChannel sc = provider.openSocketChannel();
+            sc.connect(ssc.getLocalAddress());
+            server = ssc.accept();
+            sc.configureBlocking(false);
+            sc.register(selector, SelectionKey.OP_READ);
+            selectThread.start();
+
+            // The selector closes the fd, so the peer only sees EOF if the selector wakes up.
+            sc.close();
+            server.socket().setSoTimeout(5000);
+            InputStream in = server.socket().getInputStream();
+            assertEquals(-1, in.read());
+        } finally {
+            stop.set(true);
+            selector.close();
+            selectThread.join(5000);
+            ssc.close();
+            if (server != null) {
+                server.close();
+            }
+        }
+    }
+}
@@ -21,6 +21,8 @@ import static java.nio.file.StandardOpenOption.WRITE;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import android.system.OsConstants;
+
 import java.io.File;
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
@@ -28,13 +30,17 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
 import java.nio.channels.FileChannel;
 import java.nio.file.FileSystem;
 import java.nio.file.Path;
 import java.nio.file.StandardOpenOption;
 import java.nio.file.attribute.FileAttribute;
 import java.nio.file.spi.FileSystemProvider;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Random;
 import java.util.Set;
 import libcore.io.IoUtils;
 import libcore.junit.junit3.TestCaseWithRules;
@@ -118,6 +124,101 @@ public class FileChannelTest extends TestCaseWithRules {
         assertEquals("abcdABCD", new String(IoUtils.readFileAsString(tmp.getPath())));
     }
 
+    public void test_readv_position() throws Exception {
+        FileChannel fc = createFileContainingBytes("xxabcdABCDxx".getBytes("US-ASCII"));
+        fc.position(1);
+        // Check that both direct and non-direct buffers work.
+        ByteBuffer[] buffers = new ByteBuffer[] { ByteBuffer.allocateDirect(4), ByteBuffer.allocate(4) };
+        assertEquals(8, fc.read(buffers, 2));
+        // The channel's position is not changed.
+        assertEquals(1, fc.position());
+        byte[] bytes = new byte[4];
+        buffers[0].flip();
+        buffers[0].get(bytes);
+        assertEquals("abcd", new String(bytes, "US-ASCII"));
+        buffers[1].flip();
+        buffers[1].get(bytes);
+        assertEquals("ABCD", new String(bytes, "US-ASCII"));
+
+        // Fewer bytes than requested are read at the end of the file.
+        buffers[0].clear();
+        buffers[1].clear();
+        assertEquals(2, fc.read(buffers, 10));
+        assertEquals(2, buffers[0].position());
+        assertEquals(0, buffers[1].position());
+
+        // Reading at or past the end of the file returns -1.
+        buffers[0].clear();
+        assertEquals(-1, fc.read(buffers, 12));
+        assertEquals(-1, fc.read(buffers, 100));
+        fc.close();
+    }
+
+    public void test_writev_position() throws Exception {
+        FileChannel fc = createFileContainingBytes("xxxxxxxxxx".getBytes("US-ASCII"));
+        // Check that both direct and non-direct buffers work.
+        ByteBuffer[] buffers = new ByteBuffer[] { ByteBuffer.allocateDirect(4), ByteBuffer.allocate(4) };
+        buffers[0].put("abcd".getBytes("US-ASCII")).flip();
+        buffers[1].put("ABCD".getBytes("US-ASCII")).flip();
+        assertEquals(8, fc.write(buffers, 4));
+        // The channel's position is not changed, and the file grows as needed.
+        assertEquals(0, fc.position());
+        assertEquals(12, fc.size());
+        assertFalse(buffers[0].hasRemaining());
+        assertFalse(buffers[1].hasRemaining());
+
+        ByteBuffer contents = ByteBuffer.allocate(12);
+        assertEquals(12, fc.read(contents, 0));
+        assertEquals("xxxxabcdABCD", new String(contents.array(), "US-ASCII"));
+        fc.close();
+    }
+
+    public void test_readv_position_invalidArguments() throws Exception {
+        FileChannel fc = createFileContainingBytes("abcd".getBytes("US-ASCII"));
+        ByteBuffer[] buffers = new ByteBuffer[] { ByteBuffer.allocate(4) };
+        try {
+            fc.read(buffers, -1);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            fc.read(buffers, 1, 1, 0);
+            fail();
+        } catch (IndexOutOfBoundsException expected) {
+        }
+        fc.close();
+        try {
+            fc.read(buffers, 0);
+            fail();
+        } catch (ClosedChannelException expected) {
+        }
+    }
+
+    public void test_advise() throws Exception {
+        FileChannel fc = createFileContainingBytes("abcd".getBytes("US-ASCII"));
+        fc.advise(0, 0, OsConstants.POSIX_FADV_SEQUENTIAL);
+        fc.advise(1, 2, OsConstants.POSIX_FADV_DONTNEED);
+
+        MappedByteBuffer mapped = fc.map(FileChannel.MapMode.READ_ONLY, 1, 3);
+        assertSame(mapped, mapped.advise(OsConstants.MADV_SEQUENTIAL));
+        assertSame(mapped, mapped.load());
+        // Advice does not change the content.
+        assertEquals('b', mapped.get(0));
+        assertEquals('d', mapped.get(2));
+
+        try {
+            fc.advise(-1, 0, OsConstants.POSIX_FADV_NORMAL);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        fc.close();
+        try {
+            fc.advise(0, 0, OsConstants.POSIX_FADV_NORMAL);
+            fail();
+        } catch (ClosedChannelException expected) {
+        }
+    }
+
     public void test_append() throws Exception {
         File tmp = File.createTempFile("FileChannelTest", "tmp");
         FileOutputStream fos = new FileOutputStream(tmp, true);
@@ -134,6 +235,61 @@ public class FileChannelTest extends TestCaseWithRules {
         assertEquals("hello world", new String(IoUtils.readFileAsString(tmp.getPath())));
     }
 
+    public void test_transferTo_file() throws Exception {
+        byte[] bytes = new byte[1024 * 1024 + 3];
+        new Random(0).nextBytes(bytes);
+        try (FileChannel src = createFileContainingBytes(bytes);
+             FileChannel dst = createFileContainingBytes("abc".getBytes("US-ASCII"))) {
+            dst.position(3);
+            assertEquals(bytes.length - 5, src.transferTo(5, bytes.length, dst));
+            // The target's position advances, and the source's doesn't.
+            assertEquals(bytes.length - 2, dst.position());
+            assertEquals(0, src.position());
+            assertEquals(bytes.length - 2, dst.size());
+
+            ByteBuffer copied = ByteBuffer.allocate(bytes.length - 5);
+            assertEquals(copied.capacity(), dst.read(copied, 3));
+            assertTrue(Arrays.equals(Arrays.copyOfRange(bytes, 5, bytes.length),
+                    copied.array()));
+        }
+    }
+
+    public void test_transferTo_appendingFile() throws Exception {
+        FileChannel src = createFileContainingBytes("world".getBytes("US-ASCII"));
+        File tmp = File.createTempFile("FileChannelTest", "tmp");
+        FileOutputStream fos = new FileOutputStream(tmp, true);
+        try {
+            fos.write("hello ".getBytes("US-ASCII"));
+            assertEquals(5, src.transferTo(0, 5, fos.getChannel()));
+        } finally {
+            fos.close();
+            src.close();
+        }
+        assertEquals("hello world", new String(IoUtils.readFileAsString(tmp.getPath())));
+    }
+
+    public void test_transferFrom_file() throws Exception {
+        byte[] bytes = new byte[1024 * 1024 + 3];
+        new Random(0).nextBytes(bytes);
+        try (FileChannel src = createFileContainingBytes(bytes);
+             FileChannel dst = createFileContainingBytes(new byte[0])) {
+            src.position(5);
+            assertEquals(bytes.length - 5, dst.transferFrom(src, 0, bytes.length));
+            // The source's position advances, and the target's doesn't.
+            assertEquals(bytes.length, src.position());
+            assertEquals(0, dst.position());
+            assertEquals(bytes.length - 5, dst.size());
+
+            ByteBuffer copied = ByteBuffer.allocate(bytes.length - 5);
+            assertEquals(copied.capacity(), dst.read(copied, 0));
+            assertTrue(Arrays.equals(Arrays.copyOfRange(bytes, 5, bytes.length),
+                    copied.array()));
+
+            // Nothing is left to transfer at the end of the source.
+            assertEquals(0, dst.transferFrom(src, 0, bytes.length));
+        }
+    }
+
     public void test_position_writeAddsPadding() throws Exception {
         byte[] initialBytes = "12345".getBytes("US-ASCII");
         int initialFileSize = initialBytes.length; // 5
@@ -47,6 +47,7 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 
@@ -648,6 +649,31 @@ public class DefaultFileSystemProviderTest {
         }
     }
 
+    @Test
+    public void test_copy_largeFile() throws IOException {
+        // Spans many blocks, and is not a multiple of the block size.
+        byte[] data = new byte[3 * 1024 * 1024 + 17];
+        new Random(0).nextBytes(data);
+        Files.write(filesSetup.getDataFilePath(), data);
+
+        provider.copy(filesSetup.getDataFilePath(), filesSetup.getTestPath(), REPLACE_EXISTING);
+        assertTrue(Arrays.equals(data, Files.readAllBytes(filesSetup.getTestPath())));
+
+        // An empty file.
+        Files.write(filesSetup.getDataFilePath(), new byte[0]);
+        provider.copy(filesSetup.getDataFilePath(), filesSetup.getTestPath(), REPLACE_EXISTING);
+        assertEquals(0, Files.size(filesSetup.getTestPath()));
+    }
+
+    @Test
+    public void test_copy_procFile() throws IOException {
+        // procfs reports a size of 0, but the file has contents.
+        Path source = Paths.get("/proc/self/status");
+        provider.copy(source, filesSetup.getTestPath(), REPLACE_EXISTING);
+        assertTrue(Files.size(filesSetup.getTestPath()) > 0);
+        assertTrue(new String(Files.readAllBytes(filesSetup.getTestPath())).contains("Pid:"));
+    }
+
     @Test
     public void test_copy_NPE() throws IOException {
         try {
@@ -769,6 +795,28 @@ public class DefaultFileSystemProviderTest {
         }
     }
 
+    @Test
+    public void test_newDirectoryStream_manyEntries() throws IOException {
+        // More entries than are read from the directory at once.
+        Path root = filesSetup.getPathInTestDir("dir");
+        Files.createDirectory(root);
+        Set<Path> expectedPaths = new HashSet<>();
+        for (int i = 0; i < 2000; i++) {
+            Path path = root.resolve("file" + i + "_padding_to_fill_the_buffers_sooner");
+            Files.createFile(path);
+            expectedPaths.add(path);
+        }
+
+        Set<Path> paths = new HashSet<>();
+        try (DirectoryStream<Path> directoryStream = provider.newDirectoryStream(root,
+                file -> true)) {
+            for (Path path : directoryStream) {
+                assertTrue(path.toString(), paths.add(path));
+            }
+        }
+        assertEquals(expectedPaths, paths);
+    }
+
     /**
      * Tests exceptions for the newDirectoryStream(Path, DirectoryStream.Filter) method
      * - NoSuchFileException & NoDirectoryException.
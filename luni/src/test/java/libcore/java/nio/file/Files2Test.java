@@ -65,6 +65,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import static java.nio.file.FileVisitResult.CONTINUE;
@@ -899,6 +900,48 @@ public class Files2Test {
         assertEquals(expectedDirSet, dirSet);
     }
 
+    @Test
+    public void test_find_attributes() throws IOException {
+        Path rootDir = Paths.get(filesSetup.getTestDir(), "root");
+        Path dir = Paths.get(filesSetup.getTestDir(), "root/dir");
+        Path file = Paths.get(filesSetup.getTestDir(), "root/dir/file");
+        Path link = Paths.get(filesSetup.getTestDir(), "root/link");
+        Files.createDirectories(dir);
+        Files.write(file, new byte[] { 1, 2, 3 });
+        Files.createSymbolicLink(link, file);
+
+        // The attributes seen during the walk are a snapshot: they match those read before the
+        // walk, even once the files have been modified.
+        Map<Path, BasicFileAttributes> expectedAttributes = new HashMap<>();
+        for (Path path : new Path[] { rootDir, dir, file, link }) {
+            expectedAttributes.put(path, Files.readAttributes(path, BasicFileAttributes.class,
+                    LinkOption.NOFOLLOW_LINKS));
+        }
+        Map<Path, BasicFileAttributes> seen = new HashMap<>();
+        Files.find(rootDir, Integer.MAX_VALUE, (path, attrs) -> seen.put(path, attrs) == null)
+                .forEach(path -> {});
+        Files.write(file, new byte[] { 4, 5 }, APPEND);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(0));
+        Files.setLastModifiedTime(dir, FileTime.fromMillis(0));
+
+        assertEquals(expectedAttributes.keySet(), seen.keySet());
+        for (Map.Entry<Path, BasicFileAttributes> entry : seen.entrySet()) {
+            BasicFileAttributes expected = expectedAttributes.get(entry.getKey());
+            BasicFileAttributes actual = entry.getValue();
+            assertEquals(expected.isDirectory(), actual.isDirectory());
+            assertEquals(expected.isRegularFile(), actual.isRegularFile());
+            assertEquals(expected.isSymbolicLink(), actual.isSymbolicLink());
+            assertEquals(expected.isOther(), actual.isOther());
+            assertEquals(expected.size(), actual.size());
+            assertEquals(expected.lastModifiedTime(), actual.lastModifiedTime());
+            assertEquals(expected.fileKey(), actual.fileKey());
+        }
+        assertTrue(seen.get(dir).isDirectory());
+        assertTrue(seen.get(file).isRegularFile());
+        assertEquals(3, seen.get(file).size());
+        assertTrue(seen.get(link).isSymbolicLink());
+    }
+
     @Test
     public void test_find_NPE() throws IOException {
         Path rootDir = Paths.get(filesSetup.getTestDir(), "root");
@@ -1495,6 +1538,41 @@ public class Files2Test {
         assertEquals(expectedDirSet, dirSet);
     }
 
+    @Test
+    public void test_walk_symbolicLinks() throws IOException {
+        // Directory structure.
+        //        root
+        //        ├── dir
+        //        │   └── file
+        //        └── link
+        //
+        // link is a symbolic link to dir
+
+        Path rootDir = Paths.get(filesSetup.getTestDir(), "root");
+        Path dir = Paths.get(filesSetup.getTestDir(), "root/dir");
+        Path file = Paths.get(filesSetup.getTestDir(), "root/dir/file");
+        Path link = Paths.get(filesSetup.getTestDir(), "root/link");
+        Files.createDirectories(dir);
+        Files.createFile(file);
+        Files.createSymbolicLink(link, dir.toAbsolutePath());
+
+        // The walk goes into the directory, but not through the link.
+        Set<Path> expected = new HashSet<>(Arrays.asList(rootDir, dir, file, link));
+        try (Stream<Path> pathStream = Files.walk(rootDir)) {
+            assertEquals(expected, pathStream.collect(Collectors.toSet()));
+        }
+
+        expected.add(link.resolve("file"));
+        try (Stream<Path> pathStream = Files.walk(rootDir, FileVisitOption.FOLLOW_LINKS)) {
+            assertEquals(expected, pathStream.collect(Collectors.toSet()));
+        }
+
+        expected = new HashSet<>(Arrays.asList(rootDir, dir, link));
+        try (Stream<Path> pathStream = Files.walk(rootDir, 1)) {
+            assertEquals(expected, pathStream.collect(Collectors.toSet()));
+        }
+    }
+
     @Test
     public void test_walk_depthFirst() throws IOException {
         // Directory structure.
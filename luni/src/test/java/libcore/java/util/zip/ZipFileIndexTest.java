@@ -0,0 +1,99 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.java.util.zip;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.jar.JarOutputStream;
+import java.util.jar.Manifest;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Runs the {@link ZipFile} tests against the pure Java central directory index.
+ */
+public final class ZipFileIndexTest extends AbstractZipFileTest {
+    private static final String USE_JAVA_INDEX = "java.util.zip.ZipFile.useJavaIndex";
+
+    private String previousValue;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        previousValue = System.setProperty(USE_JAVA_INDEX, "true");
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (previousValue == null) {
+            System.clearProperty(USE_JAVA_INDEX);
+        } else {
+            System.setProperty(USE_JAVA_INDEX, previousValue);
+        }
+        super.tearDown();
+    }
+
+    @Override
+    protected ZipOutputStream createZipOutputStream(OutputStream wrapped) {
+        return new ZipOutputStream(wrapped);
+    }
+
+    public void testGetEntryWithTrailingSlash() throws Exception {
+        File f = createTemporaryZipFile();
+        try (ZipOutputStream out = createZipOutputStream(
+                new BufferedOutputStream(new FileOutputStream(f)))) {
+            out.putNextEntry(new ZipEntry("dir/"));
+            out.closeEntry();
+        }
+
+        try (ZipFile zipFile = new ZipFile(f)) {
+            ZipEntry entry = zipFile.getEntry("dir");
+            assertNotNull(entry);
+            assertEquals("dir/", entry.getName());
+            assertTrue(entry.isDirectory());
+            assertNull(zipFile.getEntry("missing"));
+        }
+    }
+
+    public void testJarManifest() throws Exception {
+        File f = createTemporaryZipFile();
+        Manifest manifest = new Manifest();
+        manifest.getMainAttributes().putValue("Manifest-Version", "1.0");
+        manifest.getMainAttributes().putValue("Created-By", "ZipFileIndexTest");
+        try (JarOutputStream out = new JarOutputStream(new FileOutputStream(f), manifest)) {
+            out.putNextEntry(new JarEntry("a.txt"));
+            out.write(new byte[] { 'a' });
+            out.closeEntry();
+        }
+
+        try (JarFile jarFile = new JarFile(f)) {
+            assertEquals("ZipFileIndexTest",
+                    jarFile.getManifest().getMainAttributes().getValue("Created-By"));
+            JarEntry entry = jarFile.getJarEntry("a.txt");
+            try (InputStream in = jarFile.getInputStream(entry)) {
+                assertEquals('a', in.read());
+                assertEquals(-1, in.read());
+            }
+        }
+    }
+}
@@ -41,4 +41,12 @@ public final class StringPoolTest extends TestCase {
       assertSame(bString, stringPool.get(b, 0, 2));
       assertNotSame(aString, stringPool.get(a, 0, 2));
     }
+
+    public void testCharSequence() {
+      StringPool stringPool = new StringPool();
+      String bcd = stringPool.get("abcde", 1, 3);
+      assertEquals("bcd", bcd);
+      assertSame(bcd, stringPool.get(new StringBuilder("xbcd"), 1, 3));
+      assertSame(bcd, stringPool.get(new char[] { 'b', 'c', 'd' }, 0, 3));
+    }
 }
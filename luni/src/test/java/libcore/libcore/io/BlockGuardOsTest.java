@@ -275,6 +275,7 @@ public class BlockGuardOsTest {
                 "kill(int,int)",
                 "listen(java.io.FileDescriptor,int)",
                 "listxattr(java.lang.String)",
+                "madvise(long,long,int)",
                 "memfd_create(java.lang.String,int)",
                 "mincore(long,long,byte[])",
                 "mlock(long,long)",
@@ -282,6 +283,7 @@ public class BlockGuardOsTest {
                 "munlock(long,long)",
                 "munmap(long,long)",
                 "pipe2(int)",
+                "posix_fadvise(java.io.FileDescriptor,long,long,int)",
                 "prctl(int,long,long,long,long)",
                 "setegid(int)",
                 "setenv(java.lang.String,java.lang.String,boolean)",
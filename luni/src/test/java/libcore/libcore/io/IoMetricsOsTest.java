@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.libcore.io;
+
+import android.system.ErrnoException;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+import org.mockito.Mockito;
+
+import java.io.File;
+import java.io.FileDescriptor;
+
+import static android.system.OsConstants.EACCES;
+import static android.system.OsConstants.ENOENT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+
+import libcore.io.IoMetricsOs;
+import libcore.io.IoMetricsOs.Syscall;
+import libcore.io.IoMetricsOs.SyscallStats;
+import libcore.io.Libcore;
+import libcore.io.Os;
+
+@RunWith(JUnit4.class)
+public class IoMetricsOsTest {
+    private final FileDescriptor fd = new FileDescriptor();
+
+    @Test
+    public void countsCallsAndBytes() throws Exception {
+        Os mockOs = Mockito.mock(Os.class);
+        Mockito.when(mockOs.read(any(FileDescriptor.class), any(byte[].class), anyInt(), anyInt()))
+                .thenReturn(3);
+        IoMetricsOs os = new IoMetricsOs(mockOs, 1);
+
+        byte[] bytes = new byte[8];
+        assertEquals(3, os.read(fd, bytes, 0, bytes.length));
+        assertEquals(3, os.read(fd, bytes, 0, bytes.length));
+        os.fsync(fd);
+
+        IoMetricsOs.Snapshot snapshot = os.snapshot();
+        SyscallStats read = snapshot.get(Syscall.READ);
+        assertEquals(2, read.getCallCount());
+        assertEquals(6, read.getByteCount());
+        assertEquals(0, read.getErrorCount());
+        assertEquals(2, read.getSampleCount());
+        assertEquals(1, snapshot.get(Syscall.FSYNC).getCallCount());
+        assertEquals(0, snapshot.get(Syscall.WRITE).getCallCount());
+        Mockito.verify(mockOs, Mockito.times(2)).read(fd, bytes, 0, bytes.length);
+        Mockito.verify(mockOs).fsync(fd);
+    }
+
+    @Test
+    public void countsBatchAndCopyBytes() throws Exception {
+        Os mockOs = Mockito.mock(Os.class);
+        Mockito.when(mockOs.recvmmsg(any(), any(), any(), any(), any(), any(), anyInt()))
+                .thenAnswer(invocation -> {
+                    int[] receivedCounts = invocation.getArgument(4);
+                    receivedCounts[0] = 3;
+                    receivedCounts[1] = 4;
+                    return 2;
+                });
+        Mockito.when(mockOs.sendmmsg(any(), any(), any(), any(), any(), anyInt())).thenReturn(2);
+        Mockito.when(mockOs.copy_file_range(any(), any(), any(), any(), anyLong(), anyInt()))
+                .thenReturn(100L);
+        IoMetricsOs os = new IoMetricsOs(mockOs, 1);
+
+        Object[] buffers = { new byte[8], new byte[8], new byte[8] };
+        int[] offsets = { 0, 0, 0 };
+        int[] byteCounts = { 5, 6, 7 };
+        // Only the datagrams that were received or sent are counted.
+        int[] receivedCounts = { 0, 0, 9 };
+        assertEquals(2, os.recvmmsg(fd, buffers, offsets, byteCounts, receivedCounts, null, 0));
+        assertEquals(2, os.sendmmsg(fd, buffers, offsets, byteCounts, null, 0));
+        assertEquals(100, os.copy_file_range(fd, null, fd, null, 1000, 0));
+
+        IoMetricsOs.Snapshot snapshot = os.snapshot();
+        assertEquals(1, snapshot.get(Syscall.RECVMMSG).getCallCount());
+        assertEquals(7, snapshot.get(Syscall.RECVMMSG).getByteCount());
+        assertEquals(1, snapshot.get(Syscall.SENDMMSG).getCallCount());
+        assertEquals(11, snapshot.get(Syscall.SENDMMSG).getByteCount());
+        assertEquals(1, snapshot.get(Syscall.COPY_FILE_RANGE).getCallCount());
+        assertEquals(100, snapshot.get(Syscall.COPY_FILE_RANGE).getByteCount());
+    }
+
+    @Test
+    public void countsErrorsByErrno() throws Exception {
+        Os mockOs = Mockito.mock(Os.class);
+        ErrnoException enoent = new ErrnoException("open", ENOENT);
+        Mockito.when(mockOs.open(anyString(), anyInt(), anyInt())).thenThrow(enoent);
+        Mockito.when(mockOs.stat(anyString())).thenThrow(new ErrnoException("stat", EACCES));
+        IoMetricsOs os = new IoMetricsOs(mockOs, 1);
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                os.open("/missing", 0, 0);
+                fail();
+            } catch (ErrnoException expected) {
+                assertSame(enoent, expected);
+            }
+        }
+        try {
+            os.stat("/forbidden");
+            fail();
+        } catch (ErrnoException expected) {
+        }
+
+        IoMetricsOs.Snapshot snapshot = os.snapshot();
+        SyscallStats open = snapshot.get(Syscall.OPEN);
+        assertEquals(2, open.getCallCount());
+        assertEquals(2, open.getErrorCount());
+        assertEquals(2, open.getErrorCount(ENOENT));
+        assertEquals(0, open.getErrorCount(EACCES));
+        assertEquals(1, snapshot.get(Syscall.STAT).getErrorCount(EACCES));
+    }
+
+    @Test
+    public void samplesLatency() throws Exception {
+        Os mockOs = Mockito.mock(Os.class);
+        IoMetricsOs os = new IoMetricsOs(mockOs, 4);
+        for (int i = 0; i < 8; i++) {
+            os.close(fd);
+        }
+        SyscallStats close = os.snapshot().get(Syscall.CLOSE);
+        assertEquals(8, close.getCallCount());
+        assertEquals(2, close.getSampleCount());
+    }
+
+    @Test
+    public void latencyPercentiles() throws Exception {
+        Os mockOs = Mockito.mock(Os.class);
+        Mockito.doAnswer(invocation -> {
+            Thread.sleep(1);
+            return null;
+        }).when(mockOs).fdatasync(any(FileDescriptor.class));
+        IoMetricsOs os = new IoMetricsOs(mockOs, 1);
+        for (int i = 0; i < 4; i++) {
+            os.fdatasync(fd);
+        }
+
+        SyscallStats stats = os.snapshot().get(Syscall.FDATASYNC);
+        long p50 = stats.getLatencyPercentileNanos(50);
+        assertTrue("p50=" + p50, p50 >= 1000000);
+        assertTrue(stats.getLatencyPercentileNanos(100) >= p50);
+        assertTrue(stats.getLatencyPercentileNanos(100) >= stats.getMeanLatencyNanos());
+        assertTrue(stats.getMeanLatencyNanos() >= 1000000);
+        assertEquals(0, os.snapshot().get(Syscall.FSYNC).getLatencyPercentileNanos(50));
+        try {
+            stats.getLatencyPercentileNanos(101);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    @Test
+    public void includesOtherThreads() throws Exception {
+        Os mockOs = Mockito.mock(Os.class);
+        Mockito.when(mockOs.write(any(FileDescriptor.class), any(byte[].class), anyInt(), anyInt()))
+                .thenReturn(5);
+        IoMetricsOs os = new IoMetricsOs(mockOs, 1);
+
+        Thread[] threads = new Thread[4];
+        for (int i = 0; i < threads.length; i++) {
+            threads[i] = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 100; j++) {
+                        os.write(fd, new byte[5], 0, 5);
+                    }
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            });
+            threads[i].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        // The second snapshot sees the threads' counters after they have been retired.
+        for (int i = 0; i < 2; i++) {
+            SyscallStats write = os.snapshot().get(Syscall.WRITE);
+            assertEquals(400, write.getCallCount());
+            assertEquals(2000, write.getByteCount());
+        }
+    }
+
+    @Test
+    public void installAndUninstall() throws Exception {
+        Os defaultOs = Os.getDefault();
+        IoMetricsOs os = IoMetricsOs.install(1);
+        try {
+            assertSame(os, Os.getDefault());
+            File file = File.createTempFile("IoMetricsOsTest", null);
+            try {
+                Libcore.os.stat(file.getPath());
+            } finally {
+                file.delete();
+            }
+        } finally {
+            assertTrue(os.uninstall());
+        }
+        assertSame(defaultOs, Os.getDefault());
+        assertTrue(os.snapshot().get(Syscall.STAT).getCallCount() >= 1);
+        // No longer the default, so there is nothing to uninstall.
+        assertNotSame(os, Os.getDefault());
+        assertFalse(os.uninstall());
+    }
+
+    @Test
+    public void constructor_invalidSamplingInterval() {
+        try {
+            new IoMetricsOs(Mockito.mock(Os.class), 0);
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.libcore.io;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.io.RandomAccessFile;
+import java.nio.ReadOnlyBufferException;
+import java.util.Arrays;
+import libcore.io.IoUtils;
+import libcore.io.Libcore;
+import libcore.io.MemoryArena;
+import libcore.io.MemorySegment;
+
+import static android.system.OsConstants.O_RDONLY;
+import static android.system.OsConstants.O_RDWR;
+
+public class MemoryArenaTest extends TestCase {
+
+    public void testAllocate() {
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment segment = arena.allocate(100);
+            assertEquals(100, segment.byteSize());
+            assertEquals(0, segment.address() % Long.BYTES);
+            // New memory is zero-filled.
+            for (int i = 0; i < 100; i++) {
+                assertEquals(0, segment.getByte(i));
+            }
+
+            MemorySegment aligned = arena.allocate(3, 64);
+            assertEquals(0, aligned.address() % 64);
+
+            MemorySegment empty = arena.allocate(0);
+            assertEquals(0, empty.byteSize());
+
+            // Large allocations, which get mappings of their own.
+            MemorySegment large = arena.allocate(1024 * 1024 + 1);
+            large.putByte(1024 * 1024, (byte) 42);
+            assertEquals(42, large.getByte(1024 * 1024));
+
+            try {
+                arena.allocate(-1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+            try {
+                arena.allocate(8, 3);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        }
+    }
+
+    public void testAllocate_segmentsAreDisjoint() {
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment[] segments = new MemorySegment[10000];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = arena.allocate(Integer.BYTES);
+                segments[i].putInt(0, i);
+            }
+            for (int i = 0; i < segments.length; i++) {
+                assertEquals(i, segments[i].getInt(0));
+            }
+        }
+    }
+
+    public void testScalarAccess() {
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment segment = arena.allocate(32);
+            segment.putShort(1, (short) 0x1234);
+            assertEquals((short) 0x1234, segment.getShort(1));
+            segment.putInt(3, 0x12345678);
+            assertEquals(0x12345678, segment.getInt(3));
+            segment.putLong(8, 0x123456789abcdef0L);
+            assertEquals(0x123456789abcdef0L, segment.getLong(8));
+            segment.putFloat(16, 1.5f);
+            assertEquals(1.5f, segment.getFloat(16));
+            segment.putDouble(24, -2.25);
+            assertEquals(-2.25, segment.getDouble(24));
+        }
+    }
+
+    public void testBounds() {
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment segment = arena.allocate(16);
+            segment.putLong(8, 1);
+            try {
+                segment.putLong(9, 1);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                segment.getByte(-1);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                segment.getByte(Long.MAX_VALUE);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                segment.asSlice(8, 9);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                segment.get(0, new int[4], 1, 4);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                segment.get(0, new int[5], 0, 5);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+    }
+
+    public void testSlice() {
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment segment = arena.allocate(16);
+            MemorySegment slice = segment.asSlice(4, 8);
+            assertEquals(8, slice.byteSize());
+            assertEquals(segment.address() + 4, slice.address());
+            slice.putInt(4, 7);
+            assertEquals(7, segment.getInt(8));
+            try {
+                slice.getInt(5);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+    }
+
+    public void testBulkAccess() {
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment segment = arena.allocate(64);
+            segment.put(4, new int[] { 1, 2, 3, 4 }, 1, 3);
+            int[] ints = new int[4];
+            segment.get(4, ints, 0, 4);
+            assertEquals("[2, 3, 4, 0]", Arrays.toString(ints));
+
+            segment.put(16, new long[] { -1L, 5L }, 0, 2);
+            long[] longs = new long[2];
+            segment.get(16, longs, 0, 2);
+            assertEquals("[-1, 5]", Arrays.toString(longs));
+
+            segment.put(32, new double[] { 0.5 }, 0, 1);
+            assertEquals(0.5, segment.getDouble(32));
+
+            byte[] bytes = new byte[3];
+            segment.put(40, new byte[] { 9, 8, 7 }, 0, 3);
+            segment.get(40, bytes, 0, 3);
+            assertEquals("[9, 8, 7]", Arrays.toString(bytes));
+        }
+    }
+
+    public void testCopyAndFill() {
+        try (MemoryArena arena = new MemoryArena(); MemoryArena other = new MemoryArena()) {
+            MemorySegment src = arena.allocate(16);
+            src.fill((byte) 1);
+            assertEquals(0x0101010101010101L, src.getLong(8));
+
+            MemorySegment dst = other.allocate(16);
+            MemorySegment.copy(src, 4, dst, 0, 8);
+            assertEquals(0x0101010101010101L, dst.getLong(0));
+            assertEquals(0, dst.getLong(8));
+
+            // Overlapping copies behave like memmove.
+            src.putInt(0, 0x12345678);
+            MemorySegment.copy(src, 0, src, 2, 8);
+            assertEquals(0x12345678, src.getInt(2));
+
+            try {
+                MemorySegment.copy(src, 10, dst, 0, 8);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+    }
+
+    public void testClose() {
+        MemoryArena arena = new MemoryArena();
+        MemorySegment segment = arena.allocate(8);
+        MemorySegment slice = segment.asSlice(0, 4);
+        assertFalse(arena.isClosed());
+        arena.close();
+        assertTrue(arena.isClosed());
+
+        try {
+            segment.getLong(0);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            slice.putInt(0, 1);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        try {
+            arena.allocate(8);
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+        // Should not have any effect.
+        arena.close();
+    }
+
+    public void testMap() throws Exception {
+        File file = File.createTempFile("MemoryArenaTest", null);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(3 * 4096);
+            raf.seek(5000);
+            raf.writeInt(0x01020304);
+        }
+        FileDescriptor fd = Libcore.os.open(file.getPath(), O_RDWR, 0);
+        try (MemoryArena arena = new MemoryArena()) {
+            // The offset does not have to be page-aligned.
+            MemorySegment segment = arena.map(fd, 4999, 100, true);
+            assertEquals(100, segment.byteSize());
+            assertEquals(1, segment.getByte(1));
+            assertEquals(4, segment.getByte(4));
+            segment.putByte(0, (byte) 42);
+        } finally {
+            IoUtils.closeQuietly(fd);
+        }
+
+        fd = Libcore.os.open(file.getPath(), O_RDONLY, 0);
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment segment = arena.map(fd, 0, 3 * 4096, false);
+            assertEquals(42, segment.getByte(4999));
+            assertTrue(segment.isReadOnly());
+            assertReadOnly(segment);
+            assertReadOnly(segment.asSlice(4096, 100));
+            assertEquals(42, segment.getByte(4999));
+        } finally {
+            IoUtils.closeQuietly(fd);
+            file.delete();
+        }
+    }
+
+    private static void assertReadOnly(MemorySegment segment) {
+        try {
+            segment.putByte(0, (byte) 1);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+        try {
+            segment.putLong(0, 1L);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+        try {
+            segment.putDouble(0, 1.0);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+        try {
+            segment.put(0, new int[] { 1 }, 0, 1);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+        try {
+            segment.fill((byte) 1);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+        try (MemoryArena arena = new MemoryArena()) {
+            MemorySegment src = arena.allocate(8);
+            assertFalse(src.isReadOnly());
+            MemorySegment.copy(src, 0, segment, 0, 8);
+            fail();
+        } catch (ReadOnlyBufferException expected) {
+        }
+    }
+}
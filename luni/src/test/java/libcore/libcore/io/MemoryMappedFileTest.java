@@ -21,8 +21,11 @@ import junit.framework.TestCase;
 import android.system.ErrnoException;
 import android.system.OsConstants;
 
+import dalvik.system.VMRuntime;
+
 import java.io.File;
 import java.io.FileOutputStream;
+import java.io.RandomAccessFile;
 import java.nio.ByteBuffer;
 import java.nio.ByteOrder;
 import java.nio.IntBuffer;
@@ -30,6 +33,7 @@ import java.util.Arrays;
 import java.util.function.Function;
 import libcore.io.BufferIterator;
 import libcore.io.MemoryMappedFile;
+import libcore.io.MemoryMappedFileView;
 import libcore.testing.io.TestIoUtils;
 
 public class MemoryMappedFileTest extends TestCase {
@@ -96,6 +100,178 @@ public class MemoryMappedFileTest extends TestCase {
         memoryMappedFile.close();
     }
 
+    public void testAdvise() throws Exception {
+        byte[] bytes = createBytes(10);
+        File file = createFile(bytes);
+        try (MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            memoryMappedFile.advise(OsConstants.MADV_WILLNEED);
+            // Regions that do not start on a page boundary are accepted.
+            memoryMappedFile.advise(3, 5, OsConstants.MADV_RANDOM);
+            // Advice does not change what is read.
+            BufferIterator iterator = memoryMappedFile.bigEndianIterator();
+            iterator.seek(3);
+            assertEquals(3, iterator.readByte());
+
+            try {
+                memoryMappedFile.advise(8, 5, OsConstants.MADV_RANDOM);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testView_bigEndian() throws Exception {
+        byte[] bytes = createBytes(24);
+        File file = createFile(bytes);
+        try (MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            MemoryMappedFileView view = memoryMappedFile.bigEndianView();
+            assertEquals(24, view.size());
+            assertEquals(5, view.getByte(5));
+            assertEquals((short) 0x0102, view.getShort(1));
+            assertEquals(0x03040506, view.getInt(3));
+            assertEquals(0x1011121314151617L, view.getLong(16));
+            assertEquals(Float.intBitsToFloat(0x04050607), view.getFloat(4));
+            assertEquals(Double.longBitsToDouble(0x08090a0b0c0d0e0fL), view.getDouble(8));
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testView_littleEndian() throws Exception {
+        byte[] bytes = createBytes(24);
+        File file = createFile(bytes);
+        try (MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            MemoryMappedFileView view = memoryMappedFile.littleEndianView();
+            assertEquals((short) 0x0201, view.getShort(1));
+            assertEquals(0x06050403, view.getInt(3));
+            assertEquals(0x1716151413121110L, view.getLong(16));
+
+            int[] ints = new int[3];
+            view.getIntArray(4, ints, 1, 2);
+            assertArrayEquals(new int[] { 0, 0x07060504, 0x0b0a0908 }, ints);
+            long[] longs = new long[1];
+            view.getLongArray(8, longs, 0, 1);
+            assertEquals(0x0f0e0d0c0b0a0908L, longs[0]);
+            byte[] dst = new byte[4];
+            view.getByteArray(20, dst, 0, 4);
+            assertArrayEquals(new byte[] { 20, 21, 22, 23 }, dst);
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testView_bounds() throws Exception {
+        byte[] bytes = createBytes(10);
+        File file = createFile(bytes);
+        try (MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            MemoryMappedFileView view = memoryMappedFile.bigEndianView();
+            assertEquals(0x06070809, view.getInt(6));
+            try {
+                view.getInt(7);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                view.getByte(-1);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                view.getByteArray(Long.MAX_VALUE, new byte[1], 0, 1);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                view.getIntArray(0, new int[2], 0, 3);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+        }
+
+        MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath());
+        MemoryMappedFileView view = memoryMappedFile.bigEndianView();
+        memoryMappedFile.close();
+        try {
+            view.getByte(0);
+            fail();
+        } catch (IllegalStateException expected) {
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testView_records() throws Exception {
+        // Ten records of 12 bytes: -1, then an int key of 3 * i at offset 4, then an int value i.
+        ByteBuffer buffer = ByteBuffer.allocate(120);
+        for (int i = 0; i < 10; i++) {
+            buffer.putInt(-1).putInt(3 * i).putInt(i);
+        }
+        File file = createFile(buffer.array());
+        try (MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            MemoryMappedFileView view = memoryMappedFile.bigEndianView();
+            assertEquals(4, view.binarySearchInt(0, 12, 10, 4, 12));
+            assertEquals(0, view.binarySearchInt(0, 12, 10, 4, 0));
+            assertEquals(9, view.binarySearchInt(0, 12, 10, 4, 27));
+            assertEquals(-5, view.binarySearchInt(0, 12, 10, 4, 10));
+            assertEquals(-1, view.binarySearchInt(0, 12, 10, 4, -5));
+            assertEquals(-11, view.binarySearchInt(0, 12, 10, 4, 28));
+            assertEquals(-1, view.binarySearchInt(0, 12, 0, 4, 28));
+            // Keyed by the long made of the int key and the int value.
+            assertEquals(4, view.binarySearchLong(0, 12, 10, 4, (12L << 32) | 4));
+
+            int[] keys = new int[3];
+            view.getIntColumn(24, 12, 4, keys, 0, 3);
+            assertArrayEquals(new int[] { 6, 9, 12 }, keys);
+
+            try {
+                view.binarySearchInt(0, 12, 11, 4, 0);
+                fail();
+            } catch (IndexOutOfBoundsException expected) {
+            }
+            try {
+                view.getIntColumn(0, 12, 10, keys, 0, 1);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    public void testMmapRo_largerThan2GiB() throws Exception {
+        if (!VMRuntime.getRuntime().is64Bit()) {
+            return;
+        }
+        File file = File.createTempFile("bytes", null, tempDir);
+        long size = 3L * 1024 * 1024 * 1024;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            // The file is sparse, so this does not take up any space.
+            raf.setLength(size);
+            raf.seek(size - 4);
+            raf.writeInt(0x12345678);
+        }
+        try (MemoryMappedFile memoryMappedFile = MemoryMappedFile.mmapRO(file.getPath())) {
+            assertEquals(size, memoryMappedFile.longSize());
+            try {
+                memoryMappedFile.size();
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+            try {
+                memoryMappedFile.bigEndianIterator();
+                fail();
+            } catch (IllegalStateException expected) {
+            }
+            MemoryMappedFileView view = memoryMappedFile.bigEndianView();
+            assertEquals(0x12345678, view.getInt(size - 4));
+            assertEquals(0, view.getLong(size / 2));
+        } finally {
+            file.delete();
+        }
+    }
+
     public void testReadAfterCloseFails() throws Exception {
         byte[] bytes = createBytes(10);
         File file = createFile(bytes);
@@ -16,9 +16,35 @@
 
 package libcore.libcore.io;
 
+import static android.system.OsConstants.AF_INET6;
+import static android.system.OsConstants.EINVAL;
+import static android.system.OsConstants.MADV_SEQUENTIAL;
+import static android.system.OsConstants.MADV_WILLNEED;
+import static android.system.OsConstants.MAP_SHARED;
+import static android.system.OsConstants.MSG_DONTWAIT;
+import static android.system.OsConstants.O_CREAT;
+import static android.system.OsConstants.O_RDWR;
+import static android.system.OsConstants.POSIX_FADV_DONTNEED;
+import static android.system.OsConstants.POSIX_FADV_SEQUENTIAL;
+import static android.system.OsConstants.PROT_READ;
+import static android.system.OsConstants.SEEK_CUR;
+import static android.system.OsConstants.SOCK_DGRAM;
+import static android.system.OsConstants._SC_PAGESIZE;
+
+import android.system.ErrnoException;
+
+import java.io.File;
+import java.io.FileDescriptor;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
 import junit.framework.TestCase;
 
 import libcore.io.ForwardingOs;
+import libcore.io.IoUtils;
+import libcore.io.Libcore;
 import libcore.io.Os;
 
 import org.mockito.Mockito;
@@ -66,4 +92,140 @@ public class OsTest extends TestCase {
         assertFalse(Os.compareAndSetDefault(otherOs, otherOs));
         assertSame(defaultOs, Os.getDefault());
     }
+
+    public void testPreadvPwritev() throws Exception {
+        File file = File.createTempFile("OsTest", null);
+        FileDescriptor fd = Libcore.os.open(file.getPath(), O_RDWR | O_CREAT, 0600);
+        try {
+            ByteBuffer direct = ByteBuffer.allocateDirect(2);
+            direct.put((byte) 'c').put((byte) 'd').flip();
+            Object[] buffers = { "xabx".getBytes("US-ASCII"), direct };
+            assertEquals(4, Libcore.os.pwritev(fd, buffers, new int[] { 1, 0 },
+                    new int[] { 2, 2 }, 3));
+            // The file offset is neither used nor changed.
+            assertEquals(0, Libcore.os.lseek(fd, 0, SEEK_CUR));
+            assertEquals(7, Libcore.os.fstat(fd).st_size);
+
+            byte[] head = new byte[3];
+            ByteBuffer tail = ByteBuffer.allocateDirect(2);
+            assertEquals(4, Libcore.os.preadv(fd, new Object[] { head, tail },
+                    new int[] { 1, 0 }, new int[] { 2, 2 }, 3));
+            assertEquals(0, Libcore.os.lseek(fd, 0, SEEK_CUR));
+            assertEquals('a', head[1]);
+            assertEquals('b', head[2]);
+            assertEquals('c', tail.get(0));
+            assertEquals('d', tail.get(1));
+
+            // At the end of the file.
+            assertEquals(0, Libcore.os.preadv(fd, new Object[] { head }, new int[] { 0 },
+                    new int[] { 3 }, 7));
+        } finally {
+            IoUtils.closeQuietly(fd);
+            file.delete();
+        }
+    }
+
+    public void testAccessHints() throws Exception {
+        File file = File.createTempFile("OsTest", null);
+        FileDescriptor fd = Libcore.os.open(file.getPath(), O_RDWR | O_CREAT, 0600);
+        try {
+            long pageSize = Libcore.os.sysconf(_SC_PAGESIZE);
+            byte[] bytes = new byte[(int) pageSize * 4];
+            Arrays.fill(bytes, (byte) 'x');
+            assertEquals(bytes.length, Libcore.os.write(fd, bytes, 0, bytes.length));
+
+            Libcore.os.posix_fadvise(fd, 0, 0, POSIX_FADV_SEQUENTIAL);
+            Libcore.os.readahead(fd, 0, bytes.length);
+            Libcore.os.posix_fadvise(fd, pageSize, pageSize, POSIX_FADV_DONTNEED);
+
+            long address = Libcore.os.mmap(0, bytes.length, PROT_READ, MAP_SHARED, fd, 0);
+            try {
+                Libcore.os.madvise(address, bytes.length, MADV_SEQUENTIAL);
+                Libcore.os.madvise(address + pageSize, pageSize, MADV_WILLNEED);
+
+                // The address has to be page-aligned.
+                try {
+                    Libcore.os.madvise(address + 1, pageSize, MADV_WILLNEED);
+                    fail();
+                } catch (ErrnoException expected) {
+                    assertEquals(EINVAL, expected.errno);
+                }
+            } finally {
+                Libcore.os.munmap(address, bytes.length);
+            }
+        } finally {
+            IoUtils.closeQuietly(fd);
+            file.delete();
+        }
+    }
+
+    public void testSendmmsgRecvmmsg() throws Exception {
+        FileDescriptor receiver = Libcore.os.socket(AF_INET6, SOCK_DGRAM, 0);
+        FileDescriptor sender = Libcore.os.socket(AF_INET6, SOCK_DGRAM, 0);
+        try {
+            Libcore.os.bind(receiver, InetAddress.getLoopbackAddress(), 0);
+            InetSocketAddress target = (InetSocketAddress) Libcore.os.getsockname(receiver);
+
+            ByteBuffer direct = ByteBuffer.allocateDirect(3);
+            direct.put("two".getBytes("US-ASCII")).flip();
+            Object[] srcs = { "xonex".getBytes("US-ASCII"), direct };
+            assertEquals(2, Libcore.os.sendmmsg(sender, srcs, new int[] { 1, 0 },
+                    new int[] { 3, 3 }, new InetSocketAddress[] { target, target }, 0));
+
+            byte[] first = new byte[8];
+            ByteBuffer second = ByteBuffer.allocateDirect(8);
+            int[] receivedCounts = new int[2];
+            InetSocketAddress[] srcAddresses = { new InetSocketAddress(0), null };
+            // Both datagrams are already queued on the loopback interface.
+            assertEquals(2, Libcore.os.recvmmsg(receiver, new Object[] { first, second },
+                    new int[] { 0, 0 }, new int[] { 8, 8 }, receivedCounts, srcAddresses, 0));
+            assertEquals(3, receivedCounts[0]);
+            assertEquals(3, receivedCounts[1]);
+            assertEquals("one", new String(first, 0, 3, "US-ASCII"));
+            assertEquals('t', second.get(0));
+            assertEquals('o', second.get(2));
+            InetSocketAddress senderAddress = (InetSocketAddress) Libcore.os.getsockname(sender);
+            assertTrue(srcAddresses[0].getAddress().isLoopbackAddress());
+            assertEquals(senderAddress.getPort(), srcAddresses[0].getPort());
+            assertNull(srcAddresses[1]);
+        } finally {
+            IoUtils.closeQuietly(receiver);
+            IoUtils.closeQuietly(sender);
+        }
+    }
+
+    public void testRecvmmsg_shortArrays() throws Exception {
+        FileDescriptor receiver = Libcore.os.socket(AF_INET6, SOCK_DGRAM, 0);
+        FileDescriptor sender = Libcore.os.socket(AF_INET6, SOCK_DGRAM, 0);
+        try {
+            Libcore.os.bind(receiver, InetAddress.getLoopbackAddress(), 0);
+            InetSocketAddress target = (InetSocketAddress) Libcore.os.getsockname(receiver);
+            byte[] bytes = "one".getBytes("US-ASCII");
+            assertEquals(3, Libcore.os.sendto(sender, bytes, 0, 3, 0, target.getAddress(),
+                    target.getPort()));
+
+            Object[] buffers = { new byte[8], new byte[8] };
+            try {
+                Libcore.os.recvmmsg(receiver, buffers, new int[] { 0, 0 }, new int[] { 8, 8 },
+                        new int[1], null, 0);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+            try {
+                Libcore.os.recvmmsg(receiver, buffers, new int[] { 0, 0 }, new int[] { 8, 8 },
+                        new int[2], new InetSocketAddress[1], 0);
+                fail();
+            } catch (IllegalArgumentException expected) {
+            }
+
+            // The datagram is still there.
+            int[] receivedCounts = new int[2];
+            assertEquals(1, Libcore.os.recvmmsg(receiver, buffers, new int[] { 0, 0 },
+                    new int[] { 8, 8 }, receivedCounts, null, MSG_DONTWAIT));
+            assertEquals(3, receivedCounts[0]);
+        } finally {
+            IoUtils.closeQuietly(receiver);
+            IoUtils.closeQuietly(sender);
+        }
+    }
 }
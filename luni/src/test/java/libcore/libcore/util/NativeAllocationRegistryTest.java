@@ -16,6 +16,7 @@
 
 package libcore.libcore.util;
 
+import java.lang.ref.Reference;
 import junit.framework.TestCase;
 
 import libcore.util.NativeAllocationRegistry;
@@ -31,10 +32,17 @@ public class NativeAllocationRegistryTest extends TestCase {
     private static class TestConfig {
         public boolean treatAsMalloced;
         public boolean shareRegistry;
+        public boolean batched;
 
         public TestConfig(boolean treatAsMalloced, boolean shareRegistry) {
             this.shareRegistry = shareRegistry;
         }
+
+        public TestConfig(boolean treatAsMalloced, boolean shareRegistry, boolean batched) {
+            this.treatAsMalloced = treatAsMalloced;
+            this.shareRegistry = shareRegistry;
+            this.batched = batched;
+        }
     }
 
     private static class Allocation {
@@ -76,7 +84,10 @@ public class NativeAllocationRegistryTest extends TestCase {
         // references to should easily fit.
         for (int i = 0; i < numAllocationsToSimulate; i++) {
             if (!config.shareRegistry || registry == null) {
-                if (config.treatAsMalloced) {
+                if (config.batched) {
+                    registry = NativeAllocationRegistry.createBatched(
+                            classLoader, getNativeFinalizer(), nativeSize, config.treatAsMalloced);
+                } else if (config.treatAsMalloced) {
                     registry = NativeAllocationRegistry.createMalloced(
                             classLoader, getNativeFinalizer(), nativeSize);
                 } else {
@@ -144,6 +155,18 @@ public class NativeAllocationRegistryTest extends TestCase {
         testNativeAllocation(new TestConfig(true, true));
     }
 
+    public void testNativeAllocationBatchedNoSharedRegistry() {
+        testNativeAllocation(new TestConfig(false, false, true));
+    }
+
+    public void testNativeAllocationBatchedSharedRegistry() {
+        testNativeAllocation(new TestConfig(false, true, true));
+    }
+
+    public void testNativeAllocationBatchedMallocSharedRegistry() {
+        testNativeAllocation(new TestConfig(true, true, true));
+    }
+
     public void testBadSize() {
         assertThrowsIllegalArgumentException(new Runnable() {
             public void run() {
@@ -181,6 +204,60 @@ public class NativeAllocationRegistryTest extends TestCase {
         Runtime.getRuntime().gc();
     }
 
+    public void testEarlyFreeBatched() {
+        if (isNativeBridgedABI()) {
+            // See the explanation in testNativeAllocation.
+            System.logI("Skipping test for native bridged ABI");
+            return;
+        }
+        long size = 1234;
+        NativeAllocationRegistry registry = NativeAllocationRegistry.createBatched(
+                classLoader, getNativeFinalizer(), size, false);
+        long nativePtr = doNativeAllocation(size);
+        Object referent = new Object();
+        Runnable cleaner = registry.registerNativeAllocation(referent, nativePtr);
+        long numBytesAllocatedBeforeClean = getNumNativeBytesAllocated();
+
+        // Explicitly freeing an allocation is not deferred.
+        cleaner.run();
+        long numBytesAllocatedAfterClean = getNumNativeBytesAllocated();
+        assertEquals(numBytesAllocatedBeforeClean - size, numBytesAllocatedAfterClean);
+
+        cleaner.run();
+        assertEquals(numBytesAllocatedAfterClean, getNumNativeBytesAllocated());
+        Reference.reachabilityFence(referent);
+    }
+
+    public void testBatchedFreeOnRunFinalization() {
+        if (isNativeBridgedABI()) {
+            // See the explanation in testNativeAllocation.
+            System.logI("Skipping test for native bridged ABI");
+            return;
+        }
+        Runtime.getRuntime().gc();
+        System.runFinalization();
+        long numBytesAllocatedBefore = getNumNativeBytesAllocated();
+
+        // Fewer allocations than fill a batch, so they are only freed by flushing.
+        long size = 100;
+        NativeAllocationRegistry registry = NativeAllocationRegistry.createBatched(
+                classLoader, getNativeFinalizer(), size, true);
+        registerUnreachableAllocations(registry, 10, size);
+        assertEquals(numBytesAllocatedBefore + 10 * size, getNumNativeBytesAllocated());
+
+        Runtime.getRuntime().gc();
+        System.runFinalization();
+        assertEquals(numBytesAllocatedBefore, getNumNativeBytesAllocated());
+    }
+
+    // Kept out of line, so that the referents are not kept alive by the caller's frame.
+    private static void registerUnreachableAllocations(NativeAllocationRegistry registry,
+            int count, long size) {
+        for (int i = 0; i < count; i++) {
+            registry.registerNativeAllocation(new Object(), doNativeAllocation(size));
+        }
+    }
+
     public void testApplyFreeFunction() {
         if (isNativeBridgedABI()) {
             // See the explanation in testNativeAllocation.
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.sun.nio.ch;
+
+import junit.framework.TestCase;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import sun.nio.ch.DirectBufferPool;
+
+public class DirectBufferPoolTest extends TestCase {
+
+    public void testSizeClasses() {
+        int count = DirectBufferPool.getSizeClassCount();
+        assertTrue(count > 0);
+        assertEquals(4096, DirectBufferPool.getBufferSize(0));
+        for (int i = 1; i < count; i++) {
+            assertEquals(2 * DirectBufferPool.getBufferSize(i - 1),
+                    DirectBufferPool.getBufferSize(i));
+        }
+    }
+
+    public void testGet() {
+        ByteBuffer buf = DirectBufferPool.get(100);
+        try {
+            assertTrue(buf.isDirect());
+            assertEquals(0, buf.position());
+            assertEquals(100, buf.limit());
+            assertEquals(4096, buf.capacity());
+        } finally {
+            DirectBufferPool.release(buf);
+        }
+
+        buf = DirectBufferPool.get(4097);
+        try {
+            assertEquals(4097, buf.limit());
+            assertEquals(8192, buf.capacity());
+        } finally {
+            DirectBufferPool.release(buf);
+        }
+    }
+
+    public void testGet_reusesReleasedBuffer() {
+        // The pool is shared with the rest of the process, so another thread may take the
+        // released buffer first: only check that whatever buffer comes back is clean.
+        ByteBuffer buf = DirectBufferPool.get(5000);
+        buf.put((byte) 1);
+        DirectBufferPool.release(buf);
+
+        long requests = DirectBufferPool.getHitCount(1) + DirectBufferPool.getMissCount(1);
+        ByteBuffer again = DirectBufferPool.get(6000);
+        try {
+            assertTrue(again.isDirect());
+            assertEquals(8192, again.capacity());
+            assertEquals(0, again.position());
+            assertEquals(6000, again.limit());
+            assertTrue(DirectBufferPool.getHitCount(1) + DirectBufferPool.getMissCount(1)
+                    > requests);
+        } finally {
+            DirectBufferPool.release(again);
+        }
+    }
+
+    public void testGet_largeBuffersAreNotPooled() {
+        int last = DirectBufferPool.getSizeClassCount() - 1;
+        int size = DirectBufferPool.getBufferSize(last) + 1;
+        ByteBuffer buf = DirectBufferPool.get(size);
+        assertEquals(size, buf.capacity());
+        DirectBufferPool.release(buf);
+    }
+
+    public void testTrim() {
+        DirectBufferPool.release(DirectBufferPool.get(100));
+        DirectBufferPool.trim();
+        for (int i = 0; i < DirectBufferPool.getSizeClassCount(); i++) {
+            assertEquals(0, DirectBufferPool.getBytesHeld(i));
+        }
+    }
+
+    public void testHeapBufferIoUsesPool() throws Exception {
+        File file = File.createTempFile("DirectBufferPoolTest", null);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            FileChannel fc = raf.getChannel();
+            long before = DirectBufferPool.getHitCount(0) + DirectBufferPool.getMissCount(0);
+            assertEquals(5, fc.write(ByteBuffer.wrap("hello".getBytes("US-ASCII")), 0));
+            ByteBuffer dst = ByteBuffer.allocate(5);
+            assertEquals(5, fc.read(dst, 0));
+            assertEquals("hello", new String(dst.array(), "US-ASCII"));
+            long after = DirectBufferPool.getHitCount(0) + DirectBufferPool.getMissCount(0);
+            assertTrue(after >= before + 2);
+        } finally {
+            file.delete();
+        }
+    }
+}
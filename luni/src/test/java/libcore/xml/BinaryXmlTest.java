@@ -0,0 +1,367 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package libcore.xml;
+
+import com.android.org.kxml2.io.BinaryXmlParser;
+import com.android.org.kxml2.io.BinaryXmlSerializer;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import junit.framework.TestCase;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+public final class BinaryXmlTest extends TestCase {
+    private static final String NAMESPACE = null;
+
+    private ByteArrayOutputStream bytesOut;
+    private BinaryXmlSerializer serializer;
+
+    @Override protected void setUp() throws Exception {
+        super.setUp();
+        bytesOut = new ByteArrayOutputStream();
+        serializer = new BinaryXmlSerializer();
+        serializer.setOutput(bytesOut, "UTF-8");
+        serializer.startDocument("UTF-8", true);
+    }
+
+    private BinaryXmlParser parse() throws XmlPullParserException {
+        return parse(new ByteArrayInputStream(bytesOut.toByteArray()));
+    }
+
+    private BinaryXmlParser parse(InputStream in) throws XmlPullParserException {
+        BinaryXmlParser parser = new BinaryXmlParser();
+        parser.setInput(in, null);
+        assertEquals(XmlPullParser.START_DOCUMENT, parser.getEventType());
+        return parser;
+    }
+
+    public void testDocumentStructure() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.attribute(NAMESPACE, "x", "1");
+        serializer.startTag(NAMESPACE, "b");
+        serializer.text("hello");
+        serializer.endTag(NAMESPACE, "b");
+        serializer.startTag(NAMESPACE, "b");
+        serializer.endTag(NAMESPACE, "b");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals("a", parser.getName());
+        assertEquals("", parser.getNamespace());
+        assertEquals(1, parser.getDepth());
+        assertEquals(1, parser.getAttributeCount());
+        assertEquals("x", parser.getAttributeName(0));
+        assertEquals("1", parser.getAttributeValue(NAMESPACE, "x"));
+        assertNull(parser.getAttributeValue(NAMESPACE, "y"));
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals("b", parser.getName());
+        assertEquals(2, parser.getDepth());
+        assertEquals("hello", parser.nextText());
+        assertEquals(XmlPullParser.END_TAG, parser.getEventType());
+        assertEquals(2, parser.getDepth());
+        assertEquals(XmlPullParser.START_TAG, parser.nextTag());
+        assertEquals(XmlPullParser.END_TAG, parser.nextTag());
+        assertEquals(XmlPullParser.END_TAG, parser.next());
+        assertEquals("a", parser.getName());
+        assertEquals(1, parser.getDepth());
+        assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+        assertEquals(0, parser.getDepth());
+        assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+    }
+
+    public void testTypedAttributes() throws Exception {
+        byte[] bytes = { 0, 1, (byte) 0xab, (byte) 0xff };
+        serializer.startTag(NAMESPACE, "a");
+        serializer.attributeInt(NAMESPACE, "int", -5);
+        serializer.attributeIntHex(NAMESPACE, "intHex", 0xcafe);
+        serializer.attributeLong(NAMESPACE, "long", Long.MIN_VALUE);
+        serializer.attributeLongHex(NAMESPACE, "longHex", -1L);
+        serializer.attributeFloat(NAMESPACE, "float", 1.5f);
+        serializer.attributeDouble(NAMESPACE, "double", Math.PI);
+        serializer.attributeBoolean(NAMESPACE, "true", true);
+        serializer.attributeBoolean(NAMESPACE, "false", false);
+        serializer.attributeBytesHex(NAMESPACE, "hex", bytes);
+        serializer.attributeBytesBase64(NAMESPACE, "base64", bytes);
+        serializer.attributeInterned(NAMESPACE, "interned", "value");
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals(11, parser.getAttributeCount());
+
+        int i = parser.getAttributeIndex(NAMESPACE, "int");
+        assertEquals(-5, parser.getAttributeInt(i));
+        assertEquals("-5", parser.getAttributeValue(i));
+        i = parser.getAttributeIndex(NAMESPACE, "intHex");
+        assertEquals(0xcafe, parser.getAttributeIntHex(i));
+        assertEquals("cafe", parser.getAttributeValue(i));
+        i = parser.getAttributeIndex(NAMESPACE, "long");
+        assertEquals(Long.MIN_VALUE, parser.getAttributeLong(i));
+        assertEquals(Long.toString(Long.MIN_VALUE), parser.getAttributeValue(i));
+        i = parser.getAttributeIndex(NAMESPACE, "longHex");
+        assertEquals(-1L, parser.getAttributeLongHex(i));
+        assertEquals("ffffffffffffffff", parser.getAttributeValue(i));
+        i = parser.getAttributeIndex(NAMESPACE, "float");
+        assertEquals(1.5f, parser.getAttributeFloat(i));
+        assertEquals("1.5", parser.getAttributeValue(i));
+        i = parser.getAttributeIndex(NAMESPACE, "double");
+        assertEquals(Math.PI, parser.getAttributeDouble(i));
+        assertEquals(Double.toString(Math.PI), parser.getAttributeValue(i));
+        assertTrue(parser.getAttributeBoolean(parser.getAttributeIndex(NAMESPACE, "true")));
+        assertFalse(parser.getAttributeBoolean(parser.getAttributeIndex(NAMESPACE, "false")));
+        i = parser.getAttributeIndex(NAMESPACE, "hex");
+        assertTrue(Arrays.equals(bytes, parser.getAttributeBytesHex(i)));
+        assertEquals("0001ABFF", parser.getAttributeValue(i));
+        i = parser.getAttributeIndex(NAMESPACE, "base64");
+        assertTrue(Arrays.equals(bytes, parser.getAttributeBytesBase64(i)));
+        assertEquals("AAGr/w==", parser.getAttributeValue(i));
+        assertEquals("value", parser.getAttributeValue(NAMESPACE, "interned"));
+    }
+
+    public void testTypedGettersParseStrings() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.attribute(NAMESPACE, "int", "42");
+        serializer.attribute(NAMESPACE, "hex", "0aff");
+        serializer.attribute(NAMESPACE, "bool", "true");
+        serializer.attribute(NAMESPACE, "bad", "x");
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        parser.next();
+        assertEquals(42, parser.getAttributeInt(0));
+        assertEquals(42L, parser.getAttributeLong(0));
+        assertEquals(42.0, parser.getAttributeDouble(0));
+        assertEquals(0xaff, parser.getAttributeIntHex(1));
+        assertTrue(Arrays.equals(new byte[] { 0x0a, (byte) 0xff }, parser.getAttributeBytesHex(1)));
+        assertTrue(parser.getAttributeBoolean(2));
+        try {
+            parser.getAttributeInt(3);
+            fail();
+        } catch (XmlPullParserException expected) {
+        }
+        try {
+            parser.getAttributeBoolean(3);
+            fail();
+        } catch (XmlPullParserException expected) {
+        }
+    }
+
+    public void testTextIsMerged() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.text("a");
+        serializer.comment("ignored");
+        serializer.cdsect("<b>");
+        serializer.entityRef("amp");
+        serializer.entityRef("#x41");
+        serializer.processingInstruction("ignored");
+        serializer.ignorableWhitespace(" ");
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals(XmlPullParser.TEXT, parser.next());
+        assertEquals("a<b>&A ", parser.getText());
+        assertEquals(XmlPullParser.END_TAG, parser.next());
+    }
+
+    public void testNextToken() throws Exception {
+        serializer.docdecl(" a");
+        serializer.startTag(NAMESPACE, "a");
+        serializer.comment("c");
+        serializer.entityRef("lt");
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        assertEquals(XmlPullParser.DOCDECL, parser.nextToken());
+        assertEquals(" a", parser.getText());
+        assertEquals(XmlPullParser.START_TAG, parser.nextToken());
+        assertEquals(XmlPullParser.COMMENT, parser.nextToken());
+        assertEquals("c", parser.getText());
+        assertEquals(XmlPullParser.ENTITY_REF, parser.nextToken());
+        assertEquals("lt", parser.getName());
+        assertEquals("<", parser.getText());
+        assertEquals(XmlPullParser.END_TAG, parser.nextToken());
+    }
+
+    public void testUnresolvedEntity() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.entityRef("unknown");
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        parser.next();
+        try {
+            parser.next();
+            fail();
+        } catch (XmlPullParserException expected) {
+        }
+    }
+
+    public void testStrings() throws Exception {
+        StringBuilder longString = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            longString.append((char) ('a' + i % 26));
+        }
+        String[] values = {
+                "",
+                "ascii",
+                "caf\u00e9 \u20ac \ud83d\ude00",
+                longString.toString(),
+                longString + "\u00e9",
+        };
+        serializer.startTag(NAMESPACE, "a");
+        for (int i = 0; i < values.length; i++) {
+            serializer.attribute(NAMESPACE, "v" + i, values[i]);
+        }
+        for (String value : values) {
+            serializer.startTag(NAMESPACE, "b");
+            serializer.text(value);
+            serializer.endTag(NAMESPACE, "b");
+        }
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse(new TrickleInputStream(bytesOut.toByteArray()));
+        parser.next();
+        for (int i = 0; i < values.length; i++) {
+            assertEquals(values[i], parser.getAttributeValue(NAMESPACE, "v" + i));
+        }
+        for (String value : values) {
+            parser.next();
+            assertEquals(value, parser.nextText());
+        }
+        assertEquals(XmlPullParser.END_TAG, parser.next());
+    }
+
+    public void testUnpairedSurrogate() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.text("a\ud800b");
+        serializer.endTag(NAMESPACE, "a");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        parser.next();
+        assertEquals("a?b", parser.nextText());
+    }
+
+    /**
+     * Writes more distinct names than the string table can hold.
+     */
+    public void testInterning() throws Exception {
+        int count = 70000;
+        serializer.startTag(NAMESPACE, "root");
+        for (int i = 0; i < count; i++) {
+            serializer.startTag(NAMESPACE, "e" + i);
+            serializer.attributeInterned(NAMESPACE, "name", "e" + (count - i));
+            serializer.endTag(NAMESPACE, "e" + i);
+        }
+        serializer.endTag(NAMESPACE, "root");
+        serializer.endDocument();
+
+        BinaryXmlParser parser = parse();
+        parser.next();
+        for (int i = 0; i < count; i++) {
+            assertEquals(XmlPullParser.START_TAG, parser.next());
+            assertEquals("e" + i, parser.getName());
+            assertEquals("e" + (count - i), parser.getAttributeValue(NAMESPACE, "name"));
+            assertEquals(XmlPullParser.END_TAG, parser.next());
+            assertEquals("e" + i, parser.getName());
+        }
+        assertEquals(XmlPullParser.END_TAG, parser.next());
+        assertEquals(XmlPullParser.END_DOCUMENT, parser.next());
+    }
+
+    public void testNamespacesUnsupported() throws Exception {
+        try {
+            serializer.startTag("http://example.com", "a");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+        try {
+            new BinaryXmlParser().setFeature(XmlPullParser.FEATURE_PROCESS_NAMESPACES, true);
+            fail();
+        } catch (XmlPullParserException expected) {
+        }
+    }
+
+    public void testMismatchedEndTag() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        try {
+            serializer.endTag(NAMESPACE, "b");
+            fail();
+        } catch (IllegalArgumentException expected) {
+        }
+    }
+
+    public void testAttributeAfterText() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.text("text");
+        try {
+            serializer.attribute(NAMESPACE, "b", "c");
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+    }
+
+    public void testNotBinaryXml() throws Exception {
+        try {
+            new BinaryXmlParser().setInput(new ByteArrayInputStream("<a/>".getBytes()), null);
+            fail();
+        } catch (XmlPullParserException expected) {
+        }
+    }
+
+    public void testTruncated() throws Exception {
+        serializer.startTag(NAMESPACE, "a");
+        serializer.text("text");
+        serializer.flush();
+        byte[] bytes = bytesOut.toByteArray();
+
+        BinaryXmlParser parser = parse(
+                new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length - 2)));
+        parser.next();
+        try {
+            parser.next();
+            fail();
+        } catch (XmlPullParserException expected) {
+        }
+    }
+
+    /**
+     * A stream that returns a few bytes per read, so values are split across
+     * buffer refills.
+     */
+    private static class TrickleInputStream extends FilterInputStream {
+        TrickleInputStream(byte[] bytes) {
+            super(new ByteArrayInputStream(bytes));
+        }
+
+        @Override public int read(byte[] buffer, int offset, int count) throws IOException {
+            return super.read(buffer, offset, Math.min(count, 7));
+        }
+    }
+}
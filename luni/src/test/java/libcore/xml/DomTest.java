@@ -1698,6 +1698,83 @@ public class DomTest extends TestCase {
         }
     }
 
+    public void testIndexedDocument() throws Exception {
+        Document indexed = parseWithFeature("http://android.com/xml/features/indexed-dom");
+        Element item = (Element) indexed.getElementsByTagName("item").item(0);
+        NodeList options = indexed.getElementsByTagName("a:option");
+        assertEquals(2, options.getLength());
+        assertEquals("Whipped Cream", options.item(0).getTextContent());
+        assertEquals(2, indexed.getElementsByTagNameNS("http://addons", "option").getLength());
+        assertEquals(0, indexed.getElementsByTagNameNS("http://food", "option").getLength());
+        assertEquals(1, indexed.getElementsByTagNameNS("*", "vitaminc").getLength());
+        assertEquals(document.getElementsByTagName("*").getLength(),
+                indexed.getElementsByTagName("*").getLength());
+        assertEquals(0, indexed.getElementsByTagName("missing").getLength());
+
+        Element vitaminc = (Element) indexed.getElementsByTagName("a:vitaminc").item(0);
+        assertNull(indexed.getElementById("c"));
+        vitaminc.setAttribute("id", "c");
+        assertSame(vitaminc, indexed.getElementById("c"));
+        vitaminc.getAttributeNode("id").setValue("d");
+        assertNull(indexed.getElementById("c"));
+        assertSame(vitaminc, indexed.getElementById("d"));
+        vitaminc.getParentNode().removeChild(vitaminc);
+        assertNull(indexed.getElementById("d"));
+        assertEquals(0, indexed.getElementsByTagName("a:vitaminc").getLength());
+
+        Element option = indexed.createElement("a:option");
+        option.setAttribute("name", "syrup");
+        option.setIdAttribute("name", true);
+        item.appendChild(option);
+        assertEquals(3, indexed.getElementsByTagName("a:option").getLength());
+        assertSame(option, indexed.getElementById("syrup"));
+        indexed.renameNode(option, null, "topping");
+        assertEquals(2, indexed.getElementsByTagName("a:option").getLength());
+        assertSame(option, indexed.getElementsByTagName("topping").item(0));
+    }
+
+    public void testIndexedDocumentFindsFirstIdInDocumentOrder() throws Exception {
+        Document indexed = parseWithFeature("http://android.com/xml/features/indexed-dom");
+        Element name = (Element) indexed.getElementsByTagName("name").item(0);
+        Element vitaminc = (Element) indexed.getElementsByTagName("a:vitaminc").item(0);
+        vitaminc.setAttribute("id", "x");
+        assertSame(vitaminc, indexed.getElementById("x"));
+        name.setAttribute("id", "x");
+        assertSame(name, indexed.getElementById("x"));
+    }
+
+    public void testCompactDocument() throws Exception {
+        Document compact = parseWithFeature("http://android.com/xml/features/compact-dom");
+        assertEquals(domToString(document), domToString(compact));
+        NodeList options = compact.getElementsByTagName("a:option");
+        Element option1 = (Element) options.item(0);
+        Element option2 = (Element) options.item(1);
+        assertSame(option1.getLocalName(), option2.getLocalName());
+        assertSame(option1.getPrefix(), option2.getPrefix());
+        assertSame(option1.getNamespaceURI(), option2.getNamespaceURI());
+
+        Text text = (Text) option1.getFirstChild();
+        text.appendData("!");
+        text.insertData(0, "(");
+        assertEquals("(Whipped Cream!", text.getData());
+        assertEquals("Whipped", text.substringData(1, 7));
+    }
+
+    public void testDomFeatures() throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        assertFalse(factory.getFeature("http://android.com/xml/features/compact-dom"));
+        assertFalse(factory.getFeature("http://android.com/xml/features/indexed-dom"));
+        factory.setFeature("http://android.com/xml/features/indexed-dom", true);
+        assertTrue(factory.getFeature("http://android.com/xml/features/indexed-dom"));
+    }
+
+    private Document parseWithFeature(String feature) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        factory.setFeature(feature, true);
+        return factory.newDocumentBuilder().parse(new InputSource(new StringReader(xml)));
+    }
+
     private class RecordingHandler implements UserDataHandler {
         final Set<String> calls = new HashSet<String>();
         public void handle(short operation, String key, Object data, Node src, Node dst) {
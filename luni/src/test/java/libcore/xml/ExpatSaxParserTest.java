@@ -19,10 +19,15 @@ package libcore.xml;
 import com.google.mockwebserver.MockResponse;
 import com.google.mockwebserver.MockWebServer;
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.io.Reader;
 import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -676,6 +681,184 @@ public class ExpatSaxParserTest extends TestCase {
         }
     }
 
+    public void testReuse() throws Exception {
+        ExpatReader reader = new ExpatReader();
+        for (int i = 0; i < 3; i++) {
+            TestHandler handler = new TestHandler();
+            reader.setContentHandler(handler);
+            reader.parse(new InputSource(new StringReader(SNIPPET)));
+            validate(handler);
+
+            handler = new TestHandler();
+            reader.setContentHandler(handler);
+            reader.parse(new InputSource(new ByteArrayInputStream(SNIPPET.getBytes("UTF-8"))));
+            validate(handler);
+        }
+    }
+
+    public void testReuseAfterError() throws Exception {
+        ExpatReader reader = new ExpatReader();
+        reader.setContentHandler(new TestHandler());
+        try {
+            reader.parse(new InputSource(new StringReader("<dagny dad=\"bob\">hello")));
+            fail();
+        } catch (SAXParseException expected) {
+        }
+
+        reader.setContentHandler(new DefaultHandler() {
+            @Override
+            public void characters(char ch[], int start, int length) throws SAXException {
+                throw new SAXException();
+            }
+        });
+        try {
+            reader.parse(new InputSource(new StringReader(SNIPPET)));
+            fail();
+        } catch (SAXException expected) {
+        }
+
+        TestHandler handler = new TestHandler();
+        reader.setContentHandler(handler);
+        reader.parse(new InputSource(new StringReader(SNIPPET)));
+        validate(handler);
+    }
+
+    public void testReuseWithNamespaceProcessingChanged() throws Exception {
+        String xml = "<n:a xmlns:n='ns:1'/>";
+        ExpatReader reader = new ExpatReader();
+        ElementNameHandler handler = new ElementNameHandler();
+        reader.setContentHandler(handler);
+
+        reader.parse(new InputSource(new StringReader(xml)));
+        assertEquals(Arrays.asList("{ns:1}a"), handler.names);
+
+        handler.names.clear();
+        reader.setNamespaceProcessingEnabled(false);
+        reader.parse(new InputSource(new StringReader(xml)));
+        assertEquals(Arrays.asList("n:a"), handler.names);
+
+        handler.names.clear();
+        reader.setNamespaceProcessingEnabled(true);
+        reader.parse(new InputSource(new StringReader(xml)));
+        assertEquals(Arrays.asList("{ns:1}a"), handler.names);
+    }
+
+    public void testNestedParse() throws Exception {
+        final ExpatReader reader = new ExpatReader();
+        final TestHandler inner = new TestHandler();
+        final ElementNameHandler outer = new ElementNameHandler() {
+            @Override
+            public void startElement(String uri, String localName, String qName,
+                    Attributes attributes) {
+                super.startElement(uri, localName, qName, attributes);
+                if (!localName.equals("a")) {
+                    return;
+                }
+                try {
+                    reader.setContentHandler(inner);
+                    reader.parse(new InputSource(new StringReader(SNIPPET)));
+                    reader.setContentHandler(this);
+                } catch (Exception e) {
+                    throw new AssertionError(e);
+                }
+            }
+        };
+        reader.setContentHandler(outer);
+        reader.parse(new InputSource(new StringReader("<a><b/></a>")));
+        assertEquals(Arrays.asList("a", "b"), outer.names);
+        assertEquals("hello", inner.text.toString());
+    }
+
+    public void testParseByteBuffer() throws Exception {
+        byte[] bytes = SNIPPET.getBytes("UTF-8");
+        ByteBuffer direct = ByteBuffer.allocateDirect(bytes.length);
+        direct.put(bytes).flip();
+        ByteBuffer[] buffers = {
+            ByteBuffer.wrap(bytes),
+            ByteBuffer.wrap(bytes).asReadOnlyBuffer(),
+            direct,
+            direct.asReadOnlyBuffer(),
+        };
+        ExpatReader reader = new ExpatReader();
+        for (ByteBuffer buffer : buffers) {
+            TestHandler handler = new TestHandler();
+            reader.setContentHandler(handler);
+            reader.parse(buffer, null, null, null);
+            validate(handler);
+            assertFalse(buffer.hasRemaining());
+        }
+    }
+
+    public void testParseByteBuffer_slice() throws Exception {
+        byte[] bytes = ("junk" + SNIPPET + "junk").getBytes("UTF-8");
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 4, bytes.length - 8).slice();
+        TestHandler handler = new TestHandler();
+        ExpatReader reader = new ExpatReader();
+        reader.setContentHandler(handler);
+        reader.parse(buffer, "UTF-8", null, null);
+        validate(handler);
+    }
+
+    public void testParseByteBuffer_encoding() throws Exception {
+        ByteBuffer buffer = ByteBuffer.wrap(SNIPPET.getBytes("UTF-16"));
+        TestHandler handler = new TestHandler();
+        ExpatReader reader = new ExpatReader();
+        reader.setContentHandler(handler);
+        reader.parse(buffer, "UTF-16", null, null);
+        validate(handler);
+    }
+
+    public void testParseByteBuffer_malformed() throws Exception {
+        ExpatReader reader = new ExpatReader();
+        reader.setContentHandler(new DefaultHandler());
+        try {
+            reader.parse(ByteBuffer.wrap("<dagny>".getBytes("UTF-8")), null, null, null);
+            fail();
+        } catch (SAXParseException expected) {
+        }
+    }
+
+    public void testParseMappedFile() throws Exception {
+        // Larger than the chunks handed to Expat at a time.
+        StringBuilder xml = new StringBuilder();
+        xml.append("<root>");
+        for (int i = 0; i < 10000; i++) {
+            xml.append("<item id='").append(i).append("'>text</item>");
+        }
+        xml.append("</root>");
+
+        File file = File.createTempFile("ExpatSaxParserTest", ".xml");
+        try {
+            try (FileOutputStream out = new FileOutputStream(file)) {
+                out.write(xml.toString().getBytes("UTF-8"));
+            }
+            ExpatReader reader = new ExpatReader();
+            try (FileChannel channel = new RandomAccessFile(file, "r").getChannel()) {
+                for (int i = 0; i < 2; i++) {
+                    ElementNameHandler handler = new ElementNameHandler();
+                    reader.setContentHandler(handler);
+                    reader.parse(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+                            null, null, file.getPath());
+                    assertEquals(10001, handler.names.size());
+                    assertEquals("item", handler.names.get(10000));
+                }
+            }
+        } finally {
+            file.delete();
+        }
+    }
+
+    /** Records the names of elements, with their namespace URIs if they have one. */
+    static class ElementNameHandler extends DefaultHandler {
+        final List<String> names = new ArrayList<String>();
+
+        @Override
+        public void startElement(String uri, String localName, String qName,
+                Attributes attributes) {
+            names.add(uri.isEmpty() ? qName : "{" + uri + "}" + localName);
+        }
+    }
+
     /**
      * Parses the given xml string and fires events on the given SAX handler.
      */
@@ -17,6 +17,12 @@
 package libcore.xml;
 
 import com.android.org.kxml2.io.KXmlParser;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import junit.framework.AssertionFailedError;
 import org.xmlpull.v1.XmlPullParser;
 
 public class KxmlPullParserTest extends PullParserTest {
@@ -24,4 +30,133 @@ public class KxmlPullParserTest extends PullParserTest {
     @Override XmlPullParser newPullParser() {
         return new KXmlParser();
     }
+
+    public void testUtf8Stream() throws Exception {
+        // Long enough to cross the decoder's buffer boundaries at various
+        // points within multi-byte sequences.
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < 3000; i++) {
+            text.append("a\u00e9\u20ac\ud83d\ude4a");
+        }
+        assertEquals(text.toString(),
+                parseText(("<p>" + text + "</p>").getBytes(StandardCharsets.UTF_8), "UTF-8"));
+    }
+
+    public void testUtf8StreamDetected() throws Exception {
+        byte[] bytes = "<?xml version='1.0'?><p>\u00e9\u20ac</p>".getBytes(StandardCharsets.UTF_8);
+        assertEquals("\u00e9\u20ac", parseText(bytes, null));
+    }
+
+    public void testMalformedUtf8IsReplaced() throws Exception {
+        byte[][] malformed = {
+            { (byte) 0x80 },                                // lone continuation byte
+            { (byte) 0xc0, (byte) 0xaf },                   // overlong
+            { (byte) 0xe0, (byte) 0x80, (byte) 0xaf },      // overlong
+            { (byte) 0xf4, (byte) 0x90, (byte) 0x80, (byte) 0x80 }, // above U+10FFFF
+            { (byte) 0xe2, (byte) 0x82 },                   // truncated
+            { (byte) 0xf0, (byte) 0x9f, (byte) 0x99, 'x' }, // truncated
+            { (byte) 0xff },
+        };
+        for (byte[] bytes : malformed) {
+            byte[] xml = new byte[bytes.length + 7];
+            System.arraycopy("<p>".getBytes(StandardCharsets.US_ASCII), 0, xml, 0, 3);
+            System.arraycopy(bytes, 0, xml, 3, bytes.length);
+            System.arraycopy("</p>".getBytes(StandardCharsets.US_ASCII), 0, xml,
+                    bytes.length + 3, 4);
+            // The same replacements as the platform's decoder.
+            assertEquals(new String(bytes, StandardCharsets.UTF_8), parseText(xml, "UTF-8"));
+        }
+    }
+
+    public void testAsciiStream() throws Exception {
+        byte[] xml = { '<', 'p', '>', 'a', (byte) 0xe9, 'b', '<', '/', 'p', '>' };
+        assertEquals("a\ufffdb", parseText(xml, "US-ASCII"));
+    }
+
+    public void testUtf8StreamDoesNotBlockAfterCompleteSequence() throws Exception {
+        KXmlParser parser = new KXmlParser();
+        parser.setInput(new SingleReadInputStream(
+                "<a\u00e9>".getBytes(StandardCharsets.UTF_8)), "UTF-8");
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals("a\u00e9", parser.getName());
+    }
+
+    public void testAsciiStreamDoesNotBlock() throws Exception {
+        KXmlParser parser = new KXmlParser();
+        parser.setInput(new SingleReadInputStream(
+                new byte[] { '<', 'a', (byte) 0xe9, '>' }), "US-ASCII");
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals("a\ufffd", parser.getName());
+    }
+
+    public void testReuseAfterAbandonedDocument() throws Exception {
+        KXmlParser parser = new KXmlParser();
+        parser.setFeature(XmlPullParser.FEATURE_PROCESS_DOCDECL, true);
+        // Stop inside an entity, which is parsed from a buffer of its own.
+        parser.setInput(new StringReader("<!DOCTYPE foo [\n"
+                + "  <!ENTITY e '<a>text</a>'>\n"
+                + "  <!ATTLIST foo b CDATA 'default'>\n"
+                + "]><foo>&e;</foo>"));
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals("a", parser.getName());
+
+        parser.setInput(new ByteArrayInputStream(
+                "<foo><a>other</a></foo>".getBytes(StandardCharsets.UTF_8)), null);
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals("foo", parser.getName());
+        // The default attribute belonged to the previous document.
+        assertEquals(0, parser.getAttributeCount());
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals(XmlPullParser.TEXT, parser.next());
+        assertEquals("other", parser.getText());
+        assertEquals(2, parser.getLineNumber() + 1);
+    }
+
+    public void testReuseSharesStringPool() throws Exception {
+        KXmlParser parser = new KXmlParser();
+        String[] names = new String[2];
+        for (int i = 0; i < names.length; i++) {
+            parser.setInput(new ByteArrayInputStream(
+                    "<element/>".getBytes(StandardCharsets.UTF_8)), "UTF-8");
+            assertEquals(XmlPullParser.START_TAG, parser.next());
+            names[i] = parser.getName();
+        }
+        assertSame(names[0], names[1]);
+    }
+
+    /**
+     * Returns its bytes from the first read, and fails any later read, as a
+     * stream that is waiting for the peer to send more would block.
+     */
+    private static class SingleReadInputStream extends InputStream {
+        private final byte[] bytes;
+        private boolean read;
+
+        SingleReadInputStream(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override public int read() throws IOException {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override public int read(byte[] buffer, int offset, int count) throws IOException {
+            if (read) {
+                throw new AssertionFailedError("read would block");
+            }
+            read = true;
+            int length = Math.min(count, bytes.length);
+            System.arraycopy(bytes, 0, buffer, offset, length);
+            return length;
+        }
+    }
+
+    private static String parseText(byte[] xml, String charset) throws Exception {
+        KXmlParser parser = new KXmlParser();
+        parser.setInput(new ByteArrayInputStream(xml), charset);
+        assertEquals(XmlPullParser.START_TAG, parser.next());
+        assertEquals(XmlPullParser.TEXT, parser.next());
+        return parser.getText();
+    }
 }
@@ -19,7 +19,9 @@ package libcore.xml;
 import com.android.org.kxml2.io.KXmlSerializer;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
 import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
 import junit.framework.TestCase;
 import org.w3c.dom.Document;
 import org.w3c.dom.Node;
@@ -220,6 +222,84 @@ public final class KxmlSerializerTest extends TestCase {
         assertEquals("a]]>b", text);
     }
 
+    public void testUtf8OutputStream() throws Exception {
+        // Comments are written unescaped, so they reach the encoder as is. With
+        // one of the two paddings, a surrogate pair straddles the end of the
+        // serializer's buffer.
+        for (int padding = 0; padding < 2; padding++) {
+            StringBuilder comment = new StringBuilder();
+            for (int i = 0; i < padding; i++) {
+                comment.append('x');
+            }
+            for (int i = 0; i < 5000; i++) {
+                comment.append("\ud83d\ude4a");
+            }
+            comment.append(" \u00e9\u20ac \ud83d");
+            for (String encoding : new String[] { "UTF-8", "US-ASCII" }) {
+                assertEquals(encoding,
+                        new String(serialize(encoding, comment.toString(), false),
+                                StandardCharsets.ISO_8859_1),
+                        new String(serialize(encoding, comment.toString(), true),
+                                StandardCharsets.ISO_8859_1));
+            }
+        }
+    }
+
+    public void testReuse() throws Exception {
+        KXmlSerializer serializer = new KXmlSerializer();
+        ByteArrayOutputStream abandoned = new ByteArrayOutputStream();
+        serializer.setOutput(abandoned, "UTF-8");
+        serializer.startDocument("UTF-8", null);
+        serializer.startTag(NAMESPACE, "a");
+        serializer.text("unflushed");
+
+        StringWriter writer = new StringWriter();
+        serializer.setOutput(writer);
+        serializer.startDocument(null, null);
+        serializer.startTag(NAMESPACE, "b");
+        serializer.endTag(NAMESPACE, "b");
+        serializer.endDocument();
+        assertEquals("<?xml version='1.0' ?><b />", writer.toString());
+        assertEquals(0, abandoned.size());
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        serializer.setOutput(bytes, "UTF-8");
+        serializer.startDocument("UTF-8", null);
+        serializer.startTag(NAMESPACE, "c");
+        serializer.text("\u00e9");
+        serializer.endTag(NAMESPACE, "c");
+        serializer.endDocument();
+        assertEquals("<?xml version='1.0' encoding='UTF-8' ?><c>\u00e9</c>",
+                new String(bytes.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Serializes a document with the given comment to bytes, either directly
+     * or through an {@link OutputStreamWriter}.
+     */
+    private static byte[] serialize(String encoding, String comment, boolean direct)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        XmlSerializer serializer = new KXmlSerializer();
+        OutputStreamWriter writer = null;
+        if (direct) {
+            serializer.setOutput(bytes, encoding);
+        } else {
+            writer = new OutputStreamWriter(bytes, encoding);
+            serializer.setOutput(writer);
+        }
+        serializer.startDocument(encoding, null);
+        serializer.startTag(NAMESPACE, "root");
+        serializer.comment(comment);
+        serializer.text("\u00e9\u20ac\ud83d\ude4a");
+        serializer.endTag(NAMESPACE, "root");
+        serializer.endDocument();
+        if (writer != null) {
+            writer.close();
+        }
+        return bytes.toByteArray();
+    }
+
     private static boolean isValidXmlCodePoint(int c) {
         // http://www.w3.org/TR/REC-xml/#charsets
         return (c >= 0x20 && c <= 0xd7ff) || (c == 0x9) || (c == 0xa) || (c == 0xd) ||
@@ -51,6 +51,10 @@ class Inet6AddressImpl implements java.net.InetAddressImpl {
         throw new RuntimeException("Stub!");
     }
 
+    public long[] getAddressCacheCounters() {
+        throw new RuntimeException("Stub!");
+    }
+
     public boolean isReachable(
             java.net.InetAddress addr, int timeout, java.net.NetworkInterface netif, int ttl)
             throws java.io.IOException {
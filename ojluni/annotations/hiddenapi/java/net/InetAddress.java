@@ -214,6 +214,10 @@ public class InetAddress implements java.io.Serializable {
         throw new RuntimeException("Stub!");
     }
 
+    public static long[] getDnsCacheCounters() {
+        throw new RuntimeException("Stub!");
+    }
+
     public static java.net.InetAddress getByNameOnNet(java.lang.String host, int netId)
             throws java.net.UnknownHostException {
         throw new RuntimeException("Stub!");
@@ -328,6 +328,39 @@ class FileInputStream extends InputStream
         return IoBridge.read(fd, b, off, len);
     }
 
+    // BEGIN Android-added: Copy to file descriptors inside the kernel in transferTo().
+    /**
+     * {@inheritDoc}
+     *
+     * <p>If {@code out} is a {@link FileOutputStream}, or the output stream of a socket, the
+     * bytes are copied inside the kernel, without passing through the Java heap.
+     */
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        // Subclasses may override read(), so they must go through it.
+        FileDescriptor outFd = (getClass() == FileInputStream.class)
+                ? FileOutputStream.getTransferFd(out) : null;
+        if (outFd == null) {
+            return super.transferTo(out);
+        }
+
+        long transferred;
+        try {
+            if (closed) {
+                throw new IOException("Stream Closed");
+            }
+            BlockGuard.getThreadPolicy().onReadFromDisk();
+            transferred = IoBridge.transfer(fd, outFd);
+        } finally {
+            FileOutputStream.releaseTransferFd(out);
+        }
+        tracker.trackIo((int) Math.min(transferred, Integer.MAX_VALUE), IoTracker.Mode.READ);
+
+        // Copy whatever the kernel could not; normally this just finds the end of the file.
+        return Math.addExact(transferred, super.transferTo(out));
+    }
+    // END Android-added: Copy to file descriptors inside the kernel in transferTo().
+
     /**
      * Skips over and discards <code>n</code> bytes of data from the
      * input stream.
@@ -406,6 +406,55 @@ class FileOutputStream extends OutputStream
         IoBridge.write(fd, b, off, len);
     }
 
+    // BEGIN Android-added: Let FileInputStream.transferTo() copy inside the kernel.
+    /**
+     * Returns the file descriptor that {@link InputStream#transferTo} may copy to directly,
+     * bypassing {@link #write}, or null if it must call {@code write} instead. It must for
+     * subclasses, which may override {@code write}, unless they override this method too.
+     * Once the copy is done, a non-null result must be handed back through
+     * {@link #releaseTransferFd()}.
+     *
+     * @hide
+     */
+    protected FileDescriptor getTransferFd() throws IOException {
+        if (getClass() != FileOutputStream.class) {
+            return null;
+        }
+        if (closed) {
+            throw new IOException("Stream Closed");
+        }
+        return fd;
+    }
+
+    /**
+     * Returns the file descriptor that {@code out} may be written to directly, or null.
+     *
+     * @hide
+     */
+    public static FileDescriptor getTransferFd(OutputStream out) throws IOException {
+        return (out instanceof FileOutputStream) ? ((FileOutputStream) out).getTransferFd() : null;
+    }
+
+    /**
+     * Called when {@link InputStream#transferTo} has finished with the file descriptor that
+     * {@link #getTransferFd()} returned. The default implementation does nothing.
+     *
+     * @hide
+     */
+    protected void releaseTransferFd() {
+    }
+
+    /**
+     * Hands back the file descriptor that {@link #getTransferFd(OutputStream)} returned for
+     * {@code out}.
+     *
+     * @hide
+     */
+    public static void releaseTransferFd(OutputStream out) {
+        ((FileOutputStream) out).releaseTransferFd();
+    }
+    // END Android-added: Let FileInputStream.transferTo() copy inside the kernel.
+
     /**
      * Closes this file output stream and releases any system resources
      * associated with this stream. This file output stream may no longer
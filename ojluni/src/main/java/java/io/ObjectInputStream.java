@@ -30,6 +30,7 @@ import java.io.ObjectStreamClass.RecordSupport;
 import java.io.ObjectStreamClass.WeakClassKey;
 import java.lang.invoke.MethodHandle;
 import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Array;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.Proxy;
@@ -38,13 +39,19 @@ import java.security.AccessController;
 import java.security.PrivilegedAction;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
+import java.util.ArrayDeque;
 import java.util.Arrays;
 import java.util.HashMap;
+import java.util.Objects;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.atomic.AtomicBoolean;
 import static java.io.ObjectStreamClass.processQueue;
 import sun.reflect.misc.ReflectUtil;
+import dalvik.system.DelegateLastClassLoader;
+import dalvik.system.DexClassLoader;
+import dalvik.system.InMemoryDexClassLoader;
+import dalvik.system.PathClassLoader;
 import dalvik.system.VMStack;
 import jdk.internal.misc.SharedSecrets;
 
@@ -240,6 +247,10 @@ public class ObjectInputStream
         /** queue for WeakReferences to audited subclasses */
         static final ReferenceQueue<Class<?>> subclassAuditsQueue =
             new ReferenceQueue<>();
+
+        // Android-added: Process-wide cache of classes loaded by resolveClass().
+        /** cache of classes resolved by name and class loader */
+        static final ResolvedClassCache resolvedClasses = new ResolvedClassCache();
     }
 
     // Android-removed: ObjectInputFilter logic not available on Android. http://b/110252929
@@ -303,6 +314,14 @@ public class ObjectInputStream
     /** buffer for reading primitive field values */
     private byte[] primVals;
 
+    // BEGIN Android-added: Class loader choice and per-stream cache for resolveClass().
+    /** loader passed to the constructor, or null to search the stack for one */
+    private ClassLoader classLoader;
+    /** classes already resolved by resolveClass(), and the loader that resolved them */
+    private HashMap<String, Class<?>> resolvedClasses;
+    private ClassLoader resolvedClassesLoader;
+    // END Android-added: Class loader choice and per-stream cache for resolveClass().
+
     /** if true, invoke readObjectOverride() instead of readObject() */
     private final boolean enableOverride;
     /** if true, invoke resolveObject() */
@@ -357,6 +376,27 @@ public class ObjectInputStream
         bin.setBlockDataMode(true);
     }
 
+    // BEGIN Android-added: Constructor taking the class loader for resolveClass().
+    /**
+     * Creates an ObjectInputStream that reads from the specified InputStream,
+     * and whose {@link #resolveClass} and {@link #resolveProxyClass} methods
+     * load classes with the specified class loader, rather than with the
+     * closest user-defined class loader on the stack.
+     *
+     * @param   in input stream to read from
+     * @param   loader class loader to resolve classes with
+     * @throws  StreamCorruptedException if the stream header is incorrect
+     * @throws  IOException if an I/O error occurs while reading stream header
+     * @throws  NullPointerException if <code>in</code> or <code>loader</code>
+     *          is <code>null</code>
+     * @hide
+     */
+    public ObjectInputStream(InputStream in, ClassLoader loader) throws IOException {
+        this(in);
+        classLoader = Objects.requireNonNull(loader, "loader");
+    }
+    // END Android-added: Constructor taking the class loader for resolveClass().
+
     /**
      * Provide a way for subclasses that are completely reimplementing
      * ObjectInputStream to not have to allocate private data just used by this
@@ -681,17 +721,155 @@ public class ObjectInputStream
         throws IOException, ClassNotFoundException
     {
         String name = desc.getName();
+        // BEGIN Android-changed: Use the stream's class loader if it has one, and cache classes.
+        ClassLoader loader = (classLoader != null) ? classLoader : latestUserDefinedLoader();
+        Class<?> cl = getResolvedClass(name, loader);
+        if (cl != null) {
+            return cl;
+        }
         try {
-            return Class.forName(name, false, latestUserDefinedLoader());
+            // return Class.forName(name, false, latestUserDefinedLoader());
+            cl = Class.forName(name, false, loader);
         } catch (ClassNotFoundException ex) {
-            Class<?> cl = primClasses.get(name);
+            cl = primClasses.get(name);
             if (cl != null) {
                 return cl;
             } else {
                 throw ex;
             }
         }
+        putResolvedClass(name, loader, cl);
+        return cl;
+        // END Android-changed: Use the stream's class loader if it has one, and cache classes.
+    }
+
+    // BEGIN Android-added: Caches of classes loaded by resolveClass().
+    /**
+     * Returns the class that resolveClass() has already loaded with the given
+     * name and loader, either for this stream or, for well-behaved loaders,
+     * for any stream; or null.
+     */
+    private Class<?> getResolvedClass(String name, ClassLoader loader) {
+        if (resolvedClasses != null && resolvedClassesLoader == loader) {
+            Class<?> cl = resolvedClasses.get(name);
+            if (cl != null) {
+                return cl;
+            }
+        }
+        if (ResolvedClassCache.isCacheable(loader)) {
+            Class<?> cl = Caches.resolvedClasses.get(name, loader);
+            if (cl != null) {
+                putStreamResolvedClass(name, loader, cl);
+                return cl;
+            }
+        }
+        return null;
+    }
+
+    private void putResolvedClass(String name, ClassLoader loader, Class<?> cl) {
+        putStreamResolvedClass(name, loader, cl);
+        if (ResolvedClassCache.isCacheable(loader)) {
+            Caches.resolvedClasses.put(name, loader, cl);
+        }
+    }
+
+    private void putStreamResolvedClass(String name, ClassLoader loader, Class<?> cl) {
+        // A stream almost always resolves all its classes with the same loader.
+        if (resolvedClasses == null || resolvedClassesLoader != loader) {
+            resolvedClasses = new HashMap<>();
+            resolvedClassesLoader = loader;
+        }
+        resolvedClasses.put(name, cl);
+    }
+
+    /**
+     * A bounded cache of the classes loaded by resolveClass(), keyed by class
+     * name and the class loader that loaded them.  Neither the loaders nor the
+     * classes are kept reachable by the cache.  The oldest entry is evicted
+     * when the cache is full.
+     */
+    static final class ResolvedClassCache {
+        private static final int MAX_SIZE = 256;
+
+        private static final ClassLoader BOOT_LOADER = Object.class.getClassLoader();
+
+        private final ConcurrentHashMap<Key, WeakReference<Class<?>>> map =
+            new ConcurrentHashMap<>();
+        /** queue for WeakReferences to the loaders of cached classes */
+        private final ReferenceQueue<ClassLoader> queue = new ReferenceQueue<>();
+        /** keys in insertion order; guarded by this */
+        private final ArrayDeque<Key> order = new ArrayDeque<>();
+
+        /**
+         * Returns true if the given loader always returns the same class for
+         * a given name, so that the class can be reused by other streams
+         * without asking the loader again.
+         */
+        static boolean isCacheable(ClassLoader loader) {
+            if (loader == null || loader == BOOT_LOADER) {
+                return true;
+            }
+            Class<?> c = loader.getClass();
+            return c == PathClassLoader.class || c == DexClassLoader.class
+                || c == InMemoryDexClassLoader.class
+                || c == DelegateLastClassLoader.class;
+        }
+
+        Class<?> get(String name, ClassLoader loader) {
+            WeakReference<Class<?>> ref = map.get(new Key(name, loader, null));
+            return (ref != null) ? ref.get() : null;
+        }
+
+        synchronized void put(String name, ClassLoader loader, Class<?> cl) {
+            Key key;
+            while ((key = (Key) queue.poll()) != null) {
+                map.remove(key);
+                order.remove(key);
+            }
+            key = new Key(name, loader, queue);
+            if (map.put(key, new WeakReference<>(cl)) == null) {
+                order.add(key);
+                if (map.size() > MAX_SIZE) {
+                    map.remove(order.remove());
+                }
+            }
+        }
+
+        /** class name and weak reference to the class loader */
+        private static final class Key extends WeakReference<ClassLoader> {
+            private final String name;
+            private final boolean nullLoader;
+            private final int hash;
+
+            Key(String name, ClassLoader loader,
+                ReferenceQueue<ClassLoader> queue) {
+                super(loader, queue);
+                this.name = name;
+                nullLoader = (loader == null);
+                hash = 31 * name.hashCode() + System.identityHashCode(loader);
+            }
+
+            public int hashCode() {
+                return hash;
+            }
+
+            public boolean equals(Object obj) {
+                if (obj == this) {
+                    return true;
+                }
+                if (obj instanceof Key) {
+                    Key other = (Key) obj;
+                    ClassLoader referent;
+                    return name.equals(other.name) &&
+                        (nullLoader ? other.nullLoader
+                                    : ((referent = get()) != null) &&
+                                      (referent == other.get()));
+                }
+                return false;
+            }
+        }
     }
+    // END Android-added: Caches of classes loaded by resolveClass().
 
     /**
      * Returns a proxy class that implements the interfaces named in a proxy
@@ -747,7 +925,10 @@ public class ObjectInputStream
     protected Class<?> resolveProxyClass(String[] interfaces)
         throws IOException, ClassNotFoundException
     {
-        ClassLoader latestLoader = latestUserDefinedLoader();
+        // Android-changed: Use the stream's class loader if it has one.
+        // ClassLoader latestLoader = latestUserDefinedLoader();
+        ClassLoader latestLoader =
+            (classLoader != null) ? classLoader : latestUserDefinedLoader();
         ClassLoader nonPublicLoader = null;
         boolean hasNonPublicInterface = false;
 
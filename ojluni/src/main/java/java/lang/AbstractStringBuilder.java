@@ -26,7 +26,10 @@
 package java.lang;
 
 import dalvik.annotation.optimization.NeverInline;
-import jdk.internal.math.FloatingDecimal;
+// Android-changed: Use Schubfach to render floats and doubles.
+// import jdk.internal.math.FloatingDecimal;
+import jdk.internal.math.DoubleToDecimal;
+import jdk.internal.math.FloatToDecimal;
 import java.util.Arrays;
 import java.util.Spliterator;
 import java.util.stream.IntStream;
@@ -825,7 +828,16 @@ abstract class AbstractStringBuilder implements Appendable, CharSequence {
      * @return  a reference to this object.
      */
     public AbstractStringBuilder append(float f) {
-        FloatingDecimal.appendTo(f,this);
+        // BEGIN Android-changed: Render the digits straight into value.
+        // FloatingDecimal.appendTo(f,this);
+        ensureCapacityInternal(count + FloatToDecimal.MAX_CHARS);
+        if (isLatin1()) {
+            count = FloatToDecimal.putDecimal(value, count, f);
+        } else {
+            byte[] buf = new byte[FloatToDecimal.MAX_CHARS];
+            putLatin1AsUTF16(buf, FloatToDecimal.putDecimal(buf, 0, f));
+        }
+        // END Android-changed: Render the digits straight into value.
         return this;
     }
 
@@ -842,10 +854,34 @@ abstract class AbstractStringBuilder implements Appendable, CharSequence {
      * @return  a reference to this object.
      */
     public AbstractStringBuilder append(double d) {
-        FloatingDecimal.appendTo(d,this);
+        // BEGIN Android-changed: Render the digits straight into value.
+        // FloatingDecimal.appendTo(d,this);
+        ensureCapacityInternal(count + DoubleToDecimal.MAX_CHARS);
+        if (isLatin1()) {
+            count = DoubleToDecimal.putDecimal(value, count, d);
+        } else {
+            byte[] buf = new byte[DoubleToDecimal.MAX_CHARS];
+            putLatin1AsUTF16(buf, DoubleToDecimal.putDecimal(buf, 0, d));
+        }
+        // END Android-changed: Render the digits straight into value.
         return this;
     }
 
+    // BEGIN Android-added: Append Latin-1 digits to a UTF16 builder.
+    /**
+     * Appends the first {@code len} Latin-1 characters of {@code buf}.
+     * The coder must be UTF16 and there must be room for them.
+     */
+    private void putLatin1AsUTF16(byte[] buf, int len) {
+        byte[] val = this.value;
+        int count = this.count;
+        for (int i = 0; i < len; i++) {
+            StringUTF16.putCharSB(val, count++, (char) (buf[i] & 0xff));
+        }
+        this.count = count;
+    }
+    // END Android-added: Append Latin-1 digits to a UTF16 builder.
+
     /**
      * Removes the characters in a substring of this sequence.
      * The substring begins at the specified {@code start} and extends to
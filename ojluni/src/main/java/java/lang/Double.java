@@ -35,6 +35,8 @@ import java.util.Optional;
 // END Android-removed: dynamic constants not supported on Android.
 
 import jdk.internal.math.FloatingDecimal;
+// Android-added: Use Schubfach to render doubles.
+import jdk.internal.math.DoubleToDecimal;
 import jdk.internal.math.DoubleConsts;
 import jdk.internal.vm.annotation.IntrinsicCandidate;
 
@@ -318,7 +320,9 @@ public final class Double extends Number
      * @return a string representation of the argument.
      */
     public static String toString(double d) {
-        return FloatingDecimal.toJavaFormatString(d);
+        // Android-changed: Render the shortest decimal with Schubfach.
+        // return FloatingDecimal.toJavaFormatString(d);
+        return DoubleToDecimal.toString(d);
     }
 
     /**
@@ -35,6 +35,8 @@ import java.util.Optional;
 // END Android-removed: dynamic constants not supported on Android.
 
 import jdk.internal.math.FloatingDecimal;
+// Android-added: Use Schubfach to render floats.
+import jdk.internal.math.FloatToDecimal;
 import jdk.internal.vm.annotation.IntrinsicCandidate;
 
 /**
@@ -232,7 +234,9 @@ public final class Float extends Number
      * @return a string representation of the argument.
      */
     public static String toString(float f) {
-        return FloatingDecimal.toJavaFormatString(f);
+        // Android-changed: Render the shortest decimal with Schubfach.
+        // return FloatingDecimal.toJavaFormatString(f);
+        return FloatToDecimal.toString(f);
     }
 
     /**
@@ -48,6 +48,8 @@ public class ReferenceQueue<T> {
     // the OpenJdk implementation is LIFO (stack-like).
     private Reference<? extends T> head = null;
     private Reference<? extends T> tail = null;
+    // @GuardedBy("lock")
+    private long queueLength = 0;
 
     private final Object lock = new Object();
 
@@ -93,6 +95,7 @@ public class ReferenceQueue<T> {
         }
         tail = r;
         tail.queueNext = r;
+        queueLength++;
         return true;
     }
 
@@ -103,9 +106,9 @@ public class ReferenceQueue<T> {
      * @hide
      */
     public static Object getCurrentTarget() {
-        if (currentTarget instanceof sun.misc.Cleaner cleaner) {
+        if (currentTarget instanceof sun.misc.Cleaner cleaner && cleaner.getThunk() != null) {
             // The printed version of the Runnable is likely to be more informative than the
-            // Cleaner itself.
+            // Cleaner itself. Cleaners without a thunk describe themselves.
             return cleaner.getThunk();
         } else {
             return currentTarget;
@@ -153,12 +156,25 @@ public class ReferenceQueue<T> {
             // Update queueNext to indicate that the reference has been
             // enqueued, but is now removed from the queue.
             r.queueNext = sQueueNextUnenqueued;
+            queueLength--;
             return r;
         }
 
         return null;
     }
 
+    // @GuardedBy("lock")
+    private int reallyPollLocked(Reference<?>[] batch, AtomicInteger batchCounter) {
+        int count = 0;
+        while (count < batch.length && head != null) {
+            batch[count++] = reallyPollLocked();
+        }
+        if (count > 0) {
+            batchCounter.incrementAndGet();
+        }
+        return count;
+    }
+
     /**
      * Polls this queue to see if a reference object is available.  If one is
      * available without further delay then it is removed from the queue and
@@ -231,6 +247,51 @@ public class ReferenceQueue<T> {
         return remove(0);
     }
 
+    /**
+     * Removes up to {@code batch.length} reference objects that are immediately available,
+     * storing them at the start of {@code batch} in the order they were enqueued. If any
+     * were removed, {@code batchCounter} is incremented before the queue's lock is released,
+     * so that a thread that later removes a reference from this queue is guaranteed to see
+     * the increment.
+     *
+     * @return the number of reference objects removed, possibly zero.
+     * @hide
+     */
+    public int poll(Reference<?>[] batch, AtomicInteger batchCounter) {
+        synchronized (lock) {
+            return reallyPollLocked(batch, batchCounter);
+        }
+    }
+
+    /**
+     * Like {@link #poll(Reference[], AtomicInteger)}, but blocks until at least one
+     * reference object is available.
+     *
+     * @return the number of reference objects removed, at least one.
+     * @throws  InterruptedException  If the wait is interrupted
+     * @hide
+     */
+    public int remove(Reference<?>[] batch, AtomicInteger batchCounter)
+            throws InterruptedException {
+        synchronized (lock) {
+            while (head == null) {
+                lock.wait();
+            }
+            return reallyPollLocked(batch, batchCounter);
+        }
+    }
+
+    /**
+     * Returns the number of reference objects currently enqueued on this queue.
+     *
+     * @hide
+     */
+    public long queueLength() {
+        synchronized (lock) {
+            return queueLength;
+        }
+    }
+
     /**
      * Enqueue the given list of currently pending (unenqueued) references.
      *
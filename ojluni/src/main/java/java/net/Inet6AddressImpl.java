@@ -113,17 +113,13 @@ class Inet6AddressImpl implements InetAddressImpl {
     private static InetAddress[] lookupHostByName(String host, int netId)
             throws UnknownHostException {
         BlockGuard.getThreadPolicy().onNetwork();
-        // Do we have a result cached?
-        Object cachedResult = addressCache.get(host, netId);
-        if (cachedResult != null) {
-            if (cachedResult instanceof InetAddress[]) {
-                // A cached positive result.
-                return (InetAddress[]) cachedResult;
-            } else {
-                // A cached negative result.
-                throw new UnknownHostException((String) cachedResult);
-            }
-        }
+        // Use a cached result if we have one, and otherwise resolve, sharing the resolution
+        // with any other threads looking up the same host.
+        return addressCache.lookup(host, netId, Inet6AddressImpl::resolveHostByName);
+    }
+
+    private static InetAddress[] resolveHostByName(String host, int netId)
+            throws UnknownHostException {
         try {
             StructAddrinfo hints = new StructAddrinfo();
             hints.ai_flags = AI_ADDRCONFIG;
@@ -138,12 +134,10 @@ class Inet6AddressImpl implements InetAddressImpl {
                 address.holder().hostName = host;
                 address.holder().originalHostName = host;
             }
-            addressCache.put(host, netId, addresses);
             return addresses;
         } catch (GaiException gaiException) {
-            // Throw an UnknownHostException.
+            // Throw an UnknownHostException, whose detail message the cache records.
             String detailMessage = "Unable to resolve host \"" + host + "\": " + Libcore.os.gai_strerror(gaiException.error);
-            addressCache.putUnknownHost(host, netId, detailMessage);
             throw gaiException.rethrowAsUnknownHostException(detailMessage);
         }
     }
@@ -159,6 +153,16 @@ class Inet6AddressImpl implements InetAddressImpl {
     public void clearAddressCache() {
         addressCache.clear();
     }
+
+    @Override
+    public long[] getAddressCacheCounters() {
+        return new long[] {
+            addressCache.getHitCount(),
+            addressCache.getStaleHitCount(),
+            addressCache.getMissCount(),
+            addressCache.getCoalescedCount(),
+        };
+    }
     // END Android-changed: Rewrote hostname lookup methods on top of Libcore.os.
 
     @Override
@@ -1653,6 +1653,17 @@ class InetAddress implements java.io.Serializable {
     public static void clearDnsCache() {
         impl.clearAddressCache();
     }
+
+    /**
+     * Returns counters of lookups in the VM's DNS cache, in this order: lookups that found a
+     * current entry, lookups that returned an expired entry while another thread refreshed
+     * it, lookups that resolved the name, and lookups that waited for another thread's
+     * resolution of the same name.
+     * @hide
+     */
+    public static long[] getDnsCacheCounters() {
+        return impl.getAddressCacheCounters();
+    }
     // END Android-added: Add methods required by frameworks/base.
     // BEGIN Android-added: Support for network (netId)-specific DNS resolution.
     /**
@@ -56,6 +56,11 @@ interface InetAddressImpl {
      * Clear address caches (if any).
      */
     public void clearAddressCache();
+
+    /**
+     * Returns the address cache's hit, stale hit, miss and coalesced lookup counts.
+     */
+    public long[] getAddressCacheCounters();
     // END Android-changed: Rewrote hostname lookup methods on top of Libcore.os.
 
     /**
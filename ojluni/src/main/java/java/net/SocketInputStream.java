@@ -28,10 +28,13 @@ package java.net;
 
 import java.io.FileDescriptor;
 import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.nio.channels.FileChannel;
 
 import dalvik.system.BlockGuard;
+import libcore.io.IoBridge;
 import sun.net.ConnectionResetException;
 
 /**
@@ -194,6 +197,42 @@ class SocketInputStream extends FileInputStream {
         return -1;
     }
 
+    // BEGIN Android-added: Copy to file descriptors inside the kernel in transferTo().
+    @Override
+    public long transferTo(OutputStream out) throws IOException {
+        // splice(2) cannot time out, so sockets with a read timeout go through read().
+        FileDescriptor outFd = (eof || impl.getTimeout() != 0)
+                ? null : FileOutputStream.getTransferFd(out);
+        if (outFd == null) {
+            return super.transferTo(out);
+        }
+
+        long transferred;
+        try {
+            if (impl.isConnectionReset()) {
+                throw new SocketException("Connection reset");
+            }
+            FileDescriptor fd = impl.acquireFD();
+            try {
+                BlockGuard.getThreadPolicy().onNetwork();
+                transferred = IoBridge.transfer(fd, outFd);
+            } catch (IOException e) {
+                if (impl.isClosedOrPending()) {
+                    throw new SocketException("Socket closed");
+                }
+                throw e;
+            } finally {
+                impl.releaseFD();
+            }
+        } finally {
+            FileOutputStream.releaseTransferFd(out);
+        }
+
+        // Copy whatever the kernel could not; normally this just finds the end of the stream.
+        return Math.addExact(transferred, super.transferTo(out));
+    }
+    // END Android-added: Copy to file descriptors inside the kernel in transferTo().
+
     /**
      * Reads a single byte from the socket.
      */
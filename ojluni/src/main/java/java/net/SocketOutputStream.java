@@ -156,6 +156,26 @@ class SocketOutputStream extends FileOutputStream {
         socketWrite(b, off, len);
     }
 
+    // BEGIN Android-added: Let FileInputStream.transferTo() copy to the socket inside the kernel.
+    /**
+     * Acquires the socket's file descriptor, for {@code transferTo} to copy to directly. Like
+     * {@link #socketWrite}, this keeps the socket from being closed until it is released.
+     */
+    @Override
+    protected FileDescriptor getTransferFd() throws IOException {
+        if (impl.isClosedOrPending()) {
+            throw new SocketException("Socket closed");
+        }
+        BlockGuard.getThreadPolicy().onNetwork();
+        return impl.acquireFD();
+    }
+
+    @Override
+    protected void releaseTransferFd() {
+        impl.releaseFD();
+    }
+    // END Android-added: Let FileInputStream.transferTo() copy to the socket inside the kernel.
+
     /**
      * Closes the stream.
      */
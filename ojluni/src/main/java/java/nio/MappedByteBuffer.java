@@ -146,8 +146,9 @@ public abstract class MappedByteBuffer
         return isLoaded0(mappingAddress(offset), length, Bits.pageCount(length));
     }
 
+    // Android-removed: load() no longer touches each page.
     // not used, but a potential target for a store, see load() for details.
-    private static byte unused;
+    // private static byte unused;
 
     /**
      * Loads this buffer's content into physical memory.
@@ -167,6 +168,8 @@ public abstract class MappedByteBuffer
         long length = mappingLength(offset);
         load0(mappingAddress(offset), length);
 
+        // BEGIN Android-removed: load0 faults the pages in with madvise.
+        /*
         // Read a byte from each page to bring it into memory. A checksum
         // is computed as we go along to prevent the compiler from otherwise
         // considering the loop as dead code.
@@ -181,10 +184,46 @@ public abstract class MappedByteBuffer
         }
         if (unused != 0)
             unused = x;
+        */
+        // END Android-removed: load0 faults the pages in with madvise.
 
         return this;
     }
 
+    // BEGIN Android-added: Access pattern hints for mapped buffers.
+    /**
+     * Tells the operating system how this buffer's content is going to be
+     * accessed, so that it can read ahead, or drop pages that are no longer
+     * needed, accordingly.
+     *
+     * <p> The advice is one of the {@code MADV_} constants in {@link
+     * android.system.OsConstants}: for example {@code MADV_SEQUENTIAL} before
+     * a scan, {@code MADV_RANDOM} for lookups, {@code MADV_WILLNEED} to start
+     * reading the content in without waiting for it, and {@code MADV_DONTNEED}
+     * once the content is no longer needed.  The advice applies to the pages
+     * spanned by this buffer, which may include parts of other buffers that
+     * share those pages.  It does not change the buffer's content, except that
+     * after {@code MADV_DONTNEED} the content of a private mapping ({@link
+     * java.nio.channels.FileChannel.MapMode#PRIVATE}) is read again from the
+     * file. </p>
+     *
+     * @param  advice
+     *         The expected access pattern
+     *
+     * @return  This buffer
+     *
+     * @hide
+     */
+    public final MappedByteBuffer advise(int advice) {
+        checkMapped();
+        if ((address != 0) && (capacity() != 0)) {
+            long offset = mappingOffset();
+            advise0(mappingAddress(offset), mappingLength(offset), advice);
+        }
+        return this;
+    }
+    // END Android-added: Access pattern hints for mapped buffers.
+
     /**
      * Forces any changes made to this buffer's content to be written to the
      * storage device containing the mapped file.
@@ -246,4 +285,6 @@ public abstract class MappedByteBuffer
     private native boolean isLoaded0(long address, long length, int pageCount);
     private native void load0(long address, long length);
     private native void force0(FileDescriptor fd, long address, long length);
+    // Android-added: Access pattern hints for mapped buffers.
+    private native void advise0(long address, long length, int advice);
 }
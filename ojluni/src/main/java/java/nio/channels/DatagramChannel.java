@@ -487,6 +487,255 @@ public abstract class DatagramChannel
     public abstract int send(ByteBuffer src, SocketAddress target)
         throws IOException;
 
+    // BEGIN Android-added: Batched receive and send.
+    /**
+     * Receives a sequence of datagrams via this channel, each into its own
+     * buffer of the given subsequence.
+     *
+     * <p> Each datagram is transferred into its buffer as if by the {@link
+     * #receive(ByteBuffer) receive} method, and if {@code senders} is not
+     * {@code null}, its source address is stored in the element of
+     * {@code senders} with the same index as the buffer.  If this channel is
+     * in blocking mode then this method blocks until at least one datagram is
+     * available, and then returns the datagrams that are immediately
+     * available, up to {@code length} of them.  If this channel is in
+     * non-blocking mode and no datagram is immediately available then this
+     * method returns zero.
+     *
+     * <p> The default implementation invokes {@link #receive(ByteBuffer)
+     * receive} once for each datagram.  Implementations may receive several
+     * datagrams with a single system call.
+     *
+     * @param  dsts
+     *         The buffers into which the datagrams are to be transferred
+     *
+     * @param  offset
+     *         The offset within the buffer array of the first buffer into
+     *         which a datagram is to be transferred; must be non-negative
+     *         and no larger than {@code dsts.length}
+     *
+     * @param  length
+     *         The maximum number of datagrams to be received; must be
+     *         non-negative and no larger than
+     *         {@code dsts.length}&nbsp;-&nbsp;{@code offset}
+     *
+     * @param  senders
+     *         The array in which the datagrams' source addresses are to be
+     *         stored, or {@code null}
+     *
+     * @return  The number of datagrams received, possibly zero
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the {@code offset} and {@code length}
+     *          parameters do not hold, or if {@code senders} is not {@code null}
+     *          and its length is less than
+     *          {@code offset}&nbsp;+&nbsp;{@code length}
+     *
+     * @throws  IllegalArgumentException
+     *          If one of the buffers is read-only
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be accepted
+     *          from a datagram's sender
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @hide
+     */
+    public int receive(ByteBuffer[] dsts, int offset, int length,
+                       SocketAddress[] senders)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > dsts.length - length))
+            throw new IndexOutOfBoundsException();
+        if ((senders != null) && (senders.length < offset + length))
+            throw new IndexOutOfBoundsException();
+        int n = 0;
+        while (n < length) {
+            SocketAddress sender = receive(dsts[offset + n]);
+            if (sender == null)
+                break;
+            if (senders != null)
+                senders[offset + n] = sender;
+            n++;
+            // Do not block waiting for another datagram.
+            if (isBlocking())
+                break;
+        }
+        return n;
+    }
+
+    /**
+     * Receives a sequence of datagrams via this channel, each into its own
+     * buffer.
+     *
+     * <p> An invocation of this method of the form
+     * {@code c.receive(dsts, senders)} behaves in exactly the same manner as
+     * the invocation
+     *
+     * <blockquote><pre>
+     * c.receive(dsts, 0, dsts.length, senders);</pre></blockquote>
+     *
+     * @param  dsts
+     *         The buffers into which the datagrams are to be transferred
+     *
+     * @param  senders
+     *         The array in which the datagrams' source addresses are to be
+     *         stored, or {@code null}
+     *
+     * @return  The number of datagrams received, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @hide
+     */
+    public final int receive(ByteBuffer[] dsts, SocketAddress[] senders)
+        throws IOException
+    {
+        return receive(dsts, 0, dsts.length, senders);
+    }
+
+    /**
+     * Sends a sequence of datagrams via this channel, each from its own buffer
+     * of the given subsequence.
+     *
+     * <p> The remaining bytes of each buffer are sent as a single datagram to
+     * the element of {@code targets} with the same index as the buffer, as if
+     * by the {@link #send(ByteBuffer,SocketAddress) send} method.  If this
+     * channel is connected then {@code targets} may be {@code null}, in which
+     * case the datagrams are sent to the channel's peer.  If this channel is
+     * in non-blocking mode then fewer than {@code length} datagrams are sent
+     * if the underlying output buffer fills up.
+     *
+     * <p> The default implementation invokes {@link
+     * #send(ByteBuffer,SocketAddress) send}, or {@link #write(ByteBuffer)
+     * write} if {@code targets} is {@code null}, once for each datagram.
+     * Implementations may send several datagrams with a single system call.
+     *
+     * @param  srcs
+     *         The buffers containing the datagrams to be sent
+     *
+     * @param  offset
+     *         The offset within the buffer array of the first buffer from
+     *         which a datagram is to be sent; must be non-negative and no
+     *         larger than {@code srcs.length}
+     *
+     * @param  length
+     *         The number of datagrams to be sent; must be non-negative and no
+     *         larger than {@code srcs.length}&nbsp;-&nbsp;{@code offset}
+     *
+     * @param  targets
+     *         The addresses to which the datagrams are to be sent, or
+     *         {@code null} if this channel is connected
+     *
+     * @return  The number of datagrams sent, possibly zero
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the {@code offset} and {@code length}
+     *          parameters do not hold, or if {@code targets} is not {@code null}
+     *          and its length is less than
+     *          {@code offset}&nbsp;+&nbsp;{@code length}
+     *
+     * @throws  NotYetConnectedException
+     *          If {@code targets} is {@code null} and this channel is not
+     *          connected
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the write operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the write operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  UnresolvedAddressException
+     *          If one of the target addresses is not fully resolved
+     *
+     * @throws  UnsupportedAddressTypeException
+     *          If the type of one of the target addresses is not supported
+     *
+     * @throws  SecurityException
+     *          If a security manager has been installed
+     *          and it does not permit datagrams to be sent
+     *          to one of the given addresses
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @hide
+     */
+    public int send(ByteBuffer[] srcs, int offset, int length,
+                    SocketAddress[] targets)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+        if ((targets != null) && (targets.length < offset + length))
+            throw new IndexOutOfBoundsException();
+        int n = 0;
+        for (; n < length; n++) {
+            ByteBuffer src = srcs[offset + n];
+            int remaining = src.remaining();
+            int sent = (targets == null) ? write(src) : send(src, targets[offset + n]);
+            if ((sent == 0) && (remaining > 0))
+                break;
+        }
+        return n;
+    }
+
+    /**
+     * Sends a sequence of datagrams via this channel, each from its own
+     * buffer.
+     *
+     * <p> An invocation of this method of the form
+     * {@code c.send(srcs, targets)} behaves in exactly the same manner as the
+     * invocation
+     *
+     * <blockquote><pre>
+     * c.send(srcs, 0, srcs.length, targets);</pre></blockquote>
+     *
+     * @param  srcs
+     *         The buffers containing the datagrams to be sent
+     *
+     * @param  targets
+     *         The addresses to which the datagrams are to be sent, or
+     *         {@code null} if this channel is connected
+     *
+     * @return  The number of datagrams sent, possibly zero
+     *
+     * @throws  IOException
+     *          If an I/O error occurs
+     *
+     * @hide
+     */
+    public final int send(ByteBuffer[] srcs, SocketAddress[] targets)
+        throws IOException
+    {
+        return send(srcs, 0, srcs.length, targets);
+    }
+    // END Android-added: Batched receive and send.
+
 
     // -- ByteChannel operations --
 
@@ -563,6 +563,52 @@ public abstract class FileChannel
      */
     public abstract void force(boolean metaData) throws IOException;
 
+    // BEGIN Android-added: Access pattern hints.
+    /**
+     * Tells the operating system how a region of this channel's file is going
+     * to be accessed, so that it can read ahead, or drop cached data,
+     * accordingly.
+     *
+     * <p> The advice is one of the {@code POSIX_FADV_} constants in {@link
+     * android.system.OsConstants}: for example {@code POSIX_FADV_SEQUENTIAL}
+     * before streaming through the file, {@code POSIX_FADV_WILLNEED} to start
+     * reading a region in before it is needed, and {@code POSIX_FADV_DONTNEED}
+     * once a region is no longer needed.  Advice never changes the file's
+     * content or the result of any other operation, and the default
+     * implementation ignores it. </p>
+     *
+     * @param  position
+     *         The position within the file at which the region starts;
+     *         must be non-negative
+     *
+     * @param  size
+     *         The size of the region, or zero for the rest of the file;
+     *         must be non-negative
+     *
+     * @param  advice
+     *         The expected access pattern
+     *
+     * @throws  IllegalArgumentException
+     *          If the preconditions on the parameters do not hold
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @hide
+     */
+    public void advise(long position, long size, int advice) throws IOException {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size");
+        if (!isOpen())
+            throw new ClosedChannelException();
+    }
+    // END Android-added: Access pattern hints.
+
     /**
      * Transfers bytes from this channel's file to the given writable byte
      * channel.
@@ -787,6 +833,213 @@ public abstract class FileChannel
      */
     public abstract int write(ByteBuffer src, long position) throws IOException;
 
+    // BEGIN Android-added: Positional scattering reads and gathering writes.
+    /**
+     * Reads a sequence of bytes from this channel into a subsequence of the
+     * given buffers, starting at the given file position.
+     *
+     * <p> This method works in the same manner as the {@link
+     * #read(ByteBuffer[],int,int)} method, except that bytes are read starting
+     * at the given file position rather than at the channel's current
+     * position.  This method does not modify this channel's position, so
+     * several threads may read from different positions at once.  If the
+     * given position is greater than the file's current size then no bytes
+     * are read.  </p>
+     *
+     * <p> This implementation reads into each buffer in turn with {@link
+     * #read(ByteBuffer,long)}, stopping at the first buffer that is not
+     * filled.  The file channels of the default file system read into all of
+     * the buffers at once.  </p>
+     *
+     * @param  dsts
+     *         The buffers into which bytes are to be transferred
+     *
+     * @param  offset
+     *         The offset within the buffer array of the first buffer into
+     *         which bytes are to be transferred; must be non-negative and no
+     *         larger than {@code dsts.length}
+     *
+     * @param  length
+     *         The maximum number of buffers to be accessed; must be
+     *         non-negative and no larger than {@code dsts.length - offset}
+     *
+     * @param  position
+     *         The file position at which the transfer is to begin;
+     *         must be non-negative
+     *
+     * @return  The number of bytes read, possibly zero, or {@code -1} if the
+     *          given position is greater than or equal to the file's current
+     *          size
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the {@code offset} and {@code length}
+     *          parameters do not hold
+     *
+     * @throws  IllegalArgumentException
+     *          If the position is negative
+     *
+     * @throws  NonReadableChannelException
+     *          If this channel was not opened for reading
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the read operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the read operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @hide
+     */
+    public long read(ByteBuffer[] dsts, int offset, int length, long position)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > dsts.length - length))
+            throw new IndexOutOfBoundsException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            ByteBuffer dst = dsts[i];
+            int remaining = dst.remaining();
+            int n = read(dst, position + total);
+            if (n < 0)
+                return (total == 0) ? -1 : total;
+            total += n;
+            if (n < remaining)
+                break;
+        }
+        return total;
+    }
+
+    /**
+     * Reads a sequence of bytes from this channel into the given buffers,
+     * starting at the given file position.
+     *
+     * <p> An invocation of this method of the form {@code c.read(dsts, position)}
+     * behaves in exactly the same manner as the invocation
+     *
+     * <blockquote><pre>
+     * c.read(dsts, 0, dsts.length, position);</pre></blockquote>
+     *
+     * @hide
+     */
+    public final long read(ByteBuffer[] dsts, long position) throws IOException {
+        return read(dsts, 0, dsts.length, position);
+    }
+
+    /**
+     * Writes a sequence of bytes to this channel from a subsequence of the
+     * given buffers, starting at the given file position.
+     *
+     * <p> This method works in the same manner as the {@link
+     * #write(ByteBuffer[],int,int)} method, except that bytes are written
+     * starting at the given file position rather than at the channel's
+     * current position.  This method does not modify this channel's position,
+     * so several threads may write to different positions at once.  If the
+     * given position is greater than the file's current size then the file
+     * will be grown to accommodate the new bytes; the values of any bytes
+     * between the previous end-of-file and the newly-written bytes are
+     * unspecified.  </p>
+     *
+     * <p> If the file is opened in <a href="#append-mode">append mode</a>,
+     * then the effect of invoking this method is unspecified.
+     *
+     * <p> This implementation writes each buffer in turn with {@link
+     * #write(ByteBuffer,long)}, stopping at the first buffer that is not
+     * written completely.  The file channels of the default file system
+     * write all of the buffers at once.  </p>
+     *
+     * @param  srcs
+     *         The buffers from which bytes are to be retrieved
+     *
+     * @param  offset
+     *         The offset within the buffer array of the first buffer from
+     *         which bytes are to be retrieved; must be non-negative and no
+     *         larger than {@code srcs.length}
+     *
+     * @param  length
+     *         The maximum number of buffers to be accessed; must be
+     *         non-negative and no larger than {@code srcs.length - offset}
+     *
+     * @param  position
+     *         The file position at which the transfer is to begin;
+     *         must be non-negative
+     *
+     * @return  The number of bytes written, possibly zero
+     *
+     * @throws  IndexOutOfBoundsException
+     *          If the preconditions on the {@code offset} and {@code length}
+     *          parameters do not hold
+     *
+     * @throws  IllegalArgumentException
+     *          If the position is negative
+     *
+     * @throws  NonWritableChannelException
+     *          If this channel was not opened for writing
+     *
+     * @throws  ClosedChannelException
+     *          If this channel is closed
+     *
+     * @throws  AsynchronousCloseException
+     *          If another thread closes this channel
+     *          while the write operation is in progress
+     *
+     * @throws  ClosedByInterruptException
+     *          If another thread interrupts the current thread
+     *          while the write operation is in progress, thereby
+     *          closing the channel and setting the current thread's
+     *          interrupt status
+     *
+     * @throws  IOException
+     *          If some other I/O error occurs
+     *
+     * @hide
+     */
+    public long write(ByteBuffer[] srcs, int offset, int length, long position)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        long total = 0;
+        for (int i = offset; i < offset + length; i++) {
+            ByteBuffer src = srcs[i];
+            int remaining = src.remaining();
+            int n = write(src, position + total);
+            total += n;
+            if (n < remaining)
+                break;
+        }
+        return total;
+    }
+
+    /**
+     * Writes a sequence of bytes to this channel from the given buffers,
+     * starting at the given file position.
+     *
+     * <p> An invocation of this method of the form {@code c.write(srcs, position)}
+     * behaves in exactly the same manner as the invocation
+     *
+     * <blockquote><pre>
+     * c.write(srcs, 0, srcs.length, position);</pre></blockquote>
+     *
+     * @hide
+     */
+    public final long write(ByteBuffer[] srcs, long position) throws IOException {
+        return write(srcs, 0, srcs.length, position);
+    }
+    // END Android-added: Positional scattering reads and gathering writes.
+
 
     // -- Memory-mapped buffers --
 
@@ -34,6 +34,8 @@ import java.nio.channels.IllegalSelectorException;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
+// Android-added: Wake epoll selectors that close a channel's fd on its behalf.
+import sun.nio.ch.EPollSelectorProvider;
 
 
 /**
@@ -253,6 +255,15 @@ public abstract class AbstractSelectableChannel
             for (SelectionKey k : copyOfKeys) {
                 if (k != null) {
                     k.cancel();   // invalidate and adds key to cancelledKey set
+                    // BEGIN Android-added: Wake epoll selectors that close a channel's fd on its behalf.
+                    // EPollSelectorProvider channels that are registered leave closing their fd to
+                    // the selector, which only does so once it deregisters the cancelled key. Wake
+                    // it now that the key is cancelled so that a selector blocked without a timeout
+                    // doesn't hold the fd open indefinitely.
+                    if (provider instanceof EPollSelectorProvider) {
+                        k.selector().wakeup();
+                    }
+                    // END Android-added: Wake epoll selectors that close a channel's fd on its behalf.
                 }
             }
         }
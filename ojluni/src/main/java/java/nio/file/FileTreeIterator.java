@@ -67,7 +67,21 @@ class FileTreeIterator implements Iterator<Event>, Closeable {
     FileTreeIterator(Path start, int maxDepth, FileVisitOption... options)
         throws IOException
     {
-        this.walker = new FileTreeWalker(Arrays.asList(options), maxDepth);
+        // BEGIN Android-changed: Use the file type from the directory where attributes are not needed.
+        this(start, maxDepth, true, options);
+    }
+
+    /**
+     * Creates a new iterator to walk the file tree starting at the given file.
+     * If {@code needAttributes} is false, the events may have {@code null}
+     * attributes.
+     */
+    FileTreeIterator(Path start, int maxDepth, boolean needAttributes,
+                     FileVisitOption... options)
+        throws IOException
+    {
+        this.walker = new FileTreeWalker(Arrays.asList(options), maxDepth, needAttributes);
+        // END Android-changed: Use the file type from the directory where attributes are not needed.
         this.next = walker.walk(start);
         assert next.type() == FileTreeWalker.EventType.ENTRY ||
                next.type() == FileTreeWalker.EventType.START_DIRECTORY;
@@ -32,6 +32,8 @@ import java.util.ArrayDeque;
 import java.util.Collection;
 import java.util.Iterator;
 import sun.nio.fs.BasicFileAttributesHolder;
+// Android-added: Use the file type from the directory where attributes are not needed.
+import sun.nio.fs.FileTypeHolder;
 
 /**
  * Walks a file tree, generating a sequence of events corresponding to the files
@@ -58,6 +60,8 @@ class FileTreeWalker implements Closeable {
     private final boolean followLinks;
     private final LinkOption[] linkOptions;
     private final int maxDepth;
+    // Android-added: Use the file type from the directory where attributes are not needed.
+    private final boolean needAttributes;
     private final ArrayDeque<DirectoryNode> stack = new ArrayDeque<>();
     private boolean closed;
 
@@ -175,6 +179,19 @@ class FileTreeWalker implements Closeable {
      *          array contains a {@code null} element
      */
     FileTreeWalker(Collection<FileVisitOption> options, int maxDepth) {
+        // BEGIN Android-changed: Use the file type from the directory where attributes are not needed.
+        this(options, maxDepth, true);
+    }
+
+    /**
+     * Creates a {@code FileTreeWalker}. If {@code needAttributes} is false,
+     * the events for files in the tree may have {@code null} attributes, and
+     * the walker reads the attributes of a file only where it can't otherwise
+     * tell whether to walk into it.
+     */
+    FileTreeWalker(Collection<FileVisitOption> options, int maxDepth,
+                   boolean needAttributes) {
+        // END Android-changed: Use the file type from the directory where attributes are not needed.
         boolean fl = false;
         for (FileVisitOption option: options) {
             // will throw NPE if options contains null
@@ -191,6 +208,8 @@ class FileTreeWalker implements Closeable {
         this.linkOptions = (fl) ? new LinkOption[0] :
             new LinkOption[] { LinkOption.NOFOLLOW_LINKS };
         this.maxDepth = maxDepth;
+        // Android-added: Use the file type from the directory where attributes are not needed.
+        this.needAttributes = needAttributes;
     }
 
     /**
@@ -270,6 +289,14 @@ class FileTreeWalker implements Closeable {
      * for the file can be used or not.
      */
     private Event visit(Path entry, boolean ignoreSecurityException, boolean canUseCached) {
+        // BEGIN Android-added: Use the file type from the directory where attributes are not needed.
+        if (!needAttributes && canUseCached && System.getSecurityManager() == null) {
+            Event ev = visitWithoutAttributes(entry);
+            if (ev != null)
+                return ev;
+        }
+        // END Android-added: Use the file type from the directory where attributes are not needed.
+
         // need the file attributes
         BasicFileAttributes attrs;
         try {
@@ -311,6 +338,42 @@ class FileTreeWalker implements Closeable {
         return new Event(EventType.START_DIRECTORY, entry, attrs);
     }
 
+    // BEGIN Android-added: Use the file type from the directory where attributes are not needed.
+    /**
+     * Visits the given file without reading its attributes, returning the
+     * {@code Event} corresponding to that visit, or {@code null} if the
+     * attributes are needed to decide whether to walk into the file.
+     */
+    private Event visitWithoutAttributes(Path entry) {
+        boolean isDirectory;
+        if (stack.size() >= maxDepth) {
+            isDirectory = false;
+        } else if (entry instanceof FileTypeHolder) {
+            // A link may lead to a directory, and walking into a directory
+            // when following links needs its file key to detect cycles.
+            FileTypeHolder holder = (FileTypeHolder)entry;
+            if (followLinks && (holder.isDirectory() || holder.isSymbolicLink()))
+                return null;
+            isDirectory = holder.isDirectory();
+        } else {
+            return null;
+        }
+
+        if (!isDirectory)
+            return new Event(EventType.ENTRY, entry, (BasicFileAttributes)null);
+
+        DirectoryStream<Path> stream;
+        try {
+            stream = Files.newDirectoryStream(entry);
+        } catch (IOException ioe) {
+            return new Event(EventType.ENTRY, entry, ioe);
+        }
+
+        // the file key is only used when following links
+        stack.push(new DirectoryNode(entry, null, stream));
+        return new Event(EventType.START_DIRECTORY, entry, (BasicFileAttributes)null);
+    }
+    // END Android-added: Use the file type from the directory where attributes are not needed.
 
     /**
      * Start walking from the given file.
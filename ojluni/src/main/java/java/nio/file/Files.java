@@ -3571,7 +3571,9 @@ public final class Files {
                                     FileVisitOption... options)
         throws IOException
     {
-        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        // Android-changed: Use the file type from the directory where attributes are not needed.
+        // FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, options);
+        FileTreeIterator iterator = new FileTreeIterator(start, maxDepth, false, options);
         try {
             return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.DISTINCT), false)
                                 .onClose(iterator::close)
@@ -230,6 +230,15 @@ class JarFile extends ZipFile {
 
     private native String[] getMetaInfEntryNames();
 
+    // BEGIN Android-added: Pure Java central directory index.
+    // The native method reads the jzfile, which is not used when ZipFile reads the
+    // central directory through its Java index.
+    private String[] metaInfEntryNames() {
+        String[] names = getIndexedMetaInfEntryNames();
+        return (names != null) ? names : getMetaInfEntryNames();
+    }
+    // END Android-added: Pure Java central directory index.
+
     /**
      * Returns the <code>JarEntry</code> for the given entry name or
      * <code>null</code> if not found.
@@ -354,7 +363,7 @@ class JarFile extends ZipFile {
         }
 
         if (verify) {
-            String[] names = getMetaInfEntryNames();
+            String[] names = metaInfEntryNames();
             if (names != null) {
                 for (int i = 0; i < names.length; i++) {
                     String name = names[i].toUpperCase(Locale.ENGLISH);
@@ -386,7 +395,7 @@ class JarFile extends ZipFile {
 
         // Verify "META-INF/" entries...
         try {
-            String[] names = getMetaInfEntryNames();
+            String[] names = metaInfEntryNames();
             if (names != null) {
                 for (int i = 0; i < names.length; i++) {
                     String uname = names[i].toUpperCase(Locale.ENGLISH);
@@ -523,7 +532,7 @@ class JarFile extends ZipFile {
             if (manEntry == null) {
                 // If not found, then iterate through all the "META-INF/"
                 // entries to find a match.
-                String[] names = getMetaInfEntryNames();
+                String[] names = metaInfEntryNames();
                 if (names != null) {
                     for (int i = 0; i < names.length; i++) {
                         if (MANIFEST_NAME.equals(
@@ -85,6 +85,17 @@ class ZipFile implements ZipConstants, Closeable {
     // Android-added: CloseGuard support.
     private final CloseGuard guard = CloseGuard.get();
 
+    // BEGIN Android-added: Pure Java central directory index.
+    // When non-null this replaces jzfile, which then stays 0. See ZipFileIndex.
+    private final ZipFileIndex index;
+
+    // System property that opts new ZipFile instances into the Java index.
+    private static final String JAVA_INDEX_PROPERTY = "java.util.zip.ZipFile.useJavaIndex";
+
+    // Files named like this are file descriptors that only the native open() understands.
+    private static final String GMSCOMPAT_FD_PREFIX = "/gmscompat_fd_";
+    // END Android-added: Pure Java central directory index.
+
     // Android-added: Do not use unlink() to implement OPEN_DELETE.
     // Upstream uses unlink() to cause the file name to be removed from the filesystem after it is
     // opened but that does not work on fuse fs as it causes problems with lseek. Android simply
@@ -288,6 +299,14 @@ class ZipFile implements ZipConstants, Closeable {
         if (charset == null)
             throw new NullPointerException("charset is null");
         this.zc = ZipCoder.get(charset);
+        // BEGIN Android-changed: Pure Java central directory index.
+        if (Boolean.getBoolean(JAVA_INDEX_PROPERTY) && !name.startsWith(GMSCOMPAT_FD_PREFIX)) {
+            index = new ZipFileIndex(this, name, zc, isZipPathValidatorEnabled);
+            this.name = name;
+            this.total = index.size();
+            this.locsig = index.startsWithLOC();
+        } else {
+            index = null;
         // Android-removed: Skip perf counters.
         // long t0 = System.nanoTime();
         jzfile = open(name, mode, file.lastModified(), usemmap);
@@ -297,6 +316,8 @@ class ZipFile implements ZipConstants, Closeable {
         this.name = name;
         this.total = getTotal(jzfile);
         this.locsig = startsWithLOC(jzfile);
+        }
+        // END Android-changed: Pure Java central directory index.
         // Android-added: CloseGuard support.
         guard.open("close");
     }
@@ -362,7 +383,9 @@ class ZipFile implements ZipConstants, Closeable {
     public String getComment() {
         synchronized (this) {
             ensureOpen();
-            byte[] bcomm = getCommentBytes(jzfile);
+            // Android-changed: Pure Java central directory index.
+            // byte[] bcomm = getCommentBytes(jzfile);
+            byte[] bcomm = (index != null) ? index.getCommentBytes() : getCommentBytes(jzfile);
             if (bcomm == null)
                 return null;
             return zc.toString(bcomm, bcomm.length);
@@ -384,6 +407,12 @@ class ZipFile implements ZipConstants, Closeable {
         long jzentry = 0;
         synchronized (this) {
             ensureOpen();
+            // BEGIN Android-added: Pure Java central directory index.
+            if (index != null) {
+                int i = index.getEntry(zc.getBytes(name), true);
+                return (i != -1) ? getZipEntry(name, i) : null;
+            }
+            // END Android-added: Pure Java central directory index.
             jzentry = getEntry(jzfile, zc.getBytes(name), true);
             if (jzentry != 0) {
                 ZipEntry ze = getZipEntry(name, jzentry);
@@ -426,6 +455,11 @@ class ZipFile implements ZipConstants, Closeable {
         ZipFileInputStream in = null;
         synchronized (this) {
             ensureOpen();
+            // BEGIN Android-added: Pure Java central directory index.
+            if (index != null) {
+                return getInputStreamFromIndex(entry);
+            }
+            // END Android-added: Pure Java central directory index.
             if (!zc.isUTF8() && (entry.flag & USE_UTF8) != 0) {
                 // Android-changed: Find entry by name, falling back to name/ if cannot be found.
                 // Needed for ClassPathURLStreamHandler handling of URLs without trailing slashes.
@@ -471,6 +505,43 @@ class ZipFile implements ZipConstants, Closeable {
         }
     }
 
+    // BEGIN Android-added: Pure Java central directory index.
+    private InputStream getInputStreamFromIndex(ZipEntry entry) throws IOException {
+        assert Thread.holdsLock(this);
+        byte[] bname;
+        if (!zc.isUTF8() && (entry.flag & USE_UTF8) != 0) {
+            bname = zc.getBytesUTF8(entry.name);
+        } else {
+            bname = zc.getBytes(entry.name);
+        }
+        int i = index.getEntry(bname, true);
+        if (i == -1) {
+            return null;
+        }
+        ZipFileInputStream in = new ZipFileInputStream(index.getEntryDataPosition(i),
+                index.getEntryCSize(i), index.getEntrySize(i));
+        switch (index.getEntryMethod(i)) {
+        case STORED:
+            synchronized (streams) {
+                streams.put(in, null);
+            }
+            return in;
+        case DEFLATED:
+            long size = index.getEntrySize(i) + 2; // Inflater likes a bit of slack
+            if (size > 65536) size = 65536;
+            if (size <= 0) size = 4096;
+            Inflater inf = getInflater();
+            InputStream is = new ZipFileInflaterInputStream(in, inf, (int)size);
+            synchronized (streams) {
+                streams.put(is, inf);
+            }
+            return is;
+        default:
+            throw new ZipException("invalid compression method");
+        }
+    }
+    // END Android-added: Pure Java central directory index.
+
     private class ZipFileInflaterInputStream extends InflaterInputStream {
         private volatile boolean closeRequested = false;
         private boolean eof = false;
@@ -593,6 +664,10 @@ class ZipFile implements ZipConstants, Closeable {
                 if (i >= total) {
                     throw new NoSuchElementException();
                 }
+                // Android-added: Pure Java central directory index.
+                if (index != null) {
+                    return getZipEntry(null, i++);
+                }
                 long jzentry = getNextEntry(jzfile, i++);
                 if (jzentry == 0) {
                     String message;
@@ -642,7 +717,8 @@ class ZipFile implements ZipConstants, Closeable {
     }
 
     // Android-added: Hook to validate zip entry name by ZipPathValidator.
-    private void onZipEntryAccess(byte[] bname, int flag) throws ZipException {
+    // Android-changed: Package-private so that ZipFileIndex can call it.
+    void onZipEntryAccess(byte[] bname, int flag) throws ZipException {
         String name;
         if (!zc.isUTF8() && (flag & USE_UTF8) != 0) {
             name = zc.toStringUTF8(bname, bname.length);
@@ -684,6 +760,40 @@ class ZipFile implements ZipConstants, Closeable {
         return e;
     }
 
+    // BEGIN Android-added: Pure Java central directory index.
+    private ZipEntry getZipEntry(String name, int i) {
+        ZipEntry e = new ZipEntry();
+        e.flag = index.getEntryFlag(i);  // get the flag first
+        if (name != null) {
+            e.name = name;
+        } else {
+            byte[] bname = index.getEntryBytes(i, JZENTRY_NAME);
+            if (!zc.isUTF8() && (e.flag & USE_UTF8) != 0) {
+                e.name = zc.toStringUTF8(bname, bname.length);
+            } else {
+                e.name = zc.toString(bname, bname.length);
+            }
+        }
+        e.xdostime = index.getEntryTime(i);
+        e.crc = index.getEntryCrc(i);
+        e.size = index.getEntrySize(i);
+        e.csize = index.getEntryCSize(i);
+        e.method = index.getEntryMethod(i);
+        e.setExtra0(index.getEntryBytes(i, JZENTRY_EXTRA), false);
+        byte[] bcomm = index.getEntryBytes(i, JZENTRY_COMMENT);
+        if (bcomm == null) {
+            e.comment = null;
+        } else {
+            if (!zc.isUTF8() && (e.flag & USE_UTF8) != 0) {
+                e.comment = zc.toStringUTF8(bcomm, bcomm.length);
+            } else {
+                e.comment = zc.toString(bcomm, bcomm.length);
+            }
+        }
+        return e;
+    }
+    // END Android-added: Pure Java central directory index.
+
     private static native long getNextEntry(long jzfile, int i);
 
     /**
@@ -756,6 +866,10 @@ class ZipFile implements ZipConstants, Closeable {
 
                 close(zf);
             }
+            // Android-added: Pure Java central directory index.
+            if (index != null) {
+                index.close();
+            }
             // Android-added: Do not use unlink() to implement OPEN_DELETE.
             if (fileToRemoveOnClose != null) {
                 fileToRemoveOnClose.delete();
@@ -792,7 +906,9 @@ class ZipFile implements ZipConstants, Closeable {
             throw new IllegalStateException("zip file closed");
         }
 
-        if (jzfile == 0) {
+        // Android-changed: Pure Java central directory index.
+        // if (jzfile == 0) {
+        if (jzfile == 0 && index == null) {
             throw new IllegalStateException("The object is not initialized.");
         }
     }
@@ -813,12 +929,24 @@ class ZipFile implements ZipConstants, Closeable {
         private   long pos;     // current position within entry data
         protected long rem;     // number of remaining bytes within entry
         protected long size;    // uncompressed size of this entry
+        // Android-added: File position of the entry data when reading through the index.
+        private final long dataPos;
 
         ZipFileInputStream(long jzentry) {
             pos = 0;
             rem = getEntryCSize(jzentry);
             size = getEntrySize(jzentry);
             this.jzentry = jzentry;
+            // Android-added: Pure Java central directory index.
+            dataPos = -1;
+        }
+
+        // Android-added: Pure Java central directory index.
+        ZipFileInputStream(long dataPos, long csize, long size) {
+            pos = 0;
+            rem = csize;
+            this.size = size;
+            this.dataPos = dataPos;
         }
 
         public int read(byte b[], int off, int len) throws IOException {
@@ -846,8 +974,13 @@ class ZipFile implements ZipConstants, Closeable {
                 // Android-removed: Always throw an exception when reading from closed zipfile.
                 // Moved to the start of the method.
                 //ensureOpenOrZipException();
+                // Android-changed: Pure Java central directory index.
+                if (index != null) {
+                    len = index.read(dataPos + pos, b, off, len);
+                } else {
                 len = ZipFile.read(ZipFile.this.jzfile, jzentry, pos, b,
                                    off, len);
+                }
                 if (len > 0) {
                     this.pos = (pos + len);
                     this.rem = (rem - len);
@@ -939,12 +1072,28 @@ class ZipFile implements ZipConstants, Closeable {
     /** @hide */
     // @VisibleForTesting
     public int getFileDescriptor() {
-        return getFileDescriptor(jzfile);
+        // Android-changed: Pure Java central directory index.
+        // return getFileDescriptor(jzfile);
+        return (index != null) ? index.getFileDescriptor() : getFileDescriptor(jzfile);
     }
 
     private static native int getFileDescriptor(long jzfile);
     // END Android-added: Provide access to underlying file descriptor for testing.
 
+    // BEGIN Android-added: Pure Java central directory index.
+    /**
+     * Returns the names of the "META-INF/" entries when this file is read through the
+     * Java central directory index, or {@code null} if the native implementation is in use.
+     * @hide
+     */
+    public String[] getIndexedMetaInfEntryNames() {
+        synchronized (this) {
+            ensureOpen();
+            return (index != null) ? index.getMetaInfEntryNames() : null;
+        }
+    }
+    // END Android-added: Pure Java central directory index.
+
     // Android-changed: Make it as a non-static method, so it can access charset config.
     private native long open(String name, int mode, long lastModified,
                                     boolean usemmap) throws IOException;
@@ -962,9 +1111,10 @@ class ZipFile implements ZipConstants, Closeable {
     private static native int getEntryFlag(long jzentry);
     private static native byte[] getCommentBytes(long jzfile);
 
-    private static final int JZENTRY_NAME = 0;
-    private static final int JZENTRY_EXTRA = 1;
-    private static final int JZENTRY_COMMENT = 2;
+    // Android-changed: Package-private, for ZipFileIndex.getEntryBytes.
+    static final int JZENTRY_NAME = 0;
+    static final int JZENTRY_EXTRA = 1;
+    static final int JZENTRY_COMMENT = 2;
     private static native byte[] getEntryBytes(long jzentry, int type);
 
     private static native String getZipMessage(long jzfile);
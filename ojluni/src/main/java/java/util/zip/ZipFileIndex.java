@@ -0,0 +1,564 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package java.util.zip;
+
+import android.system.ErrnoException;
+
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import libcore.io.IoBridge;
+import libcore.io.Libcore;
+import libcore.io.Memory;
+
+import static android.system.OsConstants.MAP_SHARED;
+import static android.system.OsConstants.O_CLOEXEC;
+import static android.system.OsConstants.O_RDONLY;
+import static android.system.OsConstants.PROT_READ;
+import static android.system.OsConstants._SC_PAGESIZE;
+import static java.util.zip.ZipConstants.*;
+import static java.util.zip.ZipConstants64.*;
+
+/**
+ * A pure Java replacement for the native {@code jzfile} used by {@link ZipFile}.
+ *
+ * <p>The central directory is mmapped once and never copied. Entries are
+ * identified by their index in the central directory, and lookups by name go
+ * through an open-addressed hash table of {@code int}s, so no per-entry
+ * objects exist until a {@link ZipEntry} is requested. Entry data is read
+ * with pread(2) on the file descriptor.
+ *
+ * <p>This class is not thread safe; {@link ZipFile} serializes all access by
+ * synchronizing on itself, which also guarantees that the mapping is not
+ * used after {@link #close}.
+ */
+final class ZipFileIndex {
+    // Zip files are little endian.
+    private static final boolean SWAP = ByteOrder.nativeOrder() != ByteOrder.LITTLE_ENDIAN;
+
+    private static final int END_MAXLEN = 0xFFFF + ENDHDR;
+
+    private static final byte[] META_INF = { 'M', 'E', 'T', 'A', '-', 'I', 'N', 'F', '/' };
+
+    // Fields of the zip64 extended information extra field, in the order they appear.
+    private static final int ZIP64_FIELD_SIZE = 0;
+    private static final int ZIP64_FIELD_CSIZE = 1;
+    private static final int ZIP64_FIELD_OFFSET = 2;
+
+    private final FileDescriptor fd;
+    private final long mapAddress;   // address returned by mmap, 0 if nothing is mapped
+    private final long mapLength;
+    private final long cenAddress;   // address of the first CEN header
+    private final long locpos;       // position of the first LOC header
+    private final boolean locsig;
+    private final byte[] comment;
+
+    private final int total;
+    private final int[] entryOffsets;  // offset of each CEN header from cenAddress
+    private final int[] entryHashes;   // hash of each entry name
+    private final int[] table;         // entry index + 1, or 0 for an empty slot
+    private final String[] metaInfNames;
+
+    private boolean closed;
+
+    ZipFileIndex(ZipFile zipFile, String name, ZipCoder zc, boolean validate)
+            throws IOException {
+        fd = IoBridge.open(name, O_RDONLY | O_CLOEXEC);
+        long address = 0;
+        long length = 0;
+        try {
+            long fileLength = Libcore.os.fstat(fd).st_size;
+            locsig = fileLength >= 4 && readInt(0) == LOCSIG;
+
+            // Find the END header by scanning backwards over the maximum comment length.
+            int tailLength = (int) Math.min(fileLength, END_MAXLEN);
+            byte[] tail = new byte[tailLength];
+            readFully(fileLength - tailLength, tail, 0, tailLength);
+            int end = -1;
+            for (int i = tailLength - ENDHDR; i >= 0; i--) {
+                if (ZipUtils.get32(tail, i) == ENDSIG
+                        && i + ENDHDR + ZipUtils.get16(tail, i + ENDCOM) == tailLength) {
+                    end = i;
+                    break;
+                }
+            }
+            if (end == -1) {
+                throw new ZipException("zip END header not found");
+            }
+            long endpos = fileLength - tailLength + end;
+            int commentLength = ZipUtils.get16(tail, end + ENDCOM);
+            comment = (commentLength == 0) ? null
+                    : Arrays.copyOfRange(tail, end + ENDHDR, end + ENDHDR + commentLength);
+
+            long cenlen = ZipUtils.get32(tail, end + ENDSIZ);
+            long cenoff = ZipUtils.get32(tail, end + ENDOFF);
+            long hint = ZipUtils.get16(tail, end + ENDTOT);
+            if (cenlen == ZIP64_MAGICVAL || cenoff == ZIP64_MAGICVAL
+                    || hint == ZIP64_MAGICCOUNT) {
+                long end64pos = findEND64(endpos);
+                if (end64pos != -1) {
+                    byte[] end64 = new byte[ZIP64_ENDHDR];
+                    readFully(end64pos, end64, 0, ZIP64_ENDHDR);
+                    cenlen = ZipUtils.get64(end64, ZIP64_ENDSIZ);
+                    cenoff = ZipUtils.get64(end64, ZIP64_ENDOFF);
+                    hint = ZipUtils.get64(end64, ZIP64_ENDTOT);
+                    endpos = end64pos;
+                }
+            }
+            if (cenlen > endpos) {
+                throw new ZipException("invalid END header (bad central directory size)");
+            }
+            if (cenlen > Integer.MAX_VALUE) {
+                throw new ZipException("invalid END header (central directory too large)");
+            }
+            long cenpos = endpos - cenlen;
+            locpos = cenpos - cenoff;
+            if (locpos < 0) {
+                throw new ZipException("invalid END header (bad central directory offset)");
+            }
+
+            // Map only the central directory, aligned down to a page boundary.
+            if (cenlen > 0) {
+                long pageSize = Libcore.os.sysconf(_SC_PAGESIZE);
+                long offset = cenpos & ~(pageSize - 1);
+                length = cenpos - offset + cenlen;
+                address = Libcore.os.mmap(0L, length, PROT_READ, MAP_SHARED, fd, offset);
+                cenAddress = address + (cenpos - offset);
+            } else {
+                cenAddress = 0;
+            }
+            mapAddress = address;
+            mapLength = length;
+
+            // ENDTOT is only a hint; it overflows for zip files that are not zip64 but
+            // have more than 65535 entries.
+            int capacity = (int) Math.min(Math.max(hint, 0), cenlen / CENHDR);
+            int[] offsets = new int[capacity];
+            int[] hashes = new int[capacity];
+            List<String> metaNames = new ArrayList<>();
+            int count = 0;
+            int cp = 0;
+            while (cp + CENHDR <= cenlen) {
+                long header = cenAddress + cp;
+                if (peekInt(header) != (int) CENSIG) {
+                    throw new ZipException("invalid CEN header (bad signature)");
+                }
+                int flag = peekShort(header + CENFLG);
+                int method = peekShort(header + CENHOW);
+                int nlen = peekShort(header + CENNAM);
+                int size = CENHDR + nlen + peekShort(header + CENEXT) + peekShort(header + CENCOM);
+                if ((flag & 1) != 0) {
+                    throw new ZipException("invalid CEN header (encrypted entry)");
+                }
+                if (method != STORED && method != DEFLATED) {
+                    throw new ZipException("invalid CEN header (bad compression method)");
+                }
+                if (cp + size > cenlen) {
+                    throw new ZipException("invalid CEN header (bad header size)");
+                }
+
+                int hash = 0;
+                for (int i = 0; i < nlen; i++) {
+                    byte b = Memory.peekByte(header + CENHDR + i);
+                    if (b == 0) {
+                        throw new ZipException("invalid CEN header (invalid entry name)");
+                    }
+                    hash = 31 * hash + b;
+                }
+                if (validate || isMetaName(header, nlen)) {
+                    byte[] bname = new byte[nlen];
+                    Memory.peekByteArray(header + CENHDR, bname, 0, nlen);
+                    if (validate) {
+                        zipFile.onZipEntryAccess(bname, flag);
+                    }
+                    if (isMetaName(header, nlen)) {
+                        metaNames.add(decode(zc, bname, flag));
+                    }
+                }
+
+                if (count == offsets.length) {
+                    int newCapacity = Math.max(16, count * 2);
+                    offsets = Arrays.copyOf(offsets, newCapacity);
+                    hashes = Arrays.copyOf(hashes, newCapacity);
+                }
+                offsets[count] = cp;
+                hashes[count] = hash;
+                count++;
+                cp += size;
+            }
+            total = count;
+            entryOffsets = offsets;
+            entryHashes = hashes;
+            metaInfNames = metaNames.toArray(new String[metaNames.size()]);
+
+            // Power of two, at most half full.
+            int tableLength = Integer.highestOneBit(Math.max(total, 1)) << 2;
+            table = new int[tableLength];
+            for (int i = 0; i < total; i++) {
+                int slot = entryHashes[i] & (tableLength - 1);
+                int other;
+                while ((other = table[slot]) != 0) {
+                    if (entryHashes[other - 1] == entryHashes[i]
+                            && nameEquals(other - 1, cenAddress + entryOffsets[i] + CENHDR,
+                                    peekShort(cenAddress + entryOffsets[i] + CENNAM))) {
+                        throw new ZipException("invalid CEN header (duplicate entry)");
+                    }
+                    slot = (slot + 1) & (tableLength - 1);
+                }
+                table[slot] = i + 1;
+            }
+        } catch (ErrnoException errnoException) {
+            cleanup(address, length);
+            throw errnoException.rethrowAsIOException();
+        } catch (Throwable t) {
+            cleanup(address, length);
+            throw t;
+        }
+    }
+
+    private void cleanup(long address, long length) {
+        try {
+            if (address != 0) {
+                Libcore.os.munmap(address, length);
+            }
+            IoBridge.closeAndSignalBlockedThreads(fd);
+        } catch (ErrnoException | IOException ignored) {
+        }
+    }
+
+    private long findEND64(long endpos) throws IOException {
+        if (endpos < ZIP64_LOCHDR) {
+            return -1;
+        }
+        byte[] loc = new byte[ZIP64_LOCHDR];
+        readFully(endpos - ZIP64_LOCHDR, loc, 0, ZIP64_LOCHDR);
+        if (ZipUtils.get32(loc, 0) != ZIP64_LOCSIG) {
+            return -1;
+        }
+        long end64pos = ZipUtils.get64(loc, ZIP64_LOCOFF);
+        byte[] sig = new byte[4];
+        readFully(end64pos, sig, 0, 4);
+        return (ZipUtils.get32(sig, 0) == ZIP64_ENDSIG) ? end64pos : -1;
+    }
+
+    private static boolean isMetaName(long header, int nlen) {
+        if (nlen < META_INF.length) {
+            return false;
+        }
+        for (int i = 0; i < META_INF.length; i++) {
+            byte b = Memory.peekByte(header + CENHDR + i);
+            if (b >= 'a' && b <= 'z') {
+                b -= 'a' - 'A';
+            }
+            if (b != META_INF[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String decode(ZipCoder zc, byte[] bytes, int flag) {
+        if (!zc.isUTF8() && (flag & USE_UTF8) != 0) {
+            return zc.toStringUTF8(bytes, bytes.length);
+        }
+        return zc.toString(bytes, bytes.length);
+    }
+
+    private static int peekShort(long address) {
+        return Memory.peekShort(address, SWAP) & 0xffff;
+    }
+
+    private static int peekInt(long address) {
+        return Memory.peekInt(address, SWAP);
+    }
+
+    private static long peekUnsignedInt(long address) {
+        return peekInt(address) & 0xffffffffL;
+    }
+
+    private long header(int i) {
+        return cenAddress + entryOffsets[i];
+    }
+
+    private boolean nameEquals(int i, long name, int nlen) {
+        long header = header(i);
+        if (peekShort(header + CENNAM) != nlen) {
+            return false;
+        }
+        for (int j = 0; j < nlen; j++) {
+            if (Memory.peekByte(header + CENHDR + j) != Memory.peekByte(name + j)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean nameEquals(int i, byte[] name, int nlen) {
+        long header = header(i);
+        if (peekShort(header + CENNAM) != nlen) {
+            return false;
+        }
+        for (int j = 0; j < nlen; j++) {
+            if (Memory.peekByte(header + CENHDR + j) != name[j]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int find(byte[] name, int nlen, int hash) {
+        int mask = table.length - 1;
+        int slot = hash & mask;
+        int entry;
+        while ((entry = table[slot]) != 0) {
+            if (entryHashes[entry - 1] == hash && nameEquals(entry - 1, name, nlen)) {
+                return entry - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the index of the entry called {@code name}, or -1. If {@code addSlash} is true
+     * and there is no such entry, the name is retried with a trailing slash.
+     */
+    int getEntry(byte[] name, boolean addSlash) {
+        ensureOpen();
+        int hash = 0;
+        for (byte b : name) {
+            hash = 31 * hash + b;
+        }
+        int i = find(name, name.length, hash);
+        if (i == -1 && addSlash && (name.length == 0 || name[name.length - 1] != '/')) {
+            byte[] slashed = Arrays.copyOf(name, name.length + 1);
+            slashed[name.length] = '/';
+            i = find(slashed, slashed.length, 31 * hash + '/');
+        }
+        return i;
+    }
+
+    int size() {
+        return total;
+    }
+
+    boolean startsWithLOC() {
+        return locsig;
+    }
+
+    byte[] getCommentBytes() {
+        ensureOpen();
+        return (comment == null) ? null : comment.clone();
+    }
+
+    String[] getMetaInfEntryNames() {
+        ensureOpen();
+        return metaInfNames.clone();
+    }
+
+    int getFileDescriptor() {
+        return fd.getInt$();
+    }
+
+    long getEntryTime(int i) {
+        return peekUnsignedInt(header(i) + CENTIM);
+    }
+
+    long getEntryCrc(int i) {
+        return peekUnsignedInt(header(i) + CENCRC);
+    }
+
+    long getEntryCSize(int i) {
+        long csize = peekUnsignedInt(header(i) + CENSIZ);
+        return (csize == ZIP64_MAGICVAL) ? getZip64Field(i, ZIP64_FIELD_CSIZE) : csize;
+    }
+
+    long getEntrySize(int i) {
+        long size = peekUnsignedInt(header(i) + CENLEN);
+        return (size == ZIP64_MAGICVAL) ? getZip64Field(i, ZIP64_FIELD_SIZE) : size;
+    }
+
+    int getEntryMethod(int i) {
+        return peekShort(header(i) + CENHOW);
+    }
+
+    int getEntryFlag(int i) {
+        return peekShort(header(i) + CENFLG);
+    }
+
+    /**
+     * Returns the name, extra or comment bytes of entry {@code i}, following the
+     * {@code JZENTRY_*} type constants of {@link ZipFile}. Returns null for an empty
+     * extra field or comment.
+     */
+    byte[] getEntryBytes(int i, int type) {
+        long header = header(i);
+        int nlen = peekShort(header + CENNAM);
+        int elen = peekShort(header + CENEXT);
+        int clen = peekShort(header + CENCOM);
+        long start;
+        int len;
+        switch (type) {
+            case ZipFile.JZENTRY_NAME:
+                start = header + CENHDR;
+                len = nlen;
+                break;
+            case ZipFile.JZENTRY_EXTRA:
+                start = header + CENHDR + nlen;
+                len = elen;
+                break;
+            case ZipFile.JZENTRY_COMMENT:
+                start = header + CENHDR + nlen + elen;
+                len = clen;
+                break;
+            default:
+                throw new IllegalArgumentException("Invalid entry bytes type: " + type);
+        }
+        if (len == 0 && type != ZipFile.JZENTRY_NAME) {
+            return null;
+        }
+        byte[] bytes = new byte[len];
+        Memory.peekByteArray(start, bytes, 0, len);
+        return bytes;
+    }
+
+    private long getLocOffset(int i) {
+        long off = peekUnsignedInt(header(i) + CENOFF);
+        return (off == ZIP64_MAGICVAL) ? getZip64Field(i, ZIP64_FIELD_OFFSET) : off;
+    }
+
+    /**
+     * Reads a field of the zip64 extended information extra field. Only the fields whose
+     * CEN value is {@code ZIP64_MAGICVAL} are present, in the order size, csize, offset.
+     * Returns -1 if the field is missing.
+     */
+    private long getZip64Field(int i, int field) {
+        long header = header(i);
+        int nlen = peekShort(header + CENNAM);
+        int elen = peekShort(header + CENEXT);
+        long extra = header + CENHDR + nlen;
+        long extraEnd = extra + elen;
+        while (extra + 4 <= extraEnd) {
+            int tag = peekShort(extra);
+            int sz = peekShort(extra + 2);
+            long data = extra + 4;
+            if (data + sz > extraEnd) {
+                break;
+            }
+            if (tag == EXTID_ZIP64) {
+                long pos = data;
+                if (peekUnsignedInt(header + CENLEN) == ZIP64_MAGICVAL) {
+                    if (field == ZIP64_FIELD_SIZE) {
+                        return pos + 8 <= data + sz ? Memory.peekLong(pos, SWAP) : -1;
+                    }
+                    pos += 8;
+                }
+                if (peekUnsignedInt(header + CENSIZ) == ZIP64_MAGICVAL) {
+                    if (field == ZIP64_FIELD_CSIZE) {
+                        return pos + 8 <= data + sz ? Memory.peekLong(pos, SWAP) : -1;
+                    }
+                    pos += 8;
+                }
+                if (field == ZIP64_FIELD_OFFSET) {
+                    return pos + 8 <= data + sz ? Memory.peekLong(pos, SWAP) : -1;
+                }
+                return -1;
+            }
+            extra = data + sz;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the file position of the data of entry {@code i}, just past its LOC header.
+     */
+    long getEntryDataPosition(int i) throws IOException {
+        ensureOpen();
+        long pos = locpos + getLocOffset(i);
+        byte[] loc = new byte[LOCHDR];
+        readFully(pos, loc, 0, LOCHDR);
+        if (ZipUtils.get32(loc, 0) != LOCSIG) {
+            throw new ZipException("invalid LOC header (bad signature)");
+        }
+        return pos + LOCHDR + ZipUtils.get16(loc, LOCNAM) + ZipUtils.get16(loc, LOCEXT);
+    }
+
+    /**
+     * Reads up to {@code len} bytes at file position {@code pos}.
+     */
+    int read(long pos, byte[] b, int off, int len) throws IOException {
+        ensureOpen();
+        try {
+            int n = Libcore.os.pread(fd, b, off, len, pos);
+            if (n == 0 && len > 0) {
+                throw new EOFException("Unexpected end of zip file");
+            }
+            return n;
+        } catch (ErrnoException errnoException) {
+            throw errnoException.rethrowAsIOException();
+        }
+    }
+
+    private void readFully(long pos, byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int n = read(pos, b, off, len);
+            pos += n;
+            off += n;
+            len -= n;
+        }
+    }
+
+    private int readInt(long pos) throws IOException {
+        byte[] b = new byte[4];
+        readFully(pos, b, 0, 4);
+        return ZipUtils.get32S(b, 0);
+    }
+
+    private void ensureOpen() {
+        if (closed) {
+            throw new IllegalStateException("zip file closed");
+        }
+    }
+
+    void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (mapAddress != 0) {
+                Libcore.os.munmap(mapAddress, mapLength);
+            }
+        } catch (ErrnoException errnoException) {
+            throw errnoException.rethrowAsIOException();
+        } finally {
+            IoBridge.closeAndSignalBlockedThreads(fd);
+        }
+    }
+}
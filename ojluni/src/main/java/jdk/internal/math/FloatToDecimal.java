@@ -0,0 +1,440 @@
+/*
+ * Copyright (c) 2021, 2022, Oracle and/or its affiliates. All rights reserved.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  Oracle designates this
+ * particular file as subject to the "Classpath" exception as provided
+ * by Oracle in the LICENSE file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ *
+ * Please contact Oracle, 500 Oracle Parkway, Redwood Shores, CA 94065 USA
+ * or visit www.oracle.com if you need additional information or have any
+ * questions.
+ */
+
+package jdk.internal.math;
+
+import static java.lang.Float.floatToRawIntBits;
+import static java.lang.Integer.numberOfLeadingZeros;
+import static java.lang.Math.multiplyHigh;
+import static jdk.internal.math.MathUtils.flog10pow2;
+import static jdk.internal.math.MathUtils.flog10threeQuartersPow2;
+import static jdk.internal.math.MathUtils.flog2pow10;
+import static jdk.internal.math.MathUtils.g1;
+import static jdk.internal.math.MathUtils.pow10;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders a {@code float} as the shortest decimal that rounds to it, in the
+ * format of {@link Float#toString(float)}.
+ *
+ * <p>This is the {@code float} counterpart of {@link DoubleToDecimal}; see
+ * there for the references.
+ */
+public final class FloatToDecimal {
+    /*
+     * For full details about this code see [1].
+     */
+
+    // The precision in bits.
+    static final int P = 24;
+
+    // Exponent width in bits.
+    private static final int W = (Float.SIZE - 1) - (P - 1);
+
+    // Minimum value of the exponent: -(2^(W-1)) - P + 3.
+    static final int Q_MIN = (-1 << (W - 1)) - P + 3;
+
+    // Threshold to detect tiny values, as in section 8.2.1 of [1].
+    static final int C_TINY = 8;
+
+    // The number of decimal digits of the significand, as in section 10 of [1].
+    static final int H = 9;
+
+    // Minimum value of the significand of a normal value: 2^(P-1).
+    private static final int C_MIN = 1 << (P - 1);
+
+    // Mask to extract the biased exponent.
+    private static final int BQ_MASK = (1 << W) - 1;
+
+    // Mask to extract the fraction bits.
+    private static final int T_MASK = (1 << (P - 1)) - 1;
+
+    // Used in rop().
+    private static final long MASK_32 = (1L << 32) - 1;
+
+    // Used for left-to-right digit extraction.
+    private static final int MASK_28 = (1 << 28) - 1;
+
+    private static final int NON_SPECIAL    = 0;
+    private static final int PLUS_ZERO      = 1;
+    private static final int MINUS_ZERO     = 2;
+    private static final int PLUS_INF       = 3;
+    private static final int MINUS_INF      = 4;
+    private static final int NAN            = 5;
+
+    /**
+     * The maximum number of characters in the rendering of a {@code float},
+     * as in "-1.2345678E-38".
+     */
+    public static final int MAX_CHARS = 15;
+
+    private final byte[] bytes;
+
+    // Index into bytes of the rightmost valid character.
+    private int index;
+
+    private FloatToDecimal(byte[] bytes, int index) {
+        this.bytes = bytes;
+        this.index = index;
+    }
+
+    /**
+     * Returns a string rendering of the {@code float} argument.
+     *
+     * @param v the {@code float} to be rendered.
+     * @return a string rendering of the argument.
+     * @see Float#toString(float)
+     */
+    public static String toString(float v) {
+        byte[] bytes = new byte[MAX_CHARS];
+        int length = putDecimal(bytes, 0, v);
+        return new String(bytes, 0, length, StandardCharsets.ISO_8859_1);
+    }
+
+    /**
+     * Writes the rendering of {@code v} as Latin-1 characters into
+     * {@code bytes}, starting at {@code offset}, which must leave room for
+     * {@link #MAX_CHARS} characters.
+     *
+     * @return the offset just past the last character written.
+     */
+    public static int putDecimal(byte[] bytes, int offset, float v) {
+        FloatToDecimal ftd = new FloatToDecimal(bytes, offset - 1);
+        switch (ftd.toDecimal(v)) {
+            case NON_SPECIAL:
+                return ftd.index + 1;
+            case PLUS_ZERO:
+                return DoubleToDecimal.putSpecial(bytes, offset, "0.0");
+            case MINUS_ZERO:
+                return DoubleToDecimal.putSpecial(bytes, offset, "-0.0");
+            case PLUS_INF:
+                return DoubleToDecimal.putSpecial(bytes, offset, "Infinity");
+            case MINUS_INF:
+                return DoubleToDecimal.putSpecial(bytes, offset, "-Infinity");
+            default:
+                return DoubleToDecimal.putSpecial(bytes, offset, "NaN");
+        }
+    }
+
+    /*
+     * Returns
+     *     PLUS_ZERO       iff v is 0.0
+     *     MINUS_ZERO      iff v is -0.0
+     *     PLUS_INF        iff v is POSITIVE_INFINITY
+     *     MINUS_INF       iff v is NEGATIVE_INFINITY
+     *     NAN             iff v is NaN
+     *     NON_SPECIAL     otherwise, having rendered v into bytes
+     */
+    private int toDecimal(float v) {
+        /*
+         * For full details see references [2] and [1].
+         *
+         * For finite v != 0, determine integers c and q such that
+         *     |v| = c 2^q    and
+         *     Q_MIN <= q <= Q_MAX    and
+         *         either    2^(P-1) <= c < 2^P                 (normal)
+         *         or        0 < c < 2^(P-1)  and  q = Q_MIN    (subnormal)
+         */
+        int bits = floatToRawIntBits(v);
+        int t = bits & T_MASK;
+        int bq = (bits >>> P - 1) & BQ_MASK;
+        if (bq < BQ_MASK) {
+            if (bits < 0) {
+                append('-');
+            }
+            if (bq != 0) {
+                // normal value. Here mq = -q
+                int mq = -Q_MIN + 1 - bq;
+                int c = C_MIN | t;
+                // The fast path discussed in section 8.3 of [1].
+                if (0 < mq & mq < P) {
+                    int f = c >> mq;
+                    if (f << mq == c) {
+                        return toChars(f, 0);
+                    }
+                }
+                return toDecimal(-mq, c, 0);
+            }
+            if (t != 0) {
+                // subnormal value
+                return t < C_TINY
+                       ? toDecimal(Q_MIN, 10 * t, -1)
+                       : toDecimal(Q_MIN, t, 0);
+            }
+            return bits == 0 ? PLUS_ZERO : MINUS_ZERO;
+        }
+        if (t != 0) {
+            return NAN;
+        }
+        return bits > 0 ? PLUS_INF : MINUS_INF;
+    }
+
+    private int toDecimal(int q, int c, int dk) {
+        /*
+         * The skeleton corresponds to figure 7 of [1].
+         * The efficient computations are those summarized in figure 9.
+         * Also check the appendix.
+         *
+         * The names are the same as in DoubleToDecimal.
+         */
+        int out = c & 0x1;
+        long cb = c << 2;
+        long cbr = cb + 2;
+        long cbl;
+        int k;
+        /*
+         * flog10pow2(e) = floor(log_10(2^e))
+         * flog10threeQuartersPow2(e) = floor(log_10(3/4 2^e))
+         * flog2pow10(e) = floor(log_2(10^e))
+         */
+        if (c != C_MIN | q == Q_MIN) {
+            // regular spacing
+            cbl = cb - 2;
+            k = flog10pow2(q);
+        } else {
+            // irregular spacing
+            cbl = cb - 1;
+            k = flog10threeQuartersPow2(q);
+        }
+        int h = q + flog2pow10(-k) + 33;
+
+        // g is as in the appendix
+        long g = g1(k) + 1;
+
+        int vb = rop(g, cb << h);
+        int vbl = rop(g, cbl << h);
+        int vbr = rop(g, cbr << h);
+
+        int s = vb >> 2;
+        if (s >= 100) {
+            /*
+             * For n = 9, m = 1 the table in section 10 of [1] shows
+             *     s' = floor(s / 10) = floor(s 1_717_986_919 / 2^34)
+             *
+             * sp10 = 10 s'
+             * tp10 = 10 t'
+             * upin    iff    u' = sp10 10^k in Rv
+             * wpin    iff    w' = tp10 10^k in Rv
+             * See section 9.3 of [1].
+             */
+            int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+            int tp10 = sp10 + 10;
+            boolean upin = vbl + out <= sp10 << 2;
+            boolean wpin = (tp10 << 2) + out <= vbr;
+            if (upin != wpin) {
+                return toChars(upin ? sp10 : tp10, k);
+            }
+        }
+
+        /*
+         * 10 <= s < 100    or    s >= 100  and  u', w' not in Rv
+         * uin    iff    u = s 10^k in Rv
+         * win    iff    w = t 10^k in Rv
+         * See section 9.3 of [1].
+         */
+        int t = s + 1;
+        boolean uin = vbl + out <= s << 2;
+        boolean win = (t << 2) + out <= vbr;
+        if (uin != win) {
+            // Exactly one of u or w lies in Rv.
+            return toChars(uin ? s : t, k + dk);
+        }
+        /*
+         * Both u and w lie in Rv: determine the one closest to v.
+         * See section 9.3 of [1].
+         */
+        int cmp = vb - (s + t << 1);
+        return toChars(cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t, k + dk);
+    }
+
+    /*
+     * Computes rop(cp g 2^(-95))
+     * See appendix and figure 11 of [1].
+     */
+    private static int rop(long g, long cp) {
+        long x1 = multiplyHigh(g, cp);
+        long vbp = x1 >>> 31;
+        return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+    }
+
+    /*
+     * Formats the decimal f 10^e.
+     */
+    private int toChars(int f, int e) {
+        /*
+         * For details not discussed here see section 10 of [1].
+         *
+         * Determine len such that
+         *     10^(len-1) <= f < 10^len
+         */
+        int len = flog10pow2(Integer.SIZE - numberOfLeadingZeros(f));
+        if (f >= pow10(len)) {
+            len += 1;
+        }
+
+        /*
+         * Let fp and ep be the original f and e, respectively.
+         * Transform f and e to ensure
+         *     10^(H-1) <= f < 10^H
+         *     fp 10^ep = f 10^(e-H) = 0.f 10^e
+         */
+        f *= (int) pow10(H - len);
+        e += len;
+
+        /*
+         * The toChars?() methods perform left-to-right digits extraction
+         * using ints, provided that the arguments are limited to 8 digits.
+         * Therefore, split the H = 9 digits of f into:
+         *     h = the most significant digit of f
+         *     l = the last 8, least significant digits of f
+         *
+         * For n = 9, m = 8 the table in section 10 of [1] shows
+         *     floor(f / 10^8) = floor(1_441_151_881 f / 2^57)
+         */
+        int h = (int) (f * 1_441_151_881L >>> 57);
+        int l = f - 100_000_000 * h;
+
+        if (0 < e && e <= 7) {
+            return toChars1(h, l, e);
+        }
+        if (-3 < e && e <= 0) {
+            return toChars2(h, l, e);
+        }
+        return toChars3(h, l, e);
+    }
+
+    private int toChars1(int h, int l, int e) {
+        /*
+         * 0 < e <= 7: plain format without leading zeroes.
+         * Left-to-right digits extraction:
+         * algorithm 1 in [3], with b = 10, k = 8, n = 28.
+         */
+        appendDigit(h);
+        int y = y(l);
+        int t;
+        int i = 1;
+        for (; i < e; ++i) {
+            t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+        }
+        append('.');
+        for (; i <= 8; ++i) {
+            t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+        }
+        removeTrailingZeroes();
+        return NON_SPECIAL;
+    }
+
+    private int toChars2(int h, int l, int e) {
+        // -3 < e <= 0: plain format with leading zeroes.
+        appendDigit(0);
+        append('.');
+        for (; e < 0; ++e) {
+            appendDigit(0);
+        }
+        appendDigit(h);
+        append8Digits(l);
+        removeTrailingZeroes();
+        return NON_SPECIAL;
+    }
+
+    private int toChars3(int h, int l, int e) {
+        // -3 >= e | e > 7: computerized scientific notation
+        appendDigit(h);
+        append('.');
+        append8Digits(l);
+        removeTrailingZeroes();
+        exponent(e - 1);
+        return NON_SPECIAL;
+    }
+
+    private void append8Digits(int m) {
+        /*
+         * Left-to-right digits extraction:
+         * algorithm 1 in [3], with b = 10, k = 8, n = 28.
+         */
+        int y = y(m);
+        for (int i = 0; i < 8; ++i) {
+            int t = 10 * y;
+            appendDigit(t >>> 28);
+            y = t & MASK_28;
+        }
+    }
+
+    private void removeTrailingZeroes() {
+        while (bytes[index] == '0') {
+            --index;
+        }
+        // ... but do not remove the one directly to the right of '.'
+        if (bytes[index] == '.') {
+            ++index;
+        }
+    }
+
+    private int y(int a) {
+        /*
+         * Algorithm 1 in [3] needs computation of
+         *     floor((a + 1) 2^n / b^k) - 1
+         * with a < 10^8, b = 10, k = 8, n = 28.
+         * Noting that
+         *     (a + 1) 2^n <= 10^8 2^28 < 10^17
+         * For n = 17, m = 8 the table in section 10 of [1] leads to:
+         */
+        return (int) (multiplyHigh(
+                (long) (a + 1) << 28,
+                193_428_131_138_340_668L) >>> 20) - 1;
+    }
+
+    private void exponent(int e) {
+        append('E');
+        if (e < 0) {
+            append('-');
+            e = -e;
+        }
+        if (e < 10) {
+            appendDigit(e);
+            return;
+        }
+        /*
+         * For n = 2, m = 1 the table in section 10 of [1] shows
+         *     floor(e / 10) = floor(103 e / 2^10)
+         */
+        int d = e * 103 >>> 10;
+        appendDigit(d);
+        appendDigit(e - 10 * d);
+    }
+
+    private void append(int c) {
+        bytes[++index] = (byte) c;
+    }
+
+    private void appendDigit(int d) {
+        bytes[++index] = (byte) ('0' + d);
+    }
+}
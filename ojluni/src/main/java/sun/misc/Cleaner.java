@@ -133,6 +133,30 @@ public class Cleaner
     }
     // END Android-added: Support for Timeout reoprting.
 
+    // BEGIN Android-added: Thunk-less cleaners for libcore.util.NativeAllocationRegistry.
+    /**
+     * Creates a cleaner without a thunk, which runs {@link #cleanUp} instead.
+     * This lets a subclass carry its own cleanup state rather than allocating
+     * a separate thunk object for each referent.
+     *
+     * @hide
+     */
+    protected Cleaner(Object referent) {
+        super(referent, dummyQueue);
+        this.thunk = null;
+        add(this);
+    }
+
+    /**
+     * Cleanup code for cleaners created without a thunk. Like a thunk, it is
+     * run at most once, directly from the reference-handler thread.
+     *
+     * @hide
+     */
+    protected void cleanUp() {
+    }
+    // END Android-added: Thunk-less cleaners for libcore.util.NativeAllocationRegistry.
+
     /**
      * Creates a new cleaner.
      *
@@ -157,7 +181,13 @@ public class Cleaner
         if (!remove(this))
             return;
         try {
-            thunk.run();
+            // Android-changed: Cleaners created without a thunk run cleanUp().
+            // thunk.run();
+            if (thunk != null) {
+                thunk.run();
+            } else {
+                cleanUp();
+            }
         } catch (final Throwable x) {
             AccessController.doPrivileged(new PrivilegedAction<Void>() {
                     public Void run() {
@@ -574,6 +574,215 @@ class DatagramChannelImpl
         return written;
     }
 
+    // BEGIN Android-added: Batched receive and send with recvmmsg and sendmmsg.
+    @Override
+    public int receive(ByteBuffer[] dsts, int offset, int length,
+                       SocketAddress[] senders)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > dsts.length - length))
+            throw new IndexOutOfBoundsException();
+        if ((senders != null) && (senders.length < offset + length))
+            throw new IndexOutOfBoundsException();
+        for (int i = offset; i < offset + length; i++) {
+            if (dsts[i].isReadOnly())
+                throw new IllegalArgumentException("Read-only buffer");
+        }
+        synchronized (readLock) {
+            ensureOpen();
+            // Like receive(ByteBuffer), do not implicitly bind.
+            if (localAddress() == null)
+                return 0;
+            // Each datagram has to be checked against the security manager.
+            if (!isConnected() && (System.getSecurityManager() != null))
+                return super.receive(dsts, offset, length, senders);
+            int count = Math.min(length, IOUtil.IOV_MAX);
+            if (count == 0)
+                return 0;
+            long[] addresses = new long[count];
+            int[] lengths = new int[count];
+            // Temporary direct buffers for the buffers that are not direct.
+            ByteBuffer[] shadows = null;
+            try {
+                for (int i = 0; i < count; i++) {
+                    ByteBuffer dst = dsts[offset + i];
+                    int pos = dst.position();
+                    int lim = dst.limit();
+                    int rem = (pos <= lim ? lim - pos : 0);
+                    if (dst instanceof DirectBuffer && rem > 0) {
+                        addresses[i] = ((DirectBuffer)dst).address() + pos;
+                        lengths[i] = rem;
+                    } else {
+                        // As in receive(FileDescriptor, ByteBuffer), an empty
+                        // buffer still needs room to receive a datagram into.
+                        if (shadows == null)
+                            shadows = new ByteBuffer[count];
+                        ByteBuffer bb = Util.getTemporaryDirectBuffer(Math.max(rem, 1));
+                        shadows[i] = bb;
+                        addresses[i] = ((DirectBuffer)bb).address();
+                        lengths[i] = Math.max(rem, 1);
+                    }
+                }
+
+                int n = 0;
+                try {
+                    begin();
+                    if (!isOpen())
+                        return 0;
+                    readerThread = NativeThread.current();
+                    BlockGuard.getThreadPolicy().onNetwork();
+                    do {
+                        n = receiveBatch0(fd, addresses, lengths, count, isConnected(),
+                                          senders, offset);
+                    } while ((n == IOStatus.INTERRUPTED) && isOpen());
+                    if (n < 0)
+                        return 0;
+                    for (int i = 0; i < n; i++) {
+                        ByteBuffer dst = dsts[offset + i];
+                        ByteBuffer bb = (shadows != null) ? shadows[i] : null;
+                        if (bb == null) {
+                            dst.position(dst.position() + lengths[i]);
+                        } else {
+                            bb.limit(Math.min(lengths[i], dst.remaining()));
+                            dst.put(bb);
+                        }
+                    }
+                    return n;
+                } finally {
+                    readerThread = 0;
+                    end((n > 0) || (n == IOStatus.UNAVAILABLE));
+                    assert IOStatus.check(n);
+                }
+            } finally {
+                if (shadows != null) {
+                    for (ByteBuffer bb : shadows) {
+                        if (bb != null)
+                            Util.releaseTemporaryDirectBuffer(bb);
+                    }
+                }
+            }
+        }
+    }
+
+    @Override
+    public int send(ByteBuffer[] srcs, int offset, int length,
+                    SocketAddress[] targets)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+        if ((targets != null) && (targets.length < offset + length))
+            throw new IndexOutOfBoundsException();
+        synchronized (writeLock) {
+            ensureOpen();
+            int count = Math.min(length, IOUtil.IOV_MAX);
+            // The targets, or null to send to the connected peer.
+            InetAddress[] destAddresses = null;
+            int[] destPorts = null;
+            synchronized (stateLock) {
+                if (!isConnected()) {
+                    if (targets == null)
+                        throw new NotYetConnectedException();
+                    destAddresses = new InetAddress[count];
+                    destPorts = new int[count];
+                    SecurityManager sm = System.getSecurityManager();
+                    for (int i = 0; i < count; i++) {
+                        InetSocketAddress isa = Net.checkAddress(targets[offset + i]);
+                        InetAddress ia = isa.getAddress();
+                        if (ia == null)
+                            throw new IOException("Target address not resolved");
+                        if (sm != null) {
+                            if (ia.isMulticastAddress()) {
+                                sm.checkMulticast(ia);
+                            } else {
+                                sm.checkConnect(ia.getHostAddress(),
+                                                isa.getPort());
+                            }
+                        }
+                        destAddresses[i] = ia;
+                        destPorts[i] = isa.getPort();
+                    }
+                } else if (targets != null) {
+                    for (int i = 0; i < count; i++) {
+                        if (!targets[offset + i].equals(remoteAddress)) {
+                            throw new IllegalArgumentException(
+                                "Connected address not equal to target address");
+                        }
+                    }
+                }
+            }
+            if (count == 0)
+                return 0;
+
+            long[] addresses = new long[count];
+            int[] lengths = new int[count];
+            // Temporary direct buffers holding copies of the buffers that
+            // are not direct.
+            ByteBuffer[] shadows = null;
+            try {
+                for (int i = 0; i < count; i++) {
+                    ByteBuffer src = srcs[offset + i];
+                    int pos = src.position();
+                    int lim = src.limit();
+                    int rem = (pos <= lim ? lim - pos : 0);
+                    if (src instanceof DirectBuffer) {
+                        addresses[i] = ((DirectBuffer)src).address() + pos;
+                    } else {
+                        if (shadows == null)
+                            shadows = new ByteBuffer[count];
+                        ByteBuffer bb = Util.getTemporaryDirectBuffer(rem);
+                        shadows[i] = bb;
+                        bb.put(src);
+                        // Do not update src until we see whether it was sent
+                        src.position(pos);
+                        addresses[i] = ((DirectBuffer)bb).address();
+                    }
+                    lengths[i] = rem;
+                }
+
+                int n = 0;
+                try {
+                    begin();
+                    if (!isOpen())
+                        return 0;
+                    writerThread = NativeThread.current();
+                    BlockGuard.getThreadPolicy().onNetwork();
+                    boolean preferIPv6 = (family != StandardProtocolFamily.INET);
+                    do {
+                        n = sendBatch0(preferIPv6, fd, addresses, lengths, count,
+                                       destAddresses, destPorts);
+                    } while ((n == IOStatus.INTERRUPTED) && isOpen());
+
+                    synchronized (stateLock) {
+                        if (isOpen() && (localAddress == null)) {
+                            localAddress = Net.localAddress(fd);
+                        }
+                    }
+                    if (n < 0)
+                        return 0;
+                    // Datagrams are sent whole, or not at all.
+                    for (int i = 0; i < n; i++) {
+                        ByteBuffer src = srcs[offset + i];
+                        src.position(src.position() + lengths[i]);
+                    }
+                    return n;
+                } finally {
+                    writerThread = 0;
+                    end((n > 0) || (n == IOStatus.UNAVAILABLE));
+                    assert IOStatus.check(n);
+                }
+            } finally {
+                if (shadows != null) {
+                    for (ByteBuffer bb : shadows) {
+                        if (bb != null)
+                            Util.releaseTemporaryDirectBuffer(bb);
+                    }
+                }
+            }
+        }
+    }
+    // END Android-added: Batched receive and send with recvmmsg and sendmmsg.
+
     public int read(ByteBuffer buf) throws IOException {
         if (buf == null)
             throw new NullPointerException();
@@ -1050,7 +1259,9 @@ class DatagramChannelImpl
         synchronized (stateLock) {
             // Android-added: CloseGuard support.
             guard.close();
-            if (state != ST_KILLED)
+            // Android-changed: Let an epoll selector delete the fd before it is closed.
+            // if (state != ST_KILLED)
+            if (state != ST_KILLED && !EPollSelectorProvider.defersPreClose(this))
                 nd.preClose(fd);
             ResourceManager.afterUdpClose();
 
@@ -1206,6 +1417,18 @@ class DatagramChannelImpl
                              int len, InetAddress addr, int port)
         throws IOException;
 
+    // BEGIN Android-added: Batched receive and send with recvmmsg and sendmmsg.
+    private native int receiveBatch0(FileDescriptor fd, long[] addresses, int[] lengths,
+                                     int count, boolean connected,
+                                     SocketAddress[] senders, int sendersOffset)
+        throws IOException;
+
+    private native int sendBatch0(boolean preferIPv6, FileDescriptor fd, long[] addresses,
+                                  int[] lengths, int count, InetAddress[] addrs,
+                                  int[] ports)
+        throws IOException;
+    // END Android-added: Batched receive and send with recvmmsg and sendmmsg.
+
     static {
         // Android removed: Native code initialization not required.
         // IOUtil.load();
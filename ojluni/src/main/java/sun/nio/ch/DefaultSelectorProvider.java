@@ -40,6 +40,9 @@ public class DefaultSelectorProvider {
      */
     private DefaultSelectorProvider() { }
 
+    // Android-added: System property naming the selector implementation, "poll" or "epoll".
+    private static final String SELECTOR_PROPERTY = "sun.nio.ch.selector";
+
     // Android-removed: Dead code: We always use PollSelectorProvider.
     /*
     @SuppressWarnings("unchecked")
@@ -142,6 +145,17 @@ public class DefaultSelectorProvider {
         - A Synchronous call to EPOLL_CTL_DEL when a channel is removed: This is a
         non-starter because of the specified order of events in
         AbstractSelectableChannel; implCloseSelectableChannel must be called
+
+        EPOLL OPT-IN :
+        --------------
+        EPollSelectorProvider can be selected by setting the system property
+        "sun.nio.ch.selector" to "epoll". Channels opened by that provider
+        skip preClose while they are non-blocking and registered (no thread
+        can be blocked in I/O on them), so the descriptor still names the
+        original file when the selector issues EPOLL_CTL_DEL. The selector
+        then kills the channel as usual. Channels from other providers that
+        end up registered with an epoll selector fall back to rebuilding the
+        epoll instance if their EPOLL_CTL_DEL fails.
         */
 
 
@@ -154,6 +168,11 @@ public class DefaultSelectorProvider {
         if (osname.equals("Linux"))
             return createProvider("sun.nio.ch.EPollSelectorProvider");
         */
+        // Android-added: Opt-in epoll selector, see the note above.
+        String selector = AccessController
+            .doPrivileged(new GetPropertyAction(SELECTOR_PROPERTY));
+        if ("epoll".equals(selector))
+            return new sun.nio.ch.EPollSelectorProvider();
         return new sun.nio.ch.PollSelectorProvider();
     }
 
@@ -0,0 +1,258 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.nio.ch;
+
+import java.nio.ByteBuffer;
+import java.security.AccessController;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * A process-wide pool of temporary direct buffers, used in place of heap
+ * buffers for I/O. Unlike the per-thread caches in {@link Util}, buffers
+ * released by one thread can be reused by any other, so threads that only
+ * do a little I/O each do not allocate new direct buffers.
+ *
+ * <p> Buffers come in power-of-two size classes from 4 KiB up to a maximum
+ * size, which defaults to 1 MiB and can be set with the
+ * {@code jdk.nio.directBufferPool.maxBufferSize} property (rounded up to a
+ * power of two); larger buffers are not pooled. The total capacity of the pooled buffers defaults to
+ * 4 MiB and can be set with the {@code jdk.nio.directBufferPool.maxBytes}
+ * property. Setting either to 0 disables pooling. Each size class is split
+ * into stripes with locks of their own, and a thread releases buffers to,
+ * and first looks for buffers in, the stripe picked by its id.
+ *
+ * <p> The counters for each size class can be read for monitoring.
+ */
+public final class DirectBufferPool {
+
+    private static final int MIN_BUFFER_SIZE_SHIFT = 12;
+
+    // The number of buffers each stripe of a size class can hold.
+    private static final int BUFFERS_PER_STRIPE = 8;
+
+    private static final long MAX_BYTES_HELD =
+        getSizeProperty("jdk.nio.directBufferPool.maxBytes", 4L * 1024 * 1024);
+
+    private static final int STRIPE_MASK =
+        Integer.highestOneBit(Math.min(Runtime.getRuntime().availableProcessors(), 8)) - 1;
+
+    private static final SizeClass[] SIZE_CLASSES = createSizeClasses(
+        getSizeProperty("jdk.nio.directBufferPool.maxBufferSize", 1024 * 1024));
+
+    // The total capacity of the buffers in the pool, or about to be added to it.
+    private static final AtomicLong bytesHeld = new AtomicLong();
+
+    private DirectBufferPool() { }      // No instantiation
+
+    private static final class Stripe {
+        final ByteBuffer[] buffers = new ByteBuffer[BUFFERS_PER_STRIPE];
+        // @GuardedBy("this")
+        int count;
+    }
+
+    private static final class SizeClass {
+        final int bufferSize;
+        final Stripe[] stripes = new Stripe[STRIPE_MASK + 1];
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+
+        SizeClass(int bufferSize) {
+            this.bufferSize = bufferSize;
+            for (int i = 0; i < stripes.length; i++)
+                stripes[i] = new Stripe();
+        }
+
+        // Takes a buffer from this thread's stripe, or else from any other.
+        ByteBuffer poll() {
+            int first = stripeIndex();
+            for (int i = 0; i < stripes.length; i++) {
+                Stripe stripe = stripes[(first + i) & STRIPE_MASK];
+                synchronized (stripe) {
+                    if (stripe.count > 0) {
+                        ByteBuffer buf = stripe.buffers[--stripe.count];
+                        stripe.buffers[stripe.count] = null;
+                        return buf;
+                    }
+                }
+            }
+            return null;
+        }
+
+        boolean offer(ByteBuffer buf) {
+            Stripe stripe = stripes[stripeIndex()];
+            synchronized (stripe) {
+                if (stripe.count == BUFFERS_PER_STRIPE)
+                    return false;
+                stripe.buffers[stripe.count++] = buf;
+                return true;
+            }
+        }
+
+        int count() {
+            int count = 0;
+            for (Stripe stripe : stripes) {
+                synchronized (stripe) {
+                    count += stripe.count;
+                }
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Returns a direct buffer with a position of zero and a limit of
+     * {@code size}, taken from the pool if possible.
+     */
+    public static ByteBuffer get(int size) {
+        int index = sizeClassIndex(size);
+        if (index < 0)
+            return ByteBuffer.allocateDirect(size);
+
+        SizeClass sizeClass = SIZE_CLASSES[index];
+        ByteBuffer buf = sizeClass.poll();
+        if (buf != null) {
+            sizeClass.hits.increment();
+            bytesHeld.addAndGet(-buf.capacity());
+            buf.clear();
+        } else {
+            sizeClass.misses.increment();
+            buf = ByteBuffer.allocateDirect(sizeClass.bufferSize);
+        }
+        buf.limit(size);
+        return buf;
+    }
+
+    /**
+     * Returns a buffer obtained from {@link #get} to the pool, or frees it if
+     * the pool is full. The buffer must not be used afterwards.
+     */
+    public static void release(ByteBuffer buf) {
+        int capacity = buf.capacity();
+        int index = sizeClassIndex(capacity);
+        if (index < 0 || SIZE_CLASSES[index].bufferSize != capacity) {
+            Util.free(buf);
+            return;
+        }
+        if (bytesHeld.addAndGet(capacity) > MAX_BYTES_HELD
+                || !SIZE_CLASSES[index].offer(buf)) {
+            bytesHeld.addAndGet(-capacity);
+            Util.free(buf);
+        }
+    }
+
+    /**
+     * Frees all the buffers in the pool.
+     */
+    public static void trim() {
+        for (SizeClass sizeClass : SIZE_CLASSES) {
+            ByteBuffer buf;
+            while ((buf = sizeClass.poll()) != null) {
+                bytesHeld.addAndGet(-buf.capacity());
+                Util.free(buf);
+            }
+        }
+    }
+
+    /**
+     * Returns the number of size classes, which is zero if pooling is
+     * disabled.
+     */
+    public static int getSizeClassCount() {
+        return SIZE_CLASSES.length;
+    }
+
+    /**
+     * Returns the capacity of the buffers in the given size class.
+     */
+    public static int getBufferSize(int sizeClass) {
+        return SIZE_CLASSES[sizeClass].bufferSize;
+    }
+
+    /**
+     * Returns the number of requests for a buffer in the given size class
+     * that were met with a pooled buffer.
+     */
+    public static long getHitCount(int sizeClass) {
+        return SIZE_CLASSES[sizeClass].hits.sum();
+    }
+
+    /**
+     * Returns the number of requests for a buffer in the given size class
+     * that needed a new buffer to be allocated.
+     */
+    public static long getMissCount(int sizeClass) {
+        return SIZE_CLASSES[sizeClass].misses.sum();
+    }
+
+    /**
+     * Returns the total capacity of the buffers currently pooled in the given
+     * size class.
+     */
+    public static long getBytesHeld(int sizeClass) {
+        SizeClass c = SIZE_CLASSES[sizeClass];
+        return (long) c.count() * c.bufferSize;
+    }
+
+    // Returns the index of the smallest size class for buffers of the given
+    // size, or -1 if buffers of that size are not pooled.
+    private static int sizeClassIndex(int size) {
+        if (size <= 0)
+            return SIZE_CLASSES.length > 0 ? 0 : -1;
+        int shift = 32 - Integer.numberOfLeadingZeros(size - 1);
+        int index = Math.max(shift - MIN_BUFFER_SIZE_SHIFT, 0);
+        return index < SIZE_CLASSES.length ? index : -1;
+    }
+
+    private static int stripeIndex() {
+        return (int) Thread.currentThread().getId() & STRIPE_MASK;
+    }
+
+    private static SizeClass[] createSizeClasses(long maxBufferSize) {
+        if (MAX_BYTES_HELD == 0 || maxBufferSize < (1 << MIN_BUFFER_SIZE_SHIFT))
+            return new SizeClass[0];
+        maxBufferSize = Math.min(maxBufferSize, 1 << 30);
+        int count = 64 - Long.numberOfLeadingZeros(maxBufferSize - 1) - MIN_BUFFER_SIZE_SHIFT + 1;
+        SizeClass[] sizeClasses = new SizeClass[count];
+        for (int i = 0; i < count; i++)
+            sizeClasses[i] = new SizeClass(1 << (MIN_BUFFER_SIZE_SHIFT + i));
+        return sizeClasses;
+    }
+
+    private static long getSizeProperty(String name, long defaultValue) {
+        String s = AccessController.doPrivileged(new GetPropertyAction(name));
+        if (s != null) {
+            try {
+                long size = Long.parseLong(s);
+                if (size >= 0)
+                    return size;
+                // if it's negative, ignore the system property
+            } catch (NumberFormatException e) {
+                // if the string is not well formed, ignore the system property
+            }
+        }
+        return defaultValue;
+    }
+}
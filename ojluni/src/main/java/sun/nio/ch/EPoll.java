@@ -112,6 +112,12 @@ class EPoll {
     static native int epollWait(int epfd, long pollAddress, int numfds)
         throws IOException;
 
+    // Android-added: Timed wait and close for EPollSelectorImpl.
+    static native int wait(int epfd, long pollAddress, int numfds, int timeout)
+        throws IOException;
+
+    static native void close0(int epfd);
+
     // Android-removed: Code to load native libraries, doesn't make sense on Android.
     /*
     static {
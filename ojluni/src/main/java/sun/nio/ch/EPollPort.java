@@ -311,7 +311,8 @@ final class EPollPort
 
     private static native void socketpair(int[] sv) throws IOException;
 
-    private static native void interrupt(int fd) throws IOException;
+    // Android-changed: Package-private so that EPollSelectorImpl can share the wakeup write.
+    static native void interrupt(int fd) throws IOException;
 
     private static native void drain1(int fd) throws IOException;
 
@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.Selector;
+import java.nio.channels.spi.SelectorProvider;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+import static sun.nio.ch.EPoll.EPOLL_CTL_ADD;
+import static sun.nio.ch.EPoll.EPOLL_CTL_DEL;
+import static sun.nio.ch.EPoll.EPOLL_CTL_MOD;
+
+/**
+ * Selector implementation based on epoll(7).
+ *
+ * <p>Unlike {@link PollSelectorImpl}, the interest set lives in the kernel,
+ * so the cost of a select is proportional to the number of ready channels
+ * rather than the number of registered ones. Interest changes are queued by
+ * {@link #putEventOps} and applied with {@code epoll_ctl} by the selecting
+ * thread just before it waits.
+ *
+ * <p>Deregistration needs {@code EPOLL_CTL_DEL} to be issued while the
+ * channel's descriptor still refers to the original file. Channels opened by
+ * {@link EPollSelectorProvider} guarantee this by not preClosing while
+ * registered. Channels from other providers may already have been preClosed
+ * when their key is deregistered; in that case the delete fails and the
+ * stale kernel registration is dropped by rebuilding the epoll instance
+ * before the next wait.
+ */
+class EPollSelectorImpl
+    extends SelectorImpl
+{
+    // Maximum number of events returned by a single epoll_wait
+    private static final int NUM_EPOLLEVENTS = Math.min(IOUtil.fdLimit(), 1024);
+
+    // The epoll file descriptor, replaced when stale registrations are purged
+    private int epfd;
+
+    // Address of the epoll_event array passed to epoll_wait
+    private final long pollArrayAddress;
+
+    // File descriptors used for interrupt
+    private final int fd0;
+    private final int fd1;
+
+    // Maps file descriptors to their selection keys, only accessed while
+    // holding the keys lock
+    private final Map<Integer, SelectionKeyImpl> fdToKey = new HashMap<>();
+
+    // Keys whose interest set changed since the last select
+    private final Object updateLock = new Object();
+    private final ArrayDeque<SelectionKeyImpl> updateKeys = new ArrayDeque<>();
+
+    // True if EPOLL_CTL_DEL failed for a preClosed channel, leaving a
+    // registration in the kernel that we can no longer name
+    private boolean staleRegistrations;
+
+    // True if this Selector has been closed
+    private volatile boolean closed;
+
+    // Lock for interrupt triggering and clearing
+    private final Object interruptLock = new Object();
+    private boolean interruptTriggered;
+
+    /**
+     * Package private constructor called by factory method in
+     * the abstract superclass Selector.
+     */
+    EPollSelectorImpl(SelectorProvider sp) throws IOException {
+        super(sp);
+        epfd = EPoll.epollCreate();
+        long pipeFds;
+        try {
+            pipeFds = IOUtil.makePipe(false);
+        } catch (Throwable t) {
+            EPoll.close0(epfd);
+            throw t;
+        }
+        fd0 = (int) (pipeFds >>> 32);
+        fd1 = (int) pipeFds;
+        pollArrayAddress = EPoll.allocatePollArray(NUM_EPOLLEVENTS);
+        int err = EPoll.epollCtl(epfd, EPOLL_CTL_ADD, fd0, Net.POLLIN);
+        if (err != 0) {
+            EPoll.freePollArray(pollArrayAddress);
+            EPoll.close0(epfd);
+            FileDispatcherImpl.closeIntFD(fd0);
+            FileDispatcherImpl.closeIntFD(fd1);
+            throw new IOException("epoll_ctl failed: errno " + err);
+        }
+    }
+
+    private void ensureOpen() {
+        if (closed)
+            throw new ClosedSelectorException();
+    }
+
+    protected int doSelect(long timeout) throws IOException {
+        ensureOpen();
+        processDeregisterQueue();
+        processUpdateQueue();
+        if (staleRegistrations)
+            rebuild();
+
+        int to = (int) Math.min(timeout, Integer.MAX_VALUE);
+        int numEntries;
+        try {
+            begin();
+            numEntries = EPoll.wait(epfd, pollArrayAddress, NUM_EPOLLEVENTS, to);
+        } finally {
+            end();
+        }
+        processDeregisterQueue();
+        return updateSelectedKeys(numEntries);
+    }
+
+    /**
+     * Applies the interest set changes queued by putEventOps.
+     */
+    private void processUpdateQueue() throws IOException {
+        synchronized (updateLock) {
+            SelectionKeyImpl ski;
+            while ((ski = updateKeys.pollFirst()) != null) {
+                // Cancelled keys are removed from the kernel by implDereg.
+                if (!ski.isValid())
+                    continue;
+                int newEvents = ski.pendingEvents();
+                int registeredEvents = ski.registeredEvents();
+                if (newEvents == registeredEvents)
+                    continue;
+                int fd = ski.channel.getFDVal();
+                int err;
+                if (newEvents == 0) {
+                    err = EPoll.epollCtl(epfd, EPOLL_CTL_DEL, fd, 0);
+                } else if (registeredEvents == 0) {
+                    err = EPoll.epollCtl(epfd, EPOLL_CTL_ADD, fd, newEvents);
+                } else {
+                    err = EPoll.epollCtl(epfd, EPOLL_CTL_MOD, fd, newEvents);
+                }
+                if (err != 0) {
+                    // The channel was closed under us; its key is about to
+                    // be cancelled and deregistered.
+                    if (!ski.channel().isOpen())
+                        continue;
+                    throw new IOException("epoll_ctl failed: errno " + err);
+                }
+                ski.registeredEvents(newEvents);
+            }
+        }
+    }
+
+    /**
+     * Replaces the epoll instance with a fresh one holding only the live
+     * registrations. Closing the old instance releases the registrations
+     * left behind by channels that were preClosed before we could delete
+     * them.
+     */
+    private void rebuild() throws IOException {
+        int newEpfd = EPoll.epollCreate();
+        try {
+            int err = EPoll.epollCtl(newEpfd, EPOLL_CTL_ADD, fd0, Net.POLLIN);
+            if (err != 0)
+                throw new IOException("epoll_ctl failed: errno " + err);
+            for (Map.Entry<Integer, SelectionKeyImpl> e : fdToKey.entrySet()) {
+                int events = e.getValue().registeredEvents();
+                if (events != 0)
+                    EPoll.epollCtl(newEpfd, EPOLL_CTL_ADD, e.getKey(), events);
+            }
+        } catch (Throwable t) {
+            EPoll.close0(newEpfd);
+            throw t;
+        }
+        EPoll.close0(epfd);
+        epfd = newEpfd;
+        staleRegistrations = false;
+    }
+
+    /**
+     * Update the keys of file descriptors that were polled and add them to
+     * the selected-key set.
+     */
+    private int updateSelectedKeys(int numEntries) throws IOException {
+        boolean interrupted = false;
+        int numKeysUpdated = 0;
+        for (int i = 0; i < numEntries; i++) {
+            long event = EPoll.getEvent(pollArrayAddress, i);
+            int fd = EPoll.getDescriptor(event);
+            if (fd == fd0) {
+                interrupted = true;
+                continue;
+            }
+            SelectionKeyImpl ski = fdToKey.get(fd);
+            if (ski == null)
+                continue;
+            int rOps = EPoll.getEvents(event);
+            if (selectedKeys.contains(ski)) {
+                if (ski.channel.translateAndSetReadyOps(rOps, ski)) {
+                    numKeysUpdated++;
+                }
+            } else {
+                ski.channel.translateAndSetReadyOps(rOps, ski);
+                if ((ski.nioReadyOps() & ski.nioInterestOps()) != 0) {
+                    selectedKeys.add(ski);
+                    numKeysUpdated++;
+                }
+            }
+        }
+
+        if (interrupted) {
+            // Clear the wakeup pipe
+            synchronized (interruptLock) {
+                IOUtil.drain(fd0);
+                interruptTriggered = false;
+            }
+        }
+        return numKeysUpdated;
+    }
+
+    protected void implClose() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+
+        // prevent further wakeup
+        synchronized (interruptLock) {
+            interruptTriggered = true;
+        }
+        synchronized (updateLock) {
+            updateKeys.clear();
+        }
+
+        // Deregister channels. Closing the epoll instance below removes
+        // their kernel registrations, so no EPOLL_CTL_DEL is needed.
+        Iterator<SelectionKeyImpl> i = fdToKey.values().iterator();
+        while (i.hasNext()) {
+            SelectionKeyImpl ski = i.next();
+            i.remove();
+            ski.registeredEvents(0);
+            deregister(ski);
+            SelectableChannel selch = ski.channel();
+            if (!selch.isOpen() && !selch.isRegistered())
+                ((SelChImpl)selch).kill();
+        }
+
+        EPoll.close0(epfd);
+        FileDispatcherImpl.closeIntFD(fd0);
+        FileDispatcherImpl.closeIntFD(fd1);
+        EPoll.freePollArray(pollArrayAddress);
+        selectedKeys = null;
+    }
+
+    protected void implRegister(SelectionKeyImpl ski) {
+        ensureOpen();
+        fdToKey.put(ski.channel.getFDVal(), ski);
+        keys.add(ski);
+    }
+
+    protected void implDereg(SelectionKeyImpl ski) throws IOException {
+        assert !ski.isValid();
+        int fd = ski.channel.getFDVal();
+        if (fdToKey.get(fd) == ski)
+            fdToKey.remove(fd);
+        if (ski.registeredEvents() != 0) {
+            // The descriptor must still name the registered file here, which
+            // EPollSelectorProvider channels guarantee by deferring preClose.
+            int err = EPoll.epollCtl(epfd, EPOLL_CTL_DEL, fd, 0);
+            if (err != 0)
+                staleRegistrations = true;
+            ski.registeredEvents(0);
+        }
+        keys.remove(ski);
+        selectedKeys.remove(ski);
+        deregister(ski);
+        SelectableChannel selch = ski.channel();
+        if (!selch.isOpen() && !selch.isRegistered())
+            ((SelChImpl)selch).kill();
+    }
+
+    public void putEventOps(SelectionKeyImpl ski, int ops) {
+        ensureOpen();
+        synchronized (updateLock) {
+            ski.pendingEvents(ops);
+            updateKeys.addLast(ski);
+        }
+    }
+
+    public Selector wakeup() {
+        synchronized (interruptLock) {
+            if (!interruptTriggered) {
+                try {
+                    EPollPort.interrupt(fd1);
+                } catch (IOException ioe) {
+                    throw new InternalError(ioe);
+                }
+                interruptTriggered = true;
+            }
+        }
+        return this;
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.nio.channels.Channel;
+import java.nio.channels.spi.AbstractSelectableChannel;
+import java.nio.channels.spi.AbstractSelector;
+
+/**
+ * A {@link java.nio.channels.spi.SelectorProvider} whose selectors are backed
+ * by epoll(7) rather than poll(2).
+ *
+ * <p>Channels opened by this provider do not dup2(2) over their file
+ * descriptor while they are non-blocking and registered with a selector.
+ * The descriptor stays valid until the last selector has deregistered it
+ * with {@code EPOLL_CTL_DEL}, after which the selector kills the channel.
+ * See the notes in {@link DefaultSelectorProvider#create()} for why this
+ * ordering matters.
+ */
+public class EPollSelectorProvider
+    extends SelectorProviderImpl
+{
+    public AbstractSelector openSelector() throws IOException {
+        return new EPollSelectorImpl(this);
+    }
+
+    public Channel inheritedChannel() throws IOException {
+        // Android never has stdin/stdout connected to a socket.
+        return null;
+    }
+
+    /**
+     * Returns true if closing {@code ch} should leave its file descriptor
+     * untouched until a selector deregisters it, rather than preClosing it.
+     * Callers must hold the channel's state lock.
+     */
+    static boolean defersPreClose(AbstractSelectableChannel ch) {
+        // A registered channel is always non-blocking, so no thread can be
+        // parked in an I/O operation that preClose would need to unblock.
+        return ch.provider() instanceof EPollSelectorProvider
+                && !ch.isBlocking()
+                && ch.isRegistered();
+    }
+}
@@ -27,9 +27,11 @@
 package sun.nio.ch;
 
 import android.system.ErrnoException;
+import android.system.Int64Ref;
 
 import java.io.FileDescriptor;
 import java.io.IOException;
+import java.io.InterruptedIOException;
 import java.nio.ByteBuffer;
 import java.nio.DirectByteBuffer;
 import java.nio.MappedByteBuffer;
@@ -55,6 +57,14 @@ import dalvik.system.CloseGuard;
 import sun.misc.Cleaner;
 import sun.security.action.GetPropertyAction;
 
+import static android.system.OsConstants.EBADF;
+import static android.system.OsConstants.EINVAL;
+import static android.system.OsConstants.ENOSYS;
+import static android.system.OsConstants.EOPNOTSUPP;
+import static android.system.OsConstants.EPERM;
+import static android.system.OsConstants.ESPIPE;
+import static android.system.OsConstants.EXDEV;
+
 public class FileChannelImpl
     extends FileChannel
 {
@@ -443,6 +453,25 @@ public class FileChannelImpl
         }
     }
 
+    // BEGIN Android-added: Access pattern hints.
+    @Override
+    public void advise(long position, long size, int advice) throws IOException {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (size < 0)
+            throw new IllegalArgumentException("Negative size");
+        ensureOpen();
+        try {
+            Libcore.os.posix_fadvise(fd, position, size, advice);
+        } catch (ErrnoException e) {
+            // Advice does not apply to pipes, and is only a hint anyway.
+            if (e.errno == ESPIPE)
+                return;
+            throw e.rethrowAsIOException();
+        }
+    }
+    // END Android-added: Access pattern hints.
+
     // Assume at first that the underlying kernel supports sendfile();
     // set this to false if we find out later that it doesn't
     //
@@ -545,6 +574,81 @@ public class FileChannelImpl
         }
     }
 
+    // BEGIN Android-added: Copy between files within the kernel.
+    // Assume at first that the underlying kernel supports copy_file_range();
+    // set this to false if we find out later that it doesn't
+    //
+    private static volatile boolean copyFileRangeSupported = true;
+
+    // Maximum size to copy with one copy_file_range() call, so that closing
+    // or interrupting the channel takes effect before a large copy completes
+    private static final long COPY_FILE_RANGE_SIZE = 64L*1024L*1024L;
+
+    /**
+     * Copies up to {@code count} bytes from {@code src}, starting at
+     * {@code srcPosition}, to {@code dst} with copy_file_range(2). The bytes
+     * are written at {@code dstPosition}, or at the file position of
+     * {@code dst} if that is -1. The file system may share the copied extents
+     * rather than duplicate them, as it does for reflinks.
+     *
+     * Returns the number of bytes copied, IOStatus.UNSUPPORTED_CASE if these
+     * files cannot be copied this way (for example because they are on
+     * different file systems), or IOStatus.UNSUPPORTED if the kernel does not
+     * support copy_file_range(2) at all.
+     */
+    private long copyFileRange(FileChannelImpl src, long srcPosition,
+                               FileChannelImpl dst, long dstPosition,
+                               long count)
+        throws IOException
+    {
+        if (!copyFileRangeSupported)
+            return IOStatus.UNSUPPORTED;
+        if (IOUtil.fdVal(src.fd) == IOUtil.fdVal(dst.fd))
+            return IOStatus.UNSUPPORTED_CASE;
+
+        Int64Ref srcOffset = new Int64Ref(srcPosition);
+        Int64Ref dstOffset = (dstPosition < 0) ? null : new Int64Ref(dstPosition);
+        long copied = 0;
+        int ti = -1;
+        try {
+            begin();
+            ti = threads.add();
+            if (!isOpen())
+                return -1;
+            while (copied < count && isOpen()) {
+                long n;
+                try {
+                    n = Libcore.os.copy_file_range(src.fd, srcOffset, dst.fd, dstOffset,
+                            Math.min(count - copied, COPY_FILE_RANGE_SIZE), 0);
+                } catch (ErrnoException e) {
+                    if (copied > 0)
+                        break;
+                    if (e.errno == ENOSYS) {
+                        // Don't bother trying again
+                        copyFileRangeSupported = false;
+                        return IOStatus.UNSUPPORTED;
+                    }
+                    // EBADF is returned for targets opened in append mode
+                    if (e.errno == EXDEV || e.errno == EINVAL || e.errno == EOPNOTSUPP
+                            || e.errno == EBADF || e.errno == EPERM)
+                        return IOStatus.UNSUPPORTED_CASE;
+                    throw e.rethrowAsIOException();
+                } catch (InterruptedIOException e) {
+                    // Thrown if either file descriptor was closed asynchronously
+                    break;
+                }
+                if (n == 0)
+                    break;                      // End of src
+                copied += n;
+            }
+            return copied;
+        } finally {
+            threads.remove(ti);
+            end(copied > 0);
+        }
+    }
+    // END Android-added: Copy between files within the kernel.
+
     // Maximum size to map when using a mapped buffer
     private static final long MAPPED_TRANSFER_SIZE = 8L*1024L*1024L;
 
@@ -655,6 +759,14 @@ public class FileChannelImpl
 
         long n;
 
+        // BEGIN Android-added: Copy between files within the kernel.
+        if (target instanceof FileChannelImpl) {
+            n = copyFileRange(this, position, (FileChannelImpl)target, -1, icount);
+            if (n >= 0)
+                return n;
+        }
+        // END Android-added: Copy between files within the kernel.
+
         // Attempt a direct transfer, if the kernel supports it
         if ((n = transferToDirectly(position, icount, target)) >= 0)
             return n;
@@ -677,6 +789,16 @@ public class FileChannelImpl
             long pos = src.position();
             long max = Math.min(count, src.size() - pos);
 
+            // BEGIN Android-added: Copy between files within the kernel.
+            if (max > 0L) {
+                long n = copyFileRange(src, pos, this, position, max);
+                if (n >= 0) {
+                    src.position(pos + n);
+                    return n;
+                }
+            }
+            // END Android-added: Copy between files within the kernel.
+
             long remaining = max;
             long p = pos;
             while (remaining > 0L) {
@@ -836,6 +958,94 @@ public class FileChannelImpl
         }
     }
 
+    // BEGIN Android-added: Positional scattering reads and gathering writes.
+    @Override
+    public long read(ByteBuffer[] dsts, int offset, int length, long position)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > dsts.length - length))
+            throw new IndexOutOfBoundsException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!readable)
+            throw new NonReadableChannelException();
+        ensureOpen();
+        if (nd.needsPositionLock()) {
+            synchronized (positionLock) {
+                return readInternal(dsts, offset, length, position);
+            }
+        } else {
+            return readInternal(dsts, offset, length, position);
+        }
+    }
+
+    private long readInternal(ByteBuffer[] dsts, int offset, int length,
+                              long position)
+        throws IOException
+    {
+        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        long n = 0;
+        int ti = -1;
+        try {
+            begin();
+            ti = threads.add();
+            if (!isOpen())
+                return -1;
+            do {
+                n = IOUtil.read(fd, dsts, offset, length, position, nd);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            return IOStatus.normalize(n);
+        } finally {
+            threads.remove(ti);
+            end(n > 0);
+            assert IOStatus.check(n);
+        }
+    }
+
+    @Override
+    public long write(ByteBuffer[] srcs, int offset, int length, long position)
+        throws IOException
+    {
+        if ((offset < 0) || (length < 0) || (offset > srcs.length - length))
+            throw new IndexOutOfBoundsException();
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!writable)
+            throw new NonWritableChannelException();
+        ensureOpen();
+        if (nd.needsPositionLock()) {
+            synchronized (positionLock) {
+                return writeInternal(srcs, offset, length, position);
+            }
+        } else {
+            return writeInternal(srcs, offset, length, position);
+        }
+    }
+
+    private long writeInternal(ByteBuffer[] srcs, int offset, int length,
+                               long position)
+        throws IOException
+    {
+        assert !nd.needsPositionLock() || Thread.holdsLock(positionLock);
+        long n = 0;
+        int ti = -1;
+        try {
+            begin();
+            ti = threads.add();
+            if (!isOpen())
+                return -1;
+            do {
+                n = IOUtil.write(fd, srcs, offset, length, position, nd);
+            } while ((n == IOStatus.INTERRUPTED) && isOpen());
+            return IOStatus.normalize(n);
+        } finally {
+            threads.remove(ti);
+            end(n > 0);
+            assert IOStatus.check(n);
+        }
+    }
+    // END Android-added: Positional scattering reads and gathering writes.
+
 
     // -- Memory-mapped buffers --
 
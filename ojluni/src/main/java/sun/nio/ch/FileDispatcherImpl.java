@@ -67,6 +67,15 @@ class FileDispatcherImpl extends FileDispatcher {
         return readv0(fd, address, len);
     }
 
+    // BEGIN Android-added: Positional scattering reads and gathering writes.
+    long preadv(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        BlockGuard.getThreadPolicy().onReadFromDisk();
+        return preadv0(fd, address, len, position);
+    }
+    // END Android-added: Positional scattering reads and gathering writes.
+
     int write(FileDescriptor fd, long address, int len) throws IOException {
         // Android-added: BlockGuard support.
         BlockGuard.getThreadPolicy().onWriteToDisk();
@@ -89,6 +98,15 @@ class FileDispatcherImpl extends FileDispatcher {
         return writev0(fd, address, len);
     }
 
+    // BEGIN Android-added: Positional scattering reads and gathering writes.
+    long pwritev(FileDescriptor fd, long address, int len, long position)
+        throws IOException
+    {
+        BlockGuard.getThreadPolicy().onWriteToDisk();
+        return pwritev0(fd, address, len, position);
+    }
+    // END Android-added: Positional scattering reads and gathering writes.
+
     int force(FileDescriptor fd, boolean metaData) throws IOException {
         // Android-added: BlockGuard support.
         BlockGuard.getThreadPolicy().onWriteToDisk();
@@ -154,6 +172,10 @@ class FileDispatcherImpl extends FileDispatcher {
     static native long readv0(FileDescriptor fd, long address, int len)
         throws IOException;
 
+    // Android-added: Positional scattering reads and gathering writes.
+    static native long preadv0(FileDescriptor fd, long address, int len,
+                               long position) throws IOException;
+
     static native int write0(FileDescriptor fd, long address, int len)
         throws IOException;
 
@@ -163,6 +185,10 @@ class FileDispatcherImpl extends FileDispatcher {
     static native long writev0(FileDescriptor fd, long address, int len)
         throws IOException;
 
+    // Android-added: Positional scattering reads and gathering writes.
+    static native long pwritev0(FileDescriptor fd, long address, int len,
+                                long position) throws IOException;
+
     static native int force0(FileDescriptor fd, boolean metaData)
         throws IOException;
 
@@ -55,7 +55,9 @@ public class IOUtil {
         int lim = src.limit();
         assert (pos <= lim);
         int rem = (pos <= lim ? lim - pos : 0);
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(rem);
+        // Android-changed: Use the process-wide pool rather than a per-thread cache.
+        // ByteBuffer bb = Util.getTemporaryDirectBuffer(rem);
+        ByteBuffer bb = DirectBufferPool.get(rem);
         try {
             bb.put(src);
             bb.flip();
@@ -69,7 +71,9 @@ public class IOUtil {
             }
             return n;
         } finally {
-            Util.offerFirstTemporaryDirectBuffer(bb);
+            // Android-changed: Use the process-wide pool rather than a per-thread cache.
+            // Util.offerFirstTemporaryDirectBuffer(bb);
+            DirectBufferPool.release(bb);
         }
     }
 
@@ -106,6 +110,16 @@ public class IOUtil {
     static long write(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length,
                       NativeDispatcher nd)
         throws IOException
+    {
+        // Android-changed: Positional scattering reads and gathering writes.
+        return write(fd, bufs, offset, length, -1, nd);
+    }
+
+    // Android-added: Positional scattering reads and gathering writes.
+    // Writes at the given position, or at the file position if that is -1.
+    static long write(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length,
+                      long position, NativeDispatcher nd)
+        throws IOException
     {
         IOVecWrapper vec = IOVecWrapper.get(length);
 
@@ -145,7 +159,15 @@ public class IOUtil {
             if (iov_len == 0)
                 return 0L;
 
-            long bytesWritten = nd.writev(fd, vec.address, iov_len);
+            // BEGIN Android-changed: Positional scattering reads and gathering writes.
+            // long bytesWritten = nd.writev(fd, vec.address, iov_len);
+            long bytesWritten;
+            if (position != -1) {
+                bytesWritten = nd.pwritev(fd, vec.address, iov_len, position);
+            } else {
+                bytesWritten = nd.writev(fd, vec.address, iov_len);
+            }
+            // END Android-changed: Positional scattering reads and gathering writes.
 
             // Notify the buffers how many bytes were taken
             long left = bytesWritten;
@@ -192,7 +214,9 @@ public class IOUtil {
             return readIntoNativeBuffer(fd, dst, position, nd);
 
         // Substitute a native buffer
-        ByteBuffer bb = Util.getTemporaryDirectBuffer(dst.remaining());
+        // Android-changed: Use the process-wide pool rather than a per-thread cache.
+        // ByteBuffer bb = Util.getTemporaryDirectBuffer(dst.remaining());
+        ByteBuffer bb = DirectBufferPool.get(dst.remaining());
         try {
             int n = readIntoNativeBuffer(fd, bb, position, nd);
             bb.flip();
@@ -200,7 +224,9 @@ public class IOUtil {
                 dst.put(bb);
             return n;
         } finally {
-            Util.offerFirstTemporaryDirectBuffer(bb);
+            // Android-changed: Use the process-wide pool rather than a per-thread cache.
+            // Util.offerFirstTemporaryDirectBuffer(bb);
+            DirectBufferPool.release(bb);
         }
     }
 
@@ -236,6 +262,16 @@ public class IOUtil {
     static long read(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length,
                      NativeDispatcher nd)
         throws IOException
+    {
+        // Android-changed: Positional scattering reads and gathering writes.
+        return read(fd, bufs, offset, length, -1, nd);
+    }
+
+    // Android-added: Positional scattering reads and gathering writes.
+    // Reads from the given position, or from the file position if that is -1.
+    static long read(FileDescriptor fd, ByteBuffer[] bufs, int offset, int length,
+                     long position, NativeDispatcher nd)
+        throws IOException
     {
         IOVecWrapper vec = IOVecWrapper.get(length);
 
@@ -275,7 +311,15 @@ public class IOUtil {
             if (iov_len == 0)
                 return 0L;
 
-            long bytesRead = nd.readv(fd, vec.address, iov_len);
+            // BEGIN Android-changed: Positional scattering reads and gathering writes.
+            // long bytesRead = nd.readv(fd, vec.address, iov_len);
+            long bytesRead;
+            if (position != -1) {
+                bytesRead = nd.preadv(fd, vec.address, iov_len, position);
+            } else {
+                bytesRead = nd.readv(fd, vec.address, iov_len);
+            }
+            // END Android-changed: Positional scattering reads and gathering writes.
 
             // Notify the buffers how many bytes were read
             long left = bytesRead;
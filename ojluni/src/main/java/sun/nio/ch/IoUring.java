@@ -0,0 +1,173 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.nio.ch;
+
+import java.io.IOException;
+import java.security.AccessController;
+import sun.security.action.GetPropertyAction;
+
+/**
+ * Provides access to a Linux io_uring(7) instance: a submission queue that
+ * the kernel consumes and a completion queue that it fills, both shared with
+ * userspace.
+ *
+ * <p>Entries are added with {@link #prepare} and handed to the kernel in
+ * batches with {@link #submit}; callers serialize those two. A single thread
+ * at a time may reap completions with {@link #await}.
+ */
+
+class IoUring {
+    // opcodes, from <linux/io_uring.h>
+    static final int IORING_OP_NOP          = 0;
+    static final int IORING_OP_READ_FIXED   = 4;
+    static final int IORING_OP_WRITE_FIXED  = 5;
+    static final int IORING_OP_READ         = 22;
+    static final int IORING_OP_WRITE        = 23;
+
+    /**
+     * The most completions returned by one call to {@link #await}.
+     */
+    static final int MAX_COMPLETIONS = 64;
+
+    private static class SupportHolder {
+        static final boolean supported = isSupported0();
+    }
+
+    /**
+     * Returns whether io_uring may be used: it has been enabled with
+     * {@code -Dsun.nio.ch.useIoUring=true}, and the kernel supports the
+     * opcodes above.
+     *
+     * <p>io_uring is off by default because the app seccomp policy kills a
+     * process that calls io_uring_setup(2) with SIGSYS rather than failing
+     * the call, so even probing for it is only safe where the caller knows
+     * that the policy allows it.
+     */
+    static boolean isSupported() {
+        String prop = AccessController.doPrivileged(
+            new GetPropertyAction("sun.nio.ch.useIoUring"));
+        if (!"true".equals(prop))
+            return false;
+        return SupportHolder.supported;
+    }
+
+    // address of the native ring
+    private final long address;
+    private final int submissionEntries;
+    private final int completionEntries;
+
+    /**
+     * Creates a ring with room for {@code entries} submissions and
+     * {@code cqEntries} completions, rounded up to powers of two.
+     */
+    IoUring(int entries, int cqEntries) throws IOException {
+        address = create(entries, cqEntries);
+        submissionEntries = submissionEntries(address);
+        completionEntries = completionEntries(address);
+    }
+
+    int submissionEntries() {
+        return submissionEntries;
+    }
+
+    int completionEntries() {
+        return completionEntries;
+    }
+
+    /**
+     * Registers the given memory regions as fixed buffers, replacing any
+     * earlier registration. Region {@code i} is then used with
+     * {@code bufIndex} {@code i} in fixed reads and writes.
+     *
+     * @return 0, or the errno value if the kernel refused the regions
+     */
+    int registerBuffers(long[] addresses, long[] lengths) {
+        return registerBuffers(address, addresses, lengths);
+    }
+
+    /**
+     * Adds an entry to the submission queue, without submitting it.
+     *
+     * @return false if the submission queue is full
+     */
+    boolean prepare(int op, int fd, long bufAddress, int len, long offset,
+                    int bufIndex, long userData)
+    {
+        return prepare(address, op, fd, bufAddress, len, offset, bufIndex, userData);
+    }
+
+    /**
+     * Submits up to {@code count} prepared entries.
+     *
+     * @return the number submitted, which is 0 if the kernel is temporarily
+     *         out of resources
+     */
+    int submit(int count) throws IOException {
+        return submit(address, count);
+    }
+
+    /**
+     * Reaps completions, waiting for at least one unless some are already
+     * available. The user data and result of completion {@code i} are stored
+     * in {@code userData[i]} and {@code results[i]}; a negative result is a
+     * negated errno value.
+     *
+     * @return the number of completions, which may be 0 if the wait was
+     *         interrupted
+     */
+    int await(long[] userData, int[] results) throws IOException {
+        return await(address, userData, results);
+    }
+
+    /**
+     * Releases the ring. In-flight operations must have completed.
+     */
+    void destroy() {
+        destroy(address);
+    }
+
+    // -- Native methods --
+
+    private static native boolean isSupported0();
+
+    private static native long create(int entries, int cqEntries) throws IOException;
+
+    private static native int submissionEntries(long address);
+
+    private static native int completionEntries(long address);
+
+    private static native int registerBuffers(long address, long[] addresses,
+                                              long[] lengths);
+
+    private static native boolean prepare(long address, int op, int fd,
+                                          long bufAddress, int len, long offset,
+                                          int bufIndex, long userData);
+
+    private static native int submit(long address, int count) throws IOException;
+
+    private static native int await(long address, long[] userData, int[] results)
+        throws IOException;
+
+    private static native void destroy(long address);
+}
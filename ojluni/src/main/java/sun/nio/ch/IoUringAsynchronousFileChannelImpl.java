@@ -0,0 +1,718 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.nio.ch;
+
+import android.system.ErrnoException;
+import android.system.OsConstants;
+
+import java.io.FileDescriptor;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.AsynchronousCloseException;
+import java.nio.channels.AsynchronousFileChannel;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.CompletionHandler;
+import java.nio.channels.NonReadableChannelException;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.ShutdownChannelGroupException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Linux implementation of AsynchronousFileChannel that reads and writes with
+ * io_uring(7), so outstanding operations are queued in the kernel instead of
+ * each occupying a pool thread.
+ *
+ * <p>Each channel owns a ring and, once it has done any I/O, a thread that
+ * reaps completions and passes them to the channel's executor. Submissions
+ * that arrive while another thread is entering the kernel are picked up by
+ * that thread, so concurrent callers share one io_uring_enter(2).
+ *
+ * <p>Entries name the file by its descriptor, which the kernel only looks up
+ * when they are submitted. Entries are therefore only submitted with the
+ * close lock held for reading, and close() submits any that are left before
+ * the descriptor is closed and its number can be reused. Locking,
+ * size, truncate and force work as in {@link SimpleAsynchronousFileChannelImpl}.
+ */
+
+public class IoUringAsynchronousFileChannelImpl
+    extends SimpleAsynchronousFileChannelImpl
+{
+    // Ring sizes. The larger completion queue limits the number of
+    // operations in flight, so the kernel never has to hold completions back.
+    private static final int SUBMISSION_ENTRIES = 256;
+    private static final int COMPLETION_ENTRIES = 512;
+
+    // User data of the no-op that wakes the completion thread on close
+    private static final long WAKEUP = 0L;
+
+    private final IoUring ring;
+    private final int fdVal;
+
+    // Guards everything below
+    private final Object lock = new Object();
+
+    // Operations in flight, indexed by their user data minus one
+    private final Operation<?>[] operations;
+    private final int[] freeSlots;
+    private int freeCount;
+
+    // Entries prepared but not yet handed to the kernel
+    private int unsubmitted;
+    // Entries handed to the kernel whose completions have not been reaped
+    private int inKernel;
+    // Number of completions reaped so far
+    private long reaped;
+    // Interrupted operations waiting to be prepared again by the completion
+    // thread. They keep their slots.
+    private final ArrayList<Operation<?>> retries = new ArrayList<>();
+    private boolean submitting;
+    private boolean shutdown;
+    private Thread poller;
+
+    // Registered buffers, sorted by address
+    private long[] registeredStarts = new long[0];
+    private long[] registeredEnds = new long[0];
+    private int[] registeredIndexes = new int[0];
+    private ByteBuffer[] registeredBuffers = new ByteBuffer[0];
+
+    IoUringAsynchronousFileChannelImpl(FileDescriptor fdObj,
+                                       boolean reading,
+                                       boolean writing,
+                                       ExecutorService executor,
+                                       IoUring ring)
+    {
+        super(fdObj, reading, writing, executor);
+        this.ring = ring;
+        this.fdVal = IOUtil.fdVal(fdObj);
+        int slots = ring.completionEntries();
+        this.operations = new Operation<?>[slots];
+        this.freeSlots = new int[slots];
+        for (int i = 0; i < slots; i++) {
+            freeSlots[i] = slots - 1 - i;
+        }
+        this.freeCount = slots;
+    }
+
+    /**
+     * Returns a channel that uses io_uring, or null if the kernel does not
+     * support it or a ring cannot be created.
+     */
+    static AsynchronousFileChannel tryOpen(FileDescriptor fdo,
+                                           boolean reading,
+                                           boolean writing,
+                                           ThreadPool pool)
+    {
+        if (!IoUring.isSupported())
+            return null;
+        IoUring ring;
+        try {
+            ring = new IoUring(SUBMISSION_ENTRIES, COMPLETION_ENTRIES);
+        } catch (IOException e) {
+            // For example, RLIMIT_MEMLOCK is too low for the rings.
+            return null;
+        }
+        return new IoUringAsynchronousFileChannelImpl(fdo, reading, writing,
+                                                      executorFor(pool), ring);
+    }
+
+    /**
+     * Registers direct buffers with the kernel, so that reads and writes that
+     * lie entirely within one of them skip mapping its pages every time.
+     * Replaces any earlier registration; pass no buffers to remove it.
+     *
+     * @throws IllegalArgumentException if a buffer is not direct
+     * @throws IOException if the kernel refuses the buffers, for example
+     *         because they exceed RLIMIT_MEMLOCK
+     */
+    public void registerBuffers(ByteBuffer... buffers) throws IOException {
+        int count = buffers.length;
+        long[] addresses = new long[count];
+        long[] lengths = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (!buffers[i].isDirect())
+                throw new IllegalArgumentException("Not a direct buffer");
+            addresses[i] = ((DirectBuffer)buffers[i]).address();
+            lengths[i] = buffers[i].capacity();
+        }
+
+        // Sort by address, remembering each buffer's index in the kernel.
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Long.compare(addresses[a], addresses[b]));
+        long[] starts = new long[count];
+        long[] ends = new long[count];
+        int[] indexes = new int[count];
+        ByteBuffer[] sorted = new ByteBuffer[count];
+        for (int i = 0; i < count; i++) {
+            int j = order[i];
+            starts[i] = addresses[j];
+            ends[i] = addresses[j] + lengths[j];
+            indexes[i] = j;
+            sorted[i] = buffers[j];
+        }
+
+        try {
+            begin();
+            synchronized (lock) {
+                int errno = ring.registerBuffers(addresses, lengths);
+                if (errno != 0) {
+                    // The earlier registration is gone too.
+                    setRegisteredBuffers(new long[0], new long[0], new int[0],
+                                         new ByteBuffer[0]);
+                    ErrnoException e = new ErrnoException("io_uring_register", errno);
+                    throw new IOException(e.getMessage(), e);
+                }
+                setRegisteredBuffers(starts, ends, indexes, sorted);
+            }
+        } finally {
+            end();
+        }
+    }
+
+    private void setRegisteredBuffers(long[] starts, long[] ends, int[] indexes,
+                                      ByteBuffer[] buffers)
+    {
+        registeredStarts = starts;
+        registeredEnds = ends;
+        registeredIndexes = indexes;
+        registeredBuffers = buffers;
+    }
+
+    /**
+     * Returns the kernel index of the registered buffer that contains
+     * [address, address + len), or -1. Called with the lock held.
+     */
+    private int registeredIndex(long address, int len) {
+        int i = Arrays.binarySearch(registeredStarts, address);
+        if (i < 0) {
+            // The last buffer that starts before address
+            i = -i - 2;
+        }
+        if (i >= 0 && address + len <= registeredEnds[i])
+            return registeredIndexes[i];
+        return -1;
+    }
+
+    @Override
+    public void close() throws IOException {
+        super.close();
+
+        // Like the simple implementation, wait for the outstanding operations.
+        Thread t;
+        synchronized (lock) {
+            t = poller;
+        }
+        if (t != null && t != Thread.currentThread()) {
+            boolean interrupted = false;
+            while (t.isAlive()) {
+                try {
+                    t.join();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    void implCloseBeforeFd() {
+        // No other thread holds the close lock, so none is preparing or
+        // submitting entries.
+        synchronized (lock) {
+            shutdown = true;
+            if (poller == null) {
+                // No I/O was ever done.
+                ring.destroy();
+                return;
+            }
+        }
+        // Submit what is pending while the descriptor still refers to this
+        // file, along with a no-op that wakes the completion thread, which
+        // releases the ring once the operations in flight have completed.
+        boolean interrupted = false;
+        try {
+            for (;;) {
+                synchronized (lock) {
+                    if (ring.prepare(IoUring.IORING_OP_NOP, -1, 0L, 0, 0L, 0, WAKEUP)) {
+                        unsubmitted++;
+                        break;
+                    }
+                }
+                // The submission queue is full.
+                interrupted |= drain();
+            }
+            interrupted |= drain();
+        } catch (IOException x) {
+            // The ring is unusable, and nothing is submitted after close.
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Submits every prepared entry, waiting for completions whenever the
+     * kernel is short of resources. Called by close() with the close lock
+     * held for writing. Returns true if a wait was interrupted.
+     */
+    private boolean drain() throws IOException {
+        boolean interrupted = false;
+        for (;;) {
+            long seen;
+            synchronized (lock) {
+                seen = reaped;
+            }
+            flush();
+            synchronized (lock) {
+                if (unsubmitted == 0)
+                    return interrupted;
+                while (reaped == seen) {
+                    interrupted |= awaitUninterruptibly();
+                }
+            }
+        }
+    }
+
+    @Override
+    <A> Future<Integer> implRead(final ByteBuffer dst,
+                                 final long position,
+                                 final A attachment,
+                                 final CompletionHandler<Integer,? super A> handler)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!reading)
+            throw new NonReadableChannelException();
+        if (dst.isReadOnly())
+            throw new IllegalArgumentException("Read-only buffer");
+
+        // complete immediately if channel closed or no space remaining
+        if (!isOpen() || (dst.remaining() == 0)) {
+            Throwable exc = (isOpen()) ? null : new ClosedChannelException();
+            if (handler == null)
+                return CompletedFuture.withResult(0, exc);
+            Invoker.invokeIndirectly(handler, attachment, 0, exc, executor);
+            return null;
+        }
+
+        PendingFuture<Integer,A> result = (handler == null) ?
+            new PendingFuture<Integer,A>(this) : null;
+        submit(new Operation<A>(true, dst, position, attachment, handler, result));
+        return result;
+    }
+
+    @Override
+    <A> Future<Integer> implWrite(final ByteBuffer src,
+                                  final long position,
+                                  final A attachment,
+                                  final CompletionHandler<Integer,? super A> handler)
+    {
+        if (position < 0)
+            throw new IllegalArgumentException("Negative position");
+        if (!writing)
+            throw new NonWritableChannelException();
+
+        // complete immediately if channel is closed or no bytes remaining
+        if (!isOpen() || (src.remaining() == 0)) {
+            Throwable exc = (isOpen()) ? null : new ClosedChannelException();
+            if (handler == null)
+                return CompletedFuture.withResult(0, exc);
+            Invoker.invokeIndirectly(handler, attachment, 0, exc, executor);
+            return null;
+        }
+
+        PendingFuture<Integer,A> result = (handler == null) ?
+            new PendingFuture<Integer,A>(this) : null;
+        submit(new Operation<A>(false, src, position, attachment, handler, result));
+        return result;
+    }
+
+    /**
+     * Queues the operation and makes sure that it reaches the kernel, either
+     * by entering it or by leaving it to a thread that is doing so already.
+     */
+    private void submit(Operation<?> op) {
+        try {
+            begin();
+            synchronized (lock) {
+                prepareLocked(op);
+            }
+            // Submit before releasing the close lock, so that close() can't
+            // close the file first.
+            try {
+                flush();
+            } catch (IOException x) {
+                // The entry stays queued, and is submitted by a later flush.
+            }
+        } catch (IOException x) {
+            if (!isOpen())
+                x = new AsynchronousCloseException();
+            op.fail(x);
+        } finally {
+            end();
+        }
+    }
+
+    private void prepareLocked(Operation<?> op) throws IOException {
+        if (poller == null) {
+            poller = new Thread(this::pollCompletions, "IoUring-" + fdVal);
+            poller.setDaemon(true);
+            poller.start();
+        }
+        // Waiting must not be cut short by an interrupt, which is restored
+        // once we are done.
+        boolean interrupted = false;
+        try {
+            // Limit the operations in flight to the size of the completion queue.
+            while (freeCount == 0) {
+                interrupted |= awaitUninterruptibly();
+            }
+            op.slot = freeSlots[--freeCount];
+
+            if (!(op.buf instanceof DirectBuffer)) {
+                // Substitute a direct buffer, as IOUtil does.
+                ByteBuffer bb = Util.getTemporaryDirectBuffer(op.len);
+                if (!op.isRead) {
+                    ByteBuffer src = op.buf.duplicate();
+                    src.position(op.pos);
+                    bb.put(src);
+                    bb.flip();
+                }
+                op.temp = bb;
+            }
+
+            while (!prepareEntryLocked(op)) {
+                // The submission queue is full; the thread entering the kernel
+                // empties it.
+                interrupted |= awaitUninterruptibly();
+            }
+        } finally {
+            if (interrupted)
+                Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Adds a submission queue entry for the operation, which already has a
+     * slot and, for a heap buffer, a direct buffer to use instead. Returns
+     * false if the submission queue is full.
+     */
+    private boolean prepareEntryLocked(Operation<?> op) {
+        long address;
+        int opcode;
+        int bufIndex = 0;
+        if (op.temp == null) {
+            address = ((DirectBuffer)op.buf).address() + op.pos;
+            bufIndex = registeredIndex(address, op.len);
+            if (bufIndex >= 0) {
+                opcode = op.isRead ? IoUring.IORING_OP_READ_FIXED
+                                   : IoUring.IORING_OP_WRITE_FIXED;
+            } else {
+                bufIndex = 0;
+                opcode = op.isRead ? IoUring.IORING_OP_READ : IoUring.IORING_OP_WRITE;
+            }
+        } else {
+            address = ((DirectBuffer)op.temp).address();
+            opcode = op.isRead ? IoUring.IORING_OP_READ : IoUring.IORING_OP_WRITE;
+        }
+
+        if (!ring.prepare(opcode, fdVal, address, op.len, op.position, bufIndex,
+                          op.slot + 1L))
+            return false;
+        operations[op.slot] = op;
+        unsubmitted++;
+        return true;
+    }
+
+    /**
+     * Hands the prepared entries to the kernel, unless another thread is
+     * doing so, in which case that thread also submits ours. Called with the
+     * close lock held.
+     */
+    private void flush() throws IOException {
+        synchronized (lock) {
+            if (submitting || unsubmitted == 0)
+                return;
+            submitting = true;
+        }
+        boolean done = false;
+        try {
+            for (;;) {
+                int count;
+                synchronized (lock) {
+                    count = unsubmitted;
+                    if (count == 0) {
+                        submitting = false;
+                        done = true;
+                        return;
+                    }
+                }
+                int n = ring.submit(count);
+                synchronized (lock) {
+                    unsubmitted -= n;
+                    inKernel += n;
+                    lock.notifyAll();
+                    if (n == 0 && inKernel > 0) {
+                        // The kernel is short of resources; the completion
+                        // thread retries once operations in flight complete.
+                        submitting = false;
+                        done = true;
+                        return;
+                    }
+                }
+                if (n == 0)
+                    Thread.yield();
+            }
+        } finally {
+            if (!done) {
+                synchronized (lock) {
+                    submitting = false;
+                }
+            }
+        }
+    }
+
+    /**
+     * Waits on the lock, returning true if the wait was interrupted. Callers
+     * restore the interrupt once they stop waiting, as setting it here would
+     * make every later wait return at once.
+     */
+    private boolean awaitUninterruptibly() {
+        try {
+            lock.wait();
+            return false;
+        } catch (InterruptedException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Runs on the completion thread: reaps completions and finishes their
+     * operations until the channel is closed and nothing is in flight.
+     */
+    private void pollCompletions() {
+        long[] userData = new long[IoUring.MAX_COMPLETIONS];
+        int[] results = new int[IoUring.MAX_COMPLETIONS];
+        // Whether the no-op submitted by close() has completed, after which
+        // nothing new is submitted.
+        boolean woken = false;
+        try {
+            for (;;) {
+                int n = ring.await(userData, results);
+                synchronized (lock) {
+                    inKernel -= n;
+                    reaped += n;
+                    lock.notifyAll();
+                }
+                for (int i = 0; i < n; i++) {
+                    if (userData[i] == WAKEUP) {
+                        woken = true;
+                    } else {
+                        complete((int) (userData[i] - 1), results[i]);
+                    }
+                }
+                // Submit the retries, and whatever the kernel had no
+                // resources for earlier.
+                resubmit();
+                synchronized (lock) {
+                    if (woken && freeCount == operations.length)
+                        break;
+                }
+            }
+        } catch (IOException x) {
+            // The ring is unusable. Fail what is in flight, but keep the ring
+            // and the operations' buffers, which the kernel may still use.
+            Operation<?>[] failed;
+            synchronized (lock) {
+                failed = operations.clone();
+            }
+            for (Operation<?> op : failed) {
+                if (op != null)
+                    op.abandon(x);
+            }
+            return;
+        }
+        ring.destroy();
+    }
+
+    private void complete(int slot, int res) {
+        Operation<?> op;
+        synchronized (lock) {
+            op = operations[slot];
+            if (op != null
+                    && (res == -OsConstants.EINTR || res == -OsConstants.EAGAIN)) {
+                // Try again, like IOUtil does for interrupted reads and
+                // writes. This thread must not wait for a slot or a
+                // submission entry, which only it can free, so the operation
+                // keeps its slot and is prepared again by prepareRetries().
+                retries.add(op);
+                return;
+            }
+            operations[slot] = null;
+            freeSlots[freeCount++] = slot;
+            lock.notifyAll();
+        }
+        if (op != null)
+            op.complete(res);
+    }
+
+    /**
+     * Prepares as many of the operations to retry as the submission queue
+     * has room for, without blocking, and submits the pending entries. The
+     * retries that don't fit wait for the next batch of completions, which
+     * the entries ahead of them in the queue produce. Fails the retries
+     * instead if the channel is being closed, in which case close() submits
+     * the pending entries.
+     */
+    private void resubmit() throws IOException {
+        ArrayList<Operation<?>> failed = null;
+        // Don't wait for the close lock: a thread closing the channel waits
+        // for submitters, which may be waiting for this thread.
+        boolean locked = closeLock.readLock().tryLock();
+        try {
+            boolean open = locked && !closed;
+            synchronized (lock) {
+                if (open) {
+                    int prepared = 0;
+                    while (prepared < retries.size()
+                            && prepareEntryLocked(retries.get(prepared))) {
+                        prepared++;
+                    }
+                    retries.subList(0, prepared).clear();
+                } else if (!retries.isEmpty()) {
+                    failed = new ArrayList<>(retries);
+                    retries.clear();
+                    for (Operation<?> op : failed) {
+                        operations[op.slot] = null;
+                        freeSlots[freeCount++] = op.slot;
+                    }
+                    lock.notifyAll();
+                }
+            }
+            if (open)
+                flush();
+        } finally {
+            if (locked)
+                closeLock.readLock().unlock();
+        }
+        if (failed != null) {
+            for (Operation<?> op : failed) {
+                op.fail(new AsynchronousCloseException());
+            }
+        }
+    }
+
+    /**
+     * A read or write in flight.
+     */
+    private final class Operation<A> {
+        final boolean isRead;
+        final ByteBuffer buf;
+        final int pos;
+        final int len;
+        final long position;
+        final A attachment;
+        final CompletionHandler<Integer,? super A> handler;
+        final PendingFuture<Integer,A> future;
+
+        // index into operations, and user data minus one
+        int slot;
+
+        // direct buffer substituted for a heap buffer
+        ByteBuffer temp;
+
+        Operation(boolean isRead, ByteBuffer buf, long position, A attachment,
+                  CompletionHandler<Integer,? super A> handler,
+                  PendingFuture<Integer,A> future)
+        {
+            this.isRead = isRead;
+            this.buf = buf;
+            this.pos = buf.position();
+            this.len = buf.remaining();
+            this.position = position;
+            this.attachment = attachment;
+            this.handler = handler;
+            this.future = future;
+        }
+
+        void complete(int res) {
+            if (res < 0) {
+                ErrnoException e = new ErrnoException(isRead ? "read" : "write", -res);
+                fail(new IOException(e.getMessage(), e));
+                return;
+            }
+            int n = res;
+            if (n > 0) {
+                if (temp != null && isRead) {
+                    temp.limit(n);
+                    ByteBuffer dst = buf.duplicate();
+                    dst.position(pos);
+                    dst.put(temp);
+                }
+                buf.position(pos + n);
+            } else if (isRead) {
+                // at end of file
+                n = -1;
+            }
+            releaseTemp();
+            finish(n, null);
+        }
+
+        void fail(Throwable exc) {
+            releaseTemp();
+            finish(0, exc);
+        }
+
+        // Fails the operation without releasing its temporary buffer.
+        void abandon(Throwable exc) {
+            finish(0, exc);
+        }
+
+        private void releaseTemp() {
+            if (temp != null) {
+                Util.releaseTemporaryDirectBuffer(temp);
+                temp = null;
+            }
+        }
+
+        private void finish(int n, Throwable exc) {
+            if (handler == null) {
+                future.setResult(n, exc);
+                return;
+            }
+            try {
+                Invoker.invokeIndirectly(handler, attachment, n, exc, executor);
+            } catch (ShutdownChannelGroupException ignore) {
+                // The executor was shut down; there is nobody left to tell.
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import java.nio.channels.*;
 import java.nio.channels.spi.AsynchronousChannelProvider;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.ThreadFactory;
+import java.io.FileDescriptor;
 import java.io.IOException;
 
 public class LinuxAsynchronousChannelProvider
@@ -87,4 +88,24 @@ public class LinuxAsynchronousChannelProvider
     {
         return new UnixAsynchronousSocketChannelImpl(toPort(group));
     }
+
+    // BEGIN Android-added: Use io_uring for AsynchronousFileChannel when possible.
+    /**
+     * Returns an AsynchronousFileChannel for the given file. It uses io_uring
+     * if that has been enabled with {@code -Dsun.nio.ch.useIoUring=true} and
+     * the kernel supports it, and otherwise runs blocking reads and writes on
+     * the pool's threads.
+     */
+    public static AsynchronousFileChannel newAsynchronousFileChannel(FileDescriptor fdo,
+                                                                     boolean reading,
+                                                                     boolean writing,
+                                                                     ThreadPool pool)
+    {
+        AsynchronousFileChannel channel =
+            IoUringAsynchronousFileChannelImpl.tryOpen(fdo, reading, writing, pool);
+        if (channel != null)
+            return channel;
+        return SimpleAsynchronousFileChannelImpl.open(fdo, reading, writing, pool);
+    }
+    // END Android-added: Use io_uring for AsynchronousFileChannel when possible.
 }
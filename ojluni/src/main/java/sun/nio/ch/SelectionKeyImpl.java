@@ -47,6 +47,14 @@ public class SelectionKeyImpl
     private volatile int interestOps;
     private int readyOps;
 
+    // Android-added: Event state used by EPollSelectorImpl.
+    // The translated events most recently requested through putEventOps,
+    // guarded by the selector's update lock.
+    private int pendingEvents;
+    // The events currently registered with the kernel, only accessed by the
+    // selecting thread.
+    private int registeredEvents;
+
     SelectionKeyImpl(SelChImpl ch, SelectorImpl sel) {
         channel = ch;
         selector = sel;
@@ -68,6 +76,23 @@ public class SelectionKeyImpl
         index = i;
     }
 
+    // Android-added: Accessors for EPollSelectorImpl.
+    int pendingEvents() {                               // package-private
+        return pendingEvents;
+    }
+
+    void pendingEvents(int events) {                    // package-private
+        pendingEvents = events;
+    }
+
+    int registeredEvents() {                            // package-private
+        return registeredEvents;
+    }
+
+    void registeredEvents(int events) {                 // package-private
+        registeredEvents = events;
+    }
+
     private void ensureValid() {
         if (!isValid())
             throw new CancelledKeyException();
@@ -67,12 +67,32 @@ public class SimpleAsynchronousFileChannelImpl
                                                boolean writing,
                                                ThreadPool pool)
     {
+        // Android-changed: Moved executor choice to executorFor().
         // Executor is either default or based on pool parameters
-        ExecutorService executor = (pool == null) ?
+        // ExecutorService executor = (pool == null) ?
+        //     DefaultExecutorHolder.defaultExecutor : pool.executor();
+        return new SimpleAsynchronousFileChannelImpl(fdo, reading, writing,
+                                                     executorFor(pool));
+    }
+
+    // BEGIN Android-added: Shared with IoUringAsynchronousFileChannelImpl.
+    /**
+     * Returns the executor for a channel opened with the given pool.
+     */
+    static ExecutorService executorFor(ThreadPool pool) {
+        // Executor is either default or based on pool parameters
+        return (pool == null) ?
             DefaultExecutorHolder.defaultExecutor : pool.executor();
-        return new SimpleAsynchronousFileChannelImpl(fdo, reading, writing, executor);
     }
 
+    /**
+     * Called by close() with the close lock held for writing, so that no
+     * operation is being started, before the file is closed.
+     */
+    void implCloseBeforeFd() {
+    }
+    // END Android-added: Shared with IoUringAsynchronousFileChannelImpl.
+
     @Override
     public void close() throws IOException {
         // mark channel as closed
@@ -93,7 +113,9 @@ public class SimpleAsynchronousFileChannelImpl
         // wait until all async I/O operations have completely gracefully
         closeLock.writeLock().lock();
         try {
+            // Android-changed: Let subclasses finish with the fd before it is closed.
             // do nothing
+            implCloseBeforeFd();
         } finally {
             closeLock.writeLock().unlock();
         }
@@ -84,7 +84,9 @@ class SinkChannelImpl
 
     protected void implCloseSelectableChannel() throws IOException {
         synchronized (stateLock) {
-            if (state != ST_KILLED)
+            // Android-changed: Let an epoll selector delete the fd before it is closed.
+            // if (state != ST_KILLED)
+            if (state != ST_KILLED && !EPollSelectorProvider.defersPreClose(this))
                 nd.preClose(fd);
             long th = thread;
             if (th != 0)
@@ -882,7 +882,10 @@ class SocketChannelImpl
             if (state != ST_KILLED) {
                 // Android-added: CloseGuard support.
                 guard.close();
-                nd.preClose(fd);
+                // Android-changed: Let an epoll selector delete the fd before it is closed.
+                // nd.preClose(fd);
+                if (!EPollSelectorProvider.defersPreClose(this))
+                    nd.preClose(fd);
             }
 
             // Signal native threads, if needed.  If a target thread is not
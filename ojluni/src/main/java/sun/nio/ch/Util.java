@@ -290,7 +290,9 @@ public class Util {
     /**
      * Frees the memory for the given direct buffer
      */
-    private static void free(ByteBuffer buf) {
+    // Android-changed: Package-private for DirectBufferPool.
+    // private static void free(ByteBuffer buf) {
+    static void free(ByteBuffer buf) {
         // Android-changed: Add null check for cleaner. http://b/26040655
         // ((DirectBuffer)buf).cleaner().clean();
         Cleaner cleaner = ((DirectBuffer)buf).cleaner();
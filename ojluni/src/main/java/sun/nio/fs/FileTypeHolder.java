@@ -0,0 +1,46 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+package sun.nio.fs;
+
+/**
+ * Implemented by paths read from a directory that also hold the file type
+ * recorded in the directory entry, where the file system provides one.
+ *
+ * <p>The type is only a hint: unlike {@link BasicFileAttributesHolder}, it is
+ * not read together with any other attributes, and the file may have been
+ * replaced since. It describes the entry itself, not the target of a symbolic
+ * link.
+ */
+
+public interface FileTypeHolder {
+    /**
+     * Returns true if the directory entry was a directory.
+     */
+    boolean isDirectory();
+
+    /**
+     * Returns true if the directory entry was a symbolic link.
+     */
+    boolean isSymbolicLink();
+}
@@ -32,7 +32,9 @@ import java.util.Set;
 
 import sun.nio.ch.FileChannelImpl;
 import sun.nio.ch.ThreadPool;
-import sun.nio.ch.SimpleAsynchronousFileChannelImpl;
+// Android-changed: Use io_uring when the kernel supports it.
+// import sun.nio.ch.SimpleAsynchronousFileChannelImpl;
+import sun.nio.ch.LinuxAsynchronousChannelProvider;
 import jdk.internal.misc.SharedSecrets;
 import jdk.internal.misc.JavaIOFileDescriptorAccess;
 
@@ -168,9 +170,12 @@ class UnixChannelFactory {
         if (flags.append)
             throw new UnsupportedOperationException("APPEND not allowed");
 
+        // Android-changed: Use io_uring when the kernel supports it.
         // for now use simple implementation
         FileDescriptor fdObj = open(-1, path, null, flags, mode);
-        return SimpleAsynchronousFileChannelImpl.open(fdObj, flags.read, flags.write, pool);
+        // return SimpleAsynchronousFileChannelImpl.open(fdObj, flags.read, flags.write, pool);
+        return LinuxAsynchronousChannelProvider.newAsynchronousFileChannel(
+                fdObj, flags.read, flags.write, pool);
     }
 
     /**
@@ -26,6 +26,8 @@
 package sun.nio.fs;
 
 import java.nio.file.*;
+// Android-added: Read directory entries in batches with getdents64.
+import java.util.Arrays;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.concurrent.locks.*;
@@ -64,6 +66,14 @@ class UnixDirectoryStream
     // Android-added: CloseGuard support.
     private final CloseGuard guard = CloseGuard.get();
 
+    // BEGIN Android-added: Read directory entries in batches with getdents64.
+    // Size of the batches of directory entries that are read at once
+    private static final int ENTRIES_SIZE = 16 * 1024;
+
+    // native buffer that getdents64 fills (allocated on first read)
+    private NativeBuffer entriesBuffer;
+    // END Android-added: Read directory entries in batches with getdents64.
+
     /**
      * Initializes a new instance
      */
@@ -95,6 +105,13 @@ class UnixDirectoryStream
     protected final boolean closeImpl() throws IOException {
         if (!isClosed) {
             isClosed = true;
+            // BEGIN Android-added: Read directory entries in batches with getdents64.
+            // No reader can be using the buffer: they hold the read lock.
+            if (entriesBuffer != null) {
+                entriesBuffer.release();
+                entriesBuffer = null;
+            }
+            // END Android-added: Read directory entries in batches with getdents64.
             try {
                 closedir(dp);
             } catch (UnixException x) {
@@ -150,11 +167,21 @@ class UnixDirectoryStream
         // next entry to return
         private Path nextEntry;
 
+        // BEGIN Android-added: Read directory entries in batches with getdents64.
+        // the last batch of entries read (allocated on first read, and dropped
+        // at EOF), and the offset of the next one in it
+        private byte[] entries;
+        private int entriesLength;
+        private int entriesOffset;
+        // END Android-added: Read directory entries in batches with getdents64.
+
         UnixDirectoryIterator(DirectoryStream<Path> stream) {
             atEof = false;
             this.stream = stream;
         }
 
+        // BEGIN Android-changed: Read directory entries in batches with getdents64.
+        /*
         // Return true if file name is "." or ".."
         private boolean isSelfOrParent(byte[] nameAsBytes) {
             if (nameAsBytes[0] == '.') {
@@ -165,47 +192,69 @@ class UnixDirectoryStream
             }
             return false;
         }
+        */
 
         // Returns next entry (or null)
         private Path readNextEntry() {
             assert Thread.holdsLock(this);
 
             for (;;) {
-                byte[] nameAsBytes = null;
+                if (entriesOffset == entriesLength) {
+                    entriesOffset = 0;
+                    entriesLength = 0;
 
-                // prevent close while reading
-                readLock().lock();
-                try {
-                    if (isOpen()) {
-                        nameAsBytes = readdir(dp);
+                    // prevent close while reading
+                    readLock().lock();
+                    try {
+                        if (isOpen()) {
+                            if (entries == null)
+                                entries = new byte[ENTRIES_SIZE];
+                            if (entriesBuffer == null)
+                                entriesBuffer = NativeBuffers.getNativeBuffer(ENTRIES_SIZE);
+                            entriesLength = readdirEntries(dp, entriesBuffer.address(),
+                                                           entries);
+                        }
+                    } catch (UnixException x) {
+                        IOException ioe = x.asIOException(dir);
+                        throw new DirectoryIteratorException(ioe);
+                    } finally {
+                        readLock().unlock();
                     }
-                } catch (UnixException x) {
-                    IOException ioe = x.asIOException(dir);
-                    throw new DirectoryIteratorException(ioe);
-                } finally {
-                    readLock().unlock();
-                }
 
-                // EOF
-                if (nameAsBytes == null) {
-                    atEof = true;
-                    return null;
+                    // EOF
+                    if (entriesLength == 0) {
+                        atEof = true;
+                        entries = null;
+                        return null;
+                    }
                 }
 
-                // ignore "." and ".."
-                if (!isSelfOrParent(nameAsBytes)) {
-                    Path entry = dir.resolve(nameAsBytes);
+                // "." and ".." are not included
+                int type = entries[entriesOffset] & 0xff;
+                int nameLength = ((entries[entriesOffset + 1] & 0xff) << 8) |
+                                 (entries[entriesOffset + 2] & 0xff);
+                int nameOffset = entriesOffset + 3;
+                byte[] nameAsBytes = Arrays.copyOfRange(entries, nameOffset,
+                                                        nameOffset + nameLength);
+                entriesOffset = nameOffset + nameLength;
+
+                Path entry;
+                if (type == DT_UNKNOWN) {
+                    entry = dir.resolve(nameAsBytes);
+                } else {
+                    entry = new UnixPathWithType(dir, nameAsBytes, type);
+                }
 
-                    // return entry if no filter or filter accepts it
-                    try {
-                        if (filter == null || filter.accept(entry))
-                            return entry;
-                    } catch (IOException ioe) {
-                        throw new DirectoryIteratorException(ioe);
-                    }
+                // return entry if no filter or filter accepts it
+                try {
+                    if (filter == null || filter.accept(entry))
+                        return entry;
+                } catch (IOException ioe) {
+                    throw new DirectoryIteratorException(ioe);
                 }
             }
         }
+        // END Android-changed: Read directory entries in batches with getdents64.
 
         @Override
         public synchronized boolean hasNext() {
@@ -234,6 +283,37 @@ class UnixDirectoryStream
         }
     }
 
+    // BEGIN Android-added: Read directory entries in batches with getdents64.
+    // File types of directory entries, from <dirent.h>
+    private static final int DT_UNKNOWN = 0;
+    private static final int DT_DIR = 4;
+    private static final int DT_LNK = 10;
+
+    /**
+     * A directory entry whose file type is known from the directory, so that
+     * walking a file tree that doesn't need the attributes of its files need
+     * not stat them to find the directories.
+     */
+    private static class UnixPathWithType extends UnixPath implements FileTypeHolder {
+        private final int type;
+
+        UnixPathWithType(UnixPath dir, byte[] name, int type) {
+            super(dir.getFileSystem(), resolve(dir.asByteArray(), name));
+            this.type = type;
+        }
+
+        @Override
+        public boolean isDirectory() {
+            return type == DT_DIR;
+        }
+
+        @Override
+        public boolean isSymbolicLink() {
+            return type == DT_LNK;
+        }
+    }
+    // END Android-added: Read directory entries in batches with getdents64.
+
     // Android-added: CloseGuard support.
     protected void finalize() throws IOException {
         if (guard != null) {
@@ -447,6 +447,22 @@ class UnixNativeDispatcher {
      */
     static native byte[] readdir(long dir) throws UnixException;
 
+    // BEGIN Android-added: Read directory entries in batches with getdents64.
+    /**
+     * Reads the next entries of the directory with getdents64(2), using the
+     * native buffer at {@code buffer}, which must be at least as large as
+     * {@code entries}. Copies the entries other than "." and ".." into
+     * {@code entries}, each as its d_type byte, the length of its name as two
+     * bytes in big-endian order, and its name. The d_type byte is DT_UNKNOWN
+     * where the file system does not record the type in the directory.
+     *
+     * @return  the number of bytes copied into {@code entries}, or 0 at the
+     *          end of the directory
+     */
+    static native int readdirEntries(long dir, long buffer, byte[] entries)
+        throws UnixException;
+    // END Android-added: Read directory entries in batches with getdents64.
+
     /**
      * size_t read(int fildes, void* buf, size_t nbyte)
      */
@@ -371,7 +371,9 @@ class UnixPath
     }
 
     // Resolve child against given base
-    private static byte[] resolve(byte[] base, byte[] child) {
+    // Android-changed: Package-private, for UnixDirectoryStream.
+    // private static byte[] resolve(byte[] base, byte[] child) {
+    static byte[] resolve(byte[] base, byte[] child) {
         int baseLength = base.length;
         int childLength = child.length;
         if (childLength == 0)
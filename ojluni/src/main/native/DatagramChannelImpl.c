@@ -276,11 +276,239 @@ Java_sun_nio_ch_DatagramChannelImpl_send0(JNIEnv *env, jobject this,
     return n;
 }
 
+// BEGIN Android-added: Batched receive and send with recvmmsg and sendmmsg.
+/*
+ * Returns the sender's InetSocketAddress for the given sockaddr, reusing
+ * the one cached in DatagramChannelImpl if it is for the same address and
+ * port, and caching a new one otherwise, as receive0 does.
+ */
+static jobject
+senderAddress(JNIEnv *env, jobject this, struct sockaddr *sa)
+{
+    jobject senderAddr = (*env)->GetObjectField(env, this, dci_senderAddrID);
+    jobject sender = (*env)->GetObjectField(env, this, dci_senderID);
+    jobject ia;
+    int port;
+
+    if (senderAddr != NULL && sender != NULL
+        && NET_SockaddrEqualsInetAddress(env, sa, senderAddr)
+        && (*env)->GetIntField(env, this, dci_senderPortID)
+               == NET_GetPortFromSockaddr(sa)) {
+        (*env)->DeleteLocalRef(env, senderAddr);
+        return sender;
+    }
+    if (senderAddr != NULL) {
+        (*env)->DeleteLocalRef(env, senderAddr);
+    }
+    if (sender != NULL) {
+        (*env)->DeleteLocalRef(env, sender);
+    }
+
+    ia = NET_SockaddrToInetAddress(env, sa, &port);
+    if (ia == NULL) {
+        return NULL;
+    }
+    sender = (*env)->NewObject(env, isa_class, isa_ctorID, ia, port);
+    if (sender == NULL) {
+        return NULL;
+    }
+    (*env)->SetObjectField(env, this, dci_senderAddrID, ia);
+    (*env)->SetIntField(env, this, dci_senderPortID, port);
+    (*env)->SetObjectField(env, this, dci_senderID, sender);
+    (*env)->DeleteLocalRef(env, ia);
+    return sender;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_DatagramChannelImpl_receiveBatch0(JNIEnv *env, jobject this,
+                                                  jobject fdo, jlongArray addresses,
+                                                  jintArray lengths, jint count,
+                                                  jboolean connected,
+                                                  jobjectArray senders,
+                                                  jint sendersOffset)
+{
+    jint fd = fdval(env, fdo);
+    struct mmsghdr *msgs;
+    struct iovec *iovs;
+    SOCKADDR *sas;
+    jlong *bufs;
+    jint *lens;
+    jint n = 0;
+    jint i;
+
+    msgs = calloc(count, sizeof(struct mmsghdr));
+    iovs = calloc(count, sizeof(struct iovec));
+    sas = calloc(count, sizeof(SOCKADDR));
+    bufs = malloc(count * sizeof(jlong));
+    lens = malloc(count * sizeof(jint));
+    if (msgs == NULL || iovs == NULL || sas == NULL || bufs == NULL || lens == NULL) {
+        JNU_ThrowOutOfMemoryError(env, NULL);
+        n = IOS_THROWN;
+        goto done;
+    }
+    (*env)->GetLongArrayRegion(env, addresses, 0, count, bufs);
+    (*env)->GetIntArrayRegion(env, lengths, 0, count, lens);
+
+    for (i = 0; i < count; i++) {
+        iovs[i].iov_base = jlong_to_ptr(bufs[i]);
+        iovs[i].iov_len = (lens[i] > MAX_PACKET_LEN) ? MAX_PACKET_LEN : lens[i];
+        msgs[i].msg_hdr.msg_iov = &iovs[i];
+        msgs[i].msg_hdr.msg_iovlen = 1;
+        msgs[i].msg_hdr.msg_name = &sas[i];
+        msgs[i].msg_hdr.msg_namelen = SOCKADDR_LEN;
+    }
+
+    // Block, if at all, only until the first datagram arrives.
+    for (;;) {
+        n = recvmmsg(fd, msgs, count, MSG_WAITFORONE, NULL);
+        if (n >= 0) {
+            break;
+        }
+        if (errno == EWOULDBLOCK) {
+            n = IOS_UNAVAILABLE;
+            goto done;
+        }
+        if (errno == EINTR) {
+            n = IOS_INTERRUPTED;
+            goto done;
+        }
+        if (errno != ECONNREFUSED) {
+            n = handleSocketError(env, errno);
+            goto done;
+        }
+        if (connected == JNI_TRUE) {
+            JNU_ThrowByName(env, JNU_JAVANETPKG "PortUnreachableException", 0);
+            n = IOS_THROWN;
+            goto done;
+        }
+    }
+
+    for (i = 0; i < n; i++) {
+        struct sockaddr *sa = (struct sockaddr *)&sas[i];
+        lens[i] = msgs[i].msg_len;
+        if (senders == NULL) {
+            continue;
+        }
+        // As in receive0, there is no sender after an orderly shutdown.
+        if (sa->sa_family == 0) {
+            (*env)->SetObjectArrayElement(env, senders, sendersOffset + i, NULL);
+        } else {
+            jobject sender = senderAddress(env, this, sa);
+            if (sender == NULL) {
+                n = IOS_THROWN;
+                goto done;
+            }
+            (*env)->SetObjectArrayElement(env, senders, sendersOffset + i, sender);
+            (*env)->DeleteLocalRef(env, sender);
+        }
+    }
+    (*env)->SetIntArrayRegion(env, lengths, 0, n, lens);
+
+done:
+    free(msgs);
+    free(iovs);
+    free(sas);
+    free(bufs);
+    free(lens);
+    return n;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_DatagramChannelImpl_sendBatch0(JNIEnv *env, jobject this,
+                                               jboolean preferIPv6, jobject fdo,
+                                               jlongArray addresses, jintArray lengths,
+                                               jint count, jobjectArray destAddresses,
+                                               jintArray destPorts)
+{
+    jint fd = fdval(env, fdo);
+    struct mmsghdr *msgs;
+    struct iovec *iovs;
+    SOCKADDR *sas = NULL;
+    jlong *bufs;
+    jint *lens;
+    jint *ports = NULL;
+    jint n = 0;
+    jint i;
+
+    msgs = calloc(count, sizeof(struct mmsghdr));
+    iovs = calloc(count, sizeof(struct iovec));
+    bufs = malloc(count * sizeof(jlong));
+    lens = malloc(count * sizeof(jint));
+    if (destAddresses != NULL) {
+        sas = calloc(count, sizeof(SOCKADDR));
+        ports = malloc(count * sizeof(jint));
+    }
+    if (msgs == NULL || iovs == NULL || bufs == NULL || lens == NULL
+        || (destAddresses != NULL && (sas == NULL || ports == NULL))) {
+        JNU_ThrowOutOfMemoryError(env, NULL);
+        n = IOS_THROWN;
+        goto done;
+    }
+    (*env)->GetLongArrayRegion(env, addresses, 0, count, bufs);
+    (*env)->GetIntArrayRegion(env, lengths, 0, count, lens);
+    if (destAddresses != NULL) {
+        (*env)->GetIntArrayRegion(env, destPorts, 0, count, ports);
+    }
+
+    for (i = 0; i < count; i++) {
+        iovs[i].iov_base = jlong_to_ptr(bufs[i]);
+        iovs[i].iov_len = (lens[i] > MAX_PACKET_LEN) ? MAX_PACKET_LEN : lens[i];
+        msgs[i].msg_hdr.msg_iov = &iovs[i];
+        msgs[i].msg_hdr.msg_iovlen = 1;
+        if (destAddresses != NULL) {
+            int sa_len = SOCKADDR_LEN;
+            jobject destAddress = (*env)->GetObjectArrayElement(env, destAddresses, i);
+            int rv = NET_InetAddressToSockaddr(env, destAddress, ports[i],
+                                               (struct sockaddr *)&sas[i],
+                                               &sa_len, preferIPv6);
+            (*env)->DeleteLocalRef(env, destAddress);
+            if (rv != 0) {
+                n = IOS_THROWN;
+                goto done;
+            }
+            msgs[i].msg_hdr.msg_name = &sas[i];
+            msgs[i].msg_hdr.msg_namelen = sa_len;
+        }
+    }
+
+    n = sendmmsg(fd, msgs, count, 0);
+    if (n < 0) {
+        if (errno == EAGAIN) {
+            n = IOS_UNAVAILABLE;
+        } else if (errno == EINTR) {
+            n = IOS_INTERRUPTED;
+        } else if (errno == ECONNREFUSED) {
+            if (destAddresses == NULL) {
+                JNU_ThrowByName(env, JNU_JAVANETPKG "PortUnreachableException", 0);
+                n = IOS_THROWN;
+            } else {
+                // Like send(), treat the datagram as sent when not connected.
+                n = 1;
+            }
+        } else {
+            n = handleSocketError(env, errno);
+        }
+    }
+
+done:
+    free(msgs);
+    free(iovs);
+    free(sas);
+    free(bufs);
+    free(lens);
+    free(ports);
+    return n;
+}
+// END Android-added: Batched receive and send with recvmmsg and sendmmsg.
+
 static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(DatagramChannelImpl, initIDs, "()V"),
   NATIVE_METHOD(DatagramChannelImpl, disconnect0, "(Ljava/io/FileDescriptor;Z)V"),
   NATIVE_METHOD(DatagramChannelImpl, receive0, "(Ljava/io/FileDescriptor;JIZ)I"),
   NATIVE_METHOD(DatagramChannelImpl, send0, "(ZLjava/io/FileDescriptor;JILjava/net/InetAddress;I)I"),
+  // Android-added: Batched receive and send with recvmmsg and sendmmsg.
+  NATIVE_METHOD(DatagramChannelImpl, receiveBatch0, "(Ljava/io/FileDescriptor;[J[IIZ[Ljava/net/SocketAddress;I)I"),
+  NATIVE_METHOD(DatagramChannelImpl, sendBatch0, "(ZLjava/io/FileDescriptor;[J[II[Ljava/net/InetAddress;[I)I"),
 };
 
 void register_sun_nio_ch_DatagramChannelImpl(JNIEnv* env) {
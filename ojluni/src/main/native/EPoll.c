@@ -27,6 +27,7 @@
 #include "jni_util.h"
 #include "jvm.h"
 #include "jlong.h"
+#include "nio.h"
 #include "nio_util.h"
 
 #include "sun_nio_ch_EPoll.h"
@@ -98,6 +99,23 @@ Java_sun_nio_ch_EPoll_epollWait(JNIEnv *env, jclass c,
     return res;
 }
 
+// Android-added: Timed wait for EPollSelectorImpl.
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_EPoll_wait(JNIEnv *env, jclass c, jint epfd,
+                           jlong address, jint numfds, jint timeout)
+{
+    struct epoll_event *events = jlong_to_ptr(address);
+    int res = epoll_wait(epfd, events, numfds, timeout);
+    if (res < 0) {
+        if (errno == EINTR) {
+            // Let the selector return; it re-checks wakeups and interrupts.
+            return IOS_INTERRUPTED;
+        }
+        JNU_ThrowIOExceptionWithLastError(env, "epoll_wait failed");
+    }
+    return res;
+}
+
 JNIEXPORT void JNICALL
 Java_sun_nio_ch_EPoll_close0(JNIEnv *env, jclass c, jint epfd) {
     int res;
@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ *
+ * This code is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU General Public License version 2 only, as
+ * published by the Free Software Foundation.  The Android Open Source
+ * Project designates this particular file as subject to the "Classpath"
+ * exception as provided by The Android Open Source Project in the LICENSE
+ * file that accompanied this code.
+ *
+ * This code is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE.  See the GNU General Public License
+ * version 2 for more details (a copy is included in the LICENSE file that
+ * accompanied this code).
+ *
+ * You should have received a copy of the GNU General Public License version
+ * 2 along with this work; if not, write to the Free Software Foundation,
+ * Inc., 51 Franklin St, Fifth Floor, Boston, MA 02110-1301 USA.
+ */
+
+#include "jni.h"
+#include "jni_util.h"
+#include "jvm.h"
+#include "jlong.h"
+#include "nio.h"
+#include "nio_util.h"
+
+#include "sun_nio_ch_IoUring.h"
+
+#include <errno.h>
+#include <stdlib.h>
+#include <string.h>
+#include <unistd.h>
+#include <linux/io_uring.h>
+#include <sys/mman.h>
+#include <sys/syscall.h>
+#include <sys/uio.h>
+
+/*
+ * A minimal io_uring(7) binding: one ring per IoUring instance, driven with
+ * the raw system calls so that no userspace library is needed. Submission
+ * queue entries are filled in by IoUring.prepare() under the Java-side lock,
+ * so only the completion queue needs atomic accesses from several threads.
+ */
+
+struct ring {
+    int fd;
+    void *sq_ptr;
+    size_t sq_len;
+    void *cq_ptr;
+    size_t cq_len;
+    struct io_uring_sqe *sqes;
+    size_t sqes_len;
+    unsigned *sq_head;
+    unsigned *sq_tail;
+    unsigned *sq_array;
+    unsigned sq_mask;
+    unsigned sq_entries;
+    unsigned *cq_head;
+    unsigned *cq_tail;
+    struct io_uring_cqe *cqes;
+    unsigned cq_mask;
+    unsigned cq_entries;
+};
+
+static int io_uring_setup(unsigned entries, struct io_uring_params *p) {
+    return (int) syscall(__NR_io_uring_setup, entries, p);
+}
+
+static int io_uring_enter(int fd, unsigned to_submit, unsigned min_complete,
+                          unsigned flags) {
+    return (int) syscall(__NR_io_uring_enter, fd, to_submit, min_complete, flags,
+                         NULL, 0);
+}
+
+static int io_uring_register(int fd, unsigned opcode, void *arg, unsigned nr_args) {
+    return (int) syscall(__NR_io_uring_register, fd, opcode, arg, nr_args);
+}
+
+static void unmapRing(struct ring *r) {
+    if (r->sqes != NULL && r->sqes != MAP_FAILED) {
+        munmap(r->sqes, r->sqes_len);
+    }
+    if (r->cq_ptr != NULL && r->cq_ptr != MAP_FAILED && r->cq_ptr != r->sq_ptr) {
+        munmap(r->cq_ptr, r->cq_len);
+    }
+    if (r->sq_ptr != NULL && r->sq_ptr != MAP_FAILED) {
+        munmap(r->sq_ptr, r->sq_len);
+    }
+    if (r->fd >= 0) {
+        close(r->fd);
+    }
+    free(r);
+}
+
+/*
+ * Sets up a ring with room for 'entries' submissions and 'cqEntries'
+ * completions, returning NULL with errno set on failure.
+ */
+static struct ring *setupRing(unsigned entries, unsigned cqEntries) {
+    struct io_uring_params p;
+    memset(&p, 0, sizeof(p));
+    p.flags = IORING_SETUP_CQSIZE;
+    p.cq_entries = cqEntries;
+
+    struct ring *r = calloc(1, sizeof(struct ring));
+    if (r == NULL) {
+        errno = ENOMEM;
+        return NULL;
+    }
+    r->fd = io_uring_setup(entries, &p);
+    if (r->fd < 0) {
+        int saved = errno;
+        free(r);
+        errno = saved;
+        return NULL;
+    }
+    // The kernel must queue completions it has no room for, rather than drop them.
+    if ((p.features & IORING_FEAT_NODROP) == 0) {
+        close(r->fd);
+        free(r);
+        errno = ENOSYS;
+        return NULL;
+    }
+
+    r->sq_len = p.sq_off.array + p.sq_entries * sizeof(unsigned);
+    r->cq_len = p.cq_off.cqes + p.cq_entries * sizeof(struct io_uring_cqe);
+    if (p.features & IORING_FEAT_SINGLE_MMAP) {
+        if (r->cq_len > r->sq_len) {
+            r->sq_len = r->cq_len;
+        }
+    }
+    r->sq_ptr = mmap(NULL, r->sq_len, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE,
+                     r->fd, IORING_OFF_SQ_RING);
+    if (r->sq_ptr == MAP_FAILED) {
+        goto fail;
+    }
+    if (p.features & IORING_FEAT_SINGLE_MMAP) {
+        r->cq_ptr = r->sq_ptr;
+    } else {
+        r->cq_ptr = mmap(NULL, r->cq_len, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE,
+                         r->fd, IORING_OFF_CQ_RING);
+        if (r->cq_ptr == MAP_FAILED) {
+            goto fail;
+        }
+    }
+    r->sqes_len = p.sq_entries * sizeof(struct io_uring_sqe);
+    r->sqes = mmap(NULL, r->sqes_len, PROT_READ | PROT_WRITE, MAP_SHARED | MAP_POPULATE,
+                   r->fd, IORING_OFF_SQES);
+    if (r->sqes == MAP_FAILED) {
+        goto fail;
+    }
+
+    char *sq = r->sq_ptr;
+    r->sq_head = (unsigned *) (sq + p.sq_off.head);
+    r->sq_tail = (unsigned *) (sq + p.sq_off.tail);
+    r->sq_array = (unsigned *) (sq + p.sq_off.array);
+    r->sq_mask = *(unsigned *) (sq + p.sq_off.ring_mask);
+    r->sq_entries = p.sq_entries;
+    char *cq = r->cq_ptr;
+    r->cq_head = (unsigned *) (cq + p.cq_off.head);
+    r->cq_tail = (unsigned *) (cq + p.cq_off.tail);
+    r->cqes = (struct io_uring_cqe *) (cq + p.cq_off.cqes);
+    r->cq_mask = *(unsigned *) (cq + p.cq_off.ring_mask);
+    r->cq_entries = p.cq_entries;
+    return r;
+
+fail:
+    {
+        int saved = errno;
+        unmapRing(r);
+        errno = saved;
+        return NULL;
+    }
+}
+
+/*
+ * Returns whether the kernel allows io_uring and supports every opcode that
+ * IoUring uses. Seccomp policies commonly deny io_uring_setup(2), and kernels
+ * before 5.6 lack IORING_OP_READ and IORING_OP_WRITE.
+ */
+JNIEXPORT jboolean JNICALL
+Java_sun_nio_ch_IoUring_isSupported0(JNIEnv *env, jclass c)
+{
+    static const int ops[] = {
+        IORING_OP_NOP, IORING_OP_READ, IORING_OP_WRITE,
+        IORING_OP_READ_FIXED, IORING_OP_WRITE_FIXED,
+    };
+    struct ring *r = setupRing(2, 4);
+    if (r == NULL) {
+        return JNI_FALSE;
+    }
+    size_t len = sizeof(struct io_uring_probe) + 256 * sizeof(struct io_uring_probe_op);
+    struct io_uring_probe *probe = calloc(1, len);
+    jboolean supported = JNI_FALSE;
+    if (probe != NULL && io_uring_register(r->fd, IORING_REGISTER_PROBE, probe, 256) == 0) {
+        supported = JNI_TRUE;
+        for (size_t i = 0; i < sizeof(ops) / sizeof(ops[0]); i++) {
+            if (ops[i] > probe->last_op ||
+                    (probe->ops[ops[i]].flags & IO_URING_OP_SUPPORTED) == 0) {
+                supported = JNI_FALSE;
+            }
+        }
+    }
+    free(probe);
+    unmapRing(r);
+    return supported;
+}
+
+JNIEXPORT jlong JNICALL
+Java_sun_nio_ch_IoUring_create(JNIEnv *env, jclass c, jint entries, jint cqEntries)
+{
+    struct ring *r = setupRing((unsigned) entries, (unsigned) cqEntries);
+    if (r == NULL) {
+        JNU_ThrowIOExceptionWithLastError(env, "io_uring_setup failed");
+        return 0;
+    }
+    return ptr_to_jlong(r);
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IoUring_submissionEntries(JNIEnv *env, jclass c, jlong address)
+{
+    struct ring *r = jlong_to_ptr(address);
+    return (jint) r->sq_entries;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IoUring_completionEntries(JNIEnv *env, jclass c, jlong address)
+{
+    struct ring *r = jlong_to_ptr(address);
+    return (jint) r->cq_entries;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IoUring_registerBuffers(JNIEnv *env, jclass c, jlong address,
+                                        jlongArray addresses, jlongArray lengths)
+{
+    struct ring *r = jlong_to_ptr(address);
+    jsize count = (*env)->GetArrayLength(env, addresses);
+    struct iovec *iovs = calloc(count > 0 ? count : 1, sizeof(struct iovec));
+    jlong *bases = (*env)->GetLongArrayElements(env, addresses, NULL);
+    jlong *lens = (*env)->GetLongArrayElements(env, lengths, NULL);
+    int res = 0;
+    if (iovs == NULL || bases == NULL || lens == NULL) {
+        res = ENOMEM;
+    } else {
+        for (jsize i = 0; i < count; i++) {
+            iovs[i].iov_base = jlong_to_ptr(bases[i]);
+            iovs[i].iov_len = (size_t) lens[i];
+        }
+        // Replace any earlier registration.
+        io_uring_register(r->fd, IORING_UNREGISTER_BUFFERS, NULL, 0);
+        if (count > 0 && io_uring_register(r->fd, IORING_REGISTER_BUFFERS, iovs, count) < 0) {
+            res = errno;
+        }
+    }
+    if (lens != NULL) {
+        (*env)->ReleaseLongArrayElements(env, lengths, lens, JNI_ABORT);
+    }
+    if (bases != NULL) {
+        (*env)->ReleaseLongArrayElements(env, addresses, bases, JNI_ABORT);
+    }
+    free(iovs);
+    return res;
+}
+
+JNIEXPORT jboolean JNICALL
+Java_sun_nio_ch_IoUring_prepare(JNIEnv *env, jclass c, jlong address, jint op, jint fd,
+                                jlong bufAddress, jint len, jlong offset, jint bufIndex,
+                                jlong userData)
+{
+    struct ring *r = jlong_to_ptr(address);
+    unsigned tail = *r->sq_tail;
+    unsigned head = __atomic_load_n(r->sq_head, __ATOMIC_ACQUIRE);
+    if (tail - head >= r->sq_entries) {
+        return JNI_FALSE;
+    }
+    unsigned index = tail & r->sq_mask;
+    struct io_uring_sqe *sqe = &r->sqes[index];
+    memset(sqe, 0, sizeof(*sqe));
+    sqe->opcode = (__u8) op;
+    sqe->fd = fd;
+    sqe->addr = (__u64) bufAddress;
+    sqe->len = (__u32) len;
+    sqe->off = (__u64) offset;
+    sqe->buf_index = (__u16) bufIndex;
+    sqe->user_data = (__u64) userData;
+    r->sq_array[index] = index;
+    // Publish the entry before the kernel can see the new tail.
+    __atomic_store_n(r->sq_tail, tail + 1, __ATOMIC_RELEASE);
+    return JNI_TRUE;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IoUring_submit(JNIEnv *env, jclass c, jlong address, jint count)
+{
+    struct ring *r = jlong_to_ptr(address);
+    int res;
+    RESTARTABLE(io_uring_enter(r->fd, (unsigned) count, 0, 0), res);
+    if (res < 0) {
+        if (errno == EAGAIN || errno == EBUSY) {
+            // Out of kernel resources or completion space: the caller retries later.
+            return 0;
+        }
+        JNU_ThrowIOExceptionWithLastError(env, "io_uring_enter failed");
+    }
+    return res;
+}
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_ch_IoUring_await(JNIEnv *env, jclass c, jlong address,
+                              jlongArray userData, jintArray results)
+{
+    struct ring *r = jlong_to_ptr(address);
+    unsigned head = *r->cq_head;
+    unsigned tail = __atomic_load_n(r->cq_tail, __ATOMIC_ACQUIRE);
+    if (head == tail) {
+        int res = io_uring_enter(r->fd, 0, 1, IORING_ENTER_GETEVENTS);
+        if (res < 0 && errno != EINTR && errno != EAGAIN && errno != EBUSY) {
+            JNU_ThrowIOExceptionWithLastError(env, "io_uring_enter failed");
+            return 0;
+        }
+        tail = __atomic_load_n(r->cq_tail, __ATOMIC_ACQUIRE);
+    }
+
+    jsize max = (*env)->GetArrayLength(env, userData);
+    jlong data[64];
+    jint res[64];
+    jsize n = 0;
+    while (head != tail && n < max && n < 64) {
+        struct io_uring_cqe *cqe = &r->cqes[head & r->cq_mask];
+        data[n] = (jlong) cqe->user_data;
+        res[n] = (jint) cqe->res;
+        n++;
+        head++;
+    }
+    // Hand the slots back to the kernel.
+    __atomic_store_n(r->cq_head, head, __ATOMIC_RELEASE);
+    (*env)->SetLongArrayRegion(env, userData, 0, n, data);
+    (*env)->SetIntArrayRegion(env, results, 0, n, res);
+    return n;
+}
+
+JNIEXPORT void JNICALL
+Java_sun_nio_ch_IoUring_destroy(JNIEnv *env, jclass c, jlong address)
+{
+    unmapRing(jlong_to_ptr(address));
+}
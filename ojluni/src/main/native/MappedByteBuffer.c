@@ -33,6 +33,11 @@
 
 #include <nativehelper/JNIHelp.h>
 
+// Android-added: Populate the page tables in load0 where the kernel supports it.
+#ifndef MADV_POPULATE_READ
+#define MADV_POPULATE_READ 22
+#endif
+
 #define NATIVE_METHOD(className, functionName, signature) \
 { #functionName, signature, (void*)(Java_java_nio_ ## className ## _ ## functionName) }
 
@@ -86,11 +91,33 @@ Java_java_nio_MappedByteBuffer_load0(JNIEnv *env, jobject obj, jlong address,
                                      jlong len)
 {
     char *a = (char *)jlong_to_ptr(address);
-    int result = madvise((caddr_t)a, (size_t)len, MADV_WILLNEED);
+    // BEGIN Android-changed: Fault the pages in here rather than from Java.
+    // Since Linux 5.14 the kernel reads the pages in and maps them, which is
+    // what touching a byte of each page used to do. Before that, and if the
+    // mapping cannot be populated (for example because part of it is beyond
+    // the end of the file), only start reading the pages in.
+    int result = madvise((caddr_t)a, (size_t)len, MADV_POPULATE_READ);
+    if (result == -1) {
+        result = madvise((caddr_t)a, (size_t)len, MADV_WILLNEED);
+    }
+    // END Android-changed: Fault the pages in here rather than from Java.
+    if (result == -1) {
+        JNU_ThrowIOExceptionWithLastError(env, "madvise failed");
+    }
+}
+
+// BEGIN Android-added: Access pattern hints for mapped buffers.
+JNIEXPORT void JNICALL
+Java_java_nio_MappedByteBuffer_advise0(JNIEnv *env, jobject obj, jlong address,
+                                       jlong len, jint advice)
+{
+    char *a = (char *)jlong_to_ptr(address);
+    int result = madvise((caddr_t)a, (size_t)len, advice);
     if (result == -1) {
         JNU_ThrowIOExceptionWithLastError(env, "madvise failed");
     }
 }
+// END Android-added: Access pattern hints for mapped buffers.
 
 
 JNIEXPORT void JNICALL
@@ -109,6 +136,8 @@ static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(MappedByteBuffer, isLoaded0, "(JJI)Z"),
   NATIVE_METHOD(MappedByteBuffer, load0, "(JJ)V"),
   NATIVE_METHOD(MappedByteBuffer, force0, "(Ljava/io/FileDescriptor;JJ)V"),
+  // Android-added: Access pattern hints for mapped buffers.
+  NATIVE_METHOD(MappedByteBuffer, advise0, "(JJI)V"),
 };
 
 void register_java_nio_MappedByteBuffer(JNIEnv* env) {
@@ -29,6 +29,11 @@
 
 #include <unistd.h>
 #include <errno.h>
+// BEGIN Android-added: Copy files within the kernel.
+#include <linux/fs.h>
+#include <sys/ioctl.h>
+#include <sys/syscall.h>
+// END Android-added: Copy files within the kernel.
 
 #include "sun_nio_fs_UnixCopyFile.h"
 
@@ -46,6 +51,68 @@ static void throwUnixException(JNIEnv* env, int errnum) {
     }
 }
 
+// BEGIN Android-added: Copy files within the kernel.
+// Maximum size to copy with one copy_file_range() call, so that a
+// cancellation takes effect before a large copy completes
+#define COPY_FILE_RANGE_SIZE (64 * 1024 * 1024)
+
+// Set to false if we find out that the kernel doesn't support copy_file_range()
+static volatile jboolean copyFileRangeSupported = JNI_TRUE;
+
+/**
+ * Returns true if a failure of the first copy_file_range() or FICLONE call
+ * with this errno means the copy should be done some other way.
+ */
+static jboolean isUnsupported(int errnum) {
+    return errnum == ENOSYS || errnum == EXDEV || errnum == EINVAL ||
+        errnum == EOPNOTSUPP || errnum == ENOTTY || errnum == EBADF ||
+        errnum == EPERM;
+}
+
+/**
+ * Transfer all bytes from src to dst within the kernel: first by cloning the
+ * file's extents, where the file system supports reflinks, and then with
+ * copy_file_range(). Returns 0 on success, -1 if an exception has been thrown,
+ * or 1 if src cannot be copied to dst this way, or appears empty, and nothing
+ * was copied.
+ */
+static int transferInKernel(JNIEnv* env, int dst, int src, volatile jint* cancel)
+{
+    int res;
+    ssize_t n;
+    jboolean copied = JNI_FALSE;
+
+    RESTARTABLE(ioctl(dst, FICLONE, src), res);
+    if (res == 0)
+        return 0;
+
+    if (!copyFileRangeSupported)
+        return 1;
+    for (;;) {
+        RESTARTABLE(syscall(__NR_copy_file_range, src, NULL, dst, NULL,
+                            (size_t)COPY_FILE_RANGE_SIZE, 0u), n);
+        // Files in procfs and sysfs report a size of 0, so copy_file_range()
+        // copies nothing from them. Let read() find out what is there.
+        if (n == 0)
+            return copied ? 0 : 1;
+        if (n < 0) {
+            if (!copied && isUnsupported(errno)) {
+                if (errno == ENOSYS)
+                    copyFileRangeSupported = JNI_FALSE;
+                return 1;
+            }
+            throwUnixException(env, errno);
+            return -1;
+        }
+        copied = JNI_TRUE;
+        if (cancel != NULL && *cancel != 0) {
+            throwUnixException(env, ECANCELED);
+            return -1;
+        }
+    }
+}
+// END Android-added: Copy files within the kernel.
+
 /**
  * Transfer all bytes from src to dst via user-space buffers
  */
@@ -56,6 +123,11 @@ Java_sun_nio_fs_UnixCopyFile_transfer
     char buf[8192];
     volatile jint* cancel = (jint*)jlong_to_ptr(cancelAddress);
 
+    // BEGIN Android-added: Copy files within the kernel where possible.
+    if (transferInKernel(env, (int)dst, (int)src, cancel) <= 0)
+        return;
+    // END Android-added: Copy files within the kernel where possible.
+
     for (;;) {
         ssize_t n, pos, len;
         RESTARTABLE(read((int)src, &buf, sizeof(buf)), n);
@@ -37,6 +37,8 @@
 #include <sys/stat.h>
 #include <sys/statvfs.h>
 #include <sys/time.h>
+// Android-added: Read directory entries in batches with getdents64.
+#include <sys/syscall.h>
 
 #ifdef __solaris__
 #include <strings.h>
@@ -777,6 +779,65 @@ Java_sun_nio_fs_UnixNativeDispatcher_readdir(JNIEnv* env, jclass this, jlong val
 // END Android-changed: Integrate OpenJDK 12 commit to use readdir, not readdir_r. b/64362645
 }
 
+// BEGIN Android-added: Read directory entries in batches with getdents64.
+// The record that getdents64(2) returns for each directory entry.
+struct linux_dirent64 {
+    uint64_t d_ino;
+    int64_t d_off;
+    unsigned short d_reclen;
+    unsigned char d_type;
+    char d_name[];
+};
+
+JNIEXPORT jint JNICALL
+Java_sun_nio_fs_UnixNativeDispatcher_readdirEntries(JNIEnv* env, jclass this,
+    jlong value, jlong bufferAddress, jbyteArray entries)
+{
+    DIR* dirp = jlong_to_ptr(value);
+    char* buf = (char*)jlong_to_ptr(bufferAddress);
+    jsize size = (*env)->GetArrayLength(env, entries);
+    int fd = dirfd(dirp);
+    long n;
+    jsize len = 0;
+
+    // Loop until an entry other than "." or ".." is found, or the end of the
+    // directory is reached.
+    while (len == 0) {
+        long pos = 0;
+        RESTARTABLE(syscall(SYS_getdents64, fd, buf, (size_t)size), n);
+        if (n == -1) {
+            throwUnixException(env, errno);
+            return 0;
+        }
+        if (n == 0)
+            return 0;
+
+        // Compact the records in place to (type, name length, name) triples.
+        // Each one is shorter than the record it replaces, so it never
+        // overwrites a record that has not been read yet.
+        while (pos < n) {
+            struct linux_dirent64* dp = (struct linux_dirent64*)(buf + pos);
+            unsigned short reclen = dp->d_reclen;
+            unsigned char type = dp->d_type;
+            const char* name = dp->d_name;
+            size_t namelen = strlen(name);
+            pos += reclen;
+            if (name[0] == '.' &&
+                (namelen == 1 || (namelen == 2 && name[1] == '.'))) {
+                continue;
+            }
+            buf[len] = (char)type;
+            buf[len + 1] = (char)(namelen >> 8);
+            buf[len + 2] = (char)namelen;
+            memmove(buf + len + 3, name, namelen);
+            len += 3 + namelen;
+        }
+    }
+    (*env)->SetByteArrayRegion(env, entries, 0, len, (jbyte*)buf);
+    return len;
+}
+// END Android-added: Read directory entries in batches with getdents64.
+
 JNIEXPORT void JNICALL
 Java_sun_nio_fs_UnixNativeDispatcher_mkdir0(JNIEnv* env, jclass this,
     jlong pathAddress, jint mode)
@@ -1268,6 +1329,8 @@ static JNINativeMethod gMethods[] = {
   NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, fdopendir, "(I)J"),
   NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, closedir, "(J)V"),
   NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, readdir, "(J)[B"),
+  // Android-added: Read directory entries in batches with getdents64.
+  NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, readdirEntries, "(JJ[B)I"),
   NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, read, "(IJI)I"),
   NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, write, "(IJI)I"),
   NATIVE_METHOD(Java_sun_nio_fs_UnixNativeDispatcher, access0, "(JI)V"),
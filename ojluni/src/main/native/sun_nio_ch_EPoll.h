@@ -63,6 +63,22 @@ JNIEXPORT jint JNICALL Java_sun_nio_ch_EPoll_epollCtl
 JNIEXPORT jint JNICALL Java_sun_nio_ch_EPoll_epollWait
   (JNIEnv *, jclass, jint, jlong, jint);
 
+/*
+ * Class:     sun_nio_ch_EPoll
+ * Method:    wait
+ * Signature: (IJII)I
+ */
+JNIEXPORT jint JNICALL Java_sun_nio_ch_EPoll_wait
+  (JNIEnv *, jclass, jint, jlong, jint, jint);
+
+/*
+ * Class:     sun_nio_ch_EPoll
+ * Method:    close0
+ * Signature: (I)V
+ */
+JNIEXPORT void JNICALL Java_sun_nio_ch_EPoll_close0
+  (JNIEnv *, jclass, jint);
+
 #ifdef __cplusplus
 }
 #endif
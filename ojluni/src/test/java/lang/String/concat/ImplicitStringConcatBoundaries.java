@@ -173,8 +173,8 @@ public class ImplicitStringConcatBoundaries {
         test("foo-2147483648",              "foo" + INT_MIN_1);
         test("foo-2147483648",              "foo" + INT_MIN_2);
 
-        test("foo1.17549435E-38",           "foo" + FLOAT_MIN_NORM_1);
-        test("foo1.17549435E-38",           "foo" + FLOAT_MIN_NORM_2);
+        test("foo1.1754944E-38",            "foo" + FLOAT_MIN_NORM_1);
+        test("foo1.1754944E-38",            "foo" + FLOAT_MIN_NORM_2);
         test("foo-126.0",                   "foo" + FLOAT_MIN_EXP_1);
         test("foo-126.0",                   "foo" + FLOAT_MIN_EXP_2);
         test("foo1.4E-45",                  "foo" + FLOAT_MIN_1);
@@ -0,0 +1,866 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.org.kxml2.io;
+
+import static com.android.org.kxml2.io.BinaryXmlSerializer.ATTRIBUTE;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.MAGIC;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.MAX_UNSIGNED_SHORT;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_BOOLEAN_FALSE;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_BOOLEAN_TRUE;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_BYTES_BASE64;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_BYTES_HEX;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_DOUBLE;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_FLOAT;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_INT;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_INT_HEX;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_LONG;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_LONG_HEX;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_NULL;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_STRING;
+import static com.android.org.kxml2.io.BinaryXmlSerializer.TYPE_STRING_INTERNED;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserException;
+
+/**
+ * Reads the binary XML written by {@link BinaryXmlSerializer}. Names and
+ * values are decoded straight from length-prefixed UTF-8, so there is no
+ * tokenizing, entity expansion or attribute normalization to do.
+ *
+ * <p>Namespaces are not supported. Attributes written with a typed method
+ * such as {@link BinaryXmlSerializer#attributeInt} can be read back with the
+ * matching getter such as {@link #getAttributeInt} without any parsing; the
+ * getters also accept attributes written as strings. {@link
+ * #getAttributeValue(int)} returns the string form of any attribute.
+ *
+ * <p>This class is not thread safe.
+ */
+public final class BinaryXmlParser implements XmlPullParser {
+
+    private static final int BUFFER_LEN = 32768;
+
+    private static final char[] HEX_DIGITS = {
+            '0', '1', '2', '3', '4', '5', '6', '7', '8', '9', 'A', 'B', 'C', 'D', 'E', 'F' };
+
+    private final byte[] buffer = new byte[BUFFER_LEN];
+    private int pos;
+    private int limit;
+
+    /** The number of bytes of the stream that precede the buffer. */
+    private int bufferStartOffset;
+
+    private InputStream in;
+
+    private String[] interned = new String[64];
+    private int internedCount;
+
+    private String[] elementStack = new String[16];
+    private int depth;
+
+    private int type;
+    private String name;
+    private String text;
+
+    private int attributeCount;
+    private String[] attributeNames = new String[8];
+    private int[] attributeTypes = new int[8];
+    /** The string form of each attribute, computed lazily for typed values. */
+    private String[] attributeValues = new String[8];
+    private long[] attributeBits = new long[8];
+    private byte[][] attributeBytes = new byte[8][];
+
+    public BinaryXmlParser() {
+    }
+
+    @Override public void setInput(InputStream is, String inputEncoding)
+            throws XmlPullParserException {
+        if (is == null) {
+            throw new IllegalArgumentException("is == null");
+        }
+        in = is;
+        pos = 0;
+        limit = 0;
+        bufferStartOffset = 0;
+        Arrays.fill(interned, 0, internedCount, null);
+        internedCount = 0;
+        Arrays.fill(elementStack, 0, depth, null);
+        depth = 0;
+        type = START_DOCUMENT;
+        name = null;
+        text = null;
+        attributeCount = -1;
+
+        try {
+            ensure(MAGIC.length);
+            for (byte b : MAGIC) {
+                if (buffer[pos++] != b) {
+                    throw new XmlPullParserException("Not binary XML", this, null);
+                }
+            }
+            if (peekCommand() == START_DOCUMENT) {
+                pos++;
+            }
+        } catch (IOException e) {
+            throw new XmlPullParserException(e.toString(), this, e);
+        }
+    }
+
+    /**
+     * Binary XML cannot be read from characters.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override public void setInput(Reader reader) {
+        throw new UnsupportedOperationException("Binary XML requires an InputStream");
+    }
+
+    @Override public String getInputEncoding() {
+        return in != null ? "UTF-8" : null;
+    }
+
+    @Override public void setFeature(String feature, boolean value) throws XmlPullParserException {
+        if (value) {
+            throw new XmlPullParserException("Unsupported feature: " + feature, this, null);
+        }
+    }
+
+    @Override public boolean getFeature(String feature) {
+        return false;
+    }
+
+    @Override public void setProperty(String property, Object value)
+            throws XmlPullParserException {
+        throw new XmlPullParserException("Unsupported property: " + property, this, null);
+    }
+
+    @Override public Object getProperty(String property) {
+        return null;
+    }
+
+    @Override public void defineEntityReplacementText(String entity, String value)
+            throws XmlPullParserException {
+        throw new XmlPullParserException("Entity replacement text is not supported", this, null);
+    }
+
+    @Override public int getEventType() {
+        return type;
+    }
+
+    @Override public int next() throws XmlPullParserException, IOException {
+        while (true) {
+            switch (nextToken()) {
+                case START_TAG:
+                case END_TAG:
+                case END_DOCUMENT:
+                    return type;
+                case TEXT:
+                case CDSECT:
+                case ENTITY_REF:
+                case IGNORABLE_WHITESPACE:
+                    mergeText();
+                    if (!text.isEmpty()) {
+                        return type;
+                    }
+                    break;
+                default:
+                    // skip comments, processing instructions and doctypes
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Coalesces the current text event with any adjacent text, CDATA, entity
+     * references and ignorable whitespace into a single TEXT event, dropping
+     * the comments and processing instructions in between.
+     */
+    private void mergeText() throws XmlPullParserException, IOException {
+        String first = textOrResolvedEntity();
+        StringBuilder merged = null;
+        while (true) {
+            int command = peekCommand();
+            if (command == TEXT || command == CDSECT || command == ENTITY_REF
+                    || command == IGNORABLE_WHITESPACE) {
+                if (merged == null) {
+                    merged = new StringBuilder(first);
+                }
+                nextToken();
+                merged.append(textOrResolvedEntity());
+            } else if (command == COMMENT || command == PROCESSING_INSTRUCTION
+                    || command == DOCDECL) {
+                if (merged == null) {
+                    merged = new StringBuilder(first);
+                }
+                nextToken();
+            } else {
+                break;
+            }
+        }
+        type = TEXT;
+        name = null;
+        text = merged != null ? merged.toString() : first;
+    }
+
+    private String textOrResolvedEntity() throws XmlPullParserException {
+        if (type == ENTITY_REF && text == null) {
+            throw new XmlPullParserException("unresolved: &" + name + ";", this, null);
+        }
+        return text;
+    }
+
+    @Override public int nextToken() throws XmlPullParserException, IOException {
+        if (type == END_TAG) {
+            elementStack[--depth] = null;
+        }
+        name = null;
+        text = null;
+        attributeCount = -1;
+
+        if (type == END_DOCUMENT) {
+            return type;
+        }
+        if (!fill(1)) {
+            if (depth > 0) {
+                throw new XmlPullParserException("Unexpected EOF", this, null);
+            }
+            return type = END_DOCUMENT;
+        }
+
+        int token = buffer[pos++] & 0xff;
+        int command = token & 0x0f;
+        int valueType = token & 0xf0;
+        switch (command) {
+            case START_TAG:
+                name = readInterned();
+                if (depth == elementStack.length) {
+                    elementStack = Arrays.copyOf(elementStack, depth * 2);
+                }
+                elementStack[depth++] = name;
+                type = START_TAG;
+                readAttributes();
+                return type;
+            case END_TAG:
+                name = readInterned();
+                if (depth == 0 || !elementStack[depth - 1].equals(name)) {
+                    throw new XmlPullParserException("expected: /"
+                            + (depth == 0 ? "" : elementStack[depth - 1])
+                            + " read: " + name, this, null);
+                }
+                return type = END_TAG;
+            case START_DOCUMENT:
+                throw new XmlPullParserException("Unexpected START_DOCUMENT", this, null);
+            case END_DOCUMENT:
+                if (depth > 0) {
+                    throw new XmlPullParserException("Unexpected END_DOCUMENT", this, null);
+                }
+                return type = END_DOCUMENT;
+            case ENTITY_REF:
+                name = readTextValue(valueType);
+                text = resolveEntity(name);
+                return type = ENTITY_REF;
+            case TEXT:
+            case CDSECT:
+            case IGNORABLE_WHITESPACE:
+            case PROCESSING_INSTRUCTION:
+            case COMMENT:
+            case DOCDECL:
+                text = readTextValue(valueType);
+                return type = command;
+            default:
+                throw new XmlPullParserException("Unknown token " + token, this, null);
+        }
+    }
+
+    private void readAttributes() throws XmlPullParserException, IOException {
+        int count = 0;
+        while (peekCommand() == ATTRIBUTE) {
+            int valueType = buffer[pos++] & 0xf0;
+            if (count == attributeNames.length) {
+                int newLength = count * 2;
+                attributeNames = Arrays.copyOf(attributeNames, newLength);
+                attributeTypes = Arrays.copyOf(attributeTypes, newLength);
+                attributeValues = Arrays.copyOf(attributeValues, newLength);
+                attributeBits = Arrays.copyOf(attributeBits, newLength);
+                attributeBytes = Arrays.copyOf(attributeBytes, newLength);
+            }
+            attributeNames[count] = readInterned();
+            attributeTypes[count] = valueType;
+            attributeValues[count] = null;
+            attributeBytes[count] = null;
+            switch (valueType) {
+                case TYPE_STRING:
+                    attributeValues[count] = readString();
+                    break;
+                case TYPE_STRING_INTERNED:
+                    attributeValues[count] = readInterned();
+                    break;
+                case TYPE_BYTES_HEX:
+                case TYPE_BYTES_BASE64:
+                    attributeBytes[count] = readBytes(readLength());
+                    break;
+                case TYPE_INT:
+                case TYPE_INT_HEX:
+                case TYPE_FLOAT:
+                    attributeBits[count] = readInt();
+                    break;
+                case TYPE_LONG:
+                case TYPE_LONG_HEX:
+                case TYPE_DOUBLE:
+                    attributeBits[count] = readLong();
+                    break;
+                case TYPE_BOOLEAN_TRUE:
+                    attributeValues[count] = "true";
+                    break;
+                case TYPE_BOOLEAN_FALSE:
+                    attributeValues[count] = "false";
+                    break;
+                default:
+                    throw new XmlPullParserException(
+                            "Unknown attribute type " + (valueType >> 4), this, null);
+            }
+            count++;
+        }
+        attributeCount = count;
+    }
+
+    private String readTextValue(int valueType) throws XmlPullParserException, IOException {
+        switch (valueType) {
+            case TYPE_NULL:
+                return "";
+            case TYPE_STRING:
+                return readString();
+            case TYPE_STRING_INTERNED:
+                return readInterned();
+            default:
+                throw new XmlPullParserException(
+                        "Unknown text type " + (valueType >> 4), this, null);
+        }
+    }
+
+    /**
+     * Returns the replacement text for the predefined or numeric entity
+     * {@code entity}, or null if it isn't one.
+     */
+    private static String resolveEntity(String entity) {
+        switch (entity) {
+            case "amp": return "&";
+            case "lt": return "<";
+            case "gt": return ">";
+            case "quot": return "\"";
+            case "apos": return "'";
+        }
+        if (entity.length() > 1 && entity.charAt(0) == '#') {
+            try {
+                int codePoint = entity.charAt(1) == 'x'
+                        ? Integer.parseInt(entity.substring(2), 16)
+                        : Integer.parseInt(entity.substring(1));
+                return new String(Character.toChars(codePoint));
+            } catch (IllegalArgumentException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    @Override public int nextTag() throws XmlPullParserException, IOException {
+        next();
+        if (type == TEXT && isWhitespace()) {
+            next();
+        }
+        if (type != END_TAG && type != START_TAG) {
+            throw new XmlPullParserException("unexpected type", this, null);
+        }
+        return type;
+    }
+
+    @Override public String nextText() throws XmlPullParserException, IOException {
+        if (type != START_TAG) {
+            throw new XmlPullParserException("precondition: START_TAG", this, null);
+        }
+        next();
+        String result;
+        if (type == TEXT) {
+            result = text;
+            next();
+        } else {
+            result = "";
+        }
+        if (type != END_TAG) {
+            throw new XmlPullParserException("END_TAG expected", this, null);
+        }
+        return result;
+    }
+
+    @Override public void require(int type, String namespace, String name)
+            throws XmlPullParserException {
+        if (type != this.type
+                || (namespace != null && !namespace.equals(getNamespace()))
+                || (name != null && !name.equals(getName()))) {
+            throw new XmlPullParserException(
+                    "expected: " + TYPES[type] + " {" + namespace + "}" + name, this, null);
+        }
+    }
+
+    @Override public int getDepth() {
+        return depth;
+    }
+
+    @Override public String getPositionDescription() {
+        StringBuilder result = new StringBuilder(type < TYPES.length ? TYPES[type] : "unknown");
+        if (type == START_TAG || type == END_TAG) {
+            result.append(' ').append(type == END_TAG ? "</" : "<").append(name).append('>');
+        }
+        result.append(" @").append(bufferStartOffset + pos);
+        return result.toString();
+    }
+
+    /** Binary XML has no lines; returns -1. */
+    @Override public int getLineNumber() {
+        return -1;
+    }
+
+    /** Binary XML has no columns; returns -1. */
+    @Override public int getColumnNumber() {
+        return -1;
+    }
+
+    @Override public boolean isWhitespace() throws XmlPullParserException {
+        if (type == IGNORABLE_WHITESPACE) {
+            return true;
+        }
+        if (type != TEXT && type != CDSECT) {
+            throw new XmlPullParserException("Wrong event type", this, null);
+        }
+        for (int i = 0; i < text.length(); i++) {
+            if (text.charAt(i) > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override public String getText() {
+        return type < TEXT ? null : text;
+    }
+
+    @Override public char[] getTextCharacters(int[] holderForStartAndLength) {
+        String text = getText();
+        if (text == null) {
+            holderForStartAndLength[0] = -1;
+            holderForStartAndLength[1] = -1;
+            return null;
+        }
+        char[] result = text.toCharArray();
+        holderForStartAndLength[0] = 0;
+        holderForStartAndLength[1] = result.length;
+        return result;
+    }
+
+    @Override public String getName() {
+        return name;
+    }
+
+    @Override public String getNamespace() {
+        return type == START_TAG || type == END_TAG ? "" : null;
+    }
+
+    @Override public String getPrefix() {
+        return null;
+    }
+
+    @Override public String getNamespace(String prefix) {
+        return null;
+    }
+
+    @Override public int getNamespaceCount(int depth) {
+        return 0;
+    }
+
+    @Override public String getNamespacePrefix(int pos) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    @Override public String getNamespaceUri(int pos) {
+        throw new IndexOutOfBoundsException();
+    }
+
+    /**
+     * Returns false; the serialized form doesn't distinguish {@code <a/>}
+     * from {@code <a></a>}.
+     */
+    @Override public boolean isEmptyElementTag() throws XmlPullParserException {
+        if (type != START_TAG) {
+            throw new XmlPullParserException("Wrong event type", this, null);
+        }
+        return false;
+    }
+
+    @Override public int getAttributeCount() {
+        return attributeCount;
+    }
+
+    @Override public String getAttributeNamespace(int index) {
+        checkAttributeIndex(index);
+        return "";
+    }
+
+    @Override public String getAttributeName(int index) {
+        checkAttributeIndex(index);
+        return attributeNames[index];
+    }
+
+    @Override public String getAttributePrefix(int index) {
+        checkAttributeIndex(index);
+        return null;
+    }
+
+    @Override public String getAttributeType(int index) {
+        return "CDATA";
+    }
+
+    @Override public boolean isAttributeDefault(int index) {
+        return false;
+    }
+
+    @Override public String getAttributeValue(int index) {
+        checkAttributeIndex(index);
+        String value = attributeValues[index];
+        if (value == null) {
+            long bits = attributeBits[index];
+            switch (attributeTypes[index]) {
+                case TYPE_BYTES_HEX:
+                    value = toHex(attributeBytes[index]);
+                    break;
+                case TYPE_BYTES_BASE64:
+                    value = Base64.getEncoder().encodeToString(attributeBytes[index]);
+                    break;
+                case TYPE_INT:
+                    value = Integer.toString((int) bits);
+                    break;
+                case TYPE_INT_HEX:
+                    value = Integer.toHexString((int) bits);
+                    break;
+                case TYPE_LONG:
+                    value = Long.toString(bits);
+                    break;
+                case TYPE_LONG_HEX:
+                    value = Long.toHexString(bits);
+                    break;
+                case TYPE_FLOAT:
+                    value = Float.toString(Float.intBitsToFloat((int) bits));
+                    break;
+                case TYPE_DOUBLE:
+                    value = Double.toString(Double.longBitsToDouble(bits));
+                    break;
+                default:
+                    throw new AssertionError();
+            }
+            attributeValues[index] = value;
+        }
+        return value;
+    }
+
+    @Override public String getAttributeValue(String namespace, String name) {
+        int index = getAttributeIndex(namespace, name);
+        return index != -1 ? getAttributeValue(index) : null;
+    }
+
+    /**
+     * Returns the index of the attribute called {@code name} on the current
+     * start tag, or -1 if there is no such attribute.
+     */
+    public int getAttributeIndex(String namespace, String name) {
+        if (namespace != null && !namespace.isEmpty()) {
+            return -1;
+        }
+        for (int i = 0; i < attributeCount; i++) {
+            if (attributeNames[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public byte[] getAttributeBytesHex(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        if (attributeTypes[index] == TYPE_BYTES_HEX
+                || attributeTypes[index] == TYPE_BYTES_BASE64) {
+            return attributeBytes[index].clone();
+        }
+        String value = getAttributeValue(index);
+        if (value.length() % 2 != 0) {
+            throw invalidAttribute(index, null);
+        }
+        byte[] result = new byte[value.length() / 2];
+        for (int i = 0; i < result.length; i++) {
+            int high = Character.digit(value.charAt(i * 2), 16);
+            int low = Character.digit(value.charAt(i * 2 + 1), 16);
+            if (high == -1 || low == -1) {
+                throw invalidAttribute(index, null);
+            }
+            result[i] = (byte) ((high << 4) | low);
+        }
+        return result;
+    }
+
+    public byte[] getAttributeBytesBase64(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        if (attributeTypes[index] == TYPE_BYTES_HEX
+                || attributeTypes[index] == TYPE_BYTES_BASE64) {
+            return attributeBytes[index].clone();
+        }
+        try {
+            return Base64.getDecoder().decode(getAttributeValue(index));
+        } catch (IllegalArgumentException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public int getAttributeInt(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        if (attributeTypes[index] == TYPE_INT || attributeTypes[index] == TYPE_INT_HEX) {
+            return (int) attributeBits[index];
+        }
+        try {
+            return Integer.parseInt(getAttributeValue(index));
+        } catch (NumberFormatException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public int getAttributeIntHex(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        if (attributeTypes[index] == TYPE_INT || attributeTypes[index] == TYPE_INT_HEX) {
+            return (int) attributeBits[index];
+        }
+        try {
+            return Integer.parseUnsignedInt(getAttributeValue(index), 16);
+        } catch (NumberFormatException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public long getAttributeLong(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        switch (attributeTypes[index]) {
+            case TYPE_INT:
+            case TYPE_INT_HEX:
+            case TYPE_LONG:
+            case TYPE_LONG_HEX:
+                return attributeBits[index];
+        }
+        try {
+            return Long.parseLong(getAttributeValue(index));
+        } catch (NumberFormatException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public long getAttributeLongHex(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        switch (attributeTypes[index]) {
+            case TYPE_INT:
+            case TYPE_INT_HEX:
+            case TYPE_LONG:
+            case TYPE_LONG_HEX:
+                return attributeBits[index];
+        }
+        try {
+            return Long.parseUnsignedLong(getAttributeValue(index), 16);
+        } catch (NumberFormatException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public float getAttributeFloat(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        if (attributeTypes[index] == TYPE_FLOAT) {
+            return Float.intBitsToFloat((int) attributeBits[index]);
+        }
+        try {
+            return Float.parseFloat(getAttributeValue(index));
+        } catch (NumberFormatException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public double getAttributeDouble(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        if (attributeTypes[index] == TYPE_DOUBLE) {
+            return Double.longBitsToDouble(attributeBits[index]);
+        }
+        if (attributeTypes[index] == TYPE_FLOAT) {
+            return Float.intBitsToFloat((int) attributeBits[index]);
+        }
+        try {
+            return Double.parseDouble(getAttributeValue(index));
+        } catch (NumberFormatException e) {
+            throw invalidAttribute(index, e);
+        }
+    }
+
+    public boolean getAttributeBoolean(int index) throws XmlPullParserException {
+        checkAttributeIndex(index);
+        String value = getAttributeValue(index);
+        if ("true".equals(value)) {
+            return true;
+        } else if ("false".equals(value)) {
+            return false;
+        }
+        throw invalidAttribute(index, null);
+    }
+
+    private void checkAttributeIndex(int index) {
+        if (index < 0 || index >= attributeCount) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private XmlPullParserException invalidAttribute(int index, Throwable cause) {
+        return new XmlPullParserException("Invalid attribute " + attributeNames[index]
+                + "=\"" + getAttributeValue(index) + "\"", this, cause);
+    }
+
+    private static String toHex(byte[] bytes) {
+        char[] result = new char[bytes.length * 2];
+        for (int i = 0; i < bytes.length; i++) {
+            result[i * 2] = HEX_DIGITS[(bytes[i] >> 4) & 0xf];
+            result[i * 2 + 1] = HEX_DIGITS[bytes[i] & 0xf];
+        }
+        return new String(result);
+    }
+
+    /**
+     * Returns the command of the next token without consuming it, or -1 at
+     * the end of the stream.
+     */
+    private int peekCommand() throws IOException {
+        return fill(1) ? buffer[pos] & 0x0f : -1;
+    }
+
+    private String readInterned() throws XmlPullParserException, IOException {
+        int index = readUnsignedShort();
+        if (index != MAX_UNSIGNED_SHORT) {
+            if (index >= internedCount) {
+                throw new XmlPullParserException("Invalid string index " + index, this, null);
+            }
+            return interned[index];
+        }
+        String s = readString();
+        if (internedCount < MAX_UNSIGNED_SHORT) {
+            if (internedCount == interned.length) {
+                interned = Arrays.copyOf(interned, internedCount * 2);
+            }
+            interned[internedCount++] = s;
+        }
+        return s;
+    }
+
+    private String readString() throws XmlPullParserException, IOException {
+        int length = readLength();
+        if (length > BUFFER_LEN) {
+            return new String(readBytes(length), StandardCharsets.UTF_8);
+        }
+        ensure(length);
+        String result = new String(buffer, pos, length, StandardCharsets.UTF_8);
+        pos += length;
+        return result;
+    }
+
+    private int readLength() throws XmlPullParserException, IOException {
+        int length = readUnsignedShort();
+        if (length == MAX_UNSIGNED_SHORT) {
+            length = readInt();
+            if (length < 0) {
+                throw new XmlPullParserException("Invalid length " + length, this, null);
+            }
+        }
+        return length;
+    }
+
+    private byte[] readBytes(int count) throws XmlPullParserException, IOException {
+        byte[] result = new byte[count];
+        int buffered = Math.min(count, limit - pos);
+        System.arraycopy(buffer, pos, result, 0, buffered);
+        pos += buffered;
+        for (int offset = buffered; offset < count; ) {
+            int n = in.read(result, offset, count - offset);
+            if (n == -1) {
+                throw new XmlPullParserException("Unexpected EOF", this, null);
+            }
+            offset += n;
+            bufferStartOffset += n;
+        }
+        return result;
+    }
+
+    private int readUnsignedShort() throws XmlPullParserException, IOException {
+        ensure(2);
+        return ((buffer[pos++] & 0xff) << 8) | (buffer[pos++] & 0xff);
+    }
+
+    private int readInt() throws XmlPullParserException, IOException {
+        ensure(4);
+        return ((buffer[pos++] & 0xff) << 24)
+                | ((buffer[pos++] & 0xff) << 16)
+                | ((buffer[pos++] & 0xff) << 8)
+                | (buffer[pos++] & 0xff);
+    }
+
+    private long readLong() throws XmlPullParserException, IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+    }
+
+    private void ensure(int count) throws XmlPullParserException, IOException {
+        if (!fill(count)) {
+            throw new XmlPullParserException("Unexpected EOF", this, null);
+        }
+    }
+
+    /**
+     * Returns true once at least {@code minimum} bytes are buffered, or false
+     * if the stream ends first.
+     */
+    private boolean fill(int minimum) throws IOException {
+        if (limit - pos >= minimum) {
+            return true;
+        }
+        if (in == null) {
+            return false;
+        }
+        if (pos > 0) {
+            System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+            limit -= pos;
+            bufferStartOffset += pos;
+            pos = 0;
+        }
+        while (limit < minimum) {
+            int n = in.read(buffer, limit, buffer.length - limit);
+            if (n == -1) {
+                return false;
+            }
+            limit += n;
+        }
+        return true;
+    }
+}
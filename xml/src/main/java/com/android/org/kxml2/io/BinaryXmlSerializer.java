@@ -0,0 +1,509 @@
+/*
+ * Copyright (C) 2026 The Android Open Source Project
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.android.org.kxml2.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlSerializer;
+
+/**
+ * Writes XML in a compact binary form that {@link BinaryXmlParser} reads
+ * back. The structure of the document is preserved exactly, but there is no
+ * text to escape or encode on the way out and none to tokenize on the way in,
+ * which makes it well suited to state that is rewritten often.
+ *
+ * <p>The stream starts with the four byte magic {@code ABX\0} and continues
+ * with one token per event. Each token is a single byte that holds the event
+ * type in its low four bits, or {@link #ATTRIBUTE} for attributes, and the
+ * type of the payload that follows in its high four bits:
+ * <ul>
+ *   <li>Strings are written as an unsigned 16-bit length followed by that
+ *       many bytes of UTF-8. Longer strings use the length {@code 0xFFFF}
+ *       followed by a signed 32-bit length.
+ *   <li>Interned strings, used for tag and attribute names, are written as
+ *       an unsigned 16-bit index into the table of strings interned so far.
+ *       The index {@code 0xFFFF} is followed by a new string, which takes the
+ *       next index unless the table is full.
+ *   <li>Numbers are written big-endian in 4 or 8 bytes; booleans are folded
+ *       into the type itself.
+ * </ul>
+ *
+ * <p>Namespaces are not supported. Beyond the {@link XmlSerializer} API, this
+ * class has methods that write typed attribute values, such as {@link
+ * #attributeInt}, which {@link BinaryXmlParser} can return without parsing.
+ *
+ * <p>This class is not thread safe.
+ */
+public final class BinaryXmlSerializer implements XmlSerializer {
+
+    /** The magic at the start of every binary XML stream. */
+    static final byte[] MAGIC = { 'A', 'B', 'X', 0 };
+
+    /** The token command for attributes; the other commands are event types. */
+    static final int ATTRIBUTE = 15;
+
+    static final int TYPE_NULL = 1 << 4;
+    static final int TYPE_STRING = 2 << 4;
+    static final int TYPE_STRING_INTERNED = 3 << 4;
+    static final int TYPE_BYTES_HEX = 4 << 4;
+    static final int TYPE_BYTES_BASE64 = 5 << 4;
+    static final int TYPE_INT = 6 << 4;
+    static final int TYPE_INT_HEX = 7 << 4;
+    static final int TYPE_LONG = 8 << 4;
+    static final int TYPE_LONG_HEX = 9 << 4;
+    static final int TYPE_FLOAT = 10 << 4;
+    static final int TYPE_DOUBLE = 11 << 4;
+    static final int TYPE_BOOLEAN_TRUE = 12 << 4;
+    static final int TYPE_BOOLEAN_FALSE = 13 << 4;
+
+    /**
+     * The largest 16-bit length or index; it also marks a 32-bit length or a
+     * newly interned string.
+     */
+    static final int MAX_UNSIGNED_SHORT = 0xFFFF;
+
+    private static final int BUFFER_LEN = 32768;
+
+    private final byte[] buffer = new byte[BUFFER_LEN];
+    private int pos;
+
+    private OutputStream out;
+
+    private final HashMap<String, Integer> interned = new HashMap<>();
+
+    private String[] elementStack = new String[16];
+    private int depth;
+
+    /** True while attributes may still be written to the current start tag. */
+    private boolean inStartTag;
+
+    public BinaryXmlSerializer() {
+    }
+
+    @Override public void setOutput(OutputStream os, String encoding) throws IOException {
+        if (os == null) {
+            throw new IllegalArgumentException("os == null");
+        }
+        if (encoding != null && !encoding.equalsIgnoreCase("UTF-8")) {
+            throw new UnsupportedOperationException("Unsupported encoding: " + encoding);
+        }
+        out = os;
+        pos = 0;
+        interned.clear();
+        depth = 0;
+        inStartTag = false;
+        writeBytes(MAGIC, 0, MAGIC.length);
+    }
+
+    /**
+     * Binary XML cannot be written as characters.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override public void setOutput(Writer writer) {
+        throw new UnsupportedOperationException("Binary XML requires an OutputStream");
+    }
+
+    @Override public void setFeature(String name, boolean state) {
+        // Binary XML has no whitespace to indent with.
+        if ("http://xmlpull.org/v1/doc/features.html#indent-output".equals(name)) {
+            return;
+        }
+        throw new IllegalStateException("Unsupported feature: " + name);
+    }
+
+    @Override public boolean getFeature(String name) {
+        return false;
+    }
+
+    @Override public void setProperty(String name, Object value) {
+        throw new IllegalStateException("Unsupported property: " + name);
+    }
+
+    @Override public Object getProperty(String name) {
+        return null;
+    }
+
+    @Override public void startDocument(String encoding, Boolean standalone) throws IOException {
+        writeToken(XmlPullParser.START_DOCUMENT | TYPE_NULL);
+    }
+
+    @Override public void endDocument() throws IOException {
+        while (depth > 0) {
+            endTag(null, elementStack[depth - 1]);
+        }
+        writeToken(XmlPullParser.END_DOCUMENT | TYPE_NULL);
+        flush();
+    }
+
+    /**
+     * Namespaces are not supported.
+     *
+     * @throws UnsupportedOperationException always.
+     */
+    @Override public void setPrefix(String prefix, String namespace) {
+        throw new UnsupportedOperationException("Namespaces are not supported");
+    }
+
+    @Override public String getPrefix(String namespace, boolean generatePrefix) {
+        if (generatePrefix) {
+            throw new UnsupportedOperationException("Namespaces are not supported");
+        }
+        return null;
+    }
+
+    @Override public int getDepth() {
+        return depth;
+    }
+
+    @Override public String getNamespace() {
+        return depth == 0 ? null : "";
+    }
+
+    @Override public String getName() {
+        return depth == 0 ? null : elementStack[depth - 1];
+    }
+
+    @Override public XmlSerializer startTag(String namespace, String name) throws IOException {
+        checkNamespace(namespace);
+        if (depth == elementStack.length) {
+            elementStack = Arrays.copyOf(elementStack, depth * 2);
+        }
+        elementStack[depth++] = name;
+        writeToken(XmlPullParser.START_TAG | TYPE_STRING_INTERNED);
+        writeInterned(name);
+        inStartTag = true;
+        return this;
+    }
+
+    @Override public XmlSerializer endTag(String namespace, String name) throws IOException {
+        checkNamespace(namespace);
+        if (depth == 0 || !elementStack[depth - 1].equals(name)) {
+            throw new IllegalArgumentException("</" + name + "> does not close "
+                    + (depth == 0 ? "any element" : "<" + elementStack[depth - 1] + ">"));
+        }
+        elementStack[--depth] = null;
+        writeToken(XmlPullParser.END_TAG | TYPE_STRING_INTERNED);
+        writeInterned(name);
+        return this;
+    }
+
+    @Override public XmlSerializer attribute(String namespace, String name, String value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_STRING);
+        writeString(value);
+        return this;
+    }
+
+    /**
+     * Writes an attribute whose value is likely to repeat, such as an
+     * enumerated value, as an index into the string table.
+     */
+    public XmlSerializer attributeInterned(String namespace, String name, String value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_STRING_INTERNED);
+        writeInterned(value);
+        return this;
+    }
+
+    /**
+     * Writes an attribute that {@link BinaryXmlParser#getAttributeValue}
+     * renders as upper case hexadecimal digits.
+     */
+    public XmlSerializer attributeBytesHex(String namespace, String name, byte[] value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_BYTES_HEX);
+        writeLength(value.length);
+        writeBytes(value, 0, value.length);
+        return this;
+    }
+
+    /**
+     * Writes an attribute that {@link BinaryXmlParser#getAttributeValue}
+     * renders as Base64.
+     */
+    public XmlSerializer attributeBytesBase64(String namespace, String name, byte[] value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_BYTES_BASE64);
+        writeLength(value.length);
+        writeBytes(value, 0, value.length);
+        return this;
+    }
+
+    public XmlSerializer attributeInt(String namespace, String name, int value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_INT);
+        writeInt(value);
+        return this;
+    }
+
+    /**
+     * Writes an attribute that {@link BinaryXmlParser#getAttributeValue}
+     * renders with {@link Integer#toHexString}.
+     */
+    public XmlSerializer attributeIntHex(String namespace, String name, int value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_INT_HEX);
+        writeInt(value);
+        return this;
+    }
+
+    public XmlSerializer attributeLong(String namespace, String name, long value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_LONG);
+        writeLong(value);
+        return this;
+    }
+
+    /**
+     * Writes an attribute that {@link BinaryXmlParser#getAttributeValue}
+     * renders with {@link Long#toHexString}.
+     */
+    public XmlSerializer attributeLongHex(String namespace, String name, long value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_LONG_HEX);
+        writeLong(value);
+        return this;
+    }
+
+    public XmlSerializer attributeFloat(String namespace, String name, float value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_FLOAT);
+        writeInt(Float.floatToRawIntBits(value));
+        return this;
+    }
+
+    public XmlSerializer attributeDouble(String namespace, String name, double value)
+            throws IOException {
+        startAttribute(namespace, name, TYPE_DOUBLE);
+        writeLong(Double.doubleToRawLongBits(value));
+        return this;
+    }
+
+    public XmlSerializer attributeBoolean(String namespace, String name, boolean value)
+            throws IOException {
+        startAttribute(namespace, name, value ? TYPE_BOOLEAN_TRUE : TYPE_BOOLEAN_FALSE);
+        return this;
+    }
+
+    private void startAttribute(String namespace, String name, int type) throws IOException {
+        checkNamespace(namespace);
+        if (!inStartTag) {
+            throw new IllegalStateException("Attributes must directly follow a start tag");
+        }
+        ensureCapacity(1);
+        buffer[pos++] = (byte) (ATTRIBUTE | type);
+        writeInterned(name);
+    }
+
+    @Override public XmlSerializer text(String text) throws IOException {
+        writeToken(XmlPullParser.TEXT | TYPE_STRING);
+        writeString(text);
+        return this;
+    }
+
+    @Override public XmlSerializer text(char[] buf, int start, int len) throws IOException {
+        return text(new String(buf, start, len));
+    }
+
+    @Override public void cdsect(String text) throws IOException {
+        writeToken(XmlPullParser.CDSECT | TYPE_STRING);
+        writeString(text);
+    }
+
+    @Override public void entityRef(String text) throws IOException {
+        writeToken(XmlPullParser.ENTITY_REF | TYPE_STRING);
+        writeString(text);
+    }
+
+    @Override public void processingInstruction(String text) throws IOException {
+        writeToken(XmlPullParser.PROCESSING_INSTRUCTION | TYPE_STRING);
+        writeString(text);
+    }
+
+    @Override public void comment(String text) throws IOException {
+        writeToken(XmlPullParser.COMMENT | TYPE_STRING);
+        writeString(text);
+    }
+
+    @Override public void docdecl(String text) throws IOException {
+        writeToken(XmlPullParser.DOCDECL | TYPE_STRING);
+        writeString(text);
+    }
+
+    @Override public void ignorableWhitespace(String text) throws IOException {
+        writeToken(XmlPullParser.IGNORABLE_WHITESPACE | TYPE_STRING);
+        writeString(text);
+    }
+
+    @Override public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private static void checkNamespace(String namespace) {
+        if (namespace != null && !namespace.isEmpty()) {
+            throw new IllegalArgumentException("Namespaces are not supported: " + namespace);
+        }
+    }
+
+    private void writeToken(int token) throws IOException {
+        inStartTag = false;
+        ensureCapacity(1);
+        buffer[pos++] = (byte) token;
+    }
+
+    private void writeInterned(String s) throws IOException {
+        Integer index = interned.get(s);
+        if (index != null) {
+            writeShort(index);
+            return;
+        }
+        writeShort(MAX_UNSIGNED_SHORT);
+        writeString(s);
+        if (interned.size() < MAX_UNSIGNED_SHORT) {
+            interned.put(s, interned.size());
+        }
+    }
+
+    /**
+     * Writes {@code s} as length-prefixed UTF-8. Like {@link String#getBytes},
+     * this replaces unpaired surrogates with '?'.
+     */
+    private void writeString(String s) throws IOException {
+        final int length = s.length();
+        int utfLength = 0;
+        boolean ascii = true;
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                utfLength++;
+                continue;
+            }
+            ascii = false;
+            if (c < 0x800) {
+                utfLength += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                utfLength += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                utfLength++;
+            } else {
+                utfLength += 3;
+            }
+        }
+        writeLength(utfLength);
+
+        if (utfLength > BUFFER_LEN) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            writeBytes(bytes, 0, bytes.length);
+            return;
+        }
+        ensureCapacity(utfLength);
+        final byte[] buffer = this.buffer;
+        int p = pos;
+        if (ascii) {
+            for (int i = 0; i < length; i++) {
+                buffer[p++] = (byte) s.charAt(i);
+            }
+            pos = p;
+            return;
+        }
+        for (int i = 0; i < length; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                buffer[p++] = (byte) c;
+            } else if (c < 0x800) {
+                buffer[p++] = (byte) (0xc0 | (c >> 6));
+                buffer[p++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length
+                    && Character.isLowSurrogate(s.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, s.charAt(++i));
+                buffer[p++] = (byte) (0xf0 | (codePoint >> 18));
+                buffer[p++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                buffer[p++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                buffer[p++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else if (Character.isSurrogate(c)) {
+                buffer[p++] = '?';
+            } else {
+                buffer[p++] = (byte) (0xe0 | (c >> 12));
+                buffer[p++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                buffer[p++] = (byte) (0x80 | (c & 0x3f));
+            }
+        }
+        pos = p;
+    }
+
+    private void writeLength(int length) throws IOException {
+        if (length < MAX_UNSIGNED_SHORT) {
+            writeShort(length);
+        } else {
+            writeShort(MAX_UNSIGNED_SHORT);
+            writeInt(length);
+        }
+    }
+
+    private void writeShort(int value) throws IOException {
+        ensureCapacity(2);
+        buffer[pos++] = (byte) (value >> 8);
+        buffer[pos++] = (byte) value;
+    }
+
+    private void writeInt(int value) throws IOException {
+        ensureCapacity(4);
+        buffer[pos++] = (byte) (value >> 24);
+        buffer[pos++] = (byte) (value >> 16);
+        buffer[pos++] = (byte) (value >> 8);
+        buffer[pos++] = (byte) value;
+    }
+
+    private void writeLong(long value) throws IOException {
+        writeInt((int) (value >> 32));
+        writeInt((int) value);
+    }
+
+    private void writeBytes(byte[] bytes, int offset, int count) throws IOException {
+        if (count > BUFFER_LEN - pos) {
+            flushBuffer();
+            if (count > BUFFER_LEN) {
+                out.write(bytes, offset, count);
+                return;
+            }
+        }
+        System.arraycopy(bytes, offset, buffer, pos, count);
+        pos += count;
+    }
+
+    private void ensureCapacity(int count) throws IOException {
+        if (BUFFER_LEN - pos < count) {
+            flushBuffer();
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (pos > 0) {
+            out.write(buffer, 0, pos);
+            pos = 0;
+        }
+    }
+}
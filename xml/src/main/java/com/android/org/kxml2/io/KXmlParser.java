@@ -137,6 +137,8 @@ public class KXmlParser implements XmlPullParser, Closeable {
     // source
 
     private Reader reader;
+    // Android-added: Decode UTF-8 and ASCII input without a CharsetDecoder.
+    private ByteDecoder byteDecoder;
     private String encoding;
     private ContentSource nextContentSource;
     private char[] buffer = new char[8192];
@@ -1600,8 +1602,33 @@ public class KXmlParser implements XmlPullParser, Closeable {
         }
     }
 
+    // BEGIN Android-added: Document reuse.
+    /**
+     * Drops what is left of the previous document, which may have been
+     * abandoned part way through an entity or the DTD.
+     */
+    private void resetInput() {
+        while (nextContentSource != null) {
+            popContentSource();
+        }
+        position = 0;
+        limit = 0;
+        bufferCapture = null;
+        defaultAttributes = null;
+        rootElementName = null;
+        systemId = null;
+        publicId = null;
+        error = null;
+    }
+    // END Android-added: Document reuse.
+
     //  public part starts here...
 
+    /**
+     * Prepares this parser to parse a new document from {@code reader}.
+     * Features and the {@link #stringPool} are kept, so one parser may be
+     * reused for many documents.
+     */
     public void setInput(Reader reader) throws XmlPullParserException {
         this.reader = reader;
 
@@ -1619,17 +1646,26 @@ public class KXmlParser implements XmlPullParser, Closeable {
             return;
         }
 
-        position = 0;
-        limit = 0;
+        // Android-changed: Document reuse.
+        // position = 0;
+        // limit = 0;
+        resetInput();
         bufferStartLine = 0;
         bufferStartColumn = 0;
         depth = 0;
         documentEntities = null;
     }
 
+    /**
+     * Prepares this parser to parse a new document from {@code is}, as {@link
+     * #setInput(Reader)} does. UTF-8 and US-ASCII are decoded directly into
+     * the parser's buffer.
+     */
     public void setInput(InputStream is, String charset) throws XmlPullParserException {
-        position = 0;
-        limit = 0;
+        // Android-changed: Document reuse.
+        // position = 0;
+        // limit = 0;
+        resetInput();
         boolean detectCharset = (charset == null);
 
         if (is == null) {
@@ -1734,7 +1770,9 @@ public class KXmlParser implements XmlPullParser, Closeable {
             }
 
             int savedLimit = limit;
-            setInput(new InputStreamReader(is, charset));
+            // Android-changed: Decode UTF-8 and ASCII input without a CharsetDecoder.
+            // setInput(new InputStreamReader(is, charset));
+            setInput(newReader(is, charset));
             encoding = charset;
             limit = savedLimit;
 
@@ -1752,6 +1790,21 @@ public class KXmlParser implements XmlPullParser, Closeable {
         }
     }
 
+    // BEGIN Android-added: Decode UTF-8 and ASCII input without a CharsetDecoder.
+    private Reader newReader(InputStream is, String charset) throws IOException {
+        boolean utf8 = "UTF-8".equalsIgnoreCase(charset) || "UTF8".equalsIgnoreCase(charset);
+        boolean ascii = "US-ASCII".equalsIgnoreCase(charset) || "ASCII".equalsIgnoreCase(charset);
+        if (!utf8 && !ascii) {
+            return new InputStreamReader(is, charset);
+        }
+        if (byteDecoder == null) {
+            byteDecoder = new ByteDecoder();
+        }
+        byteDecoder.reset(is, ascii);
+        return byteDecoder;
+    }
+    // END Android-added: Decode UTF-8 and ASCII input without a CharsetDecoder.
+
     public void close() throws IOException {
         if (reader != null) {
             reader.close();
@@ -2111,6 +2164,162 @@ public class KXmlParser implements XmlPullParser, Closeable {
         }
     }
 
+    // BEGIN Android-added: Decode UTF-8 and ASCII input without a CharsetDecoder.
+    /**
+     * Decodes UTF-8 or US-ASCII straight into the parser's buffer. Like an
+     * {@link InputStreamReader}, this replaces malformed input with U+FFFD.
+     * The parser keeps one of these, and its byte buffer, for later documents.
+     */
+    private static final class ByteDecoder extends Reader {
+        private static final char REPLACEMENT = '\ufffd';
+
+        private final byte[] bytes = new byte[8192];
+        private InputStream in;
+        private boolean ascii;
+        private boolean eof;
+        private int position;
+        private int limit;
+
+        /** The second half of a surrogate pair that didn't fit in the last read. */
+        private char pendingLowSurrogate;
+
+        void reset(InputStream in, boolean ascii) {
+            this.in = in;
+            this.ascii = ascii;
+            eof = false;
+            position = 0;
+            limit = 0;
+            pendingLowSurrogate = 0;
+        }
+
+        @Override public int read(char[] chars, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            int c = offset;
+            int end = offset + length;
+            if (pendingLowSurrogate != 0) {
+                chars[c++] = pendingLowSurrogate;
+                pendingLowSurrogate = 0;
+            }
+            while (c < end) {
+                // The common case: a run of ASCII bytes.
+                int b;
+                while (position < limit && c < end && (b = bytes[position]) >= 0) {
+                    chars[c++] = (char) b;
+                    position++;
+                }
+                if (c == end) {
+                    break;
+                }
+
+                if (position == limit) {
+                    // Don't block for more bytes once we have some characters
+                    // to return.
+                    if (eof || c > offset) {
+                        break;
+                    }
+                    fill();
+                    continue;
+                }
+
+                int b0 = bytes[position] & 0xff;
+                int need;
+                int codePoint;
+                if (ascii) {
+                    need = -1;
+                    codePoint = 0;
+                } else if (b0 >= 0xc2 && b0 <= 0xdf) {
+                    need = 1;
+                    codePoint = b0 & 0x1f;
+                } else if (b0 >= 0xe0 && b0 <= 0xef) {
+                    need = 2;
+                    codePoint = b0 & 0x0f;
+                } else if (b0 >= 0xf0 && b0 <= 0xf4) {
+                    need = 3;
+                    codePoint = b0 & 0x07;
+                } else {
+                    need = -1;
+                    codePoint = 0;
+                }
+                if (need == -1) {
+                    chars[c++] = REPLACEMENT;
+                    position++;
+                    continue;
+                }
+
+                // Replace the lead byte and any valid continuation bytes with
+                // a single U+FFFD if the sequence is cut short.
+                int i = 1;
+                for (; i <= need && position + i < limit; i++) {
+                    int bi = bytes[position + i] & 0xff;
+                    int min = 0x80;
+                    int max = 0xbf;
+                    if (i == 1) {
+                        if (b0 == 0xe0) {
+                            min = 0xa0; // overlong
+                        } else if (b0 == 0xed) {
+                            max = 0x9f; // surrogate
+                        } else if (b0 == 0xf0) {
+                            min = 0x90; // overlong
+                        } else if (b0 == 0xf4) {
+                            max = 0x8f; // above U+10FFFF
+                        }
+                    }
+                    if (bi < min || bi > max) {
+                        break;
+                    }
+                    codePoint = (codePoint << 6) | (bi & 0x3f);
+                }
+                if (i <= need && position + i == limit && !eof) {
+                    // The rest of the sequence hasn't been read yet. Decode it
+                    // again from the lead byte once it has.
+                    if (c > offset) {
+                        break;
+                    }
+                    fill();
+                    continue;
+                }
+                position += i;
+                if (i <= need) {
+                    chars[c++] = REPLACEMENT;
+                } else if (codePoint < 0x10000) {
+                    chars[c++] = (char) codePoint;
+                } else {
+                    chars[c++] = Character.highSurrogate(codePoint);
+                    if (c < end) {
+                        chars[c++] = Character.lowSurrogate(codePoint);
+                    } else {
+                        pendingLowSurrogate = Character.lowSurrogate(codePoint);
+                    }
+                }
+            }
+            return c == offset ? -1 : c - offset;
+        }
+
+        /**
+         * Moves the unread bytes to the front of the buffer and reads more
+         * after them, setting {@link #eof} if there are no more.
+         */
+        private void fill() throws IOException {
+            int remaining = limit - position;
+            System.arraycopy(bytes, position, bytes, 0, remaining);
+            position = 0;
+            limit = remaining;
+            int count = in.read(bytes, limit, bytes.length - limit);
+            if (count == -1) {
+                eof = true;
+            } else {
+                limit += count;
+            }
+        }
+
+        @Override public void close() throws IOException {
+            in.close();
+        }
+    }
+    // END Android-added: Decode UTF-8 and ASCII input without a CharsetDecoder.
+
     /**
      * A chain of buffers containing XML content. Each content source contains
      * the parser's primary read buffer or the characters of entities actively
@@ -35,6 +35,14 @@ public class KXmlSerializer implements XmlSerializer {
     //    static final String UNDEFINED = ":";
 
     private Writer writer;
+    // BEGIN Android-added: Encode UTF-8 and ASCII output without a CharsetEncoder.
+    /** The stream to encode into, or null if {@link #writer} is used instead. */
+    private OutputStream out;
+    /** True to encode ASCII rather than UTF-8 into {@link #out}. */
+    private boolean ascii;
+    /** Encoded bytes, kept for the next document. */
+    private byte[] mBytes;
+    // END Android-added: Encode UTF-8 and ASCII output without a CharsetEncoder.
 
     private boolean pending;
     private int auto;
@@ -94,6 +102,12 @@ public class KXmlSerializer implements XmlSerializer {
     }
 
     private final void flushBuffer() throws IOException {
+        // BEGIN Android-added: Encode UTF-8 and ASCII output without a CharsetEncoder.
+        if (out != null) {
+            encodeBuffer();
+            return;
+        }
+        // END Android-added: Encode UTF-8 and ASCII output without a CharsetEncoder.
         if(mPos > 0) {
             writer.write(mText, 0, mPos);
             writer.flush();
@@ -101,6 +115,65 @@ public class KXmlSerializer implements XmlSerializer {
         }
     }
 
+    // BEGIN Android-added: Encode UTF-8 and ASCII output without a CharsetEncoder.
+    /**
+     * Encodes the buffered characters to {@link #out}. Like an {@link
+     * OutputStreamWriter}, this writes '?' for characters that can't be
+     * encoded. A high surrogate at the end of the buffer is kept for the next
+     * call, since its low surrogate hasn't been appended yet.
+     */
+    private void encodeBuffer() throws IOException {
+        int end = mPos;
+        if (end > 0 && Character.isHighSurrogate(mText[end - 1])) {
+            end--;
+        }
+        if (mBytes == null) {
+            // Enough for the longest encoding of every char.
+            mBytes = new byte[BUFFER_LEN * 3];
+        }
+        byte[] bytes = mBytes;
+        int count = 0;
+        for (int i = 0; i < end; i++) {
+            char c = mText[i];
+            if (c < 0x80) {
+                bytes[count++] = (byte) c;
+            } else if (ascii) {
+                if (Character.isHighSurrogate(c) && i + 1 < end
+                        && Character.isLowSurrogate(mText[i + 1])) {
+                    i++;
+                }
+                bytes[count++] = '?';
+            } else if (c < 0x800) {
+                bytes[count++] = (byte) (0xc0 | (c >> 6));
+                bytes[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (!Character.isSurrogate(c)) {
+                bytes[count++] = (byte) (0xe0 | (c >> 12));
+                bytes[count++] = (byte) (0x80 | ((c >> 6) & 0x3f));
+                bytes[count++] = (byte) (0x80 | (c & 0x3f));
+            } else if (Character.isHighSurrogate(c) && i + 1 < end
+                    && Character.isLowSurrogate(mText[i + 1])) {
+                int codePoint = Character.toCodePoint(c, mText[++i]);
+                bytes[count++] = (byte) (0xf0 | (codePoint >> 18));
+                bytes[count++] = (byte) (0x80 | ((codePoint >> 12) & 0x3f));
+                bytes[count++] = (byte) (0x80 | ((codePoint >> 6) & 0x3f));
+                bytes[count++] = (byte) (0x80 | (codePoint & 0x3f));
+            } else {
+                bytes[count++] = '?';
+            }
+        }
+        if (count > 0) {
+            out.write(bytes, 0, count);
+        }
+        out.flush();
+        if (end < mPos) {
+            mText[0] = mText[end];
+            mPos = 1;
+        } else {
+            mPos = 0;
+        }
+    }
+    // END Android-added: Encode UTF-8 and ASCII output without a CharsetEncoder.
+
     private final void check(boolean close) throws IOException {
         if (!pending)
             return;
@@ -352,8 +425,18 @@ public class KXmlSerializer implements XmlSerializer {
         nspStack[pos] = namespace;
     }
 
+    /**
+     * Prepares this serializer to write a new document to {@code writer},
+     * discarding anything buffered for the previous one. Features such as
+     * indentation are kept.
+     */
     public void setOutput(Writer writer) {
         this.writer = writer;
+        // BEGIN Android-added: Document reuse.
+        this.out = null;
+        this.encoding = null;
+        mPos = 0;
+        // END Android-added: Document reuse.
 
         // elementStack = new String[12]; //nsp/prefix/name
         //nspCounts = new int[4];
@@ -373,14 +456,35 @@ public class KXmlSerializer implements XmlSerializer {
         unicode = false;
     }
 
+    /**
+     * Prepares this serializer to write a new document to {@code os}, as
+     * {@link #setOutput(Writer)} does. UTF-8 and US-ASCII are encoded directly
+     * into a byte buffer kept for later documents.
+     */
     public void setOutput(OutputStream os, String encoding)
         throws IOException {
         if (os == null)
             throw new IllegalArgumentException("os == null");
+        // BEGIN Android-changed: Encode UTF-8 and ASCII output without a CharsetEncoder.
+        /*
         setOutput(
             encoding == null
                 ? new OutputStreamWriter(os)
                 : new OutputStreamWriter(os, encoding));
+        */
+        boolean utf8 = "UTF-8".equalsIgnoreCase(encoding) || "UTF8".equalsIgnoreCase(encoding);
+        boolean ascii = "US-ASCII".equalsIgnoreCase(encoding) || "ASCII".equalsIgnoreCase(encoding);
+        if (utf8 || ascii) {
+            setOutput((Writer) null);
+            this.out = os;
+            this.ascii = ascii;
+        } else {
+            setOutput(
+                encoding == null
+                    ? new OutputStreamWriter(os)
+                    : new OutputStreamWriter(os, encoding));
+        }
+        // END Android-changed: Encode UTF-8 and ASCII output without a CharsetEncoder.
         this.encoding = encoding;
         if (encoding != null && encoding.toLowerCase(Locale.US).startsWith("utf")) {
             unicode = true;